@@ -17,7 +17,6 @@ import java.util.HashSet;
 import java.util.Set;
 
 import static com.auctions.hunters.utils.DateUtils.getDateTime;
-import static java.lang.Boolean.FALSE;
 
 @Slf4j
 @SpringBootApplication
@@ -65,7 +64,7 @@ public class AuctionsHunters implements CommandLineRunner {
             Set<Role> set = new HashSet<>();
             set.add(role);
 
-            User admin = new User(adminData, adminData, adminEmail, adminCityAddress, adminPhoneNumber, set, FALSE);
+            User admin = new User(adminData, adminData, adminEmail, adminCityAddress, adminPhoneNumber, set);
 
             admin.setLocked(false);
             admin.setEnabled(true);
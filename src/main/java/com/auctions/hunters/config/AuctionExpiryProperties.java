@@ -0,0 +1,16 @@
+package com.auctions.hunters.config;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+@Getter
+@Configuration
+public class AuctionExpiryProperties {
+
+    @Value("${auctions.expiry.batch-size:200}")
+    private int batchSize; //the maximum number of auctions closed by one update
+
+    @Value("${auctions.expiry.retry-delay-ms:5000}")
+    private long retryDelayMillis; //the delay after which a failed batch is closed again
+}
@@ -0,0 +1,37 @@
+package com.auctions.hunters.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills the {@code bid_count} column of the auctions saved before the column existed, from their rows in the
+ * {@code bid} table. Only the auctions still counting no bid are counted and updated, so the counts kept by the saved
+ * bids since then are never overwritten, and once the column is filled a startup only reads the auctions without bids.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class BidCountInitializer implements ApplicationRunner {
+
+    static final String BACKFILL_SQL = "UPDATE auction a SET bid_count = c.bids " +
+            "FROM (SELECT b.auction_id, COUNT(*) AS bids FROM bid b " +
+            "JOIN auction z ON z.id = b.auction_id AND z.bid_count = 0 GROUP BY b.auction_id) c " +
+            "WHERE c.auction_id = a.id AND a.bid_count = 0";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BidCountInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int updatedAuctions = jdbcTemplate.update(BACKFILL_SQL);
+        log.debug("Filled the bid count of {} auctions.", updatedAuctions);
+    }
+}
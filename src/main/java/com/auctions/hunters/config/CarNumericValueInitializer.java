@@ -0,0 +1,49 @@
+package com.auctions.hunters.config;
+
+import com.auctions.hunters.service.car.CarNumericField;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills the typed numeric columns of the cars saved before the columns existed, from their decoded text columns, the
+ * way {@link CarNumericField} parses them for the new cars. Only the values still missing and whose text has a digit
+ * are filled, so once the columns are filled a startup updates no row.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class CarNumericValueInitializer implements ApplicationRunner {
+
+    static final String BACKFILL_SQL = "UPDATE car SET " +
+            "model_year_value = COALESCE(model_year_value, " + number("model_year") + "), " +
+            "engine_power_value = COALESCE(engine_power_value, " + number("engine_power") + "), " +
+            "engine_displacement_value = COALESCE(engine_displacement_value, " + number("engine_displacement") + "), " +
+            "max_speed_value = COALESCE(max_speed_value, " + number("max_speed") + "), " +
+            "empty_weight_value = COALESCE(empty_weight_value, " + number("empty_weight") + ") " +
+            "WHERE (model_year_value IS NULL AND model_year ~ '[0-9]') " +
+            "OR (engine_power_value IS NULL AND engine_power ~ '[0-9]') " +
+            "OR (engine_displacement_value IS NULL AND engine_displacement ~ '[0-9]') " +
+            "OR (max_speed_value IS NULL AND max_speed ~ '[0-9]') " +
+            "OR (empty_weight_value IS NULL AND empty_weight ~ '[0-9]')";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CarNumericValueInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int updatedCars = jdbcTemplate.update(BACKFILL_SQL);
+        log.debug("Filled the numeric values of {} cars.", updatedCars);
+    }
+
+    private static String number(String column) {
+        return "CAST(substring(" + column + " FROM '" + CarNumericField.NUMBER_REGEX + "') AS INTEGER)";
+    }
+}
@@ -0,0 +1,42 @@
+package com.auctions.hunters.config;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Locale;
+
+@Getter
+@Configuration
+public class EmailOutboxProperties {
+
+    @Value("${auctions.email.workers:4}")
+    private int workers; //the number of threads talking to the mail server
+
+    @Value("${auctions.email.batch-size:50}")
+    private int batchSize; //the maximum number of emails claimed by one dispatch round
+
+    @Value("${auctions.email.max-attempts:6}")
+    private int maxAttempts; //after this many failed attempts the email is dead-lettered
+
+    @Value("${auctions.email.backoff-ms:30000}")
+    private long backoffMillis; //the delay before the first retry, doubled after every failed attempt
+
+    @Value("${auctions.email.max-backoff-ms:3600000}")
+    private long maxBackoffMillis; //the longest delay between two attempts
+
+    @Value("${auctions.email.lease-ms:300000}")
+    private long leaseMillis; //a claimed email is claimed again after this delay if its dispatcher died
+
+    @Value("${auctions.email.smtp.pool-size:4}")
+    private int smtpPoolSize; //the maximum number of open connections to the mail server
+
+    @Value("${auctions.email.smtp.messages-per-connection:100}")
+    private int messagesPerConnection; //a connection is closed after sending this many messages
+
+    @Value("${auctions.email.smtp.idle-timeout-ms:30000}")
+    private long connectionIdleTimeoutMillis; //an idle connection older than this is closed instead of reused
+
+    @Value("${auctions.email.locale:ro}")
+    private Locale locale; //the language of the emails
+}
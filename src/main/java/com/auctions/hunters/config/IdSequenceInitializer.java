@@ -0,0 +1,49 @@
+package com.auctions.hunters.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Moves the id sequences of the entities ahead of the ids already stored in their tables, before any other startup
+ * code inserts rows. The entities used to take their ids from identity columns, so on an existing database the new
+ * sequences start behind the stored ids. A sequence is never moved backwards, since another instance of the
+ * application may already use the ids it allocated.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class IdSequenceInitializer implements ApplicationRunner {
+
+    static final int ALLOCATION_SIZE = 50; //must match the allocationSize of the sequence generators
+
+    static final Map<String, String> SEQUENCES_BY_TABLE = Map.of(
+            "auction", "auction_id_sequence",
+            "bid", "bid_id_sequence",
+            "car", "car_id_sequence",
+            "image", "image_id_sequence",
+            "users", "user_id_sequence");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdSequenceInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        SEQUENCES_BY_TABLE.forEach((table, sequence) -> {
+            //the pooled optimizer hands out the ids below the value returned by the sequence
+            Long nextBlockEnd = jdbcTemplate.queryForObject(String.format(
+                    "SELECT setval('%1$s', GREATEST((SELECT last_value FROM %1$s), COALESCE((SELECT MAX(id) FROM %2$s), 0) + %3$d))",
+                    sequence, table, ALLOCATION_SIZE), Long.class);
+            log.debug("Sequence {} is at {}.", sequence, nextBlockEnd);
+        });
+    }
+}
@@ -0,0 +1,16 @@
+package com.auctions.hunters.config;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+@Getter
+@Configuration
+public class ListingProperties {
+
+    @Value("${auctions.listing.page-size:10}")
+    private int pageSize; //the number of rows of a page of the auction and car listings
+
+    @Value("${auctions.listing.statistics-ttl-ms:60000}")
+    private long statisticsTtlMillis; //how long the approximate totals shown by the listings are served from memory
+}
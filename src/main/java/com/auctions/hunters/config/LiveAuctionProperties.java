@@ -0,0 +1,19 @@
+package com.auctions.hunters.config;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+@Getter
+@Configuration
+public class LiveAuctionProperties {
+
+    @Value("${auctions.live.lanes:4}")
+    private int lanes; //the number of single-writer threads the live auctions are sharded on
+
+    @Value("${auctions.live.flush-batch-size:500}")
+    private int flushBatchSize; //the maximum number of bids persisted by one transaction
+
+    @Value("${auctions.live.flush-interval-ms:50}")
+    private long flushIntervalMillis; //the delay between two persistence rounds
+}
@@ -0,0 +1,25 @@
+package com.auctions.hunters.config;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+@Getter
+@Configuration
+public class RecommendationProperties {
+
+    @Value("${auctions.recommendation.max-neighbours-per-user:256}")
+    private int maxNeighboursPerUser; //the number of co-bidders kept in memory for a user, the least frequent are evicted
+
+    @Value("${auctions.recommendation.minhash-bands:16}")
+    private int minHashBands; //the number of LSH bands of the minhash strategy, more bands find more distant neighbours
+
+    @Value("${auctions.recommendation.minhash-rows:2}")
+    private int minHashRows; //the number of signature values per LSH band, more rows make the buckets more selective
+
+    @Value("${auctions.recommendation.precompute-after-bids:1000}")
+    private int precomputeAfterBids; //the number of saved bids that triggers a precompute before its interval
+
+    @Value("${auctions.recommendation.precompute-parallelism:0}")
+    private int precomputeParallelism; //the number of threads computing the recommendations, 0 for one per processor
+}
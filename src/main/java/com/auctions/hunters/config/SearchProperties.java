@@ -0,0 +1,19 @@
+package com.auctions.hunters.config;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+@Getter
+@Configuration
+public class SearchProperties {
+
+    @Value("${auctions.search.max-edits:2}")
+    private int maxEdits; //the most typos tolerated in a searched word, fewer are tolerated in the short words
+
+    @Value("${auctions.search.min-prefix-length:2}")
+    private int minPrefixLength; //the shortest searched word that also matches the longer words it starts
+
+    @Value("${auctions.search.facet-size:10}")
+    private int facetSize; //the most values shown by a facet of the search, the most frequent first
+}
@@ -0,0 +1,16 @@
+package com.auctions.hunters.config;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+@Getter
+@Configuration
+public class TopBidAuctionsProperties {
+
+    @Value("${auctions.top-bid.cache-ttl-ms:10000}")
+    private long cacheTtlMillis; //how long the ids of the auctions with the most bids are served from memory
+
+    @Value("${auctions.top-bid.homepage-size:4}")
+    private int homepageSize; //the number of auctions with the most bids shown on the homepage
+}
@@ -1,24 +1,33 @@
 package com.auctions.hunters.controller;
 
+import com.auctions.hunters.config.ListingProperties;
+import com.auctions.hunters.exceptions.ResourceNotFoundException;
 import com.auctions.hunters.model.Auction;
 import com.auctions.hunters.model.Car;
 import com.auctions.hunters.model.User;
+import com.auctions.hunters.model.enums.CarCategory;
+import com.auctions.hunters.model.projection.AuctionListingView;
+import com.auctions.hunters.service.auction.AuctionFacetIndex;
 import com.auctions.hunters.service.auction.AuctionService;
 import com.auctions.hunters.service.car.CarService;
+import com.auctions.hunters.service.car.CarTextIndex;
 import com.auctions.hunters.service.car.SearchCriteria;
 import com.auctions.hunters.service.car.vincario.CarPriceAnalysis;
 import com.auctions.hunters.service.ml.RecommendationServiceImpl;
 import com.auctions.hunters.service.user.UserService;
+import com.auctions.hunters.utils.KeysetRequest;
+import com.auctions.hunters.utils.KeysetSlice;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import java.security.NoSuchAlgorithmException;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.IntStream;
 
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
@@ -33,17 +42,26 @@ public class AuctionController {
     private final UserService userService;
     private final RecommendationServiceImpl recommendationService;
     private final CarPriceAnalysis carPriceAnalysis;
+    private final ListingProperties listingProperties;
+    private final CarTextIndex carTextIndex;
+    private final AuctionFacetIndex auctionFacetIndex;
 
     public AuctionController(CarService carService,
                              AuctionService auctionService,
                              UserService userService,
                              RecommendationServiceImpl recommendationService,
-                             CarPriceAnalysis carPriceAnalysis) {
+                             CarPriceAnalysis carPriceAnalysis,
+                             ListingProperties listingProperties,
+                             CarTextIndex carTextIndex,
+                             AuctionFacetIndex auctionFacetIndex) {
         this.carService = carService;
         this.auctionService = auctionService;
         this.userService = userService;
         this.recommendationService = recommendationService;
         this.carPriceAnalysis = carPriceAnalysis;
+        this.listingProperties = listingProperties;
+        this.carTextIndex = carTextIndex;
+        this.auctionFacetIndex = auctionFacetIndex;
     }
 
     @GetMapping("/create/auction/car/{id}")
@@ -76,7 +94,31 @@ public class AuctionController {
 
     @GetMapping("/auctions")
     public String getAuctions(
-            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "before", required = false) String before,
+            Model modelAtr) {
+
+        String loggedUsername = userService.getLoggedUsername();
+        User user = userService.findByUsername(loggedUsername);
+
+        //retrieve a slice of ACTIVE auctions that DO NOT belong to the authenticated user, from the cursor received
+        KeysetRequest keysetRequest = KeysetRequest.of(after, before, listingProperties.getPageSize());
+        KeysetSlice<AuctionListingView> listingSlice = auctionService.getActiveAuctionListings(user.getId(), keysetRequest);
+        if (listingSlice.isEmpty() && keysetRequest.isFirst()) {
+            return "/no_car";
+        }
+
+        modelAtr.addAttribute("listingPage", listingSlice);
+        modelAtr.addAttribute("listingPath", "/auctions");
+        modelAtr.addAttribute("facets", auctionFacetIndex.getFacetCounts());
+
+        return "/auction_listing";
+    }
+
+    @GetMapping("/auctions/search")
+    public String searchAuctions(
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "before", required = false) String before,
             @RequestParam(value = "producer", required = false) String producer,
             @RequestParam(value = "model", required = false) String model,
             @RequestParam(value = "minYear", required = false) Integer minYear,
@@ -85,50 +127,26 @@ public class AuctionController {
             @RequestParam(value = "maxPrice", required = false) Integer maxPrice,
             Model modelAtr) {
 
-        CarsListPaginator pager = (page1, producer1, model1, minYear1, maxYear1, minPrice1, maxPrice1, modelAtr1) -> {
-            String loggedUsername = userService.getLoggedUsername();
-            User user = userService.findByUsername(loggedUsername);
-
-            SearchCriteria searchCriteria = new SearchCriteria();
-            Specification<Car> carSpecification = searchCriteria.buildSpec(producer1, model1, minYear1, maxYear1, minPrice1, maxPrice1);
-
-            //filter for displaying only the cars that DO NOT MATCH the authenticated user id
-            carSpecification = carSpecification.and((root, query, criteriaBuilder) -> criteriaBuilder.notEqual(root.get("user"), user));
-
-            //retrieve all ACTIVE auctions
-            Page<Car> carPage = carService.getCarPage(page1, carSpecification);
-            List<Auction> allActiveAuctionsList = auctionService.findAllActiveAuctions();
-            if (allActiveAuctionsList.isEmpty()) {
-                return "/no_car";
-            }
-
-            //get the cars from the auctions
-            List<Car> carList = allActiveAuctionsList.stream()
-                    .map(Auction::getCar)
-                    .toList();
-
-            Page<Car> updatedPage = new PageImpl<>(carList, carPage.getPageable(), carPage.getTotalElements() - carList.size());
-            int totalPages = updatedPage.getTotalPages();
-
-            if (totalPages > 0) {
-                List<Integer> pageNumbers = IntStream.rangeClosed(0, totalPages - 1)
-                        .boxed()
-                        .toList();
+        String loggedUsername = userService.getLoggedUsername();
+        User user = userService.findByUsername(loggedUsername);
 
-                //set the minimum price for each car
-                List<Float> auctionsMinimumPriceList = auctionService.setCurrentPriceForEachCarPage(updatedPage);
+        //the price is filtered on the auctions, in the order of their price, and not through the cars
+        SearchCriteria searchCriteria = new SearchCriteria();
+        Specification<Car> carSpecification = searchCriteria.buildSpec(carTextIndex, producer, model, minYear, maxYear, null, null);
 
-                modelAtr1.addAttribute("carPage", updatedPage);
-                modelAtr1.addAttribute("currentPage", page1);
-                modelAtr1.addAttribute("pageNumbers", pageNumbers);
-                modelAtr1.addAttribute("auctionsMinimumPriceList", auctionsMinimumPriceList);
-                modelAtr1.addAttribute("allActiveAuctionsList", allActiveAuctionsList);
-            }
+        //retrieve a slice of ACTIVE auctions that DO NOT belong to the authenticated user, the cheapest first
+        KeysetRequest keysetRequest = KeysetRequest.of(after, before, listingProperties.getPageSize());
+        KeysetSlice<AuctionListingView> listingSlice = auctionService.getActiveAuctionListingsByPrice(user.getId(), carSpecification,
+                minPrice == null ? null : minPrice.floatValue(), maxPrice == null ? null : maxPrice.floatValue(), keysetRequest);
+        if (listingSlice.isEmpty() && keysetRequest.isFirst()) {
+            return "/no_car";
+        }
 
-            return "/auction_list";
-        };
+        modelAtr.addAttribute("listingPage", listingSlice);
+        modelAtr.addAttribute("listingPath", listingPath("/auctions/search", producer, model, minYear, maxYear, minPrice, maxPrice));
+        modelAtr.addAttribute("facets", auctionFacetIndex.getFacetCounts());
 
-        return pager.createPaginationListForCars(page, producer, model, minYear, maxYear, minPrice, maxPrice, modelAtr);
+        return "/auction_listing";
     }
 
     @GetMapping("/auctions/recommended")
@@ -154,14 +172,13 @@ public class AuctionController {
             }
 
             SearchCriteria searchCriteria = new SearchCriteria();
-            Specification<Car> carSpecification = searchCriteria.buildSpec(producer1, model1, minYear1, maxYear1, minPrice1, maxPrice1);
+            Specification<Car> carSpecification = searchCriteria.buildSpec(carTextIndex, producer1, model1, minYear1, maxYear1, minPrice1, maxPrice1);
             carSpecification = carSpecification.and((root, query, criteriaBuilder) -> criteriaBuilder.notEqual(root.get("user"), user));
 
             // Modify carSpecification to include the condition
             carSpecification = carSpecification.and((root, query, criteriaBuilder) -> root.in(recommendedAuctionedCarsList));
 
-            Page<Car> carPage = carService.getCarPage(page1, carSpecification);
-            Page<Car> updatedCarPage = auctionService.manageFinishedAuctions(user, carPage);
+            Page<Car> updatedCarPage = carService.getCarPage(page1, carSpecification);
 
             int totalPages = updatedCarPage.getTotalPages();
 
@@ -214,7 +231,7 @@ public class AuctionController {
             }
 
             SearchCriteria searchCriteria = new SearchCriteria();
-            Specification<Car> carSpecification = searchCriteria.buildSpec(producer1, model1, minYear1, maxYear1, minPrice1, maxPrice1);
+            Specification<Car> carSpecification = searchCriteria.buildSpec(carTextIndex, producer1, model1, minYear1, maxYear1, minPrice1, maxPrice1);
             carSpecification = carSpecification.and((root, query, criteriaBuilder) -> criteriaBuilder.notEqual(root.get("user"), user));
 
             // Modify carSpecification to include the condition
@@ -246,9 +263,11 @@ public class AuctionController {
         return pager.createPaginationListForCars(page, producer, model, minYear, maxYear, minPrice, maxPrice, modelAtr);
     }
 
-    @GetMapping("/auctions/suv/cars")
-    public String getAuctionsWithSuvCars(
-            @RequestParam(defaultValue = "0") int page,
+    @GetMapping("/auctions/{category}/cars")
+    public String getAuctionsByCategory(
+            @PathVariable String category,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "before", required = false) String before,
             @RequestParam(value = "producer", required = false) String producer,
             @RequestParam(value = "model", required = false) String model,
             @RequestParam(value = "minYear", required = false) Integer minYear,
@@ -257,189 +276,56 @@ public class AuctionController {
             @RequestParam(value = "maxPrice", required = false) Integer maxPrice,
             Model modelAtr) {
 
-        final String bodyType = "SUV";
-        List<Car> allCoupeCars = carService.getAllCarsByBodyType(bodyType);
-        return getAuctionsWithSpecificCars(page, producer, model, minYear, maxYear, minPrice, maxPrice, modelAtr, allCoupeCars);
-    }
+        CarCategory carCategory = CarCategory.fromPath(category)
+                .orElseThrow(() -> new ResourceNotFoundException("Category", "name", category));
 
-    @GetMapping("/auctions/sedan/cars")
-    public String getAuctionsWithSedanCars(
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(value = "producer", required = false) String producer,
-            @RequestParam(value = "model", required = false) String model,
-            @RequestParam(value = "minYear", required = false) Integer minYear,
-            @RequestParam(value = "maxYear", required = false) Integer maxYear,
-            @RequestParam(value = "minPrice", required = false) Integer minPrice,
-            @RequestParam(value = "maxPrice", required = false) Integer maxPrice,
-            Model modelAtr) {
+        //the listing is only filtered when a filter is given, so that it keeps the total of the category
+        Specification<Car> carSpecification = null;
+        if (isFiltered(producer, model, minYear, maxYear, minPrice, maxPrice)) {
+            SearchCriteria searchCriteria = new SearchCriteria();
+            carSpecification = searchCriteria.buildSpec(carTextIndex, producer, model, minYear, maxYear, minPrice, maxPrice);
+        }
 
-        final String bodyType = "Sedan/Saloon";
-        List<Car> allSedanCars = carService.getAllCarsByBodyType(bodyType);
+        //retrieve a slice of the ACTIVE auctions of the cars with the body type of the category, from the cursor received
+        KeysetRequest keysetRequest = KeysetRequest.of(after, before, listingProperties.getPageSize());
+        KeysetSlice<AuctionListingView> listingSlice =
+                auctionService.getActiveAuctionListingsByBodyType(carCategory.getBody(), carSpecification, keysetRequest);
 
-        if (allSedanCars.isEmpty()) {
+        if (listingSlice.isEmpty() && keysetRequest.isFirst()) {
             return "/no_car_for_category";
         }
 
-        return getAuctionsWithSpecificCars(page, producer, model, minYear, maxYear, minPrice, maxPrice, modelAtr, allSedanCars);
-    }
-
-    @GetMapping("/auctions/pickup/cars")
-    public String getAuctionsWithPickupCars(
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(value = "producer", required = false) String producer,
-            @RequestParam(value = "model", required = false) String model,
-            @RequestParam(value = "minYear", required = false) Integer minYear,
-            @RequestParam(value = "maxYear", required = false) Integer maxYear,
-            @RequestParam(value = "minPrice", required = false) Integer minPrice,
-            @RequestParam(value = "maxPrice", required = false) Integer maxPrice,
-            Model modelAtr) {
-
-        final String bodyType = "Pickup";
-        List<Car> allSedanCars = carService.getAllCarsByBodyType(bodyType);
-        return getAuctionsWithSpecificCars(page, producer, model, minYear, maxYear, minPrice, maxPrice, modelAtr, allSedanCars);
-    }
-
-    @GetMapping("/auctions/coupe/cars")
-    public String getAuctionsWithCoupeCars(
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(value = "producer", required = false) String producer,
-            @RequestParam(value = "model", required = false) String model,
-            @RequestParam(value = "minYear", required = false) Integer minYear,
-            @RequestParam(value = "maxYear", required = false) Integer maxYear,
-            @RequestParam(value = "minPrice", required = false) Integer minPrice,
-            @RequestParam(value = "maxPrice", required = false) Integer maxPrice,
-            Model modelAtr) {
-
-        final String bodyType = "Coupe";
-        List<Car> allCoupeCars = carService.getAllCarsByBodyType(bodyType);
-        return getAuctionsWithSpecificCars(page, producer, model, minYear, maxYear, minPrice, maxPrice, modelAtr, allCoupeCars);
-    }
-
-    @GetMapping("/auctions/convertible/cars")
-    public String getAuctionsWithConvertibleCars(
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(value = "producer", required = false) String producer,
-            @RequestParam(value = "model", required = false) String model,
-            @RequestParam(value = "minYear", required = false) Integer minYear,
-            @RequestParam(value = "maxYear", required = false) Integer maxYear,
-            @RequestParam(value = "minPrice", required = false) Integer minPrice,
-            @RequestParam(value = "maxPrice", required = false) Integer maxPrice,
-            Model modelAtr) {
-
-        final String bodyType = "Convertible";
-        List<Car> allCoupeCars = carService.getAllCarsByBodyType(bodyType);
-        return getAuctionsWithSpecificCars(page, producer, model, minYear, maxYear, minPrice, maxPrice, modelAtr, allCoupeCars);
-    }
-
-    @GetMapping("/auctions/roadster/cars")
-    public String getAuctionsWithRoadsterCars(
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(value = "producer", required = false) String producer,
-            @RequestParam(value = "model", required = false) String model,
-            @RequestParam(value = "minYear", required = false) Integer minYear,
-            @RequestParam(value = "maxYear", required = false) Integer maxYear,
-            @RequestParam(value = "minPrice", required = false) Integer minPrice,
-            @RequestParam(value = "maxPrice", required = false) Integer maxPrice,
-            Model modelAtr) {
-
-        final String bodyType = "Roadster";
-        List<Car> allCoupeCars = carService.getAllCarsByBodyType(bodyType);
-        return getAuctionsWithSpecificCars(page, producer, model, minYear, maxYear, minPrice, maxPrice, modelAtr, allCoupeCars);
-    }
-
-    @GetMapping("/auctions/hatchback/cars")
-    public String getAuctionsWithHatchbackCars(
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(value = "producer", required = false) String producer,
-            @RequestParam(value = "model", required = false) String model,
-            @RequestParam(value = "minYear", required = false) Integer minYear,
-            @RequestParam(value = "maxYear", required = false) Integer maxYear,
-            @RequestParam(value = "minPrice", required = false) Integer minPrice,
-            @RequestParam(value = "maxPrice", required = false) Integer maxPrice,
-            Model modelAtr) {
-
-        final String bodyType = "Hatchback";
-        List<Car> allCoupeCars = carService.getAllCarsByBodyType(bodyType);
-        return getAuctionsWithSpecificCars(page, producer, model, minYear, maxYear, minPrice, maxPrice, modelAtr, allCoupeCars);
-    }
-
-    @GetMapping("/auctions/minivan/cars")
-    public String getAuctionsWithMinivanCars(
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(value = "producer", required = false) String producer,
-            @RequestParam(value = "model", required = false) String model,
-            @RequestParam(value = "minYear", required = false) Integer minYear,
-            @RequestParam(value = "maxYear", required = false) Integer maxYear,
-            @RequestParam(value = "minPrice", required = false) Integer minPrice,
-            @RequestParam(value = "maxPrice", required = false) Integer maxPrice,
-            Model modelAtr) {
+        modelAtr.addAttribute("listingPage", listingSlice);
+        modelAtr.addAttribute("listingPath", listingPath("/auctions/" + carCategory.getPath() + "/cars",
+                producer, model, minYear, maxYear, minPrice, maxPrice));
+        modelAtr.addAttribute("facets", auctionFacetIndex.getFacetCounts());
 
-        final String bodyType = "Minivan";
-        List<Car> allCoupeCars = carService.getAllCarsByBodyType(bodyType);
-        return getAuctionsWithSpecificCars(page, producer, model, minYear, maxYear, minPrice, maxPrice, modelAtr, allCoupeCars);
+        return "/auction_listing";
     }
 
-    @GetMapping("/auctions/wagon/cars")
-    public String getAuctionsWithWagonCars(
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(value = "producer", required = false) String producer,
-            @RequestParam(value = "model", required = false) String model,
-            @RequestParam(value = "minYear", required = false) Integer minYear,
-            @RequestParam(value = "maxYear", required = false) Integer maxYear,
-            @RequestParam(value = "minPrice", required = false) Integer minPrice,
-            @RequestParam(value = "maxPrice", required = false) Integer maxPrice,
-            Model modelAtr) {
-
-        final String bodyType = "Wagon";
-        List<Car> allCoupeCars = carService.getAllCarsByBodyType(bodyType);
-        return getAuctionsWithSpecificCars(page, producer, model, minYear, maxYear, minPrice, maxPrice, modelAtr, allCoupeCars);
+    /**
+     * Tells whether any filter of the search is given, the blank texts being ignored like {@link SearchCriteria} does.
+     */
+    private static boolean isFiltered(String producer, String model, Integer minYear, Integer maxYear,
+                                      Integer minPrice, Integer maxPrice) {
+        return (producer != null && !producer.isBlank()) || (model != null && !model.isBlank())
+                || minYear != null || maxYear != null || minPrice != null || maxPrice != null;
     }
 
-    private String getAuctionsWithSpecificCars(
-            int page,
-            String producer,
-            String model,
-            Integer minYear,
-            Integer maxYear,
-            Integer minPrice,
-            Integer maxPrice,
-            Model modelAtr,
-            List<Car> specificCars) {
-
-        CarsListPaginator pager = (page1, producer1, model1, minYear1, maxYear1, minPrice1, maxPrice1, modelAtr1) -> {
-            SearchCriteria searchCriteria = new SearchCriteria();
-            Specification<Car> carSpecification = searchCriteria.buildSpec(producer1, model1, minYear1, maxYear1, minPrice1, maxPrice1);
-
-            //retrieve all ACTIVE auctions
-            Page<Car> carPage = carService.getCarPage(page1, carSpecification);
-
-            if (specificCars.isEmpty()) {
-                return "/no_car_for_category";
-            }
-
-            Page<Car> updatedPage = new PageImpl<>(specificCars, carPage.getPageable(), carPage.getTotalElements() - specificCars.size());
-            int totalPages = updatedPage.getTotalPages();
-
-            if (totalPages > 0) {
-                List<Integer> pageNumbers = IntStream.rangeClosed(0, totalPages - 1)
-                        .boxed()
-                        .toList();
-
-                //set the minimum price for each car
-                List<Float> auctionsMinimumPriceList = auctionService.setCurrentPriceForEachCarPage(updatedPage);
-                List<Auction> allActiveAuctionsList = auctionService.findAuctionsByCars(specificCars);
-
-                modelAtr1.addAttribute("carPage", updatedPage);
-                modelAtr1.addAttribute("currentPage", page1);
-                modelAtr1.addAttribute("pageNumbers", pageNumbers);
-                modelAtr1.addAttribute("auctionsMinimumPriceList", auctionsMinimumPriceList);
-                modelAtr1.addAttribute("allActiveAuctionsList", allActiveAuctionsList);
-            }
-
-            return "/auction_list";
-        };
-
-        return pager.createPaginationListForCars(page, producer, model, minYear, maxYear, minPrice, maxPrice, modelAtr);
+    /**
+     * Builds the path of the pages of a listing, which keep the filters of the search.
+     */
+    private static String listingPath(String path, String producer, String model, Integer minYear, Integer maxYear,
+                                      Integer minPrice, Integer maxPrice) {
+        return UriComponentsBuilder.fromPath(path)
+                .queryParamIfPresent("producer", Optional.ofNullable(producer))
+                .queryParamIfPresent("model", Optional.ofNullable(model))
+                .queryParamIfPresent("minYear", Optional.ofNullable(minYear))
+                .queryParamIfPresent("maxYear", Optional.ofNullable(maxYear))
+                .queryParamIfPresent("minPrice", Optional.ofNullable(minPrice))
+                .queryParamIfPresent("maxPrice", Optional.ofNullable(maxPrice))
+                .encode()
+                .toUriString();
     }
 
     @GetMapping("/auctions/guide")
@@ -1,5 +1,6 @@
 package com.auctions.hunters.controller;
 
+import com.auctions.hunters.config.ListingProperties;
 import com.auctions.hunters.exceptions.*;
 import com.auctions.hunters.model.Auction;
 import com.auctions.hunters.model.Car;
@@ -9,12 +10,13 @@ import com.auctions.hunters.model.enums.CarStatus;
 import com.auctions.hunters.service.auction.AuctionService;
 import com.auctions.hunters.service.bid.BidService;
 import com.auctions.hunters.service.car.CarService;
+import com.auctions.hunters.service.car.CarTextIndex;
 import com.auctions.hunters.service.car.SearchCriteria;
 import com.auctions.hunters.service.image.ImageService;
 import com.auctions.hunters.service.user.UserService;
+import com.auctions.hunters.utils.KeysetRequest;
+import com.auctions.hunters.utils.KeysetSlice;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -24,7 +26,6 @@ import org.springframework.web.bind.annotation.*;
 import javax.validation.Valid;
 import java.util.Base64;
 import java.util.List;
-import java.util.stream.IntStream;
 
 import static com.auctions.hunters.service.image.ImageUtil.decompressImage;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
@@ -40,17 +41,23 @@ public class CarController {
     private final AuctionService auctionService;
     private final UserService userService;
     private final BidService bidService;
+    private final ListingProperties listingProperties;
+    private final CarTextIndex carTextIndex;
 
     public CarController(CarService carService,
                          ImageService imageService,
                          AuctionService auctionService,
                          UserService userService,
-                         BidService bidService) {
+                         BidService bidService,
+                         ListingProperties listingProperties,
+                         CarTextIndex carTextIndex) {
         this.carService = carService;
         this.imageService = imageService;
         this.auctionService = auctionService;
         this.userService = userService;
         this.bidService = bidService;
+        this.listingProperties = listingProperties;
+        this.carTextIndex = carTextIndex;
     }
 
     @GetMapping("/car/add")
@@ -78,7 +85,8 @@ public class CarController {
 
     @GetMapping("/cars")
     public String getCars(
-            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "before", required = false) String before,
             @RequestParam(value = "producer", required = false) String producer,
             @RequestParam(value = "model", required = false) String model,
             @RequestParam(value = "minYear", required = false) Integer minYear,
@@ -87,54 +95,33 @@ public class CarController {
             @RequestParam(value = "maxPrice", required = false) Integer maxPrice,
             Model modelAtr) {
 
-        //if the user did not register any cars for sale, then display an informative template
-        List<Car> authenticatedUserCarsList = carService.getAuthenticatedUserCarsList();
-        if (authenticatedUserCarsList.isEmpty()) {
-            return "/no_car";
-        }
-
-        CarsListPaginator pager = (page1, producer1, model1, minYear1, maxYear1, minPrice1, maxPrice1, modelAtr1) -> {
-            String loggedUsername = userService.getLoggedUsername();
-            User user = userService.findByUsername(loggedUsername);
-
-            SearchCriteria searchCriteria = new SearchCriteria();
-            Specification<Car> carSpecification = searchCriteria.buildSpec(producer1, model1, minYear1, maxYear1, minPrice1, maxPrice1);
+        String loggedUsername = userService.getLoggedUsername();
+        User user = userService.findByUsername(loggedUsername);
 
-            //filter for displaying only the cars that MATCH the authenticated user id
-            carSpecification = carSpecification.and((root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("user"), user));
+        SearchCriteria searchCriteria = new SearchCriteria();
+        Specification<Car> carSpecification = searchCriteria.buildSpec(carTextIndex, producer, model, minYear, maxYear, minPrice, maxPrice);
 
-            //filter just the cars that are in ACTIVE auctions
-            Page<Car> carPage = carService.getCarPage(page1, carSpecification);
-            List<Car> carPageContent = carPage.getContent();
-            List<Car> carList = carPageContent.stream()
-                    .filter(car -> car.getStatus().equals(CarStatus.NOT_AUCTIONED) || car.getStatus().equals(CarStatus.AUCTIONED))
-                    .toList();
+        //filter for displaying only the cars that MATCH the authenticated user id and were not sold
+        carSpecification = carSpecification
+                .and((root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("user"), user))
+                .and((root, query, criteriaBuilder) -> root.get("status").in(CarStatus.NOT_AUCTIONED, CarStatus.AUCTIONED));
 
-            if (carList.isEmpty()) {
-                return "/no_car";
-            }
+        //retrieve a slice of the cars from the cursor received
+        KeysetRequest keysetRequest = KeysetRequest.of(after, before, listingProperties.getPageSize());
+        KeysetSlice<Car> carSlice = carService.getCarSlice(carSpecification, keysetRequest);
 
-            Page<Car> updatedPage = new PageImpl<>(carList, carPage.getPageable(), carPage.getTotalElements() - carList.size());
-            int totalPages = updatedPage.getTotalPages();
-
-            if (totalPages > 0) {
-                List<Integer> pageNumbers = IntStream.rangeClosed(0, totalPages - 1)
-                        .boxed()
-                        .toList();
-
-                //set the minimum price for each car
-                List<Float> auctionsCurrentPriceList = auctionService.setCurrentPriceForEachCarPage(updatedPage);
+        //if the user did not register any cars for sale, then display an informative template
+        if (carSlice.isEmpty() && keysetRequest.isFirst()) {
+            return "/no_car";
+        }
 
-                modelAtr1.addAttribute("carPage", updatedPage);
-                modelAtr1.addAttribute("currentPage", page1);
-                modelAtr1.addAttribute("pageNumbers", pageNumbers);
-                modelAtr1.addAttribute("auctionsMinimumPriceList", auctionsCurrentPriceList);
-            }
+        //set the minimum price for each car
+        List<Float> auctionsCurrentPriceList = auctionService.setCurrentPriceForEachCarPage(carSlice);
 
-            return "/car_list";
-        };
+        modelAtr.addAttribute("carPage", carSlice);
+        modelAtr.addAttribute("auctionsMinimumPriceList", auctionsCurrentPriceList);
 
-        return pager.createPaginationListForCars(page, producer, model, minYear, maxYear, minPrice, maxPrice, modelAtr);
+        return "/car_list";
     }
 
     @GetMapping("/cars/{id}")
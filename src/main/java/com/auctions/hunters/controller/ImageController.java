@@ -1,17 +1,25 @@
 package com.auctions.hunters.controller;
 
+import com.auctions.hunters.model.Image;
 import com.auctions.hunters.service.image.ImageService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.time.Duration;
 
+import static com.auctions.hunters.service.image.ImageUtil.decompressImage;
+import static org.springframework.http.MediaType.ALL_VALUE;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 
 @Slf4j
@@ -37,4 +45,19 @@ public class ImageController {
 
         return "redirect:/cars";
     }
+
+    /**
+     * Serves the image with the given id, used as the thumbnail of a car on the listing pages. The images never change
+     * once uploaded, so the browser may cache them. The id is numeric only, so the static pictures under
+     * {@code /images}, such as {@code /images/SUV.png}, are still served by the resource handler.
+     */
+    @GetMapping(path = "/{id:\\d+}", produces = ALL_VALUE)
+    public ResponseEntity<byte[]> getImage(@PathVariable Integer id) {
+        Image image = imageService.getImageById(id);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(image.getContentType()))
+                .cacheControl(CacheControl.maxAge(Duration.ofDays(1)).cachePublic())
+                .body(decompressImage(image.getData()));
+    }
 }
@@ -35,7 +35,6 @@ public class PaymentController {
 
     @GetMapping("/pay")
     public String getPaymentLobby(Model model) {
-        auctionService.manageFinishedAuctions();
         List<Car> carsToBuyList = auctionService.getCarsFromFinishedAuctionsForBuyerId();
 
         if (carsToBuyList.isEmpty()) {
@@ -1,8 +1,10 @@
 package com.auctions.hunters.controller;
 
+import com.auctions.hunters.config.TopBidAuctionsProperties;
 import com.auctions.hunters.exceptions.EmailAlreadyExistsException;
 import com.auctions.hunters.exceptions.InvalidEmailException;
 import com.auctions.hunters.model.User;
+import com.auctions.hunters.service.auction.AuctionService;
 import com.auctions.hunters.service.user.UserService;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -20,13 +22,20 @@ import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 public class RegistrationController {
 
     private final UserService userService;
+    private final AuctionService auctionService;
+    private final TopBidAuctionsProperties topBidAuctionsProperties;
 
-    public RegistrationController(UserService userService) {
+    public RegistrationController(UserService userService,
+                                  AuctionService auctionService,
+                                  TopBidAuctionsProperties topBidAuctionsProperties) {
         this.userService = userService;
+        this.auctionService = auctionService;
+        this.topBidAuctionsProperties = topBidAuctionsProperties;
     }
 
     @GetMapping("/")
-    public String getHomePage() {
+    public String getHomePage(@NotNull Model model) {
+        model.addAttribute("topBidAuctions", auctionService.getTopBidAuctions(topBidAuctionsProperties.getHomepageSize()));
         return "/homepage";
     }
 
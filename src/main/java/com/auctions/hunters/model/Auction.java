@@ -14,10 +14,17 @@ import static javax.persistence.CascadeType.ALL;
 import static javax.persistence.CascadeType.MERGE;
 import static javax.persistence.FetchType.EAGER;
 import static javax.persistence.FetchType.LAZY;
-import static javax.persistence.GenerationType.IDENTITY;
+import static javax.persistence.GenerationType.SEQUENCE;
 
 @Entity
-@Table(name = "auction")
+@Table(name = "auction",
+        indexes = {
+                @Index(name = "auction_status_end_time_idx", columnList = "status, endTime"),
+                @Index(name = "auction_buyer_id_status_idx", columnList = "buyer_id, status"),
+                @Index(name = "auction_user_id_status_idx", columnList = "user_id, status"),
+                @Index(name = "auction_status_bid_count_idx", columnList = "status, bid_count DESC"),
+                @Index(name = "auction_status_current_price_idx", columnList = "status, current_price, id")
+        })
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
@@ -26,9 +33,9 @@ import static javax.persistence.GenerationType.IDENTITY;
 public class Auction {
 
     @Id
-    @GeneratedValue(strategy = IDENTITY)
+    @GeneratedValue(strategy = SEQUENCE, generator = "auction_id_sequence")
     @Column(name = "id", updatable = false, columnDefinition = "INTEGER")
-    @SequenceGenerator(name = "auction_sequence", sequenceName = "auction_sequence", allocationSize = 1)
+    @SequenceGenerator(name = "auction_id_sequence", sequenceName = "auction_id_sequence", allocationSize = 50)
     private Integer id;
 
     @OneToOne(fetch = EAGER, cascade = MERGE)
@@ -45,6 +52,10 @@ public class Auction {
     @OneToMany(mappedBy = "auction", cascade = ALL, fetch = LAZY)
     private List<Bid> bidders;
 
+    //the number of bids, kept up to date by the queries that save a bid instead of counting the bidders
+    @Column(name = "bid_count", nullable = false, columnDefinition = "INTEGER NOT NULL DEFAULT 0")
+    private int bidCount;
+
     @Column(name = "minimum_price", nullable = false)
     private float minimumPrice;
 
@@ -5,7 +5,7 @@ import lombok.*;
 import javax.persistence.*;
 
 import static javax.persistence.FetchType.LAZY;
-import static javax.persistence.GenerationType.IDENTITY;
+import static javax.persistence.GenerationType.SEQUENCE;
 
 @Entity
 @Table(name = "bid")
@@ -17,8 +17,8 @@ import static javax.persistence.GenerationType.IDENTITY;
 public class Bid {
 
     @Id
-    @GeneratedValue(strategy = IDENTITY)
-    @SequenceGenerator(name = "bid_sequence", sequenceName = "bid_sequence", allocationSize = 1)
+    @GeneratedValue(strategy = SEQUENCE, generator = "bid_id_sequence")
+    @SequenceGenerator(name = "bid_id_sequence", sequenceName = "bid_id_sequence", allocationSize = 50)
     @Column(name = "id", updatable = false, columnDefinition = "INTEGER")
     private int id;
 
@@ -9,10 +9,20 @@ import java.util.List;
 
 import static javax.persistence.CascadeType.ALL;
 import static javax.persistence.FetchType.EAGER;
-import static javax.persistence.GenerationType.IDENTITY;
+import static javax.persistence.FetchType.LAZY;
+import static javax.persistence.GenerationType.SEQUENCE;
 
 @Entity
-@Table(name = "car", uniqueConstraints = @UniqueConstraint(name = "vin_unique", columnNames = "vin"))
+@Table(name = "car",
+        uniqueConstraints = @UniqueConstraint(name = "vin_unique", columnNames = "vin"),
+        indexes = {
+                @Index(name = "car_body_status_idx", columnList = "body, status"),
+                @Index(name = "car_producer_idx", columnList = "producer"),
+                @Index(name = "car_model_idx", columnList = "model"),
+                @Index(name = "car_model_year_value_idx", columnList = "model_year_value"),
+                @Index(name = "car_engine_power_value_idx", columnList = "engine_power_value"),
+                @Index(name = "car_engine_displacement_value_idx", columnList = "engine_displacement_value")
+        })
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
@@ -21,8 +31,8 @@ import static javax.persistence.GenerationType.IDENTITY;
 public class Car {
 
     @Id
-    @GeneratedValue(strategy = IDENTITY)
-    @SequenceGenerator(name = "car_sequence", sequenceName = "car_sequence", allocationSize = 1)
+    @GeneratedValue(strategy = SEQUENCE, generator = "car_id_sequence")
+    @SequenceGenerator(name = "car_id_sequence", sequenceName = "car_id_sequence", allocationSize = 50)
     @Column(name = "id", updatable = false, columnDefinition = "INTEGER")
     private Integer id;
 
@@ -30,7 +40,7 @@ public class Car {
     @JoinColumn(name = "user_id", referencedColumnName = "id")
     private User user;
 
-    @OneToMany(mappedBy = "car", cascade = ALL, orphanRemoval = true, fetch = EAGER)
+    @OneToMany(mappedBy = "car", cascade = ALL, orphanRemoval = true, fetch = LAZY)
     private List<Image> images = new ArrayList<>();
 
     private String vin;
@@ -74,6 +84,13 @@ public class Car {
     private String maxRoofLoad;
     private String abs;
 
+    //the numeric attributes above, parsed when the car is decoded, for the range filters
+    private Integer modelYearValue;
+    private Integer enginePowerValue;
+    private Integer engineDisplacementValue;
+    private Integer maxSpeedValue;
+    private Integer emptyWeightValue;
+
     @Enumerated(EnumType.STRING)
     private CarStatus status;
 }
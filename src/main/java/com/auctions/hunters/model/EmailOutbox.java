@@ -0,0 +1,59 @@
+package com.auctions.hunters.model;
+
+import com.auctions.hunters.model.enums.EmailStatus;
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.OffsetDateTime;
+
+import static javax.persistence.EnumType.STRING;
+import static javax.persistence.GenerationType.SEQUENCE;
+
+/**
+ * An email waiting to be sent. The entry is written in the same transaction as the change that caused the email and
+ * is sent later by the email dispatcher, so a slow or unavailable mail server never delays the business transaction.
+ */
+@Entity
+@Table(name = "email_outbox",
+        indexes = @Index(name = "email_outbox_status_next_attempt_at_idx", columnList = "status, next_attempt_at"))
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Getter
+@Setter
+public class EmailOutbox {
+
+    @Id
+    @GeneratedValue(strategy = SEQUENCE, generator = "email_outbox_id_sequence")
+    @SequenceGenerator(name = "email_outbox_id_sequence", sequenceName = "email_outbox_id_sequence", allocationSize = 50)
+    @Column(name = "id", updatable = false, columnDefinition = "INTEGER")
+    private Integer id;
+
+    @Column(name = "recipient", nullable = false)
+    private String recipient;
+
+    @Column(name = "subject", nullable = false, length = 512)
+    private String subject;
+
+    @Column(name = "body", nullable = false, columnDefinition = "TEXT")
+    private String body;
+
+    @Enumerated(STRING)
+    @Column(name = "status", nullable = false)
+    private EmailStatus status;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "created_at", nullable = false)
+    private OffsetDateTime createdAt;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private OffsetDateTime nextAttemptAt;
+
+    @Column(name = "sent_at")
+    private OffsetDateTime sentAt;
+
+    @Column(name = "last_error", length = 1024)
+    private String lastError;
+}
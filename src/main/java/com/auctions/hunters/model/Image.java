@@ -1,12 +1,13 @@
 package com.auctions.hunters.model;
 
 import lombok.Data;
+import lombok.ToString;
 import org.hibernate.annotations.Type;
 
 import javax.persistence.*;
 
-import static javax.persistence.FetchType.EAGER;
-import static javax.persistence.GenerationType.IDENTITY;
+import static javax.persistence.FetchType.LAZY;
+import static javax.persistence.GenerationType.SEQUENCE;
 
 @Entity
 @Table(name = "image")
@@ -14,12 +15,13 @@ import static javax.persistence.GenerationType.IDENTITY;
 public class Image {
 
     @Id
-    @GeneratedValue(strategy = IDENTITY)
-    @SequenceGenerator(name = "image_sequence", sequenceName = "image_sequence", allocationSize = 1)
+    @GeneratedValue(strategy = SEQUENCE, generator = "image_id_sequence")
+    @SequenceGenerator(name = "image_id_sequence", sequenceName = "image_id_sequence", allocationSize = 50)
     @Column(name = "id", updatable = false, columnDefinition = "INTEGER")
     private Integer id;
 
-    @ManyToOne(fetch = EAGER)
+    @ToString.Exclude
+    @ManyToOne(fetch = LAZY)
     @JoinColumn(name = "car_id", referencedColumnName = "id")
     private Car car;
 
@@ -0,0 +1,35 @@
+package com.auctions.hunters.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.*;
+import java.time.OffsetDateTime;
+
+/**
+ * The notification state of a {@link User} for an {@link Auction}: the user was emailed that his first
+ * {@code notifiedBids} bids were overtaken. Any further bid of the user makes him eligible for a new notification. The
+ * bids are counted rather than compared by id, since the ids are allocated in blocks per instance and a newer bid can
+ * have a smaller id.
+ */
+@Entity
+@Table(name = "outbid_notification")
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Getter
+@Setter
+public class OutbidNotification {
+
+    @EmbeddedId
+    private OutbidNotificationId id;
+
+    @Column(name = "notified_bids", nullable = false)
+    private Integer notifiedBids;
+
+    @Column(name = "notified_at", nullable = false)
+    private OffsetDateTime notifiedAt;
+}
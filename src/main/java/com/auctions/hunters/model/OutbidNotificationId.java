@@ -0,0 +1,31 @@
+package com.auctions.hunters.model;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * The key of an {@link OutbidNotification}, one per (user, auction) pair.
+ */
+@Embeddable
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+@Getter
+public class OutbidNotificationId implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @Column(name = "user_id", nullable = false)
+    private Integer userId;
+
+    @Column(name = "auction_id", nullable = false)
+    private Integer auctionId;
+}
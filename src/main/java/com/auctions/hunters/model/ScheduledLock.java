@@ -0,0 +1,37 @@
+package com.auctions.hunters.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.*;
+import java.time.OffsetDateTime;
+
+/**
+ * The lease of a scheduled job. The instance of the application named by {@code lockedBy} runs the job until
+ * {@code lockedUntil}; once the lease expired, any instance can take it over.
+ */
+@Entity
+@Table(name = "scheduled_lock")
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Getter
+@Setter
+public class ScheduledLock {
+
+    @Id
+    @Column(name = "name", length = 64)
+    private String name;
+
+    @Column(name = "locked_by", nullable = false)
+    private String lockedBy;
+
+    @Column(name = "locked_at", nullable = false)
+    private OffsetDateTime lockedAt;
+
+    @Column(name = "locked_until", nullable = false)
+    private OffsetDateTime lockedUntil;
+}
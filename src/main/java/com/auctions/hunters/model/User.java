@@ -12,7 +12,7 @@ import static javax.persistence.CascadeType.ALL;
 import static javax.persistence.CascadeType.MERGE;
 import static javax.persistence.FetchType.EAGER;
 import static javax.persistence.FetchType.LAZY;
-import static javax.persistence.GenerationType.IDENTITY;
+import static javax.persistence.GenerationType.SEQUENCE;
 
 @Entity
 @Table(name = "users",
@@ -28,8 +28,8 @@ import static javax.persistence.GenerationType.IDENTITY;
 public class User {
 
     @Id
-    @GeneratedValue(strategy = IDENTITY)
-    @SequenceGenerator(name = "user_sequence", sequenceName = "user_sequence", allocationSize = 1)
+    @GeneratedValue(strategy = SEQUENCE, generator = "user_id_sequence")
+    @SequenceGenerator(name = "user_id_sequence", sequenceName = "user_id_sequence", allocationSize = 50)
     @Column(name = "id", updatable = false, columnDefinition = "INTEGER")
     private Integer id;
 
@@ -70,16 +70,12 @@ public class User {
     @Builder.Default
     private Boolean enabled = false;
 
-    @Builder.Default
-    private Boolean reminder = false;
-
     public User(String username,
                 String password,
                 String email,
                 String cityAddress,
                 String phoneNumber,
-                Set<Role> role,
-                Boolean reminder) {
+                Set<Role> role) {
 
         this.username = username;
         this.password = password;
@@ -87,7 +83,6 @@ public class User {
         this.cityAddress = cityAddress;
         this.phoneNumber = phoneNumber;
         this.role = role;
-        this.reminder = reminder;
     }
 }
 
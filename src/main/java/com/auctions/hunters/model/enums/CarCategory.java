@@ -0,0 +1,49 @@
+package com.auctions.hunters.model.enums;
+
+import com.auctions.hunters.model.Car;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * This enum documents the categories of the auctions page, each listing the {@link Car} objects with one body type.
+ */
+public enum CarCategory {
+    SUV("suv", "SUV"),
+    SEDAN("sedan", "Sedan/Saloon"),
+    PICKUP("pickup", "Pickup"),
+    COUPE("coupe", "Coupe"),
+    CONVERTIBLE("convertible", "Convertible"),
+    ROADSTER("roadster", "Roadster"),
+    HATCHBACK("hatchback", "Hatchback"),
+    MINIVAN("minivan", "Minivan"),
+    WAGON("wagon", "Wagon");
+
+    private final String path;
+    private final String body;
+
+    CarCategory(String path, String body) {
+        this.path = path;
+        this.body = body;
+    }
+
+    /**
+     * @return the segment of the category in the {@code /auctions/{category}/cars} URL
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * @return the body type of the cars of the category, as stored in the {@code body} column
+     */
+    public String getBody() {
+        return body;
+    }
+
+    public static Optional<CarCategory> fromPath(String path) {
+        return Arrays.stream(values())
+                .filter(category -> category.path.equalsIgnoreCase(path))
+                .findFirst();
+    }
+}
@@ -0,0 +1,12 @@
+package com.auctions.hunters.model.enums;
+
+import com.auctions.hunters.model.EmailOutbox;
+
+/**
+ * This enum documents the statuses of an {@link EmailOutbox} entry.
+ */
+public enum EmailStatus {
+    PENDING,
+    SENT,
+    DEAD
+}
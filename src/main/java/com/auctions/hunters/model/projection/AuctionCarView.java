@@ -0,0 +1,38 @@
+package com.auctions.hunters.model.projection;
+
+import com.auctions.hunters.model.Auction;
+import com.auctions.hunters.model.Car;
+import com.auctions.hunters.model.User;
+
+/**
+ * Projection of an {@link Auction} that carries the id of the {@link User} that created it and the attributes of its
+ * {@link Car} compared by the recommendations.
+ */
+public interface AuctionCarView {
+
+    Integer getAuctionId();
+
+    Integer getOwnerId();
+
+    String getProducer();
+
+    String getBody();
+
+    String getFuelTypePrimary();
+
+    String getTransmission();
+
+    String getDrive();
+
+    String getEmissionStandard();
+
+    Integer getModelYearValue();
+
+    Integer getEnginePowerValue();
+
+    Integer getEngineDisplacementValue();
+
+    Integer getMaxSpeedValue();
+
+    Integer getEmptyWeightValue();
+}
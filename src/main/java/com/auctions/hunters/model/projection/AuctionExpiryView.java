@@ -0,0 +1,15 @@
+package com.auctions.hunters.model.projection;
+
+import com.auctions.hunters.model.Auction;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Projection of an {@link Auction} that carries only the fields needed for scheduling its expiry.
+ */
+public interface AuctionExpiryView {
+
+    Integer getId();
+
+    OffsetDateTime getEndTime();
+}
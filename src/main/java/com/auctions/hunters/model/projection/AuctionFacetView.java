@@ -0,0 +1,23 @@
+package com.auctions.hunters.model.projection;
+
+import com.auctions.hunters.model.Auction;
+import com.auctions.hunters.model.Car;
+
+/**
+ * Projection of an {@link Auction} that carries only the attributes of its {@link Car} counted by the facets of the
+ * search.
+ */
+public interface AuctionFacetView {
+
+    Integer getAuctionId();
+
+    String getProducer();
+
+    String getBody();
+
+    String getFuelTypePrimary();
+
+    String getTransmission();
+
+    Integer getModelYearValue();
+}
@@ -0,0 +1,37 @@
+package com.auctions.hunters.model.projection;
+
+import com.auctions.hunters.model.Auction;
+import com.auctions.hunters.model.Car;
+import com.auctions.hunters.model.Image;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Projection of an {@link Auction} that carries only the fields shown by a listing page: the title of its {@link Car},
+ * its current price, its time frame and the id of the first {@link Image} of the car, used as its thumbnail.
+ */
+public interface AuctionListingView {
+
+    Integer getId();
+
+    Integer getCarId();
+
+    String getProducer();
+
+    String getModel();
+
+    String getModelYear();
+
+    String getBody();
+
+    float getCurrentPrice();
+
+    OffsetDateTime getStartTime();
+
+    OffsetDateTime getEndTime();
+
+    /**
+     * @return the id of the thumbnail of the car, null if the car has no image
+     */
+    Integer getThumbnailId();
+}
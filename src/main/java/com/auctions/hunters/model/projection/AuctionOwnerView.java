@@ -0,0 +1,14 @@
+package com.auctions.hunters.model.projection;
+
+import com.auctions.hunters.model.Auction;
+import com.auctions.hunters.model.User;
+
+/**
+ * Projection of an {@link Auction} that carries only its id and the id of the {@link User} that created it.
+ */
+public interface AuctionOwnerView {
+
+    Integer getId();
+
+    Integer getUserId();
+}
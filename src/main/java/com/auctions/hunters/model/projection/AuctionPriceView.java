@@ -0,0 +1,20 @@
+package com.auctions.hunters.model.projection;
+
+import com.auctions.hunters.model.Auction;
+import com.auctions.hunters.model.enums.AuctionStatus;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Projection of an {@link Auction} that carries the fields checked when a new bid is placed.
+ */
+public interface AuctionPriceView {
+
+    float getCurrentPrice();
+
+    Integer getBuyerId();
+
+    AuctionStatus getStatus();
+
+    OffsetDateTime getEndTime();
+}
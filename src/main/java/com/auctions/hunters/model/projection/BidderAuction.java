@@ -0,0 +1,14 @@
+package com.auctions.hunters.model.projection;
+
+import com.auctions.hunters.model.Auction;
+import com.auctions.hunters.model.User;
+
+/**
+ * A (user, auction) pair where the {@link User} bid at least once on the {@link Auction}.
+ */
+public interface BidderAuction {
+
+    Integer getUserId();
+
+    Integer getAuctionId();
+}
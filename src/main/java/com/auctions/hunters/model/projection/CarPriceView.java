@@ -0,0 +1,14 @@
+package com.auctions.hunters.model.projection;
+
+import com.auctions.hunters.model.Auction;
+import com.auctions.hunters.model.Car;
+
+/**
+ * Projection of an {@link Auction} that carries only the id of its {@link Car} and its current price.
+ */
+public interface CarPriceView {
+
+    Integer getCarId();
+
+    float getCurrentPrice();
+}
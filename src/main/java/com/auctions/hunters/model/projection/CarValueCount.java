@@ -0,0 +1,13 @@
+package com.auctions.hunters.model.projection;
+
+import com.auctions.hunters.model.Car;
+
+/**
+ * Projection of the number of {@link Car} objects that have a value of a text attribute.
+ */
+public interface CarValueCount {
+
+    String getValue();
+
+    long getCars();
+}
@@ -0,0 +1,16 @@
+package com.auctions.hunters.model.projection;
+
+import com.auctions.hunters.model.Auction;
+import com.auctions.hunters.model.User;
+
+/**
+ * The number of bids a {@link User} made on the {@link Auction} objects created by another user.
+ */
+public interface CoBiddingEdge {
+
+    Integer getOwnerId();
+
+    Integer getBidderId();
+
+    Long getBids();
+}
@@ -0,0 +1,14 @@
+package com.auctions.hunters.model.projection;
+
+import com.auctions.hunters.model.Auction;
+import com.auctions.hunters.model.User;
+
+/**
+ * A (user, auction) pair where the {@link User} bid on an ACTIVE {@link Auction} that is now led by somebody else.
+ */
+public interface OutbidCandidate {
+
+    Integer getUserId();
+
+    Integer getAuctionId();
+}
@@ -0,0 +1,48 @@
+package com.auctions.hunters.repository;
+
+import com.auctions.hunters.model.Auction;
+import com.auctions.hunters.model.Car;
+import com.auctions.hunters.model.enums.AuctionStatus;
+import com.auctions.hunters.model.projection.AuctionListingView;
+import com.auctions.hunters.utils.KeysetRequest;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Fragment of the {@link AuctionRepository} that reads the listing views of the {@link Auction} objects whose
+ * {@link Car} matches a {@link Specification}, for the keyset paginated category listings and the price search.
+ */
+public interface AuctionListingRepository {
+
+    /**
+     * Retrieves at most {@link KeysetRequest#limit()} listing views of the {@link Auction} objects from the database that
+     * have the given status, end after the given time and whose car matches the given specification, the first to end
+     * first, starting from the cursor of the request. The views are returned in reverse order when the request reads
+     * backwards. No count query is run.
+     */
+    List<AuctionListingView> findListingViewsOfCars(Specification<Car> carSpec,
+                                                    AuctionStatus status,
+                                                    OffsetDateTime time,
+                                                    KeysetRequest request);
+
+    /**
+     * Retrieves at most {@link KeysetRequest#limit()} listing views of the {@link Auction} objects from the database that
+     * have the given status, end after the given time, do not belong to the excluded user, have a current price in the
+     * given range and whose car matches the given specification, the cheapest first, starting from the cursor of the
+     * request. The auctions are read in the order of the (status, current_price, id) index. The views are returned in
+     * reverse order when the request reads backwards. No count query is run.
+     *
+     * @param excludedUserId the id of the user whose auctions are skipped, null to keep every auction
+     * @param minPrice       the lowest current price, null for no lower bound
+     * @param maxPrice       the highest current price, null for no upper bound
+     */
+    List<AuctionListingView> findListingViewsOfCarsByPrice(Specification<Car> carSpec,
+                                                           AuctionStatus status,
+                                                           OffsetDateTime time,
+                                                           Integer excludedUserId,
+                                                           Float minPrice,
+                                                           Float maxPrice,
+                                                           KeysetRequest request);
+}
@@ -0,0 +1,165 @@
+package com.auctions.hunters.repository;
+
+import com.auctions.hunters.model.Auction;
+import com.auctions.hunters.model.Car;
+import com.auctions.hunters.model.Image;
+import com.auctions.hunters.model.enums.AuctionStatus;
+import com.auctions.hunters.model.projection.AuctionListingView;
+import com.auctions.hunters.utils.KeysetCursor;
+import com.auctions.hunters.utils.KeysetRequest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.TupleElement;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+public class AuctionListingRepositoryImpl implements AuctionListingRepository {
+
+    private final EntityManager entityManager;
+    private final ProjectionFactory projectionFactory = new SpelAwareProxyProjectionFactory();
+
+    public AuctionListingRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<AuctionListingView> findListingViewsOfCars(Specification<Car> carSpec,
+                                                           AuctionStatus status,
+                                                           OffsetDateTime time,
+                                                           KeysetRequest request) {
+        return findListingViews(carSpec, status, time, request, "endTime", KeysetCursor::keyAsTime,
+                (criteriaBuilder, auction) -> List.of());
+    }
+
+    @Override
+    public List<AuctionListingView> findListingViewsOfCarsByPrice(Specification<Car> carSpec,
+                                                                  AuctionStatus status,
+                                                                  OffsetDateTime time,
+                                                                  Integer excludedUserId,
+                                                                  Float minPrice,
+                                                                  Float maxPrice,
+                                                                  KeysetRequest request) {
+        return findListingViews(carSpec, status, time, request, "currentPrice", KeysetCursor::keyAsPrice,
+                (criteriaBuilder, auction) -> {
+                    List<Predicate> predicates = new ArrayList<>();
+                    Path<Float> currentPrice = auction.get("currentPrice");
+                    if (excludedUserId != null) {
+                        predicates.add(criteriaBuilder.notEqual(auction.get("user").get("id"), excludedUserId));
+                    }
+                    if (minPrice != null) {
+                        predicates.add(criteriaBuilder.greaterThanOrEqualTo(currentPrice, minPrice));
+                    }
+                    if (maxPrice != null) {
+                        predicates.add(criteriaBuilder.lessThanOrEqualTo(currentPrice, maxPrice));
+                    }
+                    return predicates;
+                });
+    }
+
+    /**
+     * Reads the listing views of the auctions in the order of the given sort attribute and then of their id, seeking
+     * the cursor of the request on both.
+     *
+     * @param sortAttribute the attribute of the {@link Auction} the listing is ordered by
+     * @param cursorKey     reads the value of the sort attribute from a cursor
+     * @param filters       builds the predicates on the auction added to the common ones
+     */
+    private <K extends Comparable<? super K>> List<AuctionListingView> findListingViews(
+            Specification<Car> carSpec,
+            AuctionStatus status,
+            OffsetDateTime time,
+            KeysetRequest request,
+            String sortAttribute,
+            Function<KeysetCursor, K> cursorKey,
+            AuctionFilters filters) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<Car> car = query.from(Car.class);
+        Root<Auction> auction = query.from(Auction.class);
+        Path<K> sortKey = auction.get(sortAttribute);
+        Path<Integer> id = auction.get("id");
+
+        //the first image of the car is its thumbnail
+        Subquery<Integer> thumbnailId = query.subquery(Integer.class);
+        Root<Image> image = thumbnailId.from(Image.class);
+        thumbnailId.select(criteriaBuilder.min(image.<Integer>get("id"))).where(criteriaBuilder.equal(image.get("car"), car));
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(criteriaBuilder.equal(auction.get("car"), car));
+        predicates.add(criteriaBuilder.equal(auction.get("status"), status));
+        predicates.add(criteriaBuilder.greaterThan(auction.get("endTime"), time));
+        predicates.addAll(filters.toPredicates(criteriaBuilder, auction));
+        Predicate carPredicate = carSpec.toPredicate(car, query, criteriaBuilder);
+        if (carPredicate != null) {
+            predicates.add(carPredicate);
+        }
+
+        List<Order> orders;
+        if (request.backwards()) {
+            //the last page is read from the end, whatever the sort key the END cursor was made for
+            if (!request.isFirst() && !request.isLast()) {
+                K cursorSortKey = cursorKey.apply(request.cursor());
+                predicates.add(criteriaBuilder.or(criteriaBuilder.lessThan(sortKey, cursorSortKey),
+                        criteriaBuilder.and(criteriaBuilder.equal(sortKey, cursorSortKey), criteriaBuilder.lessThan(id, request.cursor().id()))));
+            }
+            orders = List.of(criteriaBuilder.desc(sortKey), criteriaBuilder.desc(id));
+        } else {
+            if (!request.isFirst()) {
+                K cursorSortKey = cursorKey.apply(request.cursor());
+                predicates.add(criteriaBuilder.or(criteriaBuilder.greaterThan(sortKey, cursorSortKey),
+                        criteriaBuilder.and(criteriaBuilder.equal(sortKey, cursorSortKey), criteriaBuilder.greaterThan(id, request.cursor().id()))));
+            }
+            orders = List.of(criteriaBuilder.asc(sortKey), criteriaBuilder.asc(id));
+        }
+
+        query.multiselect(
+                        id.alias("id"),
+                        car.get("id").alias("carId"),
+                        car.get("producer").alias("producer"),
+                        car.get("model").alias("model"),
+                        car.get("modelYear").alias("modelYear"),
+                        car.get("body").alias("body"),
+                        auction.get("currentPrice").alias("currentPrice"),
+                        auction.get("startTime").alias("startTime"),
+                        auction.get("endTime").alias("endTime"),
+                        thumbnailId.alias("thumbnailId"))
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(orders);
+
+        return entityManager.createQuery(query)
+                .setMaxResults(request.limit())
+                .getResultList()
+                .stream()
+                .map(this::toListingView)
+                .toList();
+    }
+
+    private AuctionListingView toListingView(Tuple tuple) {
+        Map<String, Object> values = new HashMap<>();
+        for (TupleElement<?> element : tuple.getElements()) {
+            values.put(element.getAlias(), tuple.get(element));
+        }
+        return projectionFactory.createProjection(AuctionListingView.class, values);
+    }
+
+    @FunctionalInterface
+    private interface AuctionFilters {
+
+        List<Predicate> toPredicates(CriteriaBuilder criteriaBuilder, Root<Auction> auction);
+    }
+}
@@ -3,18 +3,37 @@ package com.auctions.hunters.repository;
 import com.auctions.hunters.model.Auction;
 import com.auctions.hunters.model.Car;
 import com.auctions.hunters.model.enums.AuctionStatus;
+import com.auctions.hunters.model.projection.AuctionExpiryView;
+import com.auctions.hunters.model.projection.AuctionCarView;
+import com.auctions.hunters.model.projection.AuctionFacetView;
+import com.auctions.hunters.model.projection.AuctionListingView;
+import com.auctions.hunters.model.projection.AuctionOwnerView;
+import com.auctions.hunters.model.projection.AuctionPriceView;
+import com.auctions.hunters.model.projection.CarBodyCount;
+import com.auctions.hunters.model.projection.CarPriceView;
 import org.jetbrains.annotations.NotNull;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 @Transactional
-public interface AuctionRepository extends JpaRepository<Auction, Integer> {
+public interface AuctionRepository extends JpaRepository<Auction, Integer>, AuctionListingRepository {
+
+    String LISTING_VIEWS = "SELECT a.id AS id, c.id AS carId, c.producer AS producer, c.model AS model, " +
+            "c.modelYear AS modelYear, c.body AS body, a.currentPrice AS currentPrice, a.startTime AS startTime, " +
+            "a.endTime AS endTime, (SELECT MIN(i.id) FROM Image i WHERE i.car = c) AS thumbnailId " +
+            "FROM Auction a JOIN a.car c WHERE a.status = :status AND a.endTime > :time AND a.user.id <> :userId ";
 
     /**
      * Retrieves all auctions from the database.
@@ -31,11 +50,31 @@ public interface AuctionRepository extends JpaRepository<Auction, Integer> {
     @Query("SELECT a FROM Auction a WHERE a.car.id = ?1")
     Auction findByCarId(@Param("carId") Integer carId);
 
+    /**
+     * Retrieves the car id and the current price of the {@link Auction} objects of the given {@link Car} ids, in a single query.
+     */
+    @Query("SELECT a.car.id AS carId, a.currentPrice AS currentPrice FROM Auction a WHERE a.car.id IN :carIds")
+    List<CarPriceView> findCarPriceViewsByCarIdIn(@Param("carIds") Collection<Integer> carIds);
+
     /**
      * Retrieves a list of {@link Auction} from the database where the foreign key, user_id is equal to the parameter value.
      */
     List<Auction> findByUserId(Integer userId);
 
+    /**
+     * Retrieves a list of {@link Auction} from the database whose foreign key, user_id is one of the given values,
+     * together with their cars and owners.
+     */
+    @EntityGraph(attributePaths = {"car", "car.user", "user"})
+    List<Auction> findByUserIdIn(Collection<Integer> userIds);
+
+    /**
+     * Retrieves a list of {@link Auction} from the database whose id is one of the given values, together with their
+     * cars and owners.
+     */
+    @EntityGraph(attributePaths = {"car", "car.user", "user"})
+    List<Auction> findByIdIn(Collection<Integer> ids);
+
     /**
      * Retrieves a list of {@link Auction} objects from the database where the foreign key, buyer_id is equal to the parameter value
      * and the provided {@code status} matches the {@code CLOSED} status from {@link AuctionStatus}.
@@ -46,4 +85,202 @@ public interface AuctionRepository extends JpaRepository<Auction, Integer> {
      * Retrieves a list of {@link Auction} from the database where based on the cars list provided.
      */
     List<Auction> findByCarIn(List<Car> cars);
+
+    /**
+     * Retrieves the attributes counted by the facets of the search of the cars of the {@link Auction} objects that have
+     * the given status and end after the given time, without loading the entities.
+     */
+    @Query("SELECT a.id AS auctionId, c.producer AS producer, c.body AS body, c.fuelTypePrimary AS fuelTypePrimary, " +
+            "c.transmission AS transmission, c.modelYearValue AS modelYearValue " +
+            "FROM Auction a JOIN a.car c WHERE a.status = :status AND a.endTime > :time")
+    List<AuctionFacetView> findFacetViewsByStatusAndEndTimeAfter(@Param("status") AuctionStatus status, @Param("time") OffsetDateTime time);
+
+    /**
+     * Retrieves the owner id and the attributes compared by the recommendations of the cars of the {@link Auction}
+     * objects that have the given status and end after the given time, without loading the entities.
+     */
+    @Query("SELECT a.id AS auctionId, a.user.id AS ownerId, c.producer AS producer, c.body AS body, " +
+            "c.fuelTypePrimary AS fuelTypePrimary, c.transmission AS transmission, c.drive AS drive, " +
+            "c.emissionStandard AS emissionStandard, c.modelYearValue AS modelYearValue, " +
+            "c.enginePowerValue AS enginePowerValue, c.engineDisplacementValue AS engineDisplacementValue, " +
+            "c.maxSpeedValue AS maxSpeedValue, c.emptyWeightValue AS emptyWeightValue " +
+            "FROM Auction a JOIN a.car c WHERE a.status = :status AND a.endTime > :time")
+    List<AuctionCarView> findCarViewsByStatusAndEndTimeAfter(@Param("status") AuctionStatus status, @Param("time") OffsetDateTime time);
+
+    /**
+     * Retrieves a list of {@link Auction} objects from the database that have the given status and end after the given time.
+     * The query is served by the (status, endTime) index.
+     */
+    List<Auction> findAllByStatusAndEndTimeAfter(AuctionStatus status, OffsetDateTime time);
+
+    /**
+     * Retrieves the number of {@link Auction} objects from the database that have the given status and end after the
+     * given time. The query is served by the (status, endTime) index.
+     */
+    long countByStatusAndEndTimeAfter(AuctionStatus status, OffsetDateTime time);
+
+    /**
+     * Retrieves the number of {@link Auction} objects from the database that belong to the given {@link User}, have the
+     * given status and end after the given time. The query is served by the (user_id, status) index.
+     */
+    long countByUserIdAndStatusAndEndTimeAfter(Integer userId, AuctionStatus status, OffsetDateTime time);
+
+    /**
+     * Retrieves the number of {@link Auction} objects from the database that have the given status and end after the
+     * given time, for every body type of their {@link Car}.
+     */
+    @Query("SELECT c.body AS body, COUNT(a) AS cars FROM Auction a JOIN a.car c " +
+            "WHERE a.status = :status AND a.endTime > :time GROUP BY c.body")
+    List<CarBodyCount> findBodyCountsByStatusAndEndTimeAfter(@Param("status") AuctionStatus status, @Param("time") OffsetDateTime time);
+
+    /**
+     * Retrieves the first listing views of the {@link Auction} objects from the database that have the given status,
+     * end after the given time and were not created by the given user, the first to end first. Only the listed columns
+     * of the auction and of its {@link Car} are read, so the images of the cars are never loaded. The number of views
+     * is limited by the {@link Pageable} parameter and no count query is run. The query is served by the
+     * (status, endTime) index.
+     */
+    @Query(LISTING_VIEWS + "ORDER BY a.endTime, a.id")
+    List<AuctionListingView> findListingViews(@Param("status") AuctionStatus status,
+                                              @Param("time") OffsetDateTime time,
+                                              @Param("userId") Integer userId,
+                                              Pageable pageable);
+
+    /**
+     * Retrieves the listing views like {@link #findListingViews}, starting after the auction with the given end time
+     * and id. The index is read from that position instead of skipping the auctions of the previous pages.
+     */
+    @Query(LISTING_VIEWS + "AND (a.endTime > :afterEndTime OR (a.endTime = :afterEndTime AND a.id > :afterId)) " +
+            "ORDER BY a.endTime, a.id")
+    List<AuctionListingView> findListingViewsAfter(@Param("status") AuctionStatus status,
+                                                   @Param("time") OffsetDateTime time,
+                                                   @Param("userId") Integer userId,
+                                                   @Param("afterEndTime") OffsetDateTime afterEndTime,
+                                                   @Param("afterId") Integer afterId,
+                                                   Pageable pageable);
+
+    /**
+     * Retrieves the listing views like {@link #findListingViews}, ending before the auction with the given end time
+     * and id. The views are returned in reverse order, the closest to that auction first.
+     */
+    @Query(LISTING_VIEWS + "AND (a.endTime < :beforeEndTime OR (a.endTime = :beforeEndTime AND a.id < :beforeId)) " +
+            "ORDER BY a.endTime DESC, a.id DESC")
+    List<AuctionListingView> findListingViewsBefore(@Param("status") AuctionStatus status,
+                                                    @Param("time") OffsetDateTime time,
+                                                    @Param("userId") Integer userId,
+                                                    @Param("beforeEndTime") OffsetDateTime beforeEndTime,
+                                                    @Param("beforeId") Integer beforeId,
+                                                    Pageable pageable);
+
+    /**
+     * Retrieves the ids of the {@link Auction} objects from the database that have the given status, end after the given
+     * time and have the most bids, the smaller id first on ties. The auctions are read in the order of the
+     * {@code (status, bid_count)} index and their number is limited by the {@link Pageable} parameter.
+     */
+    @Query("SELECT a.id FROM Auction a WHERE a.status = :status AND a.endTime > :time ORDER BY a.bidCount DESC, a.id")
+    List<Integer> findTopBidAuctionIds(@Param("status") AuctionStatus status, @Param("time") OffsetDateTime time, Pageable pageable);
+
+    /**
+     * Retrieves the id and the owner id of the {@link Auction} objects from the database that have the given status and
+     * are running at the given time, ordered by id.
+     */
+    @Query("SELECT a.id AS id, a.user.id AS userId FROM Auction a " +
+            "WHERE a.status = :status AND a.startTime <= :time AND a.endTime > :time ORDER BY a.id")
+    List<AuctionOwnerView> findOwnerViewsOfRunningAuctions(@Param("status") AuctionStatus status, @Param("time") OffsetDateTime time);
+
+    /**
+     * Retrieves the id and the end time of all the {@link Auction} objects from the database that have the given status.
+     */
+    @Query("SELECT a.id AS id, a.endTime AS endTime FROM Auction a WHERE a.status = :status")
+    List<AuctionExpiryView> findExpiryViewsByStatus(@Param("status") AuctionStatus status);
+
+    /**
+     * Retrieves the id and the end time of the {@link Auction} objects from the database that have the given status
+     * and reached their end time. The query is served by the (status, endTime) index.
+     */
+    @Query("SELECT a.id AS id, a.endTime AS endTime FROM Auction a WHERE a.status = :status AND a.endTime <= :time")
+    List<AuctionExpiryView> findEndedExpiryViewsByStatus(@Param("status") AuctionStatus status, @Param("time") OffsetDateTime time);
+
+    /**
+     * Updates the status of the given {@link Auction} objects that have a buyer, are still in the {@code currentStatus}
+     * and reached their end time.
+     *
+     * @return the number of updated auctions
+     */
+    @Modifying
+    @Query("UPDATE Auction a SET a.status = :newStatus WHERE a.id IN :ids AND a.status = :currentStatus " +
+            "AND a.endTime <= :time AND a.buyerId IS NOT NULL")
+    int updateStatusOfEndedAuctionsWithBuyer(@Param("ids") Collection<Integer> ids,
+                                             @Param("currentStatus") AuctionStatus currentStatus,
+                                             @Param("newStatus") AuctionStatus newStatus,
+                                             @Param("time") OffsetDateTime time);
+
+    /**
+     * Updates the status of the given {@link Auction} objects that received no bid, are still in the {@code currentStatus}
+     * and reached their end time.
+     *
+     * @return the number of updated auctions
+     */
+    @Modifying
+    @Query("UPDATE Auction a SET a.status = :newStatus WHERE a.id IN :ids AND a.status = :currentStatus " +
+            "AND a.endTime <= :time AND a.buyerId IS NULL")
+    int updateStatusOfEndedAuctionsWithoutBuyer(@Param("ids") Collection<Integer> ids,
+                                                @Param("currentStatus") AuctionStatus currentStatus,
+                                                @Param("newStatus") AuctionStatus newStatus,
+                                                @Param("time") OffsetDateTime time);
+
+    /**
+     * Retrieves the current price, the buyer, the status and the end time of the {@link Auction} with the given id,
+     * bypassing the entities already loaded in the persistence context.
+     */
+    @Query("SELECT a.currentPrice AS currentPrice, a.buyerId AS buyerId, a.status AS status, a.endTime AS endTime " +
+            "FROM Auction a WHERE a.id = :id")
+    Optional<AuctionPriceView> findPriceViewById(@Param("id") Integer id);
+
+    /**
+     * Sets the current price and the buyer of the {@link Auction} with the given id, only if the auction has the given
+     * status, did not reach its end time and still has the expected price and buyer. A missing buyer is expected as 0.
+     * The bid is counted by the same update.
+     *
+     * @return 1 if the auction was updated, 0 if another bid changed it first or the auction is not live anymore
+     */
+    @Modifying
+    @Query("UPDATE Auction a SET a.currentPrice = :newPrice, a.buyerId = :newBuyerId, a.bidCount = a.bidCount + 1 WHERE a.id = :id " +
+            "AND a.status = :status AND a.endTime > :time " +
+            "AND a.currentPrice = :expectedPrice AND COALESCE(a.buyerId, 0) = :expectedBuyerId")
+    int compareAndSetCurrentPrice(@Param("id") Integer id,
+                                  @Param("expectedPrice") float expectedPrice,
+                                  @Param("expectedBuyerId") Integer expectedBuyerId,
+                                  @Param("newPrice") float newPrice,
+                                  @Param("newBuyerId") Integer newBuyerId,
+                                  @Param("status") AuctionStatus status,
+                                  @Param("time") OffsetDateTime time);
+
+    /**
+     * Sets the current price and the buyer of the {@link Auction} with the given id, only if the auction has the given
+     * status, had not reached its end time at the given bid time and still has the expected price and buyer. A missing
+     * buyer is expected as 0.
+     *
+     * @return 1 if the auction was updated, 0 if it was settled or changed by another bid in the meantime
+     */
+    @Modifying
+    @Query("UPDATE Auction a SET a.currentPrice = :newPrice, a.buyerId = :newBuyerId WHERE a.id = :id " +
+            "AND a.status = :status AND a.endTime > :bidTime " +
+            "AND a.currentPrice = :expectedPrice AND COALESCE(a.buyerId, 0) = :expectedBuyerId")
+    int raiseCurrentPrice(@Param("id") Integer id,
+                          @Param("expectedPrice") float expectedPrice,
+                          @Param("expectedBuyerId") Integer expectedBuyerId,
+                          @Param("newPrice") float newPrice,
+                          @Param("newBuyerId") Integer newBuyerId,
+                          @Param("status") AuctionStatus status,
+                          @Param("bidTime") OffsetDateTime bidTime);
+
+    /**
+     * Adds the given number of saved bids to the bid count of the {@link Auction} with the given id.
+     *
+     * @return 1 if the auction was updated, 0 if it does not exist
+     */
+    @Modifying
+    @Query("UPDATE Auction a SET a.bidCount = a.bidCount + :bids WHERE a.id = :id")
+    int incrementBidCount(@Param("id") Integer id, @Param("bids") int bids);
 }
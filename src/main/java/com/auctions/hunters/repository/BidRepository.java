@@ -3,13 +3,23 @@ package com.auctions.hunters.repository;
 import com.auctions.hunters.model.Auction;
 import com.auctions.hunters.model.Bid;
 import com.auctions.hunters.model.User;
+import com.auctions.hunters.model.projection.BidderAuction;
+import com.auctions.hunters.model.projection.CoBiddingEdge;
+import com.auctions.hunters.model.projection.OutbidCandidate;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 @Repository
 @Transactional
@@ -26,4 +36,72 @@ public interface BidRepository extends JpaRepository<Bid, Integer> {
      */
     @Query("SELECT b FROM Bid b WHERE b.user = :user AND b.auction.id = :auctionId ORDER BY b.id DESC")
     List<Bid> findUserBidsForAuction(@Param("user") User user, @Param("auctionId") int auctionId);
+
+    /**
+     * Streams every (user, auction) pair where the user bid on an ACTIVE {@link Auction} that is led by another user and
+     * made more bids than he was notified about. The bids are counted rather than compared by id, since a newer bid can
+     * have a smaller id. The pairs are computed by the database in one pass over the bids of the active auctions and
+     * fetched in chunks, so the caller must consume the stream inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query(value = "SELECT b.user_id AS \"userId\", b.auction_id AS \"auctionId\" " +
+            "FROM bid b " +
+            "JOIN auction a ON a.id = b.auction_id " +
+            "LEFT JOIN outbid_notification n ON n.user_id = b.user_id AND n.auction_id = b.auction_id " +
+            "WHERE a.status = 'ACTIVE' AND a.buyer_id IS DISTINCT FROM b.user_id " +
+            "GROUP BY b.user_id, b.auction_id, n.notified_bids " +
+            "HAVING n.notified_bids IS NULL OR n.notified_bids < COUNT(*)",
+            nativeQuery = true)
+    Stream<OutbidCandidate> streamOutbidCandidates();
+
+    /**
+     * Retrieves the ids of the given list that belong to a saved {@link Bid}.
+     */
+    @Query("SELECT b.id FROM Bid b WHERE b.id IN :ids")
+    Set<Integer> findExistingIds(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Streams the number of bids every {@link User} made on the {@link Auction} objects of every other user. The counts
+     * are computed by the database and fetched in chunks, so the caller must consume the stream inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query(value = "SELECT a.user_id AS \"ownerId\", b.user_id AS \"bidderId\", COUNT(*) AS \"bids\" " +
+            "FROM bid b " +
+            "JOIN auction a ON a.id = b.auction_id " +
+            "WHERE a.user_id <> b.user_id " +
+            "GROUP BY a.user_id, b.user_id",
+            nativeQuery = true)
+    Stream<CoBiddingEdge> streamCoBiddingEdges();
+
+    /**
+     * Streams every distinct (user, auction) pair of the bids. The pairs are fetched in chunks, so the caller must
+     * consume the stream inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query(value = "SELECT DISTINCT b.user_id AS \"userId\", b.auction_id AS \"auctionId\" FROM bid b", nativeQuery = true)
+    Stream<BidderAuction> streamBidderAuctions();
+
+    /**
+     * Retrieves the users that made the most bids on the {@link Auction} objects of the given {@link User}, the most
+     * frequent first and the smaller id first on ties. The bids are counted by the database in a single query.
+     */
+    @Query(value = "SELECT b.user_id " +
+            "FROM bid b " +
+            "JOIN auction a ON a.id = b.auction_id " +
+            "WHERE a.user_id = :ownerId AND b.user_id <> :ownerId " +
+            "GROUP BY b.user_id " +
+            "ORDER BY COUNT(*) DESC, b.user_id " +
+            "LIMIT :k",
+            nativeQuery = true)
+    List<Integer> findTopBidderIdsOfOwner(@Param("ownerId") int ownerId, @Param("k") int k);
+
+    /**
+     * Retrieves the ids of the users whose {@link Auction} objects got bids from other users.
+     */
+    @Query(value = "SELECT DISTINCT a.user_id " +
+            "FROM bid b " +
+            "JOIN auction a ON a.id = b.auction_id " +
+            "WHERE a.user_id <> b.user_id",
+            nativeQuery = true)
+    List<Integer> findOwnerIdsWithBidders();
 }
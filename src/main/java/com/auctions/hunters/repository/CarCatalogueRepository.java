@@ -0,0 +1,20 @@
+package com.auctions.hunters.repository;
+
+import com.auctions.hunters.model.Car;
+import com.auctions.hunters.model.projection.CarValueCount;
+
+import java.util.List;
+
+/**
+ * Fragment of the {@link CarRepository} that reads the distinct values of the text attributes of the {@link Car}
+ * objects, for the in-memory text index of the catalogue.
+ */
+public interface CarCatalogueRepository {
+
+    /**
+     * Retrieves the number of {@link Car} objects from the database for every non null value of the given attribute.
+     *
+     * @param attribute the name of a {@code String} attribute of the {@link Car} entity
+     */
+    List<CarValueCount> findValueCounts(String attribute);
+}
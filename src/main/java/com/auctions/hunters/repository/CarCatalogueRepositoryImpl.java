@@ -0,0 +1,44 @@
+package com.auctions.hunters.repository;
+
+import com.auctions.hunters.model.Car;
+import com.auctions.hunters.model.projection.CarValueCount;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Root;
+import java.util.List;
+import java.util.Map;
+
+public class CarCatalogueRepositoryImpl implements CarCatalogueRepository {
+
+    private final EntityManager entityManager;
+    private final ProjectionFactory projectionFactory = new SpelAwareProxyProjectionFactory();
+
+    public CarCatalogueRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<CarValueCount> findValueCounts(String attribute) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<Car> root = query.from(Car.class);
+        Path<String> value = root.get(attribute);
+
+        query.multiselect(value, criteriaBuilder.count(root))
+                .where(criteriaBuilder.isNotNull(value))
+                .groupBy(value);
+
+        return entityManager.createQuery(query)
+                .getResultList()
+                .stream()
+                .map(tuple -> projectionFactory.createProjection(CarValueCount.class,
+                        Map.of("value", tuple.get(0), "cars", tuple.get(1))))
+                .toList();
+    }
+}
@@ -1,20 +1,28 @@
 package com.auctions.hunters.repository;
 
+import com.auctions.hunters.model.Auction;
 import com.auctions.hunters.model.Car;
+import com.auctions.hunters.model.enums.AuctionStatus;
+import com.auctions.hunters.model.enums.CarStatus;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 @Transactional
-public interface CarRepository extends JpaRepository<Car, Integer>, JpaSpecificationExecutor<Car> {
+public interface CarRepository extends JpaRepository<Car, Integer>, JpaSpecificationExecutor<Car>, CarSliceRepository,
+        CarCatalogueRepository {
 
     /**
      * Retrieve all cars from the database.
@@ -42,7 +50,36 @@ public interface CarRepository extends JpaRepository<Car, Integer>, JpaSpecifica
     List<Car> findAllByIdIn(List<Integer> carsIdList);
 
     /**
-     * Retrieve a list of {@link Car} objects from the database based on the body type.
+     * Retrieve the ids of the given list that belong to a saved {@link Car}.
      */
-    List<Car> findByBody(String body);
+    @Query("SELECT c.id FROM Car c WHERE c.id IN :ids")
+    Set<Integer> findExistingIds(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Updates the status of the {@link Car} objects placed in the given {@link Auction} objects that have a buyer,
+     * are still in the {@code auctionStatus} and reached their end time.
+     *
+     * @return the number of updated cars
+     */
+    @Modifying
+    @Query("UPDATE Car c SET c.status = :carStatus WHERE c.id IN (SELECT a.car.id FROM Auction a WHERE a.id IN :auctionIds " +
+            "AND a.status = :auctionStatus AND a.endTime <= :time AND a.buyerId IS NOT NULL)")
+    int updateStatusOfCarsFromEndedAuctionsWithBuyer(@Param("auctionIds") Collection<Integer> auctionIds,
+                                                     @Param("auctionStatus") AuctionStatus auctionStatus,
+                                                     @Param("carStatus") CarStatus carStatus,
+                                                     @Param("time") OffsetDateTime time);
+
+    /**
+     * Updates the status of the {@link Car} objects placed in the given {@link Auction} objects that have no buyer,
+     * are still in the {@code auctionStatus} and reached their end time.
+     *
+     * @return the number of updated cars
+     */
+    @Modifying
+    @Query("UPDATE Car c SET c.status = :carStatus WHERE c.id IN (SELECT a.car.id FROM Auction a WHERE a.id IN :auctionIds " +
+            "AND a.status = :auctionStatus AND a.endTime <= :time AND a.buyerId IS NULL)")
+    int updateStatusOfCarsFromEndedAuctionsWithoutBuyer(@Param("auctionIds") Collection<Integer> auctionIds,
+                                                        @Param("auctionStatus") AuctionStatus auctionStatus,
+                                                        @Param("carStatus") CarStatus carStatus,
+                                                        @Param("time") OffsetDateTime time);
 }
@@ -0,0 +1,20 @@
+package com.auctions.hunters.repository;
+
+import com.auctions.hunters.model.Car;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Fragment of the {@link CarRepository} that reads a limited number of {@link Car} objects matching a
+ * {@link Specification}, for the keyset paginated listings.
+ */
+public interface CarSliceRepository {
+
+    /**
+     * Retrieves at most {@code limit} {@link Car} objects from the database that match the given specification, in the
+     * given order. Unlike {@code findAll(Specification, Pageable)}, no count query is run.
+     */
+    List<Car> findSlice(Specification<Car> spec, Sort sort, int limit);
+}
@@ -0,0 +1,60 @@
+package com.auctions.hunters.repository;
+
+import com.auctions.hunters.model.EmailOutbox;
+import com.auctions.hunters.model.enums.EmailStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+@Transactional
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Integer> {
+
+    /**
+     * Locks the ids of the PENDING emails whose next attempt is due. The rows locked by another instance of the
+     * application are skipped, so every email is claimed by a single dispatcher.
+     */
+    @Query(value = "SELECT e.id FROM email_outbox e WHERE e.status = 'PENDING' AND e.next_attempt_at <= :time " +
+            "ORDER BY e.next_attempt_at LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<Integer> lockDueEmailIds(@Param("time") OffsetDateTime time, @Param("limit") int limit);
+
+    /**
+     * Postpones the next attempt of the given emails, so they are not claimed again while they are being sent.
+     */
+    @Modifying
+    @Query("UPDATE EmailOutbox e SET e.nextAttemptAt = :leaseUntil WHERE e.id IN :ids")
+    void claim(@Param("ids") Collection<Integer> ids, @Param("leaseUntil") OffsetDateTime leaseUntil);
+
+    /**
+     * Marks the email as sent.
+     */
+    @Modifying
+    @Query("UPDATE EmailOutbox e SET e.status = :status, e.sentAt = :time, e.attempts = e.attempts + 1, e.lastError = NULL " +
+            "WHERE e.id = :id")
+    void markSent(@Param("id") Integer id, @Param("status") EmailStatus status, @Param("time") OffsetDateTime time);
+
+    /**
+     * Records a failed attempt to send the email, which is retried at {@code nextAttemptAt} or dead-lettered,
+     * depending on the given status.
+     */
+    @Modifying
+    @Query("UPDATE EmailOutbox e SET e.status = :status, e.attempts = e.attempts + 1, e.nextAttemptAt = :nextAttemptAt, " +
+            "e.lastError = :error WHERE e.id = :id")
+    void markFailed(@Param("id") Integer id,
+                    @Param("status") EmailStatus status,
+                    @Param("nextAttemptAt") OffsetDateTime nextAttemptAt,
+                    @Param("error") String error);
+
+    /**
+     * Counts the emails with the given status.
+     */
+    long countByStatus(EmailStatus status);
+}
@@ -1,5 +1,6 @@
 package com.auctions.hunters.repository;
 
+import com.auctions.hunters.model.Car;
 import com.auctions.hunters.model.Image;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -20,4 +21,11 @@ public interface ImageRepository extends JpaRepository<Image, Integer> {
     @Override
     @NotNull
     List<Image> findAll();
-}
\ No newline at end of file
+
+    /**
+     * Retrieves the images of the {@link Car} with the given id, ordered by id.
+     *
+     * @return a list with the images of the car
+     */
+    List<Image> findAllByCarIdOrderById(Integer carId);
+}
@@ -0,0 +1,28 @@
+package com.auctions.hunters.repository;
+
+import com.auctions.hunters.model.Auction;
+import com.auctions.hunters.model.OutbidNotification;
+import com.auctions.hunters.model.OutbidNotificationId;
+import com.auctions.hunters.model.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+@Transactional
+public interface OutbidNotificationRepository extends JpaRepository<OutbidNotification, OutbidNotificationId> {
+
+    /**
+     * Records that the {@link User} was notified about all his bids on the {@link Auction} placed so far.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO outbid_notification (user_id, auction_id, notified_bids, notified_at) " +
+            "SELECT :userId, :auctionId, COUNT(*), now() FROM bid b WHERE b.user_id = :userId AND b.auction_id = :auctionId " +
+            "ON CONFLICT (user_id, auction_id) DO UPDATE SET notified_bids = EXCLUDED.notified_bids, " +
+            "notified_at = EXCLUDED.notified_at",
+            nativeQuery = true)
+    void markNotified(@Param("userId") Integer userId, @Param("auctionId") Integer auctionId);
+}
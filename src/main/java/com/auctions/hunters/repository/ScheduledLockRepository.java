@@ -0,0 +1,44 @@
+package com.auctions.hunters.repository;
+
+import com.auctions.hunters.model.ScheduledLock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+@Transactional
+public interface ScheduledLockRepository extends JpaRepository<ScheduledLock, String> {
+
+    /**
+     * Takes the lease of the given lock if nobody holds it or if its lease expired. The times come from the database
+     * clock, so the instances of the application do not need synchronized clocks.
+     *
+     * @return 1 if the lease was taken, 0 if another instance holds it
+     */
+    @Modifying
+    @Query(value = "INSERT INTO scheduled_lock (name, locked_by, locked_at, locked_until) " +
+            "VALUES (:name, :owner, now(), now() + :lockAtMostMillis * INTERVAL '1 millisecond') " +
+            "ON CONFLICT (name) DO UPDATE SET locked_by = EXCLUDED.locked_by, locked_at = EXCLUDED.locked_at, " +
+            "locked_until = EXCLUDED.locked_until WHERE scheduled_lock.locked_until <= now()",
+            nativeQuery = true)
+    int tryAcquire(@Param("name") String name,
+                   @Param("owner") String owner,
+                   @Param("lockAtMostMillis") long lockAtMostMillis);
+
+    /**
+     * Gives back the lease of the given lock, keeping it at least {@code lockAtLeastMillis} after it was taken so the
+     * other instances do not run the same tick again.
+     *
+     * @return 1 if the lease was given back, 0 if it expired and was taken by another instance
+     */
+    @Modifying
+    @Query(value = "UPDATE scheduled_lock SET locked_until = GREATEST(now(), locked_at + :lockAtLeastMillis * INTERVAL '1 millisecond') " +
+            "WHERE name = :name AND locked_by = :owner",
+            nativeQuery = true)
+    int release(@Param("name") String name,
+                @Param("owner") String owner,
+                @Param("lockAtLeastMillis") long lockAtLeastMillis);
+}
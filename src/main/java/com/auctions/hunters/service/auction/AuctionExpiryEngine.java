@@ -0,0 +1,264 @@
+package com.auctions.hunters.service.auction;
+
+import com.auctions.hunters.config.AuctionExpiryProperties;
+import com.auctions.hunters.model.Auction;
+import com.auctions.hunters.model.Car;
+import com.auctions.hunters.model.projection.AuctionExpiryView;
+import com.auctions.hunters.repository.AuctionRepository;
+import com.auctions.hunters.repository.CarRepository;
+import com.auctions.hunters.service.bid.LiveAuctionEngine;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.auctions.hunters.model.enums.AuctionStatus.*;
+import static com.auctions.hunters.model.enums.CarStatus.NOT_AUCTIONED;
+import static com.auctions.hunters.model.enums.CarStatus.SOLD;
+
+/**
+ * Component that closes the {@link Auction} objects as soon as they reach their end time.
+ * <p>
+ * The end times of the ACTIVE auctions are kept in a {@link DelayQueue} which is rebuilt from the database when the
+ * application starts. A single worker thread waits for the first due auction, drains all the other auctions that are
+ * due at that moment and closes them with a few batched updates, so the page views never pay for closing auctions.
+ * The auctions that have a buyer become {@link com.auctions.hunters.model.enums.AuctionStatus#CLOSED} and their
+ * {@link Car} becomes SOLD, while the auctions without bids become
+ * {@link com.auctions.hunters.model.enums.AuctionStatus#UNSOLD} and their {@link Car} can be auctioned again. An
+ * {@link AuctionsClosedEvent} is published for every closed batch.
+ */
+@Slf4j
+@Component
+@ManagedResource(objectName = "com.auctions.hunters:type=AuctionExpiryEngine", description = "Closes the finished auctions")
+public class AuctionExpiryEngine {
+
+    private final AuctionRepository auctionRepository;
+    private final CarRepository carRepository;
+    private final AuctionExpiryProperties auctionExpiryProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectProvider<LiveAuctionEngine> liveAuctionEngine;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final DelayQueue<ExpiringAuction> expiringAuctions = new DelayQueue<>();
+    private final Set<Integer> scheduledAuctionIds = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong closedAuctions = new AtomicLong();
+    private final AtomicLong maxBatchSize = new AtomicLong();
+    private final AtomicLong maxExpiryLagMillis = new AtomicLong();
+    private volatile long lastBatchSize;
+    private volatile long lastExpiryLagMillis;
+
+    private volatile Thread worker;
+
+    public AuctionExpiryEngine(AuctionRepository auctionRepository,
+                               CarRepository carRepository,
+                               AuctionExpiryProperties auctionExpiryProperties,
+                               PlatformTransactionManager transactionManager,
+                               ObjectProvider<LiveAuctionEngine> liveAuctionEngine,
+                               ApplicationEventPublisher eventPublisher) {
+        this.auctionRepository = auctionRepository;
+        this.carRepository = carRepository;
+        this.auctionExpiryProperties = auctionExpiryProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.liveAuctionEngine = liveAuctionEngine;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Loads the end times of all the ACTIVE auctions from the database and starts the worker thread.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        List<AuctionExpiryView> activeAuctions = auctionRepository.findExpiryViewsByStatus(ACTIVE);
+        activeAuctions.forEach(auction -> schedule(auction.getId(), auction.getEndTime()));
+        log.info("Scheduled the expiry of {} active auctions.", activeAuctions.size());
+
+        worker = new Thread(this::closeAuctionsWhenDue, "auction-expiry");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    /**
+     * Schedules the given {@link Auction} to be closed at its end time. An auction that is already scheduled is ignored.
+     *
+     * @param auctionId the id of the {@link Auction}
+     * @param endTime   the end time of the {@link Auction}
+     */
+    public void schedule(Integer auctionId, OffsetDateTime endTime) {
+        if (scheduledAuctionIds.add(auctionId)) {
+            long endTimeMillis = endTime.toInstant().toEpochMilli();
+            expiringAuctions.put(new ExpiringAuction(auctionId, endTimeMillis, endTimeMillis));
+        }
+    }
+
+    /**
+     * Schedules the ACTIVE auctions that already reached their end time but are not known by this engine, like the
+     * auctions created by another instance of the application.
+     */
+    @Scheduled(fixedDelayString = "${auctions.expiry.sweep-interval-ms:60000}")
+    public void scheduleOverdueAuctions() {
+        auctionRepository.findEndedExpiryViewsByStatus(ACTIVE, OffsetDateTime.now())
+                .forEach(auction -> schedule(auction.getId(), auction.getEndTime()));
+    }
+
+    /**
+     * Closes the due auctions in batches until the worker thread is interrupted.
+     */
+    private void closeAuctionsWhenDue() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                List<ExpiringAuction> dueAuctions = new ArrayList<>();
+                dueAuctions.add(expiringAuctions.take());
+                expiringAuctions.drainTo(dueAuctions, auctionExpiryProperties.getBatchSize() - 1);
+
+                closeAuctions(dueAuctions);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        log.info("The auction expiry worker stopped with {} auctions pending.", expiringAuctions.size());
+    }
+
+    /**
+     * Closes one batch of the auctions that reached their end time, without waiting for the next auction to be due.
+     *
+     * @return the number of closed auctions
+     */
+    int closeDueAuctions() {
+        List<ExpiringAuction> dueAuctions = new ArrayList<>();
+        expiringAuctions.drainTo(dueAuctions, auctionExpiryProperties.getBatchSize());
+
+        return dueAuctions.isEmpty() ? 0 : closeAuctions(dueAuctions);
+    }
+
+    /**
+     * Closes the given auctions in a single transaction. If the transaction fails, the auctions are scheduled again
+     * after the configured retry delay.
+     *
+     * @return the number of closed auctions
+     */
+    private int closeAuctions(List<ExpiringAuction> dueAuctions) {
+        List<Integer> auctionIds = dueAuctions.stream()
+                .map(ExpiringAuction::auctionId)
+                .toList();
+
+        int closed;
+        try {
+            //the bids accepted in memory before the end time must decide the buyer
+            liveAuctionEngine.ifAvailable(LiveAuctionEngine::flush);
+
+            OffsetDateTime now = OffsetDateTime.now();
+            closed = transactionTemplate.execute(status -> {
+                //the cars are updated first, while their auctions are still ACTIVE
+                carRepository.updateStatusOfCarsFromEndedAuctionsWithBuyer(auctionIds, ACTIVE, SOLD, now);
+                carRepository.updateStatusOfCarsFromEndedAuctionsWithoutBuyer(auctionIds, ACTIVE, NOT_AUCTIONED, now);
+                return auctionRepository.updateStatusOfEndedAuctionsWithBuyer(auctionIds, ACTIVE, CLOSED, now)
+                        + auctionRepository.updateStatusOfEndedAuctionsWithoutBuyer(auctionIds, ACTIVE, UNSOLD, now);
+            });
+        } catch (RuntimeException e) {
+            log.error("Could not close the auctions with ids {}, retrying later.", auctionIds, e);
+            retry(dueAuctions);
+            return 0;
+        }
+
+        auctionIds.forEach(scheduledAuctionIds::remove);
+        recordBatch(dueAuctions, closed);
+        eventPublisher.publishEvent(new AuctionsClosedEvent(auctionIds));
+
+        log.debug("Closed {} out of {} due auctions.", closed, auctionIds.size());
+        return closed;
+    }
+
+    private void retry(List<ExpiringAuction> dueAuctions) {
+        long retryAtMillis = System.currentTimeMillis() + auctionExpiryProperties.getRetryDelayMillis();
+        dueAuctions.forEach(auction ->
+                expiringAuctions.put(new ExpiringAuction(auction.auctionId(), auction.endTimeMillis(), retryAtMillis)));
+    }
+
+    private void recordBatch(List<ExpiringAuction> dueAuctions, int closed) {
+        long now = System.currentTimeMillis();
+        long lag = dueAuctions.stream()
+                .mapToLong(auction -> now - auction.endTimeMillis())
+                .max()
+                .orElse(0);
+
+        closedAuctions.addAndGet(closed);
+        lastBatchSize = dueAuctions.size();
+        lastExpiryLagMillis = lag;
+        maxBatchSize.accumulateAndGet(dueAuctions.size(), Math::max);
+        maxExpiryLagMillis.accumulateAndGet(lag, Math::max);
+    }
+
+    @ManagedAttribute(description = "The number of auctions waiting for their end time")
+    public int getPendingAuctions() {
+        return expiringAuctions.size();
+    }
+
+    @ManagedAttribute(description = "The number of auctions closed since the application started")
+    public long getClosedAuctions() {
+        return closedAuctions.get();
+    }
+
+    @ManagedAttribute(description = "The number of auctions in the last closed batch")
+    public long getLastBatchSize() {
+        return lastBatchSize;
+    }
+
+    @ManagedAttribute(description = "The largest number of auctions closed in one batch")
+    public long getMaxBatchSize() {
+        return maxBatchSize.get();
+    }
+
+    @ManagedAttribute(description = "The time in milliseconds between the end time and the closing of the last batch")
+    public long getLastExpiryLagMillis() {
+        return lastExpiryLagMillis;
+    }
+
+    @ManagedAttribute(description = "The largest time in milliseconds between the end time and the closing of an auction")
+    public long getMaxExpiryLagMillis() {
+        return maxExpiryLagMillis.get();
+    }
+
+    /**
+     * An {@link Auction} waiting in the queue until {@code dueAtMillis}, which is its end time unless closing it failed.
+     */
+    record ExpiringAuction(Integer auctionId, long endTimeMillis, long dueAtMillis) implements Delayed {
+
+        @Override
+        public long getDelay(@NotNull TimeUnit unit) {
+            return unit.convert(dueAtMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(@NotNull Delayed other) {
+            return Long.compare(dueAtMillis, ((ExpiringAuction) other).dueAtMillis);
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.auctions.hunters.service.auction;
+
+import com.auctions.hunters.config.SearchProperties;
+import com.auctions.hunters.model.Auction;
+import com.auctions.hunters.model.Car;
+import com.auctions.hunters.model.projection.AuctionFacetView;
+import com.auctions.hunters.repository.AuctionRepository;
+import com.auctions.hunters.service.car.CarFacet;
+import com.auctions.hunters.utils.IntIntHashMap;
+import com.auctions.hunters.utils.RebuildableIndex;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.auctions.hunters.model.enums.AuctionStatus.ACTIVE;
+
+/**
+ * Component that keeps in memory the number of running {@link Auction} objects whose {@link Car} has each value of
+ * every {@link CarFacet}, to show the counts next to the search without a {@code GROUP BY} per request.
+ * <p>
+ * The values of a facet are numbered as they are met, and the index keeps the value numbers of the car of every
+ * running auction, packed one auction after the other in a single {@code int} array, and the number of auctions of
+ * every value. Opening an auction adds one to the counts of the values of its car and closing it takes one away, so
+ * an update costs a few array writes whatever the number of auctions. A read sorts the values with auctions of every
+ * facet, of which there are far fewer than auctions, and is cached until the next update.
+ * <p>
+ * The counts are the ones of all the running auctions, those of the user searching included. The index is built from
+ * the running auctions when the application is ready and then updated by every opened and closed auction, as a
+ * {@link RebuildableIndex}.
+ */
+@Component
+@ManagedResource(objectName = "com.auctions.hunters:type=AuctionFacetIndex", description = "Counts the running auctions by facet of the search")
+public class AuctionFacetIndex {
+
+    private static final CarFacet[] FACETS = CarFacet.values();
+    private static final int NO_VALUE = -1;
+    private static final int MIN_CAPACITY = 64;
+
+    private final AuctionRepository auctionRepository;
+    private final int facetSize;
+    private final RebuildableIndex<Counts, Object> counts;
+
+    public AuctionFacetIndex(AuctionRepository auctionRepository,
+                             PlatformTransactionManager transactionManager,
+                             SearchProperties searchProperties) {
+        this.auctionRepository = auctionRepository;
+        this.facetSize = searchProperties.getFacetSize();
+        this.counts = new RebuildableIndex<>("auction facet index", new Counts(MIN_CAPACITY), AuctionFacetIndex::applyTo, transactionManager);
+    }
+
+    /**
+     * Counts the running auctions by facet.
+     *
+     * @return for every facet, its {@code auctions.search.facet-size} values with the most auctions, the most frequent
+     * first, the values without auction being left out
+     */
+    public Map<CarFacet, List<FacetCount>> getFacetCounts() {
+        return counts.read(current -> current.facetCounts(facetSize));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAuctionOpened(AuctionOpenedEvent event) {
+        if (event.auctionId() == null || event.car() == null) {
+            return;
+        }
+        counts.apply(event);
+    }
+
+    @EventListener
+    public void onAuctionsClosed(AuctionsClosedEvent event) {
+        counts.apply(event);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Rebuilds the index from the running auctions, picking up the auctions opened by the other instances. An auction
+     * is put or removed whole, so the changes made during the rebuild are replayed as they are.
+     */
+    @ManagedOperation(description = "Rebuilds the auction facet index from the database")
+    @Scheduled(initialDelayString = "${auctions.search.facet-rebuild-interval-ms:600000}",
+            fixedDelayString = "${auctions.search.facet-rebuild-interval-ms:600000}")
+    public void rebuild() {
+        counts.rebuild(this::load);
+    }
+
+    private Counts load() {
+        List<AuctionFacetView> runningAuctions = auctionRepository.findFacetViewsByStatusAndEndTimeAfter(ACTIVE, OffsetDateTime.now());
+
+        Counts loaded = new Counts(Math.max(MIN_CAPACITY, runningAuctions.size()));
+        for (AuctionFacetView view : runningAuctions) {
+            loaded.put(view.getAuctionId(), valuesOf(view));
+        }
+        return loaded;
+    }
+
+    private static void applyTo(Counts target, Object event) {
+        if (event instanceof AuctionOpenedEvent opened) {
+            target.put(opened.auctionId(), valuesOf(opened.car()));
+        } else if (event instanceof AuctionsClosedEvent closed) {
+            closed.auctionIds().forEach(target::remove);
+        }
+    }
+
+    private static String[] valuesOf(Car car) {
+        String[] values = new String[FACETS.length];
+        for (CarFacet facet : FACETS) {
+            values[facet.ordinal()] = facet.valueOf(car);
+        }
+        return values;
+    }
+
+    private static String[] valuesOf(AuctionFacetView view) {
+        String[] values = new String[FACETS.length];
+        for (CarFacet facet : FACETS) {
+            values[facet.ordinal()] = facet.valueOf(view);
+        }
+        return values;
+    }
+
+    @ManagedAttribute(description = "The number of running auctions in the index")
+    public int getAuctions() {
+        return counts.read(current -> current.size);
+    }
+
+    @ManagedAttribute(description = "The time in milliseconds the last rebuild took")
+    public long getLastRebuildMillis() {
+        return counts.getLastRebuildMillis();
+    }
+
+    /**
+     * The value numbers of the cars of the running auctions and the number of auctions of every value. A removed row
+     * is filled with the last one, so the rows stay contiguous. The counts by facet are cached until the next change.
+     */
+    private static final class Counts {
+
+        private final List<Map<String, Integer>> numberOfValue = new ArrayList<>(); //by facet
+        private final List<List<String>> valueOfNumber = new ArrayList<>(); //by facet
+        private final int[][] auctionsOfNumber = new int[FACETS.length][]; //by facet
+        private int[] valueNumbers; //the value number of every facet of every row, or NO_VALUE
+        private int[] auctionIds;
+        private final IntIntHashMap rowOfAuction; //the row of an auction plus one, 0 meaning no row
+        private int size;
+        private volatile Map<CarFacet, List<FacetCount>> cachedFacetCounts; //null once the counts changed
+
+        Counts(int capacity) {
+            for (int facet = 0; facet < FACETS.length; facet++) {
+                numberOfValue.add(new HashMap<>());
+                valueOfNumber.add(new ArrayList<>());
+                auctionsOfNumber[facet] = new int[MIN_CAPACITY];
+            }
+            valueNumbers = new int[capacity * FACETS.length];
+            auctionIds = new int[capacity];
+            rowOfAuction = new IntIntHashMap(capacity);
+        }
+
+        /**
+         * Computes the counts by facet, or returns the cached ones. Several readers may compute them at the same time,
+         * the counts not changing while they are read.
+         */
+        Map<CarFacet, List<FacetCount>> facetCounts(int facetSize) {
+            Map<CarFacet, List<FacetCount>> cached = cachedFacetCounts;
+            if (cached == null) {
+                Map<CarFacet, List<FacetCount>> facetCounts = new EnumMap<>(CarFacet.class);
+                for (CarFacet facet : FACETS) {
+                    facetCounts.put(facet, top(facet.ordinal(), facetSize));
+                }
+                cached = Collections.unmodifiableMap(facetCounts);
+                cachedFacetCounts = cached;
+            }
+            return cached;
+        }
+
+        void put(int auctionId, String[] values) {
+            remove(auctionId);
+            cachedFacetCounts = null;
+            if (size == auctionIds.length) {
+                grow();
+            }
+
+            int row = size++;
+            rowOfAuction.addTo(auctionId, row + 1);
+            auctionIds[row] = auctionId;
+            for (int facet = 0; facet < FACETS.length; facet++) {
+                int number = values[facet] == null ? NO_VALUE : numberOf(facet, values[facet]);
+                valueNumbers[row * FACETS.length + facet] = number;
+                if (number != NO_VALUE) {
+                    auctionsOfNumber[facet][number]++;
+                }
+            }
+        }
+
+        void remove(int auctionId) {
+            int row = rowOfAuction.remove(auctionId) - 1;
+            if (row < 0) {
+                return;
+            }
+
+            cachedFacetCounts = null;
+            for (int facet = 0; facet < FACETS.length; facet++) {
+                int number = valueNumbers[row * FACETS.length + facet];
+                if (number != NO_VALUE) {
+                    auctionsOfNumber[facet][number]--;
+                }
+            }
+
+            int last = --size;
+            if (row != last) {
+                auctionIds[row] = auctionIds[last];
+                System.arraycopy(valueNumbers, last * FACETS.length, valueNumbers, row * FACETS.length, FACETS.length);
+                rowOfAuction.addTo(auctionIds[row], row - last);
+            }
+        }
+
+        /**
+         * @return the given number of values of the facet with the most auctions, the most frequent first
+         */
+        List<FacetCount> top(int facet, int limit) {
+            List<String> values = valueOfNumber.get(facet);
+            int[] auctions = auctionsOfNumber[facet];
+
+            List<FacetCount> found = new ArrayList<>();
+            for (int number = 0; number < values.size(); number++) {
+                if (auctions[number] > 0) {
+                    found.add(new FacetCount(values.get(number), auctions[number]));
+                }
+            }
+
+            found.sort(Comparator.comparingInt(FacetCount::auctions).reversed().thenComparing(FacetCount::value));
+            return List.copyOf(found.subList(0, Math.min(limit, found.size())));
+        }
+
+        private int numberOf(int facet, String value) {
+            Integer number = numberOfValue.get(facet).get(value);
+            if (number != null) {
+                return number;
+            }
+
+            List<String> values = valueOfNumber.get(facet);
+            number = values.size();
+            values.add(value);
+            numberOfValue.get(facet).put(value, number);
+            if (number == auctionsOfNumber[facet].length) {
+                auctionsOfNumber[facet] = Arrays.copyOf(auctionsOfNumber[facet], number * 2);
+            }
+            return number;
+        }
+
+        private void grow() {
+            int capacity = auctionIds.length * 2;
+            valueNumbers = Arrays.copyOf(valueNumbers, capacity * FACETS.length);
+            auctionIds = Arrays.copyOf(auctionIds, capacity);
+        }
+    }
+}
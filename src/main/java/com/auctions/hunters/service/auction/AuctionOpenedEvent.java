@@ -0,0 +1,14 @@
+package com.auctions.hunters.service.auction;
+
+import com.auctions.hunters.model.Auction;
+import com.auctions.hunters.model.Car;
+
+/**
+ * Event published when an {@link Auction} was created and started.
+ *
+ * @param auctionId the id of the auction
+ * @param ownerId   the id of the user that sells the car
+ * @param car       the auctioned car
+ */
+public record AuctionOpenedEvent(Integer auctionId, Integer ownerId, Car car) {
+}
@@ -1,10 +1,14 @@
 package com.auctions.hunters.service.auction;
 
+import com.auctions.hunters.exceptions.LowBidAmountException;
 import com.auctions.hunters.model.Auction;
 import com.auctions.hunters.model.Car;
 import com.auctions.hunters.model.User;
-import com.auctions.hunters.model.enums.AuctionStatus;
-import org.springframework.data.domain.Page;
+import com.auctions.hunters.model.projection.AuctionListingView;
+import com.auctions.hunters.utils.KeysetRequest;
+import com.auctions.hunters.utils.KeysetSlice;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
 
 import java.util.List;
 
@@ -29,6 +33,43 @@ public interface AuctionService {
      */
     List<Auction> findAllActiveAuctions();
 
+    /**
+     * Retrieves a slice of listing views of the ACTIVE {@link Auction} objects that did not reach their end time,
+     * excluding the auctions created by the given {@link User}, starting at the cursor of the given request.
+     *
+     * @param excludedUserId the id of the {@link User} whose auctions will not be listed
+     * @param request        the cursor and the size of the slice
+     * @return a {@link KeysetSlice} of {@link AuctionListingView} objects, empty if no auction is live
+     */
+    KeysetSlice<AuctionListingView> getActiveAuctionListings(Integer excludedUserId, KeysetRequest request);
+
+    /**
+     * Retrieves a slice of listing views of the ACTIVE {@link Auction} objects that did not reach their end time and
+     * whose {@link Car} has the given body type and matches the given specification, starting at the cursor of the
+     * given request.
+     *
+     * @param bodyType the body type of the cars
+     * @param carSpec  the filters of the listing, null when the listing is not filtered
+     * @param request  the cursor and the size of the slice
+     * @return a {@link KeysetSlice} of {@link AuctionListingView} objects, empty if no such auction is live
+     */
+    KeysetSlice<AuctionListingView> getActiveAuctionListingsByBodyType(String bodyType, Specification<Car> carSpec, KeysetRequest request);
+
+    /**
+     * Retrieves a slice of listing views of the ACTIVE {@link Auction} objects that did not reach their end time, do
+     * not belong to the given user, have a current price in the given range and whose {@link Car} matches the given
+     * specification, the cheapest first, starting at the cursor of the given request.
+     *
+     * @param excludedUserId the id of the user whose auctions are skipped
+     * @param carSpec        the filters of the cars
+     * @param minPrice       the lowest current price, null for no lower bound
+     * @param maxPrice       the highest current price, null for no upper bound
+     * @param request        the cursor and the size of the slice
+     * @return a {@link KeysetSlice} of {@link AuctionListingView} objects, empty if no such auction is live
+     */
+    KeysetSlice<AuctionListingView> getActiveAuctionListingsByPrice(Integer excludedUserId, Specification<Car> carSpec,
+                                                                    Float minPrice, Float maxPrice, KeysetRequest request);
+
     /**
      * Retrieves an {@link Auction} object from the database where the foreign key, car_id is equal to the specified parameter value.
      *
@@ -46,10 +87,26 @@ public interface AuctionService {
     List<Auction> getAllAuctionsByUserId(Integer userId);
 
     /**
-     * Retrieves a limited by size list with all the ACTIVE {@link Auction} objects from the database that have the most bidders.
+     * Retrieves from the database, in a single query, the {@link Auction} objects of the given {@link User} ids.
+     *
+     * @param userIds the IDs of the users for which the auctions will be retrieved from the database
+     * @return the {@link Auction} objects of the users, grouped by user in the order of the given ids
+     */
+    List<Auction> getAllAuctionsByUserIds(List<Integer> userIds);
+
+    /**
+     * Retrieves from the database the {@link Auction} objects with the given ids, in the order of the ids.
+     *
+     * @param auctionIds the ids of the auctions
+     * @return a list of the found {@link Auction} objects, without the ids that were not found
+     */
+    List<Auction> getAuctionsByIds(List<Integer> auctionIds);
+
+    /**
+     * Retrieves a limited by size list with all the ACTIVE {@link Auction} objects from the database that have the most bids.
      * <p>
-     * Sort descendent the auctions list to het the top bidders, filter only the auctions that have {@link AuctionStatus#ACTIVE}
-     * as status and limit the number of list elements by the parameter value.
+     * The auctions are sorted by their bid count by the database and the list is kept for a few seconds, so the most bid
+     * auctions can be read on every request.
      *
      * @param limit the list limitation size
      * @return a list of {@link Auction} objects if the bidders bid on auctions / an empty list otherwise
@@ -65,27 +122,23 @@ public interface AuctionService {
     List<Integer> getBidderIds(Integer auctionId);
 
     /**
-     * Method used for setting the price of all {@link Car} objects that are listed in the auctions.
+     * Method used for setting the price of all {@link Car} objects that are listed in the auctions, with a single query.
+     *
+     * @return the current price of the auction of every car of the page, in the order of the page, or 0 for the cars
+     * that are not auctioned
      */
-    List<Float> setCurrentPriceForEachCarPage(Page<Car> carPage);
+    List<Float> setCurrentPriceForEachCarPage(Slice<Car> carPage);
 
     /**
-     * Update the current price of an {@link Auction} that`s live.
+     * Atomically update the current price of an {@link Auction} that`s live, if the new price is the highest one.
      *
      * @param auctionId    persisted {@link Auction} auctionId
      * @param currentPrice the new price of the {@link Auction}
+     * @param buyerId      the id of the {@link User} who offers the new price
+     * @return the id of the {@link User} whose bid was overtaken, null if the auction had no bid
+     * @throws LowBidAmountException if the price is not higher than the current one or the auction is not live anymore
      */
-    void updateAuctionCurrentPrice(Integer auctionId, float currentPrice, Integer buyerId);
-
-    /**
-     * Manages all the finished auctions. The finished auctions are removed from the live table of {@link Auction}
-     */
-    Page<Car> manageFinishedAuctions(User user, Page<Car> carPage);
-
-    /**
-     * Manages all the finished auctions for the logged user.
-     */
-    void manageFinishedAuctions();
+    Integer updateAuctionCurrentPrice(Integer auctionId, float currentPrice, Integer buyerId) throws LowBidAmountException;
 
     /**
      * Retrieves a list of SOLD {@link Auction} from the database where the specified buyer has won.
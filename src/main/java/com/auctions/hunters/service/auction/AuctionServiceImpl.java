@@ -1,25 +1,37 @@
 package com.auctions.hunters.service.auction;
 
+import com.auctions.hunters.exceptions.LowBidAmountException;
 import com.auctions.hunters.exceptions.ResourceNotFoundException;
 import com.auctions.hunters.model.Auction;
 import com.auctions.hunters.model.Bid;
 import com.auctions.hunters.model.Car;
 import com.auctions.hunters.model.User;
 import com.auctions.hunters.model.enums.AuctionStatus;
-import com.auctions.hunters.model.enums.CarStatus;
+import com.auctions.hunters.model.projection.AuctionListingView;
+import com.auctions.hunters.model.projection.AuctionPriceView;
+import com.auctions.hunters.model.projection.CarPriceView;
 import com.auctions.hunters.repository.AuctionRepository;
 import com.auctions.hunters.service.car.CarService;
 import com.auctions.hunters.service.user.UserService;
+import com.auctions.hunters.utils.KeysetCursor;
+import com.auctions.hunters.utils.KeysetRequest;
+import com.auctions.hunters.utils.KeysetSlice;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static com.auctions.hunters.model.enums.AuctionStatus.*;
 import static com.auctions.hunters.model.enums.CarStatus.AUCTIONED;
@@ -34,13 +46,28 @@ public class AuctionServiceImpl implements AuctionService {
     private final AuctionRepository auctionRepository;
     private final UserService userService;
     private final CarService carService;
+    private final AuctionExpiryEngine auctionExpiryEngine;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TopBidAuctionsCache topBidAuctionsCache;
+    private final ListingStatistics listingStatistics;
+
+    private static final int MAX_BID_ATTEMPTS = 5;
+    private static final int NO_BUYER_ID = 0; //the expected buyer id of an auction without bids
 
     public AuctionServiceImpl(AuctionRepository auctionRepository,
                               UserService userService,
-                              CarService carService) {
+                              CarService carService,
+                              AuctionExpiryEngine auctionExpiryEngine,
+                              ApplicationEventPublisher eventPublisher,
+                              TopBidAuctionsCache topBidAuctionsCache,
+                              ListingStatistics listingStatistics) {
         this.auctionRepository = auctionRepository;
         this.userService = userService;
         this.carService = carService;
+        this.auctionExpiryEngine = auctionExpiryEngine;
+        this.eventPublisher = eventPublisher;
+        this.topBidAuctionsCache = topBidAuctionsCache;
+        this.listingStatistics = listingStatistics;
     }
 
     /**
@@ -77,6 +104,10 @@ public class AuctionServiceImpl implements AuctionService {
         auctionRepository.save(newAuction);
         log.debug("Auction with id {} has been created.", newAuction.getId());
 
+        //the auction will be closed by the expiry engine as soon as it reaches its end time
+        auctionExpiryEngine.schedule(newAuction.getId(), newAuction.getEndTime());
+        eventPublisher.publishEvent(new AuctionOpenedEvent(newAuction.getId(), user.getId(), car));
+
         return newAuction;
     }
 
@@ -87,9 +118,7 @@ public class AuctionServiceImpl implements AuctionService {
      */
     @Override
     public List<Auction> findAllActiveAuctions() {
-        List<Auction> auctionList = auctionRepository.findAll().stream()
-                .filter(auction -> auction.getStatus().equals(ACTIVE))
-                .toList();
+        List<Auction> auctionList = auctionRepository.findAllByStatusAndEndTimeAfter(ACTIVE, getDateTime());
 
         if (auctionList.isEmpty()) {
             log.debug("The auctions list was empty.");
@@ -100,6 +129,97 @@ public class AuctionServiceImpl implements AuctionService {
         return new ArrayList<>(auctionList);
     }
 
+    /**
+     * Retrieves a slice of listing views of the ACTIVE {@link Auction} objects that did not reach their end time,
+     * excluding the auctions created by the given {@link User}. The auctions that end first are listed first.
+     * <p>
+     * The slice is read from the (status, endTime) index starting at the cursor of the request, so the cost of a page
+     * does not depend on how deep it is, and no count query is run over the listing: the total is the approximate number
+     * of running auctions kept by the {@link ListingStatistics}, without the auctions of the excluded user. Only the
+     * listed columns are read, so the {@link Car} entities and their images are not loaded.
+     *
+     * @param excludedUserId the id of the {@link User} whose auctions will not be listed
+     * @param request        the cursor and the size of the slice
+     * @return a {@link KeysetSlice} of {@link AuctionListingView} objects, empty if no auction is live
+     */
+    @Override
+    public KeysetSlice<AuctionListingView> getActiveAuctionListings(Integer excludedUserId, KeysetRequest request) {
+        OffsetDateTime now = getDateTime();
+        PageRequest limit = PageRequest.of(0, request.limit());
+        KeysetCursor cursor = request.cursor();
+
+        List<AuctionListingView> views;
+        if (request.isFirst()) {
+            views = auctionRepository.findListingViews(ACTIVE, now, excludedUserId, limit);
+        } else if (request.backwards()) {
+            views = auctionRepository.findListingViewsBefore(ACTIVE, now, excludedUserId, cursor.keyAsTime(), cursor.id(), limit);
+        } else {
+            views = auctionRepository.findListingViewsAfter(ACTIVE, now, excludedUserId, cursor.keyAsTime(), cursor.id(), limit);
+        }
+
+        KeysetSlice<AuctionListingView> slice = KeysetSlice.of(views, request,
+                view -> KeysetCursor.of(view.getEndTime(), view.getId()), listingStatistics.getActiveAuctionsNotOwnedBy(excludedUserId));
+        log.debug("Retrieved {} active auctions after cursor {}.", slice.getNumberOfElements(), cursor);
+        return slice;
+    }
+
+    /**
+     * Retrieves a slice of listing views of the ACTIVE {@link Auction} objects that did not reach their end time and
+     * whose {@link Car} has the given body type and matches the given specification, the first to end first.
+     * <p>
+     * The auctions are joined to the cars found through the (body, status) index and read from the cursor of the
+     * request, like {@link #getActiveAuctionListings}. The total is the approximate number of running auctions with
+     * the body type kept by the {@link ListingStatistics}. No total is attached when the listing is filtered, since it
+     * depends on the filters.
+     *
+     * @param bodyType the body type of the cars
+     * @param carSpec  the filters of the listing, null when the listing is not filtered
+     * @param request  the cursor and the size of the slice
+     * @return a {@link KeysetSlice} of {@link AuctionListingView} objects, empty if no such auction is live
+     */
+    @Override
+    public KeysetSlice<AuctionListingView> getActiveAuctionListingsByBodyType(String bodyType, Specification<Car> carSpec,
+                                                                             KeysetRequest request) {
+        Specification<Car> bodySpec = Specification.where(carSpec)
+                .and((root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("body"), bodyType))
+                .and((root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("status"), AUCTIONED));
+
+        List<AuctionListingView> views = auctionRepository.findListingViewsOfCars(bodySpec, ACTIVE, getDateTime(), request);
+
+        KeysetSlice<AuctionListingView> slice = KeysetSlice.of(views, request,
+                view -> KeysetCursor.of(view.getEndTime(), view.getId()),
+                carSpec == null ? listingStatistics.getActiveAuctionsWithBody(bodyType) : null);
+        log.debug("Retrieved {} active auctions with body type {} after cursor {}.", slice.getNumberOfElements(), bodyType, request.cursor());
+        return slice;
+    }
+
+    /**
+     * Retrieves a slice of listing views of the ACTIVE {@link Auction} objects that did not reach their end time, do
+     * not belong to the given user, have a current price in the given range and whose {@link Car} matches the given
+     * specification, the cheapest first.
+     * <p>
+     * The auctions are read in the order of the (status, current_price, id) index, from the cursor of the request, and
+     * joined to their cars in the same query. No total is attached, since it depends on the filters.
+     *
+     * @param excludedUserId the id of the user whose auctions are skipped
+     * @param carSpec        the filters of the cars
+     * @param minPrice       the lowest current price, null for no lower bound
+     * @param maxPrice       the highest current price, null for no upper bound
+     * @param request        the cursor and the size of the slice
+     * @return a {@link KeysetSlice} of {@link AuctionListingView} objects, empty if no such auction is live
+     */
+    @Override
+    public KeysetSlice<AuctionListingView> getActiveAuctionListingsByPrice(Integer excludedUserId, Specification<Car> carSpec,
+                                                                           Float minPrice, Float maxPrice, KeysetRequest request) {
+        List<AuctionListingView> views = auctionRepository.findListingViewsOfCarsByPrice(carSpec, ACTIVE, getDateTime(),
+                excludedUserId, minPrice, maxPrice, request);
+
+        KeysetSlice<AuctionListingView> slice = KeysetSlice.of(views, request,
+                view -> KeysetCursor.of(view.getCurrentPrice(), view.getId()), null);
+        log.debug("Retrieved {} active auctions priced from {} to {} after cursor {}.", slice.getNumberOfElements(), minPrice, maxPrice, request.cursor());
+        return slice;
+    }
+
     /**
      * Retrieves an {@link Auction} object from the database where the foreign key, car_id is equal to the specified parameter value.
      *
@@ -130,22 +250,58 @@ public class AuctionServiceImpl implements AuctionService {
     }
 
     /**
-     * Retrieves a limited by size list with all the ACTIVE {@link Auction} objects from the database that have the most bidders.
+     * Retrieves from the database, in a single query, the {@link Auction} objects of the given {@link User} ids.
+     *
+     * @param userIds the IDs of the users for which the auctions will be retrieved from the database
+     * @return the {@link Auction} objects of the users, grouped by user in the order of the given ids
+     */
+    @Override
+    public List<Auction> getAllAuctionsByUserIds(List<Integer> userIds) {
+        if (userIds.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Integer, List<Auction>> auctionsByUserId = auctionRepository.findByUserIdIn(userIds).stream()
+                .collect(Collectors.groupingBy(auction -> auction.getUser().getId()));
+        return userIds.stream()
+                .distinct()
+                .flatMap(userId -> auctionsByUserId.getOrDefault(userId, of()).stream())
+                .toList();
+    }
+
+    /**
+     * Retrieves from the database the {@link Auction} objects with the given ids, in the order of the ids.
+     *
+     * @param auctionIds the ids of the auctions
+     * @return a list of the found {@link Auction} objects, without the ids that were not found
+     */
+    @Override
+    public List<Auction> getAuctionsByIds(List<Integer> auctionIds) {
+        if (auctionIds.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Integer, Auction> auctionsById = auctionRepository.findByIdIn(auctionIds).stream()
+                .collect(Collectors.toMap(Auction::getId, Function.identity()));
+        return auctionIds.stream()
+                .map(auctionsById::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Retrieves a limited by size list with all the ACTIVE {@link Auction} objects from the database that have the most bids.
      * <p>
-     * Sort descendent the auctions list to het the top bidders, filter only the auctions that have {@link AuctionStatus#ACTIVE}
-     * as status and limit the number of list elements by the parameter value.
+     * The ids of the auctions are read from the {@code (status, bid_count)} index by the database and kept for a few
+     * seconds by the {@link TopBidAuctionsCache}, then the auctions are read by their ids.
      *
      * @param limit the list limitation size
      * @return a list of {@link Auction} objects if the bidders bid on auctions / an empty list otherwise
      */
     @Override
     public List<Auction> getTopBidAuctions(int limit) {
-        return auctionRepository.findAll().stream()
-                // the auctions with the most bidders will be listed
-                .sorted(Comparator.comparing(a -> a.getBidders().size(), Comparator.reverseOrder()))
-                .filter(auction -> auction.getStatus().equals(ACTIVE))
-                .limit(limit)
-                .toList();
+        // the auctions with the most bids will be listed
+        return getAuctionsByIds(topBidAuctionsCache.getTopBidAuctionIds(limit));
     }
 
     /**
@@ -182,184 +338,88 @@ public class AuctionServiceImpl implements AuctionService {
 
     /**
      * Method used for setting the price of all {@link Car} objects that are listed in the auctions.
+     * <p>
+     * The prices of all the cars of the page are read with a single query, whatever the size of the page.
+     *
+     * @return the current price of the auction of every car of the page, in the order of the page, or 0 for the cars
+     * that are not auctioned
      */
     @Override
-    public List<Float> setCurrentPriceForEachCarPage(Page<Car> carPage) {
-        List<Float> auctionsCurrentPriceList = new ArrayList<>();
+    public List<Float> setCurrentPriceForEachCarPage(Slice<Car> carPage) {
         List<Car> carList = carPage.getContent();
+        if (carList.isEmpty()) {
+            return new ArrayList<>();
+        }
 
-        for (Car car : carList) {
-            Auction auction = getAuctionByCarId(car.getId());
+        List<Integer> carIds = carList.stream().map(Car::getId).toList();
+        Map<Integer, Float> currentPriceByCarId = new HashMap<>();
+        for (CarPriceView carPrice : auctionRepository.findCarPriceViewsByCarIdIn(carIds)) {
+            currentPriceByCarId.put(carPrice.getCarId(), carPrice.getCurrentPrice());
+        }
 
-            if (auction != null) {
-                auctionsCurrentPriceList.add(auction.getCurrentPrice());
-            } else {
-                auctionsCurrentPriceList.add(0f);
-            }
+        List<Float> auctionsCurrentPriceList = new ArrayList<>(carList.size());
+        for (Integer carId : carIds) {
+            auctionsCurrentPriceList.add(currentPriceByCarId.getOrDefault(carId, 0f));
         }
 
         return auctionsCurrentPriceList;
     }
 
     /**
-     * Update the current price of an {@link Auction} that`s live.
+     * Atomically update the current price of an {@link Auction} that`s live, if the new price is the highest one.
+     * <p>
+     * The price is changed with a compare-and-set update that only succeeds if nobody else bid since the auction was
+     * read, so concurrent bidders can never overwrite a higher bid. When another bid wins the race, the auction is read
+     * again and the update is retried, at most {@value #MAX_BID_ATTEMPTS} times.
+     * A bid equal to the current price is only accepted if the auction had no bid yet.
      *
      * @param auctionId    persisted {@link Auction} auctionId
      * @param currentPrice the new price of the {@link Auction}
+     * @param buyerId      the id of the {@link User} who offers the new price
+     * @return the id of the {@link User} whose bid was overtaken, null if the auction had no bid
+     * @throws LowBidAmountException if the price is not higher than the current one or the auction is not live anymore
      */
     @Override
-    public void updateAuctionCurrentPrice(Integer auctionId, float currentPrice, Integer buyerId) {
-        String errorMessage = String.format("Auction with the id: %s was not found!", auctionId);
+    public Integer updateAuctionCurrentPrice(Integer auctionId, float currentPrice, Integer buyerId) throws LowBidAmountException {
+        for (int attempt = 1; attempt <= MAX_BID_ATTEMPTS; attempt++) {
+            AuctionPriceView auction = auctionRepository.findPriceViewById(auctionId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Auction", "id", auctionId));
+            OffsetDateTime now = OffsetDateTime.now();
 
-        Auction auction = auctionRepository.findById(auctionId).orElseThrow(() -> new IllegalArgumentException(errorMessage));
-        log.debug("Successfully retrieved auction with id {}", auction.getId());
+            checkBidIsAccepted(auctionId, currentPrice, auction, now);
 
-        auction.setCurrentPrice(currentPrice);
-        auction.setBuyerId(buyerId);
-
-        // Save the updated car back to the database
-        auctionRepository.save(auction);
-    }
+            Integer previousBuyerId = auction.getBuyerId();
+            int updatedRows = auctionRepository.compareAndSetCurrentPrice(auctionId, auction.getCurrentPrice(),
+                    previousBuyerId == null ? NO_BUYER_ID : previousBuyerId, currentPrice, buyerId, ACTIVE, now);
 
-    /**
-     * Manages all the finished auctions. The finished auctions are removed from the live table of {@link Auction}
-     * The return type is {@link Page<Car>} because it will be used to update the live tables.
-     */
-    @Override
-    public Page<Car> manageFinishedAuctions(User user, Page<Car> carPage) {
-        log.debug("Start processing the finished auctions.");
-
-        List<Auction> finishedUserAuctionsList = retrieveAllFinishedAuctionsFromACarPage(user);
-
-        Page<Car> updatedCarPage = updateLiveAuctionsIntoFinishAuctions(finishedUserAuctionsList, carPage);
-
-        log.debug("Stop processing the finished auctions.");
-        return updatedCarPage;
-    }
-
-    /**
-     * Manages all the finished auctions. The finished auctions are removed from the live table of {@link Auction}
-     * The return type is void because it will be used in the "/payment" template.
-     */
-    @Override
-    public void manageFinishedAuctions() {
-        String loggedUsername = userService.getLoggedUsername();
-        User user = userService.findByUsername(loggedUsername);
-
-        log.debug(String.format("Start processing the finished auctions for %s.", loggedUsername));
-
-        List<Auction> finishedUserAuctionsList = retrieveAllFinishedAuctionsFromACarPage(user);
-
-        updateLiveAuctionsIntoFinishAuctions(finishedUserAuctionsList);
-
-        log.debug("Stop processing the finished auctions.");
-    }
-
-    /**
-     * Retrieves a list of {@link Auction} objects, representing the finished auctions from the car pages.
-     *
-     * @param buyer the user for whom the {@link Auction} objects are retrieved
-     * @return a list of finished {@link Auction} objects
-     */
-    private List<Auction> retrieveAllFinishedAuctionsFromACarPage(User buyer) {
-        //filter the auctions list to see if they are finished
-        OffsetDateTime now = getDateTime();
-        List<Auction> endedAuctions = auctionRepository.findAll().stream()
-                .filter(auction -> now.isAfter(auction.getEndTime()))
-                .toList();
-
-        List<Auction> endedAuctionsForBuyer = endedAuctions.stream()
-                .filter(auction -> auction.getBuyerId() != null && auction.getBuyerId().equals(buyer.getId()))
-                .toList();
-
-        List<Auction> finishedAuctions = endedAuctionsForBuyer.stream()
-                .filter(auction -> auction.getStatus().equals(ACTIVE))
-                .toList();
-
-        String logMessage = String.format("Retrieved %d finished won auctions for user %s", finishedAuctions.size(), buyer.getUsername());
-        log.info(logMessage);
-
-        return finishedAuctions;
-    }
-
-    /**
-     * Method used for retrieving a list of finished {@link Auction} objects and update their status from
-     * ACTIVE to SOLD.
-     *
-     * @param finishedAuctionList the retrieved auction list.
-     * @param carPage             the car page from where the auctions are retrieved.
-     */
-    private Page<Car> updateLiveAuctionsIntoFinishAuctions(List<Auction> finishedAuctionList, Page<Car> carPage) {
-        List<Car> carList = finishedAuctionList.stream()
-                .map(Auction::getCar)
-                .toList();
-
-        List<Car> updatedCarList = carList.stream()
-                .map(car -> carService.updateCarAuctionStatus(car.getId(), CarStatus.SOLD))
-                .toList();
-
-        List<Integer> carIdsList = carList.stream()
-                .map(Car::getId)
-                .toList();
-
-        if (!updatedCarList.isEmpty()) {
-            // Update the status of all finished auctions to CLOSED
-            updateAuctionStatus(finishedAuctionList, CLOSED);
-
-            // Save the updated auctions to the database
-            updateAuctionList(finishedAuctionList);
-
-            // Filter the carPage content to exclude finished auctions
-            List<Car> filteredCarList = carPage.getContent().stream()
-                    .filter(car -> !updatedCarList.contains(car))
-                    .toList();
-
-            Page<Car> updatedPage = new PageImpl<>(filteredCarList, carPage.getPageable(), carPage.getTotalElements() - updatedCarList.size());
+            if (updatedRows == 1) {
+                log.debug("Auction with id {} has the new price {} after {} attempt(s).", auctionId, currentPrice, attempt);
+                return previousBuyerId;
+            }
 
-            log.debug(String.format("%s cars with IDs %s were deleted from the live finishedAuctionList.", updatedCarList.size(), carIdsList));
-            return updatedPage;
+            log.debug("Auction with id {} was changed by another bid, retrying.", auctionId);
         }
 
-        log.debug("No cars were found to be processed as the list of finished finishedAuctionList is empty.");
-        return carPage;
+        String exceptionMessage = String.format("%s bid amount could not be placed on auction %s, too many concurrent bids.", currentPrice, auctionId);
+        log.debug(exceptionMessage);
+        throw new LowBidAmountException(exceptionMessage);
     }
 
-    private void updateLiveAuctionsIntoFinishAuctions(List<Auction> finishedAuctionList) {
-        List<Car> carList = finishedAuctionList.stream()
-                .map(Auction::getCar)
-                .toList();
-
-        List<Car> updatedCarList = carList.stream()
-                .map(car -> carService.updateCarAuctionStatus(car.getId(), CarStatus.SOLD))
-                .toList();
-
-        List<Integer> carIdsList = carList.stream()
-                .map(Car::getId)
-                .toList();
-
-        if (!updatedCarList.isEmpty()) {
-            // Update the status of all finished auctions to CLOSED
-            updateAuctionStatus(finishedAuctionList, CLOSED);
-
-            // Save the updated auctions to the database
-            updateAuctionList(finishedAuctionList);
-
-            log.debug(String.format("%s cars with IDs %s were deleted from the live finishedAuctionList.", updatedCarList.size(), carIdsList));
+    private void checkBidIsAccepted(Integer auctionId, float amount, AuctionPriceView auction, OffsetDateTime now) throws LowBidAmountException {
+        if (auction.getStatus() != ACTIVE || !auction.getEndTime().isAfter(now)) {
+            String exceptionMessage = String.format("Auction %s is not live anymore.", auctionId);
+            log.debug(exceptionMessage);
+            throw new LowBidAmountException(exceptionMessage);
         }
 
-        log.debug("No cars were found to be processed as the list of finished finishedAuctionList is empty.");
-    }
+        boolean isHigher = amount > auction.getCurrentPrice()
+                || (amount == auction.getCurrentPrice() && auction.getBuyerId() == null);
 
-    /**
-     * Updates the list of {@link Auction} objects in the database.
-     * The method saves all the items in the list using the {@link AuctionRepository#saveAll} method.
-     * If an auction with the same ID already exists in the database, it will be updated with the values from the provided object.
-     * If it does not exist, a new auction will be created.
-     *
-     * @param auctionList a {@link List} of {@link Auction} objects to be updated or saved in the database
-     */
-    private void updateAuctionList(List<Auction> auctionList) {
-        auctionRepository.saveAll(auctionList);
+        if (!isHigher) {
+            String exceptionMessage = String.format("%s bid amount is not higher than %s.", amount, auction.getCurrentPrice());
+            log.debug(exceptionMessage);
+            throw new LowBidAmountException(exceptionMessage);
+        }
     }
 
     /**
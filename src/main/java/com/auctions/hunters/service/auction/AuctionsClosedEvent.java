@@ -0,0 +1,14 @@
+package com.auctions.hunters.service.auction;
+
+import com.auctions.hunters.model.Auction;
+
+import java.util.List;
+
+/**
+ * Event published when the {@link AuctionExpiryEngine} closed a batch of {@link Auction} objects that reached their
+ * end time.
+ *
+ * @param auctionIds the ids of the closed auctions
+ */
+public record AuctionsClosedEvent(List<Integer> auctionIds) {
+}
@@ -0,0 +1,10 @@
+package com.auctions.hunters.service.auction;
+
+/**
+ * The number of running auctions whose car has a value of a facet of the search.
+ *
+ * @param value    the value of the facet
+ * @param auctions the number of auctions
+ */
+public record FacetCount(String value, int auctions) {
+}
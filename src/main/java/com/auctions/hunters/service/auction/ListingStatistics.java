@@ -0,0 +1,122 @@
+package com.auctions.hunters.service.auction;
+
+import com.auctions.hunters.config.ListingProperties;
+import com.auctions.hunters.model.Auction;
+import com.auctions.hunters.model.Car;
+import com.auctions.hunters.model.projection.CarBodyCount;
+import com.auctions.hunters.repository.AuctionRepository;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.auctions.hunters.model.enums.AuctionStatus.ACTIVE;
+import static com.auctions.hunters.utils.DateUtils.getDateTime;
+
+/**
+ * Component that keeps for {@code auctions.listing.statistics-ttl-ms} the counts shown as approximate totals by the
+ * keyset paginated listings, which do not count their rows on every page. The counts are read with one query each
+ * and may be stale by up to the time to live, which is why the listings show them as approximate.
+ */
+@Component
+@ManagedResource(objectName = "com.auctions.hunters:type=ListingStatistics", description = "Caches the approximate totals of the listings")
+public class ListingStatistics {
+
+    private final AuctionRepository auctionRepository;
+    private final long ttlNanos;
+
+    private volatile Entry<Long> activeAuctions;
+    private volatile Entry<Map<String, Long>> activeAuctionsByBody;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public ListingStatistics(AuctionRepository auctionRepository, ListingProperties listingProperties) {
+        this.auctionRepository = auctionRepository;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(listingProperties.getStatisticsTtlMillis());
+    }
+
+    /**
+     * @return the number of running {@link Auction} objects, read from the database at most once per time to live
+     */
+    public long getActiveAuctions() {
+        long now = System.nanoTime();
+        Entry<Long> entry = activeAuctions;
+        if (isFresh(entry, now)) {
+            return entry.value();
+        }
+
+        long count = auctionRepository.countByStatusAndEndTimeAfter(ACTIVE, getDateTime());
+        activeAuctions = new Entry<>(count, now);
+        return count;
+    }
+
+    /**
+     * @param userId the id of the user whose auctions are not counted, null to count every auction
+     * @return the number of running {@link Auction} objects that do not belong to the given user, which are the ones
+     * listed to him. The auctions of the user are counted on every call, through the (user_id, status) index, and
+     * subtracted from the cached total.
+     */
+    public long getActiveAuctionsNotOwnedBy(Integer userId) {
+        long count = getActiveAuctions();
+        if (userId == null) {
+            return count;
+        }
+
+        //the cached total may be older than the count of the user's auctions
+        return Math.max(0, count - auctionRepository.countByUserIdAndStatusAndEndTimeAfter(userId, ACTIVE, getDateTime()));
+    }
+
+    /**
+     * @param body the body type of the cars
+     * @return the number of running {@link Auction} objects whose {@link Car} has the given body type, read from the
+     * database with the counts of all the body types at most once per time to live
+     */
+    public long getActiveAuctionsWithBody(String body) {
+        long now = System.nanoTime();
+        Entry<Map<String, Long>> entry = activeAuctionsByBody;
+        if (!isFresh(entry, now)) {
+            Map<String, Long> counts = new HashMap<>();
+            for (CarBodyCount bodyCount : auctionRepository.findBodyCountsByStatusAndEndTimeAfter(ACTIVE, getDateTime())) {
+                if (bodyCount.getBody() != null) {
+                    counts.put(bodyCount.getBody(), bodyCount.getCars());
+                }
+            }
+            entry = new Entry<>(Map.copyOf(counts), now);
+            activeAuctionsByBody = entry;
+        }
+        return entry.value().getOrDefault(body, 0L);
+    }
+
+    private boolean isFresh(Entry<?> entry, long now) {
+        if (entry != null && now - entry.loadedAtNanos() < ttlNanos) {
+            hits.incrementAndGet();
+            return true;
+        }
+        misses.incrementAndGet();
+        return false;
+    }
+
+    @ManagedOperation(description = "Drops the cached counts")
+    public void invalidate() {
+        activeAuctions = null;
+        activeAuctionsByBody = null;
+    }
+
+    @ManagedAttribute(description = "The number of reads served from memory")
+    public long getHits() {
+        return hits.get();
+    }
+
+    @ManagedAttribute(description = "The number of reads that queried the database")
+    public long getMisses() {
+        return misses.get();
+    }
+
+    private record Entry<T>(T value, long loadedAtNanos) {
+    }
+}
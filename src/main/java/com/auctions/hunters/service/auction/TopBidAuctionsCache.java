@@ -0,0 +1,87 @@
+package com.auctions.hunters.service.auction;
+
+import com.auctions.hunters.config.TopBidAuctionsProperties;
+import com.auctions.hunters.model.Auction;
+import com.auctions.hunters.repository.AuctionRepository;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.auctions.hunters.model.enums.AuctionStatus.ACTIVE;
+import static com.auctions.hunters.utils.DateUtils.getDateTime;
+
+/**
+ * Component that keeps for {@code auctions.top-bid.cache-ttl-ms} the ids of the running {@link Auction} objects with
+ * the most bids, which the recommender fallback and the homepage read on every request. Only the ids are kept, so the
+ * auctions are still read fresh by their primary key. The entries are dropped when auctions close, so a closed
+ * auction is not served until the entry expires.
+ */
+@Component
+@ManagedResource(objectName = "com.auctions.hunters:type=TopBidAuctionsCache", description = "Caches the auctions with the most bids")
+public class TopBidAuctionsCache {
+
+    private final AuctionRepository auctionRepository;
+    private final long ttlNanos;
+
+    private final Map<Integer, Entry> entriesByLimit = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public TopBidAuctionsCache(AuctionRepository auctionRepository,
+                               TopBidAuctionsProperties topBidAuctionsProperties) {
+        this.auctionRepository = auctionRepository;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(topBidAuctionsProperties.getCacheTtlMillis());
+    }
+
+    /**
+     * Returns the ids of the running auctions with the most bids, the most bid first.
+     *
+     * @param limit the maximum number of ids returned
+     * @return the ids, read from the database at most once per time to live and limit
+     */
+    public List<Integer> getTopBidAuctionIds(int limit) {
+        long now = System.nanoTime();
+        Entry entry = entriesByLimit.get(limit);
+        if (entry != null && now - entry.loadedAtNanos() < ttlNanos) {
+            hits.incrementAndGet();
+            return entry.auctionIds();
+        }
+
+        misses.incrementAndGet();
+        List<Integer> auctionIds = List.copyOf(auctionRepository.findTopBidAuctionIds(ACTIVE, getDateTime(), PageRequest.of(0, limit)));
+        entriesByLimit.put(limit, new Entry(auctionIds, now));
+        return auctionIds;
+    }
+
+    @EventListener
+    public void onAuctionsClosed(AuctionsClosedEvent event) {
+        invalidate();
+    }
+
+    @ManagedOperation(description = "Drops the cached auction ids")
+    public void invalidate() {
+        entriesByLimit.clear();
+    }
+
+    @ManagedAttribute(description = "The number of reads served from memory")
+    public long getHits() {
+        return hits.get();
+    }
+
+    @ManagedAttribute(description = "The number of reads that queried the database")
+    public long getMisses() {
+        return misses.get();
+    }
+
+    private record Entry(List<Integer> auctionIds, long loadedAtNanos) {
+    }
+}
@@ -0,0 +1,16 @@
+package com.auctions.hunters.service.bid;
+
+import com.auctions.hunters.model.Auction;
+import com.auctions.hunters.model.Bid;
+import com.auctions.hunters.model.User;
+
+/**
+ * Event published when a {@link Bid} is saved in the database.
+ *
+ * @param bidId          the id of the saved {@link Bid}
+ * @param auctionId      the id of the {@link Auction}
+ * @param auctionOwnerId the id of the {@link User} that created the auction
+ * @param bidderId       the id of the {@link User} that made the bid
+ */
+public record BidPlacedEvent(int bidId, Integer auctionId, Integer auctionOwnerId, Integer bidderId) {
+}
@@ -6,9 +6,15 @@ import com.auctions.hunters.model.Bid;
 import com.auctions.hunters.model.User;
 import com.auctions.hunters.repository.BidRepository;
 import com.auctions.hunters.service.auction.AuctionService;
+import com.auctions.hunters.service.notification.OutbidEvent;
 import com.auctions.hunters.service.user.UserService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
@@ -21,19 +27,31 @@ public class BidServiceImpl implements BidService {
     private final BidRepository bidRepository;
     private final UserService userService;
     private final AuctionService auctionService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PlatformTransactionManager transactionManager;
+    private final LiveAuctionEngine liveAuctionEngine; //null unless the live auction engine is enabled
 
     public BidServiceImpl(BidRepository bidRepository,
                           UserService userService,
-                          AuctionService auctionService) {
+                          AuctionService auctionService,
+                          ApplicationEventPublisher eventPublisher,
+                          PlatformTransactionManager transactionManager,
+                          ObjectProvider<LiveAuctionEngine> liveAuctionEngine) {
         this.bidRepository = bidRepository;
         this.userService = userService;
         this.auctionService = auctionService;
+        this.eventPublisher = eventPublisher;
+        this.transactionManager = transactionManager;
+        this.liveAuctionEngine = liveAuctionEngine.getIfAvailable();
     }
 
     /**
      * Save a new {@link Bid} made by a {@link User} for the given {@link Auction}.
      * If the amount provided by the user is lower than the current auction price, then throw {@link LowBidAmountException}.
-     * Before the new bid is saved in the database, the auction price will be updated with the new offered {@code amount}.
+     * Before the new bid is saved in the database, the auction price will be atomically updated with the new offered
+     * {@code amount}, in the same transaction, so a bid is only saved if it became the highest one.
+     * When the {@link LiveAuctionEngine} is enabled, the bid is placed on its lane instead, outside of any transaction,
+     * and returned once its batch is saved.
      *
      * @param amount  the price that the new bidder offers
      * @param auction the {@link Auction} for whom the bid is made
@@ -47,17 +65,62 @@ public class BidServiceImpl implements BidService {
         String loggedUsername = userService.getLoggedUsername();
         User user = userService.findByUsername(loggedUsername);
 
+        if (liveAuctionEngine != null) {
+            return liveAuctionEngine.placeBid(auction, user, amount);
+        }
+
+        TransactionStatus transaction = transactionManager.getTransaction(TransactionDefinition.withDefaults());
+        try {
+            Bid savedBid = saveWithCompareAndSet(amount, auction, user);
+            transactionManager.commit(transaction);
+            return savedBid;
+        } catch (LowBidAmountException | RuntimeException | Error e) {
+            transactionManager.rollback(transaction);
+            throw e;
+        }
+    }
+
+    /**
+     * Raises the price of the {@link Auction} with a compare-and-set and saves the {@link Bid}, in the transaction of
+     * the caller.
+     */
+    private Bid saveWithCompareAndSet(float amount, Auction auction, User user) throws LowBidAmountException {
         Bid bid = Bid.builder()
                 .amount(amount)
                 .auction(auction)
                 .user(user)
                 .build();
 
-        auctionService.updateAuctionCurrentPrice(auction.getId(), amount, user.getId());
+        Integer previousBuyerId = auctionService.updateAuctionCurrentPrice(auction.getId(), amount, user.getId());
+        publishOutbidEvent(previousBuyerId, user, auction);
+
+        Bid savedBid = bidRepository.save(bid);
+        publishBidPlacedEvent(savedBid, user, auction);
+        return savedBid;
+    }
+
+    /**
+     * Publishes an {@link OutbidEvent} for the previous leader of the {@link Auction}, unless the auction had no bid
+     * or the leader raised his own bid. The event is handled after the transaction of the bid is committed.
+     */
+    private void publishOutbidEvent(Integer previousBuyerId, User user, Auction auction) {
+        if (previousBuyerId != null && !previousBuyerId.equals(user.getId())) {
+            eventPublisher.publishEvent(new OutbidEvent(previousBuyerId, auction.getId()));
+        }
+    }
 
-        return bidRepository.save(bid);
+    /**
+     * Publishes a {@link BidPlacedEvent} for the saved {@link Bid}, handled after its transaction is committed.
+     */
+    private void publishBidPlacedEvent(Bid bid, User user, Auction auction) {
+        Integer ownerId = auction.getUser() == null ? null : auction.getUser().getId();
+        eventPublisher.publishEvent(new BidPlacedEvent(bid.getId(), auction.getId(), ownerId, user.getId()));
     }
 
+    /**
+     * Rejects early the bids lower than the price of the given {@link Auction}. The price can only grow, so a stale
+     * {@link Auction} never rejects a valid bid, the final check being done by the atomic price update.
+     */
     private void checkBidAmountIsValid(float amount, Auction auction) throws LowBidAmountException {
         if (amount < auction.getCurrentPrice()) {
             String exceptionMessage = String.format("%s bid amount is not higher than %s.", amount, auction.getCurrentPrice());
@@ -0,0 +1,452 @@
+package com.auctions.hunters.service.bid;
+
+import com.auctions.hunters.config.LiveAuctionProperties;
+import com.auctions.hunters.exceptions.LowBidAmountException;
+import com.auctions.hunters.exceptions.ResourceNotFoundException;
+import com.auctions.hunters.model.Auction;
+import com.auctions.hunters.model.Bid;
+import com.auctions.hunters.model.User;
+import com.auctions.hunters.model.projection.AuctionPriceView;
+import com.auctions.hunters.repository.AuctionRepository;
+import com.auctions.hunters.repository.BidRepository;
+import com.auctions.hunters.service.notification.OutbidEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.auctions.hunters.model.enums.AuctionStatus.ACTIVE;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Engine that keeps the current price and the leader of the live auctions in memory, for the flash auctions where
+ * hundreds of users bid at the same time. It is enabled by the {@code auctions.live.enabled} property.
+ * <p>
+ * Every {@link Auction} is owned by one of the single-writer lanes, chosen by its id, so the bids of an auction are
+ * sequenced one after the other without any lock or database round trip. The state of an auction is loaded from the
+ * database at its first bid, which also recovers the engine after a restart.
+ * <p>
+ * The bids sequenced by the lanes are saved in batches, every {@code auctions.live.flush-interval-ms}, and a bid is
+ * only reported as accepted once its batch is committed, so no accepted bid is lost by a crash. The new price of an
+ * auction is written with a compare-and-set on the price and the buyer its lane started from, so it is only written if
+ * the auction is still live and was not changed by the compare-and-set path or by another instance in the meantime.
+ * Otherwise the bids of the auction are rejected and its lane reloads it from the database at its next bid. The
+ * {@link OutbidEvent} and the {@link BidPlacedEvent} of the saved bids are published after their batch is committed.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "auctions.live.enabled", havingValue = "true")
+@ManagedResource(objectName = "com.auctions.hunters:type=LiveAuctionEngine", description = "Sequences the bids of the live auctions")
+public class LiveAuctionEngine {
+
+    private static final long EVICTION_INTERVAL_MILLIS = 60_000;
+    private static final int NO_BUYER_ID = 0; //the expected buyer id of an auction without bids
+
+    private final AuctionRepository auctionRepository;
+    private final BidRepository bidRepository;
+    private final LiveAuctionProperties liveAuctionProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ExecutorService[] lanes;
+    private final List<Map<Integer, LiveAuction>> laneAuctions; //every map is only accessed by the thread of its lane
+    private final BlockingDeque<PendingBid> pendingBids = new LinkedBlockingDeque<>();
+    private final ScheduledExecutorService flusher;
+
+    private final AtomicLong acceptedBids = new AtomicLong();
+    private final AtomicLong rejectedBids = new AtomicLong();
+    private final AtomicLong persistedBids = new AtomicLong();
+    private final AtomicLong conflictedBids = new AtomicLong();
+
+    public LiveAuctionEngine(AuctionRepository auctionRepository,
+                             BidRepository bidRepository,
+                             LiveAuctionProperties liveAuctionProperties,
+                             PlatformTransactionManager transactionManager,
+                             ApplicationEventPublisher eventPublisher) {
+        this.auctionRepository = auctionRepository;
+        this.bidRepository = bidRepository;
+        this.liveAuctionProperties = liveAuctionProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+
+        int laneCount = liveAuctionProperties.getLanes();
+        this.lanes = new ExecutorService[laneCount];
+        this.laneAuctions = new ArrayList<>(laneCount);
+        for (int lane = 0; lane < laneCount; lane++) {
+            lanes[lane] = Executors.newSingleThreadExecutor(daemonThreadFactory("live-auction-lane-" + lane));
+            laneAuctions.add(new HashMap<>());
+        }
+        this.flusher = Executors.newSingleThreadScheduledExecutor(daemonThreadFactory("live-auction-flusher"));
+    }
+
+    @PostConstruct
+    public void start() {
+        long flushIntervalMillis = liveAuctionProperties.getFlushIntervalMillis();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, MILLISECONDS);
+        flusher.scheduleWithFixedDelay(this::evictEndedAuctions, EVICTION_INTERVAL_MILLIS, EVICTION_INTERVAL_MILLIS, MILLISECONDS);
+        log.info("Live auction engine started with {} lanes.", lanes.length);
+    }
+
+    /**
+     * Stops accepting bids and persists all the pending ones, the ones that cannot be persisted are rejected.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+        for (ExecutorService lane : lanes) {
+            lane.awaitTermination(5, TimeUnit.SECONDS);
+        }
+
+        flusher.shutdown();
+        flusher.awaitTermination(5, TimeUnit.SECONDS);
+        flushQuietly();
+
+        List<PendingBid> unsaved = new ArrayList<>();
+        pendingBids.drainTo(unsaved);
+        unsaved.forEach(pendingBid -> pendingBid.savedBid().completeExceptionally(
+                new IllegalStateException("The live auction engine stopped before the bid was saved.")));
+    }
+
+    /**
+     * Places a new {@link Bid} on the lane that owns the given {@link Auction} and waits until its batch is saved. The
+     * bid is accepted if the auction is live and the amount is higher than its current price, or equal to it while the
+     * auction had no bid, and if the auction was not changed by another bid in the database before the batch was saved.
+     * It must be called outside of any transaction, so no database connection is held while the bid waits for its batch.
+     *
+     * @param auction the {@link Auction} for whom the bid is made
+     * @param user    the {@link User} who bids
+     * @param amount  the price that the bidder offers
+     * @return the saved {@link Bid}
+     * @throws LowBidAmountException if the amount is not high enough or the auction is not live anymore
+     */
+    public Bid placeBid(@NotNull Auction auction, @NotNull User user, float amount) throws LowBidAmountException {
+        CompletableFuture<Bid> savedBid = new CompletableFuture<>();
+        lanes[laneOf(auction.getId())].execute(() -> {
+            try {
+                pendingBids.addLast(sequence(auction, user, amount, savedBid));
+            } catch (LowBidAmountException | RuntimeException e) {
+                savedBid.completeExceptionally(e);
+            }
+        });
+
+        try {
+            return savedBid.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while placing a bid on auction " + auction.getId(), e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof LowBidAmountException lowBidAmountException) {
+                throw lowBidAmountException;
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Accepts or rejects a bid, an accepted bid becoming pending until its batch is saved. Always runs on the lane
+     * that owns the auction.
+     */
+    private PendingBid sequence(Auction auction, User user, float amount, CompletableFuture<Bid> savedBid)
+            throws LowBidAmountException {
+        Map<Integer, LiveAuction> auctions = laneAuctions.get(laneOf(auction.getId()));
+        LiveAuction liveAuction = auctions.computeIfAbsent(auction.getId(), this::load);
+
+        if (!liveAuction.isLive(System.currentTimeMillis())) {
+            auctions.remove(auction.getId());
+            throw reject(String.format("Auction %s is not live anymore.", auction.getId()));
+        }
+
+        boolean isHigher = amount > liveAuction.currentPrice
+                || (amount == liveAuction.currentPrice && liveAuction.buyerId == null);
+        if (!isHigher) {
+            throw reject(String.format("%s bid amount is not higher than %s.", amount, liveAuction.currentPrice));
+        }
+
+        Bid bid = Bid.builder()
+                .amount(amount)
+                .auction(auction)
+                .user(user)
+                .build();
+        PendingBid pendingBid = new PendingBid(bid, OffsetDateTime.now(), liveAuction.currentPrice, liveAuction.buyerId,
+                savedBid);
+        liveAuction.currentPrice = amount;
+        liveAuction.buyerId = user.getId();
+        acceptedBids.incrementAndGet();
+
+        return pendingBid;
+    }
+
+    private LiveAuction load(Integer auctionId) {
+        return auctionRepository.findPriceViewById(auctionId)
+                .map(LiveAuction::new)
+                .orElseThrow(() -> new ResourceNotFoundException("Auction", "id", auctionId));
+    }
+
+    private LowBidAmountException reject(String exceptionMessage) {
+        log.debug(exceptionMessage);
+        rejectedBids.incrementAndGet();
+        return new LowBidAmountException(exceptionMessage);
+    }
+
+    /**
+     * Persists all the pending bids, in batches of at most {@code auctions.live.flush-batch-size} bids. Every batch is
+     * saved in one transaction together with the highest price and the number of bids it brings to each of its
+     * auctions, the bids of the auctions that were settled or changed by another bid being rejected. The bids of a
+     * batch that fails are rejected with its exception.
+     *
+     * @return the number of persisted bids
+     */
+    public synchronized int flush() {
+        int persisted = 0;
+        List<PendingBid> batch = drainPendingBids();
+
+        while (!batch.isEmpty()) {
+            List<PendingBid> saved;
+            try {
+                saved = persist(batch);
+            } catch (RuntimeException e) {
+                fail(batch, e);
+                throw e;
+            }
+
+            persisted += saved.size();
+            persistedBids.addAndGet(saved.size());
+            saved.forEach(this::accept);
+            batch = drainPendingBids();
+        }
+
+        return persisted;
+    }
+
+    private List<PendingBid> drainPendingBids() {
+        List<PendingBid> batch = new ArrayList<>();
+        pendingBids.drainTo(batch, liveAuctionProperties.getFlushBatchSize());
+        return batch;
+    }
+
+    /**
+     * Raises the price of the auctions of the batch from the price and the buyer their lanes started from, saves the
+     * bids of the auctions whose price was raised and rejects the other ones.
+     *
+     * @return the saved bids
+     */
+    private List<PendingBid> persist(List<PendingBid> batch) {
+        Map<Integer, List<PendingBid>> auctionBids = new LinkedHashMap<>();
+        batch.forEach(pendingBid -> auctionBids.computeIfAbsent(pendingBid.auctionId(), id -> new ArrayList<>()).add(pendingBid));
+        List<PendingBid> saved = new ArrayList<>();
+        List<PendingBid> conflicted = new ArrayList<>();
+        Set<Integer> changedAuctionIds = new HashSet<>();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            auctionBids.forEach((auctionId, bids) -> {
+                //the bids of an auction were accepted in increasing order, each one from the price of the previous one,
+                //except the ones accepted before its lane reloaded it, which cannot be saved anymore
+                int reloadedAt = lastReload(bids);
+                List<PendingBid> chain = bids.subList(reloadedAt, bids.size());
+                PendingBid lowestBid = chain.get(0);
+                PendingBid highestBid = chain.get(chain.size() - 1);
+                int raised = auctionRepository.raiseCurrentPrice(auctionId, lowestBid.previousPrice(),
+                        lowestBid.previousBuyerId() == null ? NO_BUYER_ID : lowestBid.previousBuyerId(),
+                        (float) highestBid.bid().getAmount(), highestBid.bid().getUser().getId(), ACTIVE,
+                        highestBid.acceptedAt());
+
+                conflicted.addAll(bids.subList(0, reloadedAt));
+                if (raised == 1) {
+                    saved.addAll(chain);
+                } else {
+                    conflicted.addAll(chain);
+                    changedAuctionIds.add(auctionId);
+                }
+            });
+
+            if (!saved.isEmpty()) {
+                Map<Integer, Integer> bidCounts = new HashMap<>();
+                saved.forEach(pendingBid -> bidCounts.merge(pendingBid.auctionId(), 1, Integer::sum));
+                bidRepository.saveAll(saved.stream().map(PendingBid::bid).toList());
+                bidCounts.forEach(auctionRepository::incrementBidCount);
+            }
+        });
+
+        if (!conflicted.isEmpty()) {
+            //the lanes forget the changed auctions before their bidders can bid again
+            changedAuctionIds.forEach(this::forget);
+            conflictedBids.addAndGet(conflicted.size());
+            conflicted.forEach(pendingBid -> pendingBid.savedBid().completeExceptionally(new LowBidAmountException(
+                    String.format("Auction %s was changed by another bid before the bid was saved.", pendingBid.auctionId()))));
+            log.debug("Rejected {} bids of the auctions settled or changed by another bid before they were saved.",
+                    conflicted.size());
+        }
+        return saved;
+    }
+
+    /**
+     * Returns the index of the first bid accepted after the last reload of their auction by its lane.
+     */
+    private static int lastReload(List<PendingBid> bids) {
+        for (int i = bids.size() - 1; i > 0; i--) {
+            Bid previousBid = bids.get(i - 1).bid();
+            PendingBid pendingBid = bids.get(i);
+            if (pendingBid.previousPrice() != (float) previousBid.getAmount()
+                    || !previousBid.getUser().getId().equals(pendingBid.previousBuyerId())) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Rejects the bids of a batch that could not be saved and removes their auctions from the memory of their lanes.
+     */
+    private void fail(List<PendingBid> batch, RuntimeException e) {
+        batch.stream()
+                .map(PendingBid::auctionId)
+                .distinct()
+                .forEach(this::forget);
+        batch.forEach(pendingBid -> pendingBid.savedBid().completeExceptionally(e));
+    }
+
+    /**
+     * Removes the given auction from the memory of its lane, so its next bid reloads it from the database.
+     */
+    private void forget(Integer auctionId) {
+        int lane = laneOf(auctionId);
+        if (!lanes[lane].isShutdown()) {
+            lanes[lane].execute(() -> laneAuctions.get(lane).remove(auctionId));
+        }
+    }
+
+    /**
+     * Publishes the events of a saved bid and reports it as accepted to its bidder.
+     */
+    private void accept(PendingBid pendingBid) {
+        Bid bid = pendingBid.bid();
+        Auction auction = bid.getAuction();
+        Integer previousBuyerId = pendingBid.previousBuyerId();
+        if (previousBuyerId != null && !previousBuyerId.equals(bid.getUser().getId())) {
+            eventPublisher.publishEvent(new OutbidEvent(previousBuyerId, auction.getId()));
+        }
+
+        Integer ownerId = auction.getUser() == null ? null : auction.getUser().getId();
+        eventPublisher.publishEvent(new BidPlacedEvent(bid.getId(), auction.getId(), ownerId, bid.getUser().getId()));
+        pendingBid.savedBid().complete(bid);
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Could not persist a batch of pending bids, its bids were rejected.", e);
+        }
+    }
+
+    /**
+     * Removes the ended auctions from the memory of their lanes.
+     */
+    private void evictEndedAuctions() {
+        for (int lane = 0; lane < lanes.length; lane++) {
+            Map<Integer, LiveAuction> auctions = laneAuctions.get(lane);
+            lanes[lane].execute(() -> auctions.values().removeIf(auction -> !auction.isLive(System.currentTimeMillis())));
+        }
+    }
+
+    private int laneOf(Integer auctionId) {
+        return Math.floorMod(auctionId, lanes.length);
+    }
+
+    private static ThreadFactory daemonThreadFactory(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @ManagedAttribute(description = "The number of bids accepted by the lanes")
+    public long getAcceptedBids() {
+        return acceptedBids.get();
+    }
+
+    @ManagedAttribute(description = "The number of bids rejected by the lanes")
+    public long getRejectedBids() {
+        return rejectedBids.get();
+    }
+
+    @ManagedAttribute(description = "The number of accepted bids saved in the database")
+    public long getPersistedBids() {
+        return persistedBids.get();
+    }
+
+    @ManagedAttribute(description = "The number of accepted bids rejected because their auction was settled or changed by another bid before they were saved")
+    public long getConflictedBids() {
+        return conflictedBids.get();
+    }
+
+    @ManagedAttribute(description = "The number of accepted bids waiting to be saved in the database")
+    public int getPendingBids() {
+        return pendingBids.size();
+    }
+
+    /**
+     * An accepted {@link Bid} waiting to be saved, with the time it was accepted at, the price and the buyer of its
+     * auction before it and the future completed once it is saved or rejected.
+     */
+    private record PendingBid(Bid bid, OffsetDateTime acceptedAt, float previousPrice, Integer previousBuyerId,
+                              CompletableFuture<Bid> savedBid) {
+
+        private Integer auctionId() {
+            return bid.getAuction().getId();
+        }
+    }
+
+    /**
+     * The in-memory state of a live {@link Auction}, owned by a single lane.
+     */
+    private static final class LiveAuction {
+        private float currentPrice;
+        private Integer buyerId;
+        private final boolean active;
+        private final long endTimeMillis;
+
+        private LiveAuction(AuctionPriceView auction) {
+            this.currentPrice = auction.getCurrentPrice();
+            this.buyerId = auction.getBuyerId();
+            this.active = auction.getStatus() == ACTIVE;
+            this.endTimeMillis = auction.getEndTime().toInstant().toEpochMilli();
+        }
+
+        private boolean isLive(long nowMillis) {
+            return active && nowMillis < endTimeMillis;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.auctions.hunters.service.car;
+
+import com.auctions.hunters.model.Car;
+import com.auctions.hunters.model.projection.AuctionFacetView;
+
+import java.util.function.Function;
+
+/**
+ * This enum documents the attributes of a {@link Car} the auctions are counted by in the facets of the search. The
+ * model years are counted by buckets of {@link #YEARS_PER_BUCKET} years.
+ */
+public enum CarFacet {
+    PRODUCER("Producător", Car::getProducer, AuctionFacetView::getProducer),
+    BODY("Caroserie", Car::getBody, AuctionFacetView::getBody),
+    FUEL("Combustibil", Car::getFuelTypePrimary, AuctionFacetView::getFuelTypePrimary),
+    TRANSMISSION("Transmisie", Car::getTransmission, AuctionFacetView::getTransmission),
+    YEAR("Anul fabricației", car -> yearBucketOf(car.getModelYearValue()), view -> yearBucketOf(view.getModelYearValue()));
+
+    public static final int YEARS_PER_BUCKET = 5;
+
+    private final String title;
+    private final Function<Car, String> carValue;
+    private final Function<AuctionFacetView, String> viewValue;
+
+    CarFacet(String title, Function<Car, String> carValue, Function<AuctionFacetView, String> viewValue) {
+        this.title = title;
+        this.carValue = carValue;
+        this.viewValue = viewValue;
+    }
+
+    /**
+     * @return the title of the facet shown by the search
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * @return the value of the facet for the given car, null if the car has none
+     */
+    public String valueOf(Car car) {
+        return blankToNull(carValue.apply(car));
+    }
+
+    /**
+     * @return the value of the facet for the car of the given view, null if the car has none
+     */
+    public String valueOf(AuctionFacetView view) {
+        return blankToNull(viewValue.apply(view));
+    }
+
+    /**
+     * @return the bucket of the given model year, as {@code from-to}, null if the year is unknown
+     */
+    static String yearBucketOf(Integer year) {
+        if (year == null) {
+            return null;
+        }
+
+        int from = year - Math.floorMod(year, YEARS_PER_BUCKET);
+        return from + "-" + (from + YEARS_PER_BUCKET - 1);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
@@ -0,0 +1,78 @@
+package com.auctions.hunters.service.car;
+
+import com.auctions.hunters.model.Car;
+
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * This enum documents the numeric attributes of a {@link Car} that are decoded as text and also kept in typed columns,
+ * so that the range filters compare numbers and are served by the indexes of the columns.
+ */
+public enum CarNumericField {
+    MODEL_YEAR("modelYearValue", Car::getModelYear, Car::getModelYearValue, Car::setModelYearValue),
+    ENGINE_POWER("enginePowerValue", Car::getEnginePower, Car::getEnginePowerValue, Car::setEnginePowerValue),
+    ENGINE_DISPLACEMENT("engineDisplacementValue", Car::getEngineDisplacement, Car::getEngineDisplacementValue, Car::setEngineDisplacementValue),
+    MAX_SPEED("maxSpeedValue", Car::getMaxSpeed, Car::getMaxSpeedValue, Car::setMaxSpeedValue),
+    EMPTY_WEIGHT("emptyWeightValue", Car::getEmptyWeight, Car::getEmptyWeightValue, Car::setEmptyWeightValue);
+
+    /**
+     * The number read from a decoded text: its first run of digits, at most 9 so that it fits an integer. The same
+     * expression fills the typed columns of the cars saved before they existed.
+     */
+    public static final String NUMBER_REGEX = "[0-9]{1,9}";
+
+    private static final Pattern NUMBER = Pattern.compile(NUMBER_REGEX);
+
+    private final String attribute;
+    private final Function<Car, String> textGetter;
+    private final Function<Car, Integer> valueGetter;
+    private final BiConsumer<Car, Integer> valueSetter;
+
+    CarNumericField(String attribute,
+                    Function<Car, String> textGetter,
+                    Function<Car, Integer> valueGetter,
+                    BiConsumer<Car, Integer> valueSetter) {
+        this.attribute = attribute;
+        this.textGetter = textGetter;
+        this.valueGetter = valueGetter;
+        this.valueSetter = valueSetter;
+    }
+
+    /**
+     * @return the name of the typed attribute in the {@link Car} entity
+     */
+    public String getAttribute() {
+        return attribute;
+    }
+
+    /**
+     * @return the typed attribute of the given car, null if its text has no number
+     */
+    public Integer valueOf(Car car) {
+        return valueGetter.apply(car);
+    }
+
+    /**
+     * Sets the typed attributes of the given car from its decoded text attributes.
+     */
+    public static void fillValues(Car car) {
+        for (CarNumericField field : values()) {
+            field.valueSetter.accept(car, parse(field.textGetter.apply(car)));
+        }
+    }
+
+    /**
+     * @return the number of the given decoded text, null if the text is missing or has no digit
+     */
+    static Integer parse(String text) {
+        if (text == null) {
+            return null;
+        }
+
+        Matcher matcher = NUMBER.matcher(text);
+        return matcher.find() ? Integer.valueOf(matcher.group()) : null;
+    }
+}
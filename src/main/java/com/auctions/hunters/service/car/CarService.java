@@ -3,6 +3,8 @@ package com.auctions.hunters.service.car;
 import com.auctions.hunters.exceptions.*;
 import com.auctions.hunters.model.Car;
 import com.auctions.hunters.model.enums.CarStatus;
+import com.auctions.hunters.utils.KeysetRequest;
+import com.auctions.hunters.utils.KeysetSlice;
 import org.springframework.data.domain.Page;
 import org.springframework.data.jpa.domain.Specification;
 
@@ -58,6 +60,11 @@ public interface CarService {
      */
     Page<Car> getCarPage(@NotNull int page, @NotNull Specification<Car> spec);
 
+    /**
+     * Retrieve a slice of the cars that match the given specification, ordered by id, starting at the cursor of the request.
+     */
+    KeysetSlice<Car> getCarSlice(@NotNull Specification<Car> spec, @NotNull KeysetRequest request);
+
     /**
      * Returns all the cars that belong to the authenticated user.
      *
@@ -69,11 +76,4 @@ public interface CarService {
      * Retrieve a list of {@link Car} objects from the database that match the given id list.
      */
     List<Car> findAllByIdIn(@NotNull List<Integer> carsIdList);
-
-    /**
-     * Returns a list with all the SUV cars from the database.
-     *
-     * @return a list with all the cars / empty if the list has 0 cars found
-     */
-    List<Car> getAllCarsByBodyType(String bodyType);
 }
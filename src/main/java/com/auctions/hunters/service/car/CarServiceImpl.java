@@ -7,9 +7,13 @@ import com.auctions.hunters.model.enums.CarStatus;
 import com.auctions.hunters.repository.CarRepository;
 import com.auctions.hunters.service.car.vincario.VinDecoderService;
 import com.auctions.hunters.service.user.UserService;
+import com.auctions.hunters.utils.KeysetCursor;
+import com.auctions.hunters.utils.KeysetRequest;
+import com.auctions.hunters.utils.KeysetSlice;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
@@ -21,6 +25,8 @@ import java.util.Optional;
 
 import static com.auctions.hunters.model.enums.CarStatus.NOT_AUCTIONED;
 import static java.util.List.of;
+import static org.springframework.data.domain.Sort.Direction.ASC;
+import static org.springframework.data.domain.Sort.Direction.DESC;
 
 @Slf4j
 @Service
@@ -29,17 +35,21 @@ public class CarServiceImpl implements CarService {
     private final CarRepository carRepository;
     private final UserService userService;
     private final VinDecoderService vinDecoderService;
+    private final CarTextIndex carTextIndex;
 
     public CarServiceImpl(CarRepository carRepository,
                           UserService userService,
-                          VinDecoderService vinDecoderService) {
+                          VinDecoderService vinDecoderService,
+                          CarTextIndex carTextIndex) {
         this.carRepository = carRepository;
         this.userService = userService;
         this.vinDecoderService = vinDecoderService;
+        this.carTextIndex = carTextIndex;
     }
 
     /**
-     * Saves a {@link Car} object in the database for the logged user. Default, the car status is not auctioned.
+     * Saves a {@link Car} object in the database for the logged user and adds it to the {@link CarTextIndex}. Default,
+     * the car status is not auctioned.
      *
      * @param vin the car`s VIN
      */
@@ -53,7 +63,9 @@ public class CarServiceImpl implements CarService {
         Car car = vinDecoderService.decodeVin(vin);
         car.setStatus(NOT_AUCTIONED);
 
-        return carRepository.save(car);
+        Car savedCar = carRepository.save(car);
+        carTextIndex.add(savedCar);
+        return savedCar;
     }
 
     /**
@@ -93,6 +105,7 @@ public class CarServiceImpl implements CarService {
 
                 // Remove the car from the database
                 carRepository.delete(car);
+                carTextIndex.remove(car);
                 log.debug("The car with id {} has been removed from the database.", car.getId());
             } else {
                 throw new CarExistsInAuctionException(String.format("Car with id %s already exists in an auction", carId));
@@ -175,6 +188,37 @@ public class CarServiceImpl implements CarService {
         return carRepository.findAll(spec, PageRequest.of(page, pageSize));
     }
 
+    /**
+     * Retrieve a slice of the cars that match the given specification, ordered by id. The slice is read from the primary
+     * key index starting at the cursor of the request, so the cost of a page does not depend on how deep it is, and no
+     * count query is run.
+     *
+     * @param spec    the filters of the listing
+     * @param request the cursor and the size of the slice
+     * @return a {@link KeysetSlice} of {@link Car} objects, without a total
+     */
+    @Override
+    public KeysetSlice<Car> getCarSlice(@NotNull Specification<Car> spec, @NotNull KeysetRequest request) {
+        return readSlice(spec, request);
+    }
+
+    private KeysetSlice<Car> readSlice(Specification<Car> spec, KeysetRequest request) {
+        Specification<Car> sliceSpec = spec;
+        Sort sort = Sort.by(ASC, "id");
+        if (!request.isFirst()) {
+            int cursorId = request.cursor().id();
+            if (request.backwards()) {
+                sliceSpec = spec.and((root, query, criteriaBuilder) -> criteriaBuilder.lessThan(root.get("id"), cursorId));
+                sort = Sort.by(DESC, "id");
+            } else {
+                sliceSpec = spec.and((root, query, criteriaBuilder) -> criteriaBuilder.greaterThan(root.get("id"), cursorId));
+            }
+        }
+
+        List<Car> cars = carRepository.findSlice(sliceSpec, sort, request.limit());
+        return KeysetSlice.of(cars, request, car -> KeysetCursor.of(car.getId()), null);
+    }
+
     /**
      * Returns all the cars that belong to the authenticated user.
      *
@@ -201,13 +245,4 @@ public class CarServiceImpl implements CarService {
     public List<Car> findAllByIdIn(@NotNull List<Integer> carsIdList) {
         return carRepository.findAllByIdIn(carsIdList);
     }
-
-    /**
-     * Retrieved a list of {@link Car} objects from the database where the body type is specified by the input param.
-     *
-     * @return a list of {@link Car} objects, empty if no car with the specified body type was found
-     */
-    public List<Car> getAllCarsByBodyType(@NotBlank String bodyType) {
-        return carRepository.findByBody(bodyType);
-    }
 }
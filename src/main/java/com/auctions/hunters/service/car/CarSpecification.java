@@ -20,8 +20,15 @@ public class CarSpecification implements Specification<Car> {
     @Override
     public Predicate toPredicate(@NotNull Root<Car> root, @NotNull CriteriaQuery<?> query, @NotNull CriteriaBuilder builder) {
         if (criteria.getOperation().equalsIgnoreCase(">")) {
+            //the numbers are compared as numbers, on the typed columns, and not as text
+            if (criteria.getValue() instanceof Number number) {
+                return builder.ge(root.get(criteria.getKey()), number);
+            }
             return builder.greaterThanOrEqualTo(root.get(criteria.getKey()), criteria.getValue().toString());
         } else if (criteria.getOperation().equalsIgnoreCase("<")) {
+            if (criteria.getValue() instanceof Number number) {
+                return builder.le(root.get(criteria.getKey()), number);
+            }
             return builder.lessThanOrEqualTo(root.get(criteria.getKey()), criteria.getValue().toString());
         } else if (criteria.getOperation().equalsIgnoreCase(":")) {
             if (root.get(criteria.getKey()).getJavaType() == String.class) {
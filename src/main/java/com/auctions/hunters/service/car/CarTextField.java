@@ -0,0 +1,37 @@
+package com.auctions.hunters.service.car;
+
+import com.auctions.hunters.model.Car;
+
+import java.util.function.Function;
+
+/**
+ * This enum documents the text attributes of a {@link Car} kept by the {@link CarTextIndex}.
+ */
+public enum CarTextField {
+    PRODUCER("producer", Car::getProducer),
+    MODEL("model", Car::getModel),
+    SERIES("series", Car::getSeries),
+    BODY("body", Car::getBody),
+    ENGINE("engineCode", Car::getEngineCode),
+    FUEL("fuelTypePrimary", Car::getFuelTypePrimary),
+    TRANSMISSION("transmission", Car::getTransmission);
+
+    private final String attribute;
+    private final Function<Car, String> getter;
+
+    CarTextField(String attribute, Function<Car, String> getter) {
+        this.attribute = attribute;
+        this.getter = getter;
+    }
+
+    /**
+     * @return the name of the attribute in the {@link Car} entity
+     */
+    public String getAttribute() {
+        return attribute;
+    }
+
+    public String valueOf(Car car) {
+        return getter.apply(car);
+    }
+}
@@ -0,0 +1,379 @@
+package com.auctions.hunters.service.car;
+
+import com.auctions.hunters.config.SearchProperties;
+import com.auctions.hunters.model.Car;
+import com.auctions.hunters.model.projection.CarValueCount;
+import com.auctions.hunters.repository.CarRepository;
+import com.auctions.hunters.utils.RebuildableIndex;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Component that keeps in memory a text index of the catalogue of the decoded {@link Car} objects, to search their
+ * text attributes without the {@code LIKE '%value%'} predicates that no B-tree index can serve.
+ * <p>
+ * For every {@link CarTextField}, the index keeps the distinct values of the cars with the number of cars having each,
+ * and the words of these values. The values and the searched text are split in words, lower cased and stripped of
+ * their accents, so a search ignores the case. A searched word matches the words it is equal to, the longer words it
+ * starts and the words a few typos away from it: none for the words of one or two letters, one up to five letters and
+ * {@code auctions.search.max-edits} above, a typo being an inserted, deleted, replaced or swapped letter. A value
+ * matches when every searched word matches one of its words.
+ * <p>
+ * A search resolves the text to the matching values, so the database filters the cars with an equality on the
+ * attribute, which its index serves. The catalogue has far fewer distinct values than cars, so the index stays small
+ * whatever the number of cars and scanning its words takes less time than the query itself.
+ * <p>
+ * The index is built from the database when the application is ready, is then updated by every saved and deleted car,
+ * and is rebuilt periodically to pick up the cars saved by the other instances, as a {@link RebuildableIndex}. The
+ * decoded attributes of a car do not change with its status, so a status change leaves the index as it is.
+ */
+@Component
+@ManagedResource(objectName = "com.auctions.hunters:type=CarTextIndex", description = "Searches the text attributes of the cars")
+public class CarTextIndex {
+
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{Alnum}]+");
+    private static final Pattern ACCENTS = Pattern.compile("\\p{M}+");
+    private static final CarTextField[] FIELDS = CarTextField.values();
+
+    private final CarRepository carRepository;
+    private final int maxEdits;
+    private final int minPrefixLength;
+
+    private final RebuildableIndex<Map<CarTextField, Dictionary>, Change> dictionaries;
+    private final AtomicLong searches = new AtomicLong();
+
+    public CarTextIndex(CarRepository carRepository,
+                        PlatformTransactionManager transactionManager,
+                        SearchProperties searchProperties) {
+        this.carRepository = carRepository;
+        this.dictionaries = new RebuildableIndex<>("car text index", emptyDictionaries(), CarTextIndex::applyTo,
+                transactionManager);
+        this.maxEdits = searchProperties.getMaxEdits();
+        this.minPrefixLength = searchProperties.getMinPrefixLength();
+    }
+
+    /**
+     * Finds the values of the given attribute that match the given text.
+     *
+     * @param field the attribute searched
+     * @param text  the searched text, may be null
+     * @return the values of at least one car that match, empty if none matches or the text has no word
+     */
+    public Set<String> matchingValues(CarTextField field, String text) {
+        searches.incrementAndGet();
+        List<String> words = wordsOf(text);
+        if (words.isEmpty()) {
+            return Set.of();
+        }
+
+        return dictionaries.read(current -> current.get(field).matchingValues(words, maxEdits, minPrefixLength));
+    }
+
+    /**
+     * Builds the {@link Specification} of the cars whose given attribute matches the given text, as an equality on the
+     * matching values.
+     *
+     * @param field the attribute searched
+     * @param text  the searched text
+     * @return the specification, that matches no car if no value matches
+     */
+    public Specification<Car> matching(CarTextField field, String text) {
+        Set<String> values = matchingValues(field, text);
+        if (values.isEmpty()) {
+            return (root, query, criteriaBuilder) -> criteriaBuilder.disjunction();
+        }
+        return (root, query, criteriaBuilder) -> root.get(field.getAttribute()).in(values);
+    }
+
+    /**
+     * Adds the values of a saved car to the index.
+     */
+    public void add(Car car) {
+        dictionaries.apply(new Change(car.getId(), valuesOf(car), 1));
+    }
+
+    /**
+     * Removes the values of a deleted car from the index, the values of no other car being dropped.
+     */
+    public void remove(Car car) {
+        dictionaries.apply(new Change(car.getId(), valuesOf(car), -1));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Rebuilds the index from the database, picking up the cars saved and deleted by the other instances. A car saved
+     * or deleted during the rebuild may already be counted by the snapshot, so its change is only replayed if the
+     * snapshot disagrees with it.
+     */
+    @ManagedOperation(description = "Rebuilds the car text index from the database")
+    @Scheduled(initialDelayString = "${auctions.search.rebuild-interval-ms:600000}",
+            fixedDelayString = "${auctions.search.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        dictionaries.rebuild(new RebuildableIndex.Loader<>() {
+
+            @Override
+            public Map<CarTextField, Dictionary> load() {
+                return loadDictionaries();
+            }
+
+            @Override
+            public List<Change> unseen(List<Change> queuedChanges) {
+                return changesNotIn(queuedChanges, savedCarIds(queuedChanges));
+            }
+        });
+    }
+
+    private Map<CarTextField, Dictionary> loadDictionaries() {
+        Map<CarTextField, Dictionary> loaded = emptyDictionaries();
+        for (CarTextField field : FIELDS) {
+            Dictionary dictionary = loaded.get(field);
+            for (CarValueCount valueCount : carRepository.findValueCounts(field.getAttribute())) {
+                dictionary.add(valueCount.getValue(), valueCount.getCars());
+            }
+        }
+        return loaded;
+    }
+
+    private Set<Integer> savedCarIds(List<Change> changes) {
+        Set<Integer> carIds = new HashSet<>();
+        for (Change change : changes) {
+            if (change.carId() != null) {
+                carIds.add(change.carId());
+            }
+        }
+        return carIds.isEmpty() ? Set.of() : carRepository.findExistingIds(carIds);
+    }
+
+    /**
+     * Keeps the changes that the index of the given saved cars does not reflect yet: a car is only added if it is not
+     * in the index and only removed if it is, following the changes in the order they were made.
+     *
+     * @param changes     the changes, in the order they were made
+     * @param savedCarIds the ids of the cars in the index
+     * @return the changes to apply to the index, in the same order
+     */
+    private static List<Change> changesNotIn(List<Change> changes, Set<Integer> savedCarIds) {
+        Map<Integer, Boolean> indexed = new HashMap<>();
+        List<Change> unseen = new ArrayList<>();
+        for (Change change : changes) {
+            if (change.carId() == null) {
+                unseen.add(change);
+                continue;
+            }
+
+            boolean added = change.cars() > 0;
+            if (indexed.computeIfAbsent(change.carId(), savedCarIds::contains) != added) {
+                indexed.put(change.carId(), added);
+                unseen.add(change);
+            }
+        }
+        return unseen;
+    }
+
+    private static void applyTo(Map<CarTextField, Dictionary> target, Change change) {
+        for (CarTextField field : FIELDS) {
+            target.get(field).add(change.values()[field.ordinal()], change.cars());
+        }
+    }
+
+    private static Map<CarTextField, Dictionary> emptyDictionaries() {
+        Map<CarTextField, Dictionary> empty = new EnumMap<>(CarTextField.class);
+        for (CarTextField field : FIELDS) {
+            empty.put(field, new Dictionary());
+        }
+        return empty;
+    }
+
+    private static String[] valuesOf(Car car) {
+        String[] values = new String[FIELDS.length];
+        for (CarTextField field : FIELDS) {
+            values[field.ordinal()] = field.valueOf(car);
+        }
+        return values;
+    }
+
+    /**
+     * Splits the given text in distinct words, lower cased and stripped of their accents.
+     */
+    static List<String> wordsOf(String text) {
+        if (text == null) {
+            return List.of();
+        }
+
+        String normalised = ACCENTS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        return Arrays.stream(WORD_SEPARATOR.split(normalised))
+                .filter(word -> !word.isEmpty())
+                .distinct()
+                .toList();
+    }
+
+    /**
+     * @return the number of typos tolerated in the given searched word, none for the numbers since a model number one
+     * digit apart is another model
+     */
+    static int allowedEdits(String word, int maxEdits) {
+        if (word.length() <= 2 || word.chars().allMatch(Character::isDigit)) {
+            return 0;
+        }
+        return word.length() <= 5 ? Math.min(1, maxEdits) : maxEdits;
+    }
+
+    /**
+     * Tells whether the given words are at most {@code maxEdits} inserted, deleted, replaced or swapped adjacent letters
+     * apart. The distance is computed row by row and given up as soon as a row exceeds the bound.
+     */
+    static boolean withinEdits(String a, String b, int maxEdits) {
+        if (Math.abs(a.length() - b.length()) > maxEdits) {
+            return false;
+        }
+
+        int[] beforePrevious = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int distance = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    distance = Math.min(distance, beforePrevious[j - 2] + 1);
+                }
+                current[j] = distance;
+                rowMin = Math.min(rowMin, distance);
+            }
+            if (rowMin > maxEdits) {
+                return false;
+            }
+
+            int[] recycled = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[b.length()] <= maxEdits;
+    }
+
+    @ManagedAttribute(description = "The number of distinct values in the index")
+    public int getValues() {
+        return dictionaries.read(current -> current.values().stream()
+                .mapToInt(dictionary -> dictionary.carsByValue.size())
+                .sum());
+    }
+
+    @ManagedAttribute(description = "The number of distinct words in the index")
+    public int getWords() {
+        return dictionaries.read(current -> current.values().stream()
+                .mapToInt(dictionary -> dictionary.valuesByWord.size())
+                .sum());
+    }
+
+    @ManagedAttribute(description = "The number of searches served")
+    public long getSearches() {
+        return searches.get();
+    }
+
+    @ManagedAttribute(description = "The time in milliseconds the last rebuild took")
+    public long getLastRebuildMillis() {
+        return dictionaries.getLastRebuildMillis();
+    }
+
+    /**
+     * A saved or deleted car.
+     *
+     * @param carId  the id of the car
+     * @param values the values of the car, by {@link CarTextField} ordinal
+     * @param cars   1 for a saved car, -1 for a deleted one
+     */
+    private record Change(Integer carId, String[] values, long cars) {
+    }
+
+    /**
+     * The distinct values of an attribute and their words.
+     */
+    private static final class Dictionary {
+
+        private final Map<String, Long> carsByValue = new HashMap<>();
+        private final Map<String, Set<String>> valuesByWord = new HashMap<>();
+
+        /**
+         * Adds the given number of cars to a value, dropping the value when no car has it anymore.
+         */
+        void add(String value, long cars) {
+            if (value == null || value.isBlank()) {
+                return;
+            }
+
+            long total = carsByValue.merge(value, cars, Long::sum);
+            if (total <= 0) {
+                carsByValue.remove(value);
+                for (String word : wordsOf(value)) {
+                    Set<String> values = valuesByWord.get(word);
+                    if (values != null && values.remove(value) && values.isEmpty()) {
+                        valuesByWord.remove(word);
+                    }
+                }
+            } else if (total == cars) {
+                for (String word : wordsOf(value)) {
+                    valuesByWord.computeIfAbsent(word, key -> new HashSet<>()).add(value);
+                }
+            }
+        }
+
+        Set<String> matchingValues(List<String> words, int maxEdits, int minPrefixLength) {
+            Set<String> matches = null;
+            for (String word : words) {
+                int edits = allowedEdits(word, maxEdits);
+                boolean prefix = word.length() >= minPrefixLength;
+
+                Set<String> wordMatches = new HashSet<>();
+                for (Map.Entry<String, Set<String>> entry : valuesByWord.entrySet()) {
+                    String indexed = entry.getKey();
+                    if (indexed.equals(word) || (prefix && indexed.startsWith(word))
+                            || (edits > 0 && withinEdits(word, indexed, edits))) {
+                        wordMatches.addAll(entry.getValue());
+                    }
+                }
+
+                if (matches == null) {
+                    matches = wordMatches;
+                } else {
+                    matches.retainAll(wordMatches);
+                }
+                if (matches.isEmpty()) {
+                    break;
+                }
+            }
+            return matches == null ? Set.of() : Set.copyOf(matches);
+        }
+    }
+}
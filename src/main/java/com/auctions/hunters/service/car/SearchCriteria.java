@@ -1,11 +1,16 @@
 package com.auctions.hunters.service.car;
 
+import com.auctions.hunters.model.Auction;
 import com.auctions.hunters.model.Car;
 import lombok.Data;
 import org.springframework.data.jpa.domain.Specification;
 
-import static java.lang.Character.isUpperCase;
-import static java.lang.Character.toUpperCase;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+import java.util.ArrayList;
+import java.util.List;
 
 @Data
 public class SearchCriteria {
@@ -24,43 +29,49 @@ public class SearchCriteria {
 
     /**
      * Method builds up a {@link Specification} object that is used to construct a JPA query for the {@link Car} entity.
+     * The producer and the model are searched in the given {@link CarTextIndex}, ignoring the case and tolerating
+     * typos, and filtered on the values found. The years are compared on the typed {@link CarNumericField} column and
+     * the prices on the current price of the auction of the car.
      */
-    public Specification<Car> buildSpec(String producer, String model, Integer minYear, Integer maxYear, Integer minPrice, Integer maxPrice) {
+    public Specification<Car> buildSpec(CarTextIndex textIndex, String producer, String model, Integer minYear, Integer maxYear, Integer minPrice, Integer maxPrice) {
         Specification<Car> spec = Specification.where(null);
-        if (producer != null && !producer.isEmpty()) {
-            if (isUpperCase(model.charAt(0))) {
-                spec = spec.and(new CarSpecification(new SearchCriteria("producer", ":", producer)));
-            }
-
-            String insensitiveCaseModelString = getStringWithFirstCharToUpperCase(producer);
-            spec = spec.and(new CarSpecification(new SearchCriteria("producer", ":", insensitiveCaseModelString)));
+        if (producer != null && !producer.isBlank()) {
+            spec = spec.and(textIndex.matching(CarTextField.PRODUCER, producer));
         }
-        if (model != null && !model.isEmpty()) {
-            if (isUpperCase(model.charAt(0))) {
-                spec = spec.and(new CarSpecification(new SearchCriteria("model", ":", model)));
-            }
-
-            String insensitiveCaseModelString = getStringWithFirstCharToUpperCase(model);
-            spec = spec.and(new CarSpecification(new SearchCriteria("model", ":", insensitiveCaseModelString)));
+        if (model != null && !model.isBlank()) {
+            spec = spec.and(textIndex.matching(CarTextField.MODEL, model));
         }
         if (minYear != null) {
-            spec = spec.and(new CarSpecification(new SearchCriteria("modelYear", ">", minYear)));
+            spec = spec.and(new CarSpecification(new SearchCriteria(CarNumericField.MODEL_YEAR.getAttribute(), ">", minYear)));
         }
         if (maxYear != null) {
-            spec = spec.and(new CarSpecification(new SearchCriteria("modelYear", "<", maxYear)));
-        }
-        if (minPrice != null) {
-            spec = spec.and(new CarSpecification(new SearchCriteria("minimumPrice", ">", minPrice)));
+            spec = spec.and(new CarSpecification(new SearchCriteria(CarNumericField.MODEL_YEAR.getAttribute(), "<", maxYear)));
         }
-        if (maxPrice != null) {
-            spec = spec.and(new CarSpecification(new SearchCriteria("minimumPrice", "<", maxPrice)));
+        if (minPrice != null || maxPrice != null) {
+            spec = spec.and(auctionPriceBetween(minPrice, maxPrice));
         }
         return spec;
     }
 
-    private String getStringWithFirstCharToUpperCase(String model) {
-        char firstCharacter = model.charAt(0);
-        char firstCharacterToUpperCase = toUpperCase(firstCharacter);
-        return model.replace(firstCharacter, firstCharacterToUpperCase);
+    /**
+     * The price is kept by the {@link Auction} of the car and not by the car, so the cars are filtered on the current
+     * price of their auction. The listings of the auctions filter the price on their own auction root instead.
+     */
+    private static Specification<Car> auctionPriceBetween(Integer minPrice, Integer maxPrice) {
+        return (root, query, criteriaBuilder) -> {
+            Subquery<Integer> auctionId = query.subquery(Integer.class);
+            Root<Auction> auction = auctionId.from(Auction.class);
+            Path<Float> currentPrice = auction.get("currentPrice");
+
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(criteriaBuilder.equal(auction.get("car"), root));
+            if (minPrice != null) {
+                predicates.add(criteriaBuilder.greaterThanOrEqualTo(currentPrice, minPrice.floatValue()));
+            }
+            if (maxPrice != null) {
+                predicates.add(criteriaBuilder.lessThanOrEqualTo(currentPrice, maxPrice.floatValue()));
+            }
+            return criteriaBuilder.exists(auctionId.select(auction.get("id")).where(predicates.toArray(Predicate[]::new)));
+        };
     }
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.auctions.hunters.service.car.coverter;
 
 import com.auctions.hunters.model.Car;
 import com.auctions.hunters.model.User;
+import com.auctions.hunters.service.car.CarNumericField;
 import com.auctions.hunters.service.car.model.KeyValuePair;
 import com.auctions.hunters.service.user.UserService;
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -112,6 +113,7 @@ public class CarPayloadConverter {
         carInfo.setMaxWeight(labelValueMap.get("Max Weight (kg)"));
         carInfo.setMaxRoofLoad(labelValueMap.get("Max roof load (kg)"));
         carInfo.setAbs(labelValueMap.get("ABS"));
+        CarNumericField.fillValues(carInfo);
 
         return carInfo;
     }
@@ -0,0 +1,256 @@
+package com.auctions.hunters.service.email;
+
+import com.auctions.hunters.config.EmailOutboxProperties;
+import com.auctions.hunters.model.EmailOutbox;
+import com.auctions.hunters.repository.EmailOutboxRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.mail.MailException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import javax.mail.MessagingException;
+import javax.mail.internet.MimeMessage;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.auctions.hunters.model.enums.EmailStatus.*;
+
+/**
+ * Component that sends the emails written in the {@link EmailOutbox} table.
+ * <p>
+ * Every round claims a batch of due emails, postponing them by a lease so no other dispatcher picks them up, and
+ * sends them on a bounded pool of worker threads, which share the open connections of the {@link SmtpTransportPool}.
+ * A failed email is retried with an exponential backoff and is dead-lettered after the configured number of attempts.
+ * An email is sent at least once: if the dispatcher dies before recording the result, the email is sent again when
+ * its lease expires.
+ */
+@Slf4j
+@Component
+@ManagedResource(objectName = "com.auctions.hunters:type=EmailDispatcher", description = "Sends the emails from the outbox")
+public class EmailDispatcher {
+
+    static final String SENDER = "vânătoriidelicitații@gmail.com";
+    private static final int MAX_ERROR_LENGTH = 1024;
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final JavaMailSender mailSender;
+    private final SmtpTransportPool smtpTransportPool;
+    private final EmailOutboxProperties emailOutboxProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor workers;
+
+    private final AtomicLong sentEmails = new AtomicLong();
+    private final AtomicLong failedAttempts = new AtomicLong();
+    private final AtomicLong deadLetteredEmails = new AtomicLong();
+    private final AtomicLong totalSendLatencyMillis = new AtomicLong();
+    private final AtomicLong maxSendLatencyMillis = new AtomicLong();
+    private volatile long lastSendLatencyMillis;
+
+    public EmailDispatcher(EmailOutboxRepository emailOutboxRepository,
+                           JavaMailSender mailSender,
+                           SmtpTransportPool smtpTransportPool,
+                           EmailOutboxProperties emailOutboxProperties,
+                           PlatformTransactionManager transactionManager) {
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.mailSender = mailSender;
+        this.smtpTransportPool = smtpTransportPool;
+        this.emailOutboxProperties = emailOutboxProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        int poolSize = emailOutboxProperties.getWorkers();
+        //a round never submits more than one batch, the caller only runs a send if the pool is misconfigured
+        this.workers = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, emailOutboxProperties.getBatchSize())),
+                daemonThreadFactory("email-dispatcher-"), new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        workers.shutdown();
+        if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("The email workers did not stop in time, the unsent emails will be sent after their lease.");
+        }
+    }
+
+    /**
+     * Sends one batch of the due emails and waits for all of them to be sent or rescheduled.
+     *
+     * @return the number of sent emails
+     */
+    @Scheduled(fixedDelayString = "${auctions.email.poll-interval-ms:1000}")
+    public int dispatchDueEmails() {
+        List<EmailOutbox> emails = claimDueEmails();
+        if (emails.isEmpty()) {
+            return 0;
+        }
+
+        List<Future<Boolean>> results = new ArrayList<>(emails.size());
+        emails.forEach(email -> results.add(workers.submit(() -> send(email))));
+
+        int sent = 0;
+        for (Future<Boolean> result : results) {
+            try {
+                if (Boolean.TRUE.equals(result.get())) {
+                    sent++;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                log.error("Could not record the result of an email.", e.getCause());
+            }
+        }
+
+        log.debug("Sent {} out of {} due emails.", sent, emails.size());
+        return sent;
+    }
+
+    private List<EmailOutbox> claimDueEmails() {
+        OffsetDateTime now = OffsetDateTime.now();
+        return transactionTemplate.execute(status -> {
+            List<Integer> ids = emailOutboxRepository.lockDueEmailIds(now, emailOutboxProperties.getBatchSize());
+            if (ids.isEmpty()) {
+                return List.of();
+            }
+
+            emailOutboxRepository.claim(ids, now.plusNanos(TimeUnit.MILLISECONDS.toNanos(emailOutboxProperties.getLeaseMillis())));
+            return emailOutboxRepository.findAllById(ids);
+        });
+    }
+
+    /**
+     * Sends the given email and records the result.
+     *
+     * @return true if the email was sent
+     */
+    private boolean send(EmailOutbox email) {
+        long start = System.nanoTime();
+        try {
+            deliver(email);
+        } catch (MailException | MessagingException e) {
+            failedAttempts.incrementAndGet();
+            reschedule(email, e);
+            return false;
+        }
+
+        recordLatency(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        emailOutboxRepository.markSent(email.getId(), SENT, OffsetDateTime.now());
+        sentEmails.incrementAndGet();
+        return true;
+    }
+
+    private void deliver(EmailOutbox email) throws MessagingException {
+        MimeMessage mimeMessage = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, "utf-8");
+        helper.setText(email.getBody(), true);
+        helper.setTo(email.getRecipient());
+        helper.setSubject(email.getSubject());
+        helper.setFrom(SENDER);
+        smtpTransportPool.send(mimeMessage);
+    }
+
+    private void reschedule(EmailOutbox email, Exception cause) {
+        int attempts = email.getAttempts() + 1;
+        String error = abbreviate(String.valueOf(cause.getMessage()));
+
+        if (attempts >= emailOutboxProperties.getMaxAttempts()) {
+            emailOutboxRepository.markFailed(email.getId(), DEAD, OffsetDateTime.now(), error);
+            deadLetteredEmails.incrementAndGet();
+            log.error("Gave up sending the email {} to {} after {} attempts.", email.getId(), email.getRecipient(), attempts, cause);
+            return;
+        }
+
+        long delay = backoffMillis(attempts);
+        emailOutboxRepository.markFailed(email.getId(), PENDING, OffsetDateTime.now().plusNanos(TimeUnit.MILLISECONDS.toNanos(delay)), error);
+        log.warn("Could not send the email {} to {}, retrying in {} ms.", email.getId(), email.getRecipient(), delay, cause);
+    }
+
+    /**
+     * The delay before the next attempt, doubled after every failed attempt and capped by the maximum backoff.
+     */
+    long backoffMillis(int attempts) {
+        long backoff = emailOutboxProperties.getBackoffMillis() << Math.min(attempts - 1, 30);
+        return Math.min(backoff, emailOutboxProperties.getMaxBackoffMillis());
+    }
+
+    private static String abbreviate(String error) {
+        return error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private void recordLatency(long latencyMillis) {
+        lastSendLatencyMillis = latencyMillis;
+        totalSendLatencyMillis.addAndGet(latencyMillis);
+        maxSendLatencyMillis.accumulateAndGet(latencyMillis, Math::max);
+    }
+
+    @ManagedAttribute(description = "The number of emails waiting to be sent")
+    public long getQueueDepth() {
+        return emailOutboxRepository.countByStatus(PENDING);
+    }
+
+    @ManagedAttribute(description = "The number of emails that were dead-lettered")
+    public long getDeadLetters() {
+        return emailOutboxRepository.countByStatus(DEAD);
+    }
+
+    @ManagedAttribute(description = "The number of emails being sent by the workers")
+    public int getActiveWorkers() {
+        return workers.getActiveCount();
+    }
+
+    @ManagedAttribute(description = "The number of emails sent since the application started")
+    public long getSentEmails() {
+        return sentEmails.get();
+    }
+
+    @ManagedAttribute(description = "The number of failed attempts since the application started")
+    public long getFailedAttempts() {
+        return failedAttempts.get();
+    }
+
+    @ManagedAttribute(description = "The number of emails dead-lettered since the application started")
+    public long getDeadLetteredEmails() {
+        return deadLetteredEmails.get();
+    }
+
+    @ManagedAttribute(description = "The time in milliseconds the mail server took to accept the last email")
+    public long getLastSendLatencyMillis() {
+        return lastSendLatencyMillis;
+    }
+
+    @ManagedAttribute(description = "The average time in milliseconds the mail server took to accept an email")
+    public long getAverageSendLatencyMillis() {
+        long sent = sentEmails.get();
+        return sent == 0 ? 0 : totalSendLatencyMillis.get() / sent;
+    }
+
+    @ManagedAttribute(description = "The longest time in milliseconds the mail server took to accept an email")
+    public long getMaxSendLatencyMillis() {
+        return maxSendLatencyMillis.get();
+    }
+
+    private static ThreadFactory daemonThreadFactory(String prefix) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -8,12 +8,12 @@ import javax.validation.constraints.NotBlank;
 public interface EmailService {
 
     /**
-     * Method used for sending an email. Default, the sender is "auctionshunters@gmail.com".
+     * Method used for sending an email. The email is only queued, in the transaction of the caller if there is one,
+     * so it is sent only if the caller commits and a slow mail server never delays the caller.
      *
      * @param to      addressee
      * @param subject the email subject
      * @param body-   the email we want to send
-     * @throws IllegalStateException in case of errors at sending the email
      */
     void sendEmail(@NotBlank String to, @NotBlank String subject, @NotBlank String body);
 }
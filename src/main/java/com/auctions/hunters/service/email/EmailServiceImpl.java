@@ -1,15 +1,15 @@
 package com.auctions.hunters.service.email;
 
+import com.auctions.hunters.model.EmailOutbox;
+import com.auctions.hunters.repository.EmailOutboxRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
-import javax.mail.MessagingException;
-import javax.mail.internet.MimeMessage;
 import javax.validation.constraints.NotBlank;
+import java.time.OffsetDateTime;
+
+import static com.auctions.hunters.model.enums.EmailStatus.PENDING;
 
 /**
  * Concrete class that implements {@link EmailService}.
@@ -17,36 +17,36 @@ import javax.validation.constraints.NotBlank;
 @Service
 public class EmailServiceImpl implements EmailService {
 
-    private final JavaMailSender mailSender;
+    private final EmailOutboxRepository emailOutboxRepository;
 
     private static final Logger LOGGER = LoggerFactory.getLogger(EmailServiceImpl.class);
 
-    public EmailServiceImpl(JavaMailSender mailSender) {
-        this.mailSender = mailSender;
+    public EmailServiceImpl(EmailOutboxRepository emailOutboxRepository) {
+        this.emailOutboxRepository = emailOutboxRepository;
     }
 
     /**
-     * Method used for sending an email. Default, the sender is "auctionshunters@gmail.com".
+     * Method used for sending an email. The email is written in the outbox, in the transaction of the caller if there
+     * is one, and is sent by the {@link EmailDispatcher} after the transaction commits.
      *
      * @param to      addressee
      * @param subject the email subject
      * @param body-   the email we want to send
-     * @throws IllegalStateException in case of errors at sending the email
      */
-    @Async
     @Override
     public void sendEmail(@NotBlank String to, @NotBlank String subject, @NotBlank String body) {
-        try {
-            MimeMessage mimeMessage = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, "utf-8");
-            helper.setText(body, true);
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setFrom("vânătoriidelicitații@gmail.com");
-            mailSender.send(mimeMessage);
-        } catch (MessagingException e) {
-            LOGGER.debug("Failed to send email", e);
-            throw new IllegalStateException("Failed to send email");
-        }
+        OffsetDateTime now = OffsetDateTime.now();
+        EmailOutbox email = EmailOutbox.builder()
+                .recipient(to)
+                .subject(subject)
+                .body(body)
+                .status(PENDING)
+                .attempts(0)
+                .createdAt(now)
+                .nextAttemptAt(now)
+                .build();
+
+        emailOutboxRepository.save(email);
+        LOGGER.debug("Email for {} added to the outbox", to);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,94 @@
+package com.auctions.hunters.service.email;
+
+import java.util.List;
+
+/**
+ * This enum documents the emails sent by the application. Every template has an HTML body, a text block whose
+ * {@code %s} placeholders are filled with the values of its variables in order, and a properties file in
+ * {@code templates/email} holding its subject.
+ */
+public enum EmailTemplate {
+    OUTBID("outbid", """
+            <!DOCTYPE html>
+            <html>
+            <head>
+                <meta charset="utf-8">
+                <style>
+                    body {
+                        font-family: Arial, sans-serif;
+                        background-color: #f0f0f0;
+                        color: #333;
+                        margin: 0;
+                        padding: 20px;
+                    }
+
+                    .container {
+                        background-color: #ffffff;
+                        padding: 20px;
+                        border-radius: 4px;
+                    }
+
+                    h1 {
+                        font-size: 24px;
+                        margin: 0 0 10px;
+                    }
+
+                    p {
+                        font-size: 16px;
+                        line-height: 1.5;
+                        margin: 0 0 10px;
+                    }
+
+                    .footer {
+                        font-size: 14px;
+                        color: #777;
+                        margin-top: 20px;
+                    }
+                </style>
+            </head>
+            <body>
+                <div class="container">
+                    <p>Salut %s,</p>
+                    <p>Dorim să vă anunțăm că un alt participant a plasat o ofertă mai mare pentru mașina %s %s de care erați interesat.</p>
+                    <p>Dacă sunteți în continuare interesat de această mașina vă încurajăm să plasați o nouă ofertă.</p>
+                    <p>Mult noroc în viitoarele licitații,</p>
+                    <p>Echipa Vânătorii de Licitații</p>
+                </div>
+            </body>
+            </html>
+            """, "userName", "producer", "model"),
+    REGISTRATION("registration", """
+            <div style="width: 500px; margin: 0 auto; text-align: center; font-family: Arial, sans-serif; background-color: lightgray; padding: 40px; border-radius: 10px; box-shadow: 0 0 10px 0 rgba(0, 0, 0, 0.1);">
+                <h1 style="margin-top: 50px; font-size: 36px; color: #01304A;">Validare email</h1>
+                <p>Draga %s,</p>
+                <p>Vă mulțumim că v-ați înscris la în aplicația noastră! Pentru a finaliza înregistrarea, trebuie să verificăm adresa dumneavoastră de e-mail.</p>
+                <br>
+                <p>Apăsați pe butonul de mai jos pentru a valida e-malailul.</p>
+                <p style="Margin:0 0 20px 0;font-size:19px;line-height:25px;color:#0b0c0c"><a target="_blank" href="%s">Actiează acum</a></p>
+                <p style="font-size: 18px; margin-bottom: 20px; color: gray;">Cele mai bune urări,</p>
+                <p style="font-size: 18px; margin-bottom: 20px; color: gray;">echipa Vânătorii de Licitații.</p>
+            </div>
+            """, "name", "link");
+
+    private final String templateName;
+    private final String body;
+    private final List<String> variables;
+
+    EmailTemplate(String templateName, String body, String... variables) {
+        this.templateName = templateName;
+        this.body = body;
+        this.variables = List.of(variables);
+    }
+
+    public String getTemplateName() {
+        return templateName;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public List<String> getVariables() {
+        return variables;
+    }
+}
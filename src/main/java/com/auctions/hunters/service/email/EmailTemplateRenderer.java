@@ -0,0 +1,84 @@
+package com.auctions.hunters.service.email;
+
+import com.auctions.hunters.config.EmailOutboxProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.HtmlUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Component that renders the {@link EmailTemplate} objects.
+ * <p>
+ * The bodies are the text blocks of the templates, filled with the HTML-escaped values of their variables. The
+ * subjects are {@link MessageFormat} patterns read from the properties file of each template and are compiled once
+ * per template and locale.
+ */
+@Component
+public class EmailTemplateRenderer {
+
+    static final String TEMPLATES_LOCATION = "templates/email/";
+
+    private final Locale defaultLocale;
+    private final Map<SubjectKey, MessageFormat> subjectFormats = new ConcurrentHashMap<>();
+
+    public EmailTemplateRenderer(EmailOutboxProperties emailOutboxProperties) {
+        this.defaultLocale = emailOutboxProperties.getLocale();
+    }
+
+    /**
+     * Renders the body of the given template, which is written in the default language of the emails.
+     *
+     * @param template  the {@link EmailTemplate} to render
+     * @param variables the values of the variables used by the template
+     * @return the HTML body of the email
+     */
+    public String render(EmailTemplate template, Map<String, Object> variables) {
+        //only the markup characters are escaped, the diacritics are sent as UTF-8
+        Object[] values = template.getVariables().stream()
+                .map(variable -> HtmlUtils.htmlEscape(String.valueOf(variables.get(variable)), StandardCharsets.UTF_8.name()))
+                .toArray();
+        return template.getBody().formatted(values);
+    }
+
+    /**
+     * Formats the subject of the given template in the default language of the emails.
+     *
+     * @param template  the {@link EmailTemplate} whose subject is formatted
+     * @param arguments the values of the {@code {0}}, {@code {1}}... placeholders of the subject
+     * @return the subject of the email
+     */
+    public String subject(EmailTemplate template, Object... arguments) {
+        return subject(template, defaultLocale, arguments);
+    }
+
+    /**
+     * Formats the subject of the given template.
+     *
+     * @param template  the {@link EmailTemplate} whose subject is formatted
+     * @param locale    the language of the email
+     * @param arguments the values of the {@code {0}}, {@code {1}}... placeholders of the subject
+     * @return the subject of the email
+     */
+    public String subject(EmailTemplate template, Locale locale, Object... arguments) {
+        MessageFormat format = subjectFormats.computeIfAbsent(new SubjectKey(template, locale), this::compileSubject);
+
+        //MessageFormat is not thread-safe
+        synchronized (format) {
+            return format.format(arguments);
+        }
+    }
+
+    private MessageFormat compileSubject(SubjectKey key) {
+        String bundleName = TEMPLATES_LOCATION.replace('/', '.') + key.template().getTemplateName();
+        ResourceBundle bundle = ResourceBundle.getBundle(bundleName, key.locale(), getClass().getClassLoader());
+        return new MessageFormat(bundle.getString("subject"), key.locale());
+    }
+
+    private record SubjectKey(EmailTemplate template, Locale locale) {
+    }
+}
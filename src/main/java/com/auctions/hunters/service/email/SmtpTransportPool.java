@@ -0,0 +1,255 @@
+package com.auctions.hunters.service.email;
+
+import com.auctions.hunters.config.EmailOutboxProperties;
+import com.sun.mail.smtp.SMTPSendFailedException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import javax.mail.AuthenticationFailedException;
+import javax.mail.MessagingException;
+import javax.mail.SendFailedException;
+import javax.mail.Transport;
+import javax.mail.internet.MimeMessage;
+import java.util.Date;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Component that sends the {@link MimeMessage} objects over a small pool of open SMTP connections.
+ * <p>
+ * {@link JavaMailSender#send(MimeMessage)} opens a new connection, STARTTLS handshake included, for every message.
+ * The pool keeps up to the configured number of connections open and sends many messages on each of them. A
+ * connection is closed after the configured number of messages or when it stayed idle for too long, since mail
+ * servers drop idle clients. A message that fails because its connection broke is sent once more on a new
+ * connection; a message rejected by the server is not retried here, its connection is kept for the next messages.
+ * When the {@link JavaMailSender} is not a {@link JavaMailSenderImpl}, the messages are sent by it directly.
+ */
+@Slf4j
+@Component
+@ManagedResource(objectName = "com.auctions.hunters:type=SmtpTransportPool", description = "Pooled connections to the mail server")
+public class SmtpTransportPool {
+
+    private final JavaMailSender mailSender;
+    private final EmailOutboxProperties emailOutboxProperties;
+
+    private final Semaphore connectionPermits;
+    private final BlockingQueue<PooledTransport> idleTransports = new LinkedBlockingQueue<>();
+
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private final AtomicLong openedConnections = new AtomicLong();
+    private final AtomicLong sentMessages = new AtomicLong();
+    private final AtomicLong brokenConnections = new AtomicLong();
+
+    public SmtpTransportPool(JavaMailSender mailSender, EmailOutboxProperties emailOutboxProperties) {
+        this.mailSender = mailSender;
+        this.emailOutboxProperties = emailOutboxProperties;
+        this.connectionPermits = new Semaphore(Math.max(1, emailOutboxProperties.getSmtpPoolSize()), true);
+    }
+
+    /**
+     * Sends the given message on a pooled connection, waiting for a connection if all of them are busy.
+     *
+     * @param message the message to send
+     * @throws MailException if the message could not be sent
+     */
+    public void send(MimeMessage message) throws MailException {
+        if (!(mailSender instanceof JavaMailSenderImpl senderImpl)) {
+            mailSender.send(message);
+            return;
+        }
+
+        try {
+            connectionPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MailSendException("Interrupted while waiting for an SMTP connection", e);
+        }
+
+        try {
+            prepare(message);
+            sendOnPooledConnection(senderImpl, message);
+            sentMessages.incrementAndGet();
+        } finally {
+            connectionPermits.release();
+        }
+    }
+
+    private void sendOnPooledConnection(JavaMailSenderImpl senderImpl, MimeMessage message) {
+        PooledTransport transport = takeIdleTransport();
+        if (transport != null && sendOn(transport, message, false)) {
+            return;
+        }
+
+        //there was no idle connection, or the idle one was dropped by the server
+        sendOn(open(senderImpl), message, true);
+    }
+
+    /**
+     * Sends the message on the given connection and returns it to the pool, unless the connection broke.
+     *
+     * @return false if the connection broke and the message can be sent again on a new connection
+     */
+    private boolean sendOn(PooledTransport transport, MimeMessage message, boolean lastAttempt) {
+        try {
+            transport.send(message);
+        } catch (MessagingException e) {
+            if (!isConnectionBroken(e)) {
+                //the server rejected this message, the connection is still usable
+                release(transport);
+                throw new MailSendException("The mail server rejected the message", e);
+            }
+
+            close(transport);
+            brokenConnections.incrementAndGet();
+            if (lastAttempt) {
+                throw new MailSendException("Failed to send the message", e);
+            }
+
+            log.debug("Pooled SMTP connection broken, retrying on a new connection.", e);
+            return false;
+        }
+
+        release(transport);
+        return true;
+    }
+
+    /**
+     * A connection closed by the server shows up as a send failure without a reply code, or with the 421 reply code.
+     */
+    private static boolean isConnectionBroken(MessagingException e) {
+        if (e instanceof SMTPSendFailedException sendFailed) {
+            return sendFailed.getReturnCode() < 0 || sendFailed.getReturnCode() == 421;
+        }
+        return !(e instanceof SendFailedException);
+    }
+
+    private void prepare(MimeMessage message) {
+        try {
+            if (message.getSentDate() == null) {
+                message.setSentDate(new Date());
+            }
+            //Transport.sendMessage does not build the headers, unlike Transport.send
+            message.saveChanges();
+        } catch (MessagingException e) {
+            throw new MailSendException("Failed to prepare the message", e);
+        }
+    }
+
+    /**
+     * Takes an idle connection, closing the ones that stayed idle for too long. The connection is not checked with a
+     * NOOP round trip, a connection dropped by the server is detected by the failed send instead.
+     */
+    private PooledTransport takeIdleTransport() {
+        PooledTransport transport;
+        while ((transport = idleTransports.poll()) != null) {
+            if (transport.idleMillis() < emailOutboxProperties.getConnectionIdleTimeoutMillis()) {
+                return transport;
+            }
+            close(transport);
+        }
+        return null;
+    }
+
+    private PooledTransport open(JavaMailSenderImpl senderImpl) {
+        try {
+            Transport transport = senderImpl.getSession().getTransport(
+                    senderImpl.getProtocol() != null ? senderImpl.getProtocol() : "smtp");
+            String username = senderImpl.getUsername();
+            String password = senderImpl.getPassword();
+            transport.connect(senderImpl.getHost(), senderImpl.getPort(),
+                    username == null || username.isEmpty() ? null : username,
+                    password == null || password.isEmpty() ? null : password);
+
+            openConnections.incrementAndGet();
+            openedConnections.incrementAndGet();
+            return new PooledTransport(transport);
+        } catch (AuthenticationFailedException e) {
+            throw new MailAuthenticationException(e);
+        } catch (MessagingException e) {
+            throw new MailSendException("Could not connect to the mail server", e);
+        }
+    }
+
+    private void release(PooledTransport transport) {
+        if (transport.sentMessages >= emailOutboxProperties.getMessagesPerConnection()) {
+            close(transport);
+        } else {
+            transport.lastUsedMillis = System.currentTimeMillis();
+            idleTransports.offer(transport);
+        }
+    }
+
+    private void close(PooledTransport transport) {
+        openConnections.decrementAndGet();
+        try {
+            transport.transport.close();
+        } catch (MessagingException e) {
+            log.debug("Failed to close an SMTP connection.", e);
+        }
+    }
+
+    /**
+     * Closes the idle connections. The connections in use are closed when they are released.
+     */
+    @PreDestroy
+    public void closeIdleConnections() {
+        PooledTransport transport;
+        while ((transport = idleTransports.poll()) != null) {
+            close(transport);
+        }
+    }
+
+    @ManagedAttribute(description = "The number of connections to the mail server currently open")
+    public int getOpenConnections() {
+        return openConnections.get();
+    }
+
+    @ManagedAttribute(description = "The number of connections to the mail server opened since the application started")
+    public long getOpenedConnections() {
+        return openedConnections.get();
+    }
+
+    @ManagedAttribute(description = "The number of messages sent over the pooled connections")
+    public long getSentMessages() {
+        return sentMessages.get();
+    }
+
+    @ManagedAttribute(description = "The number of connections closed because of an error")
+    public long getBrokenConnections() {
+        return brokenConnections.get();
+    }
+
+    /**
+     * An open {@link Transport} with the number of messages it sent.
+     */
+    private static final class PooledTransport {
+
+        private final Transport transport;
+        private int sentMessages;
+        private long lastUsedMillis = System.currentTimeMillis();
+
+        private PooledTransport(Transport transport) {
+            this.transport = transport;
+        }
+
+        private void send(MimeMessage message) throws MessagingException {
+            sentMessages++;
+            transport.sendMessage(message, message.getAllRecipients());
+        }
+
+        private long idleMillis() {
+            return System.currentTimeMillis() - lastUsedMillis;
+        }
+    }
+}
@@ -24,4 +24,11 @@ public interface ImageService {
      * @return found images
      */
     List<Image> findAllImagesByCarId(Integer carId);
-}
\ No newline at end of file
+
+    /**
+     * Get the image with the given id from the database.
+     *
+     * @return found image
+     */
+    Image getImageById(Integer imageId);
+}
@@ -1,5 +1,6 @@
 package com.auctions.hunters.service.image;
 
+import com.auctions.hunters.exceptions.ResourceNotFoundException;
 import com.auctions.hunters.model.Car;
 import com.auctions.hunters.model.Image;
 import com.auctions.hunters.repository.ImageRepository;
@@ -89,21 +90,25 @@ public class ImageServiceImpl implements ImageService {
     }
 
     /**
-     * Get all images from the database for a specific car id.
+     * Get all images from the database for a specific car id, without loading the images of the other cars.
      *
      * @return found images
      */
     @Override
     public List<Image> findAllImagesByCarId(Integer carId) {
-        List<Image> allImages = imageRepository.findAll();
-        List<Image> wantedImageList = new ArrayList<>();
-
-        for (Image image : allImages) {
-            if (image.getCar().getId().equals(carId)) {
-                wantedImageList.add(image);
-            }
-        }
+        return imageRepository.findAllByCarIdOrderById(carId);
+    }
 
-        return wantedImageList;
+    /**
+     * Get the image with the given id from the database.
+     *
+     * @param imageId the id of the image
+     * @return the found image
+     * @throws ResourceNotFoundException if no image has the given id
+     */
+    @Override
+    public Image getImageById(Integer imageId) throws ResourceNotFoundException {
+        return imageRepository.findById(imageId)
+                .orElseThrow(() -> new ResourceNotFoundException("Image", "id", imageId));
     }
-}
\ No newline at end of file
+}
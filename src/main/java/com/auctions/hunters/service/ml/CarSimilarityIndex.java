@@ -0,0 +1,399 @@
+package com.auctions.hunters.service.ml;
+
+import com.auctions.hunters.model.Auction;
+import com.auctions.hunters.model.Car;
+import com.auctions.hunters.model.projection.AuctionCarView;
+import com.auctions.hunters.repository.AuctionRepository;
+import com.auctions.hunters.service.auction.AuctionOpenedEvent;
+import com.auctions.hunters.service.auction.AuctionsClosedEvent;
+import com.auctions.hunters.service.car.CarNumericField;
+import com.auctions.hunters.utils.IntIntHashMap;
+import com.auctions.hunters.utils.RebuildableIndex;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+
+import static com.auctions.hunters.model.enums.AuctionStatus.ACTIVE;
+
+/**
+ * Component that keeps in memory a feature vector of the {@link Car} of every running {@link Auction}, to find the
+ * auctions whose cars are the most similar to the cars a user bid on.
+ * <p>
+ * The typed numeric attributes of the cars, the {@link CarNumericField} values, are scaled from a fixed range to
+ * [-1, 1], a missing value being 0, and the categorical ones are one-hot encoded in a few hashed slots each, a
+ * missing value having no slot. The fixed ranges and the hashed slots keep the vector of a car the same whatever the
+ * other cars are, so the index can be updated one auction at a time. The vectors are scaled to unit length, so their
+ * cosine is their dot product.
+ * <p>
+ * The numeric features of the indexed cars are packed one car after the other in a single {@code float} array,
+ * followed by the value of their one-hot features. The one-hot part of a car has a single slot set per category, so
+ * only the index of that slot is kept, in a packed {@code short} array: the similarity with a profile then reads one
+ * value of the profile per category instead of all its slots.
+ * <p>
+ * The index is built from the running auctions when the application is ready and then updated by every opened and
+ * closed auction, as a {@link RebuildableIndex}.
+ */
+@Component
+@ManagedResource(objectName = "com.auctions.hunters:type=CarSimilarityIndex", description = "Finds the auctioned cars similar to other cars")
+public class CarSimilarityIndex {
+
+    private static final List<NumericFeature> NUMERIC_FEATURES = List.of(
+            new NumericFeature(CarNumericField.MODEL_YEAR, 1990, 2030),
+            new NumericFeature(CarNumericField.ENGINE_POWER, 40, 500),
+            new NumericFeature(CarNumericField.ENGINE_DISPLACEMENT, 800, 6000),
+            new NumericFeature(CarNumericField.MAX_SPEED, 100, 320),
+            new NumericFeature(CarNumericField.EMPTY_WEIGHT, 700, 3000));
+
+    private static final List<Function<Car, String>> CATEGORICAL_FEATURES = List.of(
+            Car::getProducer,
+            Car::getBody,
+            Car::getFuelTypePrimary,
+            Car::getTransmission,
+            Car::getDrive,
+            Car::getEmissionStandard);
+
+    static final int SLOTS_PER_CATEGORY = 16; //a power of two, the values of a category are hashed on its slots
+    static final int DIMENSIONS = NUMERIC_FEATURES.size() + CATEGORICAL_FEATURES.size() * SLOTS_PER_CATEGORY;
+
+    private static final int NUMERIC = NUMERIC_FEATURES.size();
+    private static final int CATEGORIES = CATEGORICAL_FEATURES.size();
+    private static final int FLOATS_PER_CAR = NUMERIC + 1; //the numeric features, then the value of the one-hot slots
+    private static final short NO_SLOT = -1;
+
+    private static final int MIN_CAPACITY = 64;
+
+    private final AuctionRepository auctionRepository;
+    private final RebuildableIndex<Vectors, Object> vectors;
+
+    public CarSimilarityIndex(AuctionRepository auctionRepository,
+                              PlatformTransactionManager transactionManager) {
+        this.auctionRepository = auctionRepository;
+        this.vectors = new RebuildableIndex<>("car similarity index", new Vectors(MIN_CAPACITY), CarSimilarityIndex::applyTo, transactionManager);
+    }
+
+    /**
+     * Computes the profile of a user from the cars the user showed an interest in: the normalised sum of their vectors.
+     *
+     * @param cars the cars, a car given several times weighing more
+     * @return the profile, or null if none of the cars has a known attribute
+     */
+    public float[] profileOf(Collection<Car> cars) {
+        float[] profile = new float[DIMENSIONS];
+        for (Car car : cars) {
+            if (car != null) {
+                float[] vector = vectorOf(car);
+                for (int i = 0; i < DIMENSIONS; i++) {
+                    profile[i] += vector[i];
+                }
+            }
+        }
+        return normalise(profile) ? profile : null;
+    }
+
+    /**
+     * Returns the running auctions whose cars have the highest cosine similarity with the given profile, the most
+     * similar first and the smaller id first on ties.
+     *
+     * @param profile         a profile computed by {@link #profileOf(Collection)}
+     * @param k               the maximum number of auctions returned
+     * @param excludedOwnerId the id of the user whose auctions are skipped
+     * @param excludedAuction tells the auctions that are skipped
+     * @return the ids of at most {@code k} auctions
+     */
+    public int[] mostSimilar(float[] profile, int k, int excludedOwnerId, IntPredicate excludedAuction) {
+        return vectors.read(current -> {
+            int[] topIds = new int[Math.max(0, Math.min(k, current.size))];
+            float[] topScores = new float[topIds.length];
+            int found = 0;
+
+            for (int row = 0; row < current.size && topIds.length > 0; row++) {
+                int auctionId = current.auctionIds[row];
+                if (current.ownerIds[row] == excludedOwnerId || excludedAuction.test(auctionId)) {
+                    continue;
+                }
+
+                float score = current.similarity(row, profile);
+                if (found == topIds.length && !isBefore(score, auctionId, topScores[found - 1], topIds[found - 1])) {
+                    continue;
+                }
+
+                //insertion in the sorted top, k is small
+                int position = found < topIds.length ? found++ : found - 1;
+                while (position > 0 && isBefore(score, auctionId, topScores[position - 1], topIds[position - 1])) {
+                    topScores[position] = topScores[position - 1];
+                    topIds[position] = topIds[position - 1];
+                    position--;
+                }
+                topScores[position] = score;
+                topIds[position] = auctionId;
+            }
+
+            return Arrays.copyOf(topIds, found);
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAuctionOpened(AuctionOpenedEvent event) {
+        if (event.auctionId() == null || event.car() == null) {
+            return;
+        }
+        vectors.apply(event);
+    }
+
+    @EventListener
+    public void onAuctionsClosed(AuctionsClosedEvent event) {
+        vectors.apply(event);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Rebuilds the index from the running auctions. Putting or removing the vector of an auction twice changes nothing,
+     * so every change made during the rebuild is replayed.
+     */
+    @ManagedOperation(description = "Rebuilds the car similarity index from the database")
+    @Scheduled(initialDelayString = "${auctions.recommendation.rebuild-interval-ms:3600000}",
+            fixedDelayString = "${auctions.recommendation.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        vectors.rebuild(this::load);
+    }
+
+    private Vectors load() {
+        List<AuctionCarView> runningAuctions = auctionRepository.findCarViewsByStatusAndEndTimeAfter(ACTIVE, OffsetDateTime.now());
+
+        Vectors loaded = new Vectors(Math.max(MIN_CAPACITY, runningAuctions.size()));
+        for (AuctionCarView view : runningAuctions) {
+            loaded.put(view.getAuctionId(), view.getOwnerId() == null ? 0 : view.getOwnerId(), vectorOf(carOf(view)));
+        }
+        return loaded;
+    }
+
+    /**
+     * @return a detached car holding the attributes of the given view that the vectors are computed from
+     */
+    private static Car carOf(AuctionCarView view) {
+        return Car.builder()
+                .producer(view.getProducer())
+                .body(view.getBody())
+                .fuelTypePrimary(view.getFuelTypePrimary())
+                .transmission(view.getTransmission())
+                .drive(view.getDrive())
+                .emissionStandard(view.getEmissionStandard())
+                .modelYearValue(view.getModelYearValue())
+                .enginePowerValue(view.getEnginePowerValue())
+                .engineDisplacementValue(view.getEngineDisplacementValue())
+                .maxSpeedValue(view.getMaxSpeedValue())
+                .emptyWeightValue(view.getEmptyWeightValue())
+                .build();
+    }
+
+    private static void applyTo(Vectors target, Object event) {
+        if (event instanceof AuctionOpenedEvent opened) {
+            target.put(opened.auctionId(), opened.ownerId() == null ? 0 : opened.ownerId(), vectorOf(opened.car()));
+        } else if (event instanceof AuctionsClosedEvent closed) {
+            closed.auctionIds().forEach(target::remove);
+        }
+    }
+
+    /**
+     * Encodes the attributes of the given car.
+     *
+     * @return the vector of the car, of unit length unless no attribute is known
+     */
+    static float[] vectorOf(Car car) {
+        float[] vector = new float[DIMENSIONS];
+
+        for (int i = 0; i < NUMERIC; i++) {
+            vector[i] = NUMERIC_FEATURES.get(i).scale(car);
+        }
+
+        int offset = NUMERIC;
+        for (Function<Car, String> feature : CATEGORICAL_FEATURES) {
+            String value = feature.apply(car);
+            if (value != null && !value.isBlank()) {
+                int hash = value.trim().toLowerCase(Locale.ROOT).hashCode() * 0x9E3779B9;
+                vector[offset + ((hash ^ (hash >>> 16)) & (SLOTS_PER_CATEGORY - 1))] = 1;
+            }
+            offset += SLOTS_PER_CATEGORY;
+        }
+
+        normalise(vector);
+        return vector;
+    }
+
+    /**
+     * Scales the given vector to unit length.
+     *
+     * @return false if the vector is zero
+     */
+    private static boolean normalise(float[] vector) {
+        float squaredNorm = 0;
+        for (float value : vector) {
+            squaredNorm += value * value;
+        }
+
+        float norm = (float) Math.sqrt(squaredNorm);
+        if (norm == 0) {
+            return false;
+        }
+
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] /= norm;
+        }
+        return true;
+    }
+
+    private static boolean isBefore(float score, int auctionId, float otherScore, int otherAuctionId) {
+        return score > otherScore || (score == otherScore && auctionId < otherAuctionId);
+    }
+
+    @ManagedAttribute(description = "The number of auctioned cars in the index")
+    public int getCars() {
+        return vectors.read(current -> current.size);
+    }
+
+    @ManagedAttribute(description = "The number of features of a car")
+    public int getDimensions() {
+        return DIMENSIONS;
+    }
+
+    @ManagedAttribute(description = "The estimated memory taken by the index, in bytes")
+    public long getEstimatedMemoryBytes() {
+        return vectors.read(current -> {
+            long capacity = current.auctionIds.length;
+            long bytesPerCar = (long) Float.BYTES * FLOATS_PER_CAR + (long) Short.BYTES * CATEGORIES + 2L * Integer.BYTES;
+            return capacity * bytesPerCar + 2L * Integer.BYTES * current.rowOfAuction.capacity();
+        });
+    }
+
+    @ManagedAttribute(description = "The time in milliseconds the last rebuild took")
+    public long getLastRebuildMillis() {
+        return vectors.getLastRebuildMillis();
+    }
+
+    /**
+     * A typed numeric attribute, scaled from the given range.
+     */
+    private record NumericFeature(CarNumericField field, float min, float max) {
+
+        float scale(Car car) {
+            Integer value = field.valueOf(car);
+            if (value == null) {
+                return 0;
+            }
+
+            float clamped = Math.max(min, Math.min(max, value));
+            return 2 * (clamped - min) / (max - min) - 1;
+        }
+    }
+
+    /**
+     * The packed vectors of the indexed cars. A removed row is filled with the last one, so the rows stay contiguous.
+     */
+    private static final class Vectors {
+
+        private float[] values;
+        private short[] slots; //the index in the vector of the one-hot slot of every category, or NO_SLOT
+        private int[] auctionIds;
+        private int[] ownerIds;
+        private final IntIntHashMap rowOfAuction; //the row of an auction plus one, 0 meaning no row
+        private int size;
+
+        Vectors(int capacity) {
+            values = new float[capacity * FLOATS_PER_CAR];
+            slots = new short[capacity * CATEGORIES];
+            auctionIds = new int[capacity];
+            ownerIds = new int[capacity];
+            rowOfAuction = new IntIntHashMap(capacity);
+        }
+
+        void put(int auctionId, int ownerId, float[] vector) {
+            int row = rowOfAuction.get(auctionId) - 1;
+            if (row < 0) {
+                if (size == auctionIds.length) {
+                    grow();
+                }
+                row = size++;
+                rowOfAuction.addTo(auctionId, row + 1);
+            }
+
+            auctionIds[row] = auctionId;
+            ownerIds[row] = ownerId;
+            System.arraycopy(vector, 0, values, row * FLOATS_PER_CAR, NUMERIC);
+            values[row * FLOATS_PER_CAR + NUMERIC] = 0;
+            for (int category = 0; category < CATEGORIES; category++) {
+                short slot = NO_SLOT;
+                for (int i = NUMERIC + category * SLOTS_PER_CATEGORY; i < NUMERIC + (category + 1) * SLOTS_PER_CATEGORY; i++) {
+                    if (vector[i] != 0) {
+                        slot = (short) i;
+                        //the set slots of a normalised vector all have the same value
+                        values[row * FLOATS_PER_CAR + NUMERIC] = vector[i];
+                    }
+                }
+                slots[row * CATEGORIES + category] = slot;
+            }
+        }
+
+        /**
+         * The dot product of the vector of the given row and of the given dense vector.
+         */
+        float similarity(int row, float[] vector) {
+            int offset = row * FLOATS_PER_CAR;
+            float numericSum = 0;
+            for (int i = 0; i < NUMERIC; i++) {
+                numericSum += values[offset + i] * vector[i];
+            }
+
+            float oneHotSum = 0;
+            int slotOffset = row * CATEGORIES;
+            for (int category = 0; category < CATEGORIES; category++) {
+                short slot = slots[slotOffset + category];
+                if (slot != NO_SLOT) {
+                    oneHotSum += vector[slot];
+                }
+            }
+            return numericSum + values[offset + NUMERIC] * oneHotSum;
+        }
+
+        void remove(int auctionId) {
+            int row = rowOfAuction.remove(auctionId) - 1;
+            if (row < 0) {
+                return;
+            }
+
+            int last = --size;
+            if (row != last) {
+                auctionIds[row] = auctionIds[last];
+                ownerIds[row] = ownerIds[last];
+                System.arraycopy(values, last * FLOATS_PER_CAR, values, row * FLOATS_PER_CAR, FLOATS_PER_CAR);
+                System.arraycopy(slots, last * CATEGORIES, slots, row * CATEGORIES, CATEGORIES);
+                rowOfAuction.addTo(auctionIds[row], row - last);
+            }
+        }
+
+        private void grow() {
+            int capacity = auctionIds.length * 2;
+            values = Arrays.copyOf(values, capacity * FLOATS_PER_CAR);
+            slots = Arrays.copyOf(slots, capacity * CATEGORIES);
+            auctionIds = Arrays.copyOf(auctionIds, capacity);
+            ownerIds = Arrays.copyOf(ownerIds, capacity);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.auctions.hunters.service.ml;
+
+import com.auctions.hunters.config.RecommendationProperties;
+import com.auctions.hunters.model.Auction;
+import com.auctions.hunters.model.Bid;
+import com.auctions.hunters.model.User;
+import com.auctions.hunters.model.projection.CoBiddingEdge;
+import com.auctions.hunters.repository.BidRepository;
+import com.auctions.hunters.service.bid.BidPlacedEvent;
+import com.auctions.hunters.utils.IntIntHashMap;
+import com.auctions.hunters.utils.RebuildableIndex;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Component that keeps in memory how many times every {@link User} bid on the {@link Auction} objects of every other
+ * user, which is what the KNN recommender ranks the neighbours of a user by.
+ * <p>
+ * The graph is built from the {@code bid} table when the application is ready and is then updated by every saved
+ * {@link Bid}. The bids saved by the other instances of the application are only seen by the periodic rebuild, as a
+ * {@link RebuildableIndex}; the bids saved during a rebuild are replayed on the new graph if its snapshot misses
+ * them.
+ * <p>
+ * The neighbours of a user are kept in an {@link IntIntHashMap}, so an edge takes two ints. A user keeps at most
+ * {@code auctions.recommendation.max-neighbours-per-user} neighbours: a new neighbour of a full user replaces the
+ * least frequent one and inherits its count, like in the Space-Saving algorithm, so a frequent co-bidder that shows
+ * up late can still become a top neighbour.
+ */
+@Component
+@ManagedResource(objectName = "com.auctions.hunters:type=CoBiddingGraph", description = "Keeps the co-bidding graph of the users")
+@ConditionalOnProperty(name = "auctions.recommendation.neighbour-strategy", havingValue = "co-bidding", matchIfMissing = true)
+public class CoBiddingGraph implements NeighbourFinder {
+
+    //the estimated size of the map entry, of the boxed key and of the map of a user, besides its two arrays
+    private static final int USER_OVERHEAD_BYTES = 32 + 16 + 40 + 2 * 16;
+
+    private final BidRepository bidRepository;
+    private final RecommendationProperties recommendationProperties;
+
+    private final RebuildableIndex<Map<Integer, IntIntHashMap>, BidPlacedEvent> neighbours;
+    private final AtomicLong evictedEdges = new AtomicLong();
+
+    public CoBiddingGraph(BidRepository bidRepository,
+                          RecommendationProperties recommendationProperties,
+                          PlatformTransactionManager transactionManager) {
+        this.bidRepository = bidRepository;
+        this.recommendationProperties = recommendationProperties;
+        this.neighbours = new RebuildableIndex<>("co-bidding graph", new HashMap<>(),
+                (graph, event) -> addEdge(graph, event.auctionOwnerId(), event.bidderId(), 1), transactionManager);
+    }
+
+    /**
+     * Returns the users that bid the most on the auctions of the given {@link User}, the most frequent first and the
+     * smaller id first on ties.
+     *
+     * @param userId the id of the user
+     * @param k      the maximum number of neighbours returned
+     * @return the ids of at most {@code k} neighbours
+     */
+    @Override
+    public int[] topNeighbours(int userId, int k) {
+        return neighbours.read(graph -> {
+            IntIntHashMap bidders = graph.get(userId);
+            if (bidders == null || k <= 0) {
+                return new int[0];
+            }
+
+            TopNeighbours top = new TopNeighbours(k);
+            bidders.forEach(top::offer);
+            return top.ids();
+        });
+    }
+
+    /**
+     * @return the ids of the users that have at least one neighbour
+     */
+    @Override
+    public int[] getUserIds() {
+        return neighbours.read(graph -> graph.keySet().stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Counts a saved {@link Bid} once its transaction is committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBidPlaced(BidPlacedEvent event) {
+        if (event.auctionOwnerId() == null || event.bidderId() == null || event.auctionOwnerId().equals(event.bidderId())) {
+            return;
+        }
+        neighbours.apply(event);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Rebuilds the graph from the {@code bid} table, picking up the bids saved by the other instances. The bid ids come
+     * from a pooled sequence, so they do not tell which bids the snapshot saw; the bids saved during the rebuild are
+     * looked up in the snapshot instead, and only the missing ones are replayed.
+     */
+    @ManagedOperation(description = "Rebuilds the co-bidding graph from the database")
+    @Scheduled(initialDelayString = "${auctions.recommendation.rebuild-interval-ms:3600000}",
+            fixedDelayString = "${auctions.recommendation.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        neighbours.rebuild(new RebuildableIndex.Loader<>() {
+
+            @Override
+            public Map<Integer, IntIntHashMap> load() {
+                Map<Integer, IntIntHashMap> graph = new HashMap<>();
+                try (Stream<CoBiddingEdge> edges = bidRepository.streamCoBiddingEdges()) {
+                    edges.forEach(edge -> addEdge(graph, edge.getOwnerId(), edge.getBidderId(),
+                            (int) Math.min(edge.getBids(), Integer.MAX_VALUE)));
+                }
+                return graph;
+            }
+
+            @Override
+            public List<BidPlacedEvent> unseen(List<BidPlacedEvent> queuedEvents) {
+                Set<Integer> savedBidIds = bidRepository.findExistingIds(queuedEvents.stream()
+                        .map(BidPlacedEvent::bidId)
+                        .collect(Collectors.toSet()));
+                return queuedEvents.stream()
+                        .filter(event -> !savedBidIds.contains(event.bidId()))
+                        .toList();
+            }
+        });
+    }
+
+    private void addEdge(Map<Integer, IntIntHashMap> graph, int ownerId, int bidderId, int bids) {
+        IntIntHashMap bidders = graph.computeIfAbsent(ownerId, id -> new IntIntHashMap());
+
+        if (!bidders.containsKey(bidderId) && bidders.size() >= recommendationProperties.getMaxNeighboursPerUser()) {
+            bids += bidders.remove(leastFrequent(bidders));
+            evictedEdges.incrementAndGet();
+        }
+        bidders.addTo(bidderId, bids);
+    }
+
+    private static int leastFrequent(IntIntHashMap bidders) {
+        int[] least = {0, Integer.MAX_VALUE};
+        bidders.forEach((bidderId, bids) -> {
+            if (bids < least[1]) {
+                least[0] = bidderId;
+                least[1] = bids;
+            }
+        });
+        return least[0];
+    }
+
+    @ManagedAttribute(description = "The number of users that have co-bidders")
+    public int getUsers() {
+        return neighbours.read(Map::size);
+    }
+
+    @ManagedAttribute(description = "The number of (user, co-bidder) edges kept in memory")
+    public long getEdges() {
+        return neighbours.read(graph -> graph.values().stream().mapToLong(IntIntHashMap::size).sum());
+    }
+
+    @ManagedAttribute(description = "The estimated memory taken by the graph, in bytes")
+    public long getEstimatedMemoryBytes() {
+        return neighbours.read(graph -> graph.values().stream()
+                .mapToLong(bidders -> USER_OVERHEAD_BYTES + 2L * Integer.BYTES * bidders.capacity())
+                .sum());
+    }
+
+    @ManagedAttribute(description = "The number of edges evicted because their user had too many co-bidders")
+    public long getEvictedEdges() {
+        return evictedEdges.get();
+    }
+
+    @ManagedAttribute(description = "The time in milliseconds the last rebuild took")
+    public long getLastRebuildMillis() {
+        return neighbours.getLastRebuildMillis();
+    }
+}
@@ -0,0 +1,317 @@
+package com.auctions.hunters.service.ml;
+
+import com.auctions.hunters.config.RecommendationProperties;
+import com.auctions.hunters.model.Auction;
+import com.auctions.hunters.model.Bid;
+import com.auctions.hunters.model.User;
+import com.auctions.hunters.model.projection.BidderAuction;
+import com.auctions.hunters.repository.BidRepository;
+import com.auctions.hunters.service.bid.BidPlacedEvent;
+import com.auctions.hunters.utils.IntIntHashMap;
+import com.auctions.hunters.utils.RebuildableIndex;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+/**
+ * {@link NeighbourFinder} that finds the users who bid on the most similar sets of {@link Auction} objects, by the
+ * Jaccard similarity of the sets, approximated with MinHash signatures and locality-sensitive hashing. It is enabled
+ * by {@code auctions.recommendation.neighbour-strategy=minhash}.
+ * <p>
+ * Every {@link User} has a signature of {@code bands * rows} longs, the minimum of each hash function over the auctions
+ * the user bid on, so the share of equal values of two signatures estimates the similarity of the two sets. The
+ * signature is split in bands and the users whose band is equal land in the same bucket; only the users sharing at
+ * least one bucket are compared, which keeps a query independent of the number of users.
+ * <p>
+ * A signature only goes down, so a saved {@link Bid} updates it in place and a bid seen twice changes nothing. The
+ * index is built from the {@code bid} table when the application is ready and then updated by every saved bid, as a
+ * {@link RebuildableIndex}.
+ */
+@Component
+@ConditionalOnProperty(name = "auctions.recommendation.neighbour-strategy", havingValue = "minhash")
+@ManagedResource(objectName = "com.auctions.hunters:type=MinHashNeighbourFinder", description = "Finds similar users with MinHash")
+public class MinHashNeighbourFinder implements NeighbourFinder {
+
+    private static final long SEED = 0x5DEECE66DL;
+    //the estimated size of the map entry, of the boxed key and of the header of the signature of a user
+    private static final int USER_OVERHEAD_BYTES = 32 + 16 + 16;
+
+    private final BidRepository bidRepository;
+    private final int bands;
+    private final int rows;
+    private final long[] multipliers;
+    private final long[] increments;
+
+    private final RebuildableIndex<Index, BidPlacedEvent> index;
+
+    public MinHashNeighbourFinder(BidRepository bidRepository,
+                                  RecommendationProperties recommendationProperties,
+                                  PlatformTransactionManager transactionManager) {
+        this.bidRepository = bidRepository;
+        this.bands = recommendationProperties.getMinHashBands();
+        this.rows = recommendationProperties.getMinHashRows();
+
+        //the same seed on every instance, so the signatures do not depend on the instance that computed them
+        SplittableRandom random = new SplittableRandom(SEED);
+        this.multipliers = new long[bands * rows];
+        this.increments = new long[bands * rows];
+        for (int i = 0; i < multipliers.length; i++) {
+            multipliers[i] = random.nextLong() | 1;
+            increments[i] = random.nextLong();
+        }
+        this.index = new RebuildableIndex<>("MinHash index", new Index(bands),
+                (target, event) -> add(target, event.bidderId(), event.auctionId()), transactionManager);
+    }
+
+    /**
+     * Returns the users whose auctions are the most similar to the auctions of the given {@link User}, the most
+     * similar first and the smaller id first on ties. Only the users sharing an LSH bucket with the user are compared.
+     *
+     * @param userId the id of the user
+     * @param k      the maximum number of neighbours returned
+     * @return the ids of at most {@code k} neighbours
+     */
+    @Override
+    public int[] topNeighbours(int userId, int k) {
+        return index.read(current -> {
+            long[] signature = current.signatures.get(userId);
+            if (signature == null || k <= 0) {
+                return new int[0];
+            }
+
+            IntIntHashMap candidates = new IntIntHashMap();
+            for (int band = 0; band < bands; band++) {
+                int[] bucket = current.buckets.get(band).get(bandKey(signature, band));
+                for (int i = 1; i <= bucket[0]; i++) {
+                    if (bucket[i] != userId) {
+                        candidates.addTo(bucket[i], 1);
+                    }
+                }
+            }
+
+            TopNeighbours top = new TopNeighbours(k);
+            candidates.forEach((candidateId, sharedBands) ->
+                    top.offer(candidateId, equalValues(signature, current.signatures.get(candidateId))));
+            return top.ids();
+        });
+    }
+
+    @Override
+    public int[] getUserIds() {
+        return index.read(current -> current.signatures.keySet().stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Adds the auction of a saved {@link Bid} to the signature of its bidder once its transaction is committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBidPlaced(BidPlacedEvent event) {
+        if (event.bidderId() == null || event.auctionId() == null) {
+            return;
+        }
+        index.apply(event);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Rebuilds the index from the {@code bid} table, picking up the bids saved by the other instances. A bid seen twice
+     * changes nothing, so the bids saved during the rebuild are replayed as they are.
+     */
+    @ManagedOperation(description = "Rebuilds the MinHash index from the database")
+    @Scheduled(initialDelayString = "${auctions.recommendation.rebuild-interval-ms:3600000}",
+            fixedDelayString = "${auctions.recommendation.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        index.rebuild(this::load);
+    }
+
+    private Index load() {
+        Index loaded = new Index(bands);
+        try (Stream<BidderAuction> bidderAuctions = bidRepository.streamBidderAuctions()) {
+            bidderAuctions.forEach(pair -> lowerSignature(loaded, pair.getUserId(), pair.getAuctionId()));
+        }
+
+        //the buckets are filled once the signatures are final, instead of moving the users after every bid
+        loaded.signatures.forEach((userId, signature) -> {
+            for (int band = 0; band < bands; band++) {
+                addToBucket(loaded.buckets.get(band), bandKey(signature, band), userId);
+            }
+        });
+        return loaded;
+    }
+
+    /**
+     * Lowers the signature of the given user with the hashes of the given auction and moves the user to the buckets
+     * of the bands that changed.
+     */
+    private void add(Index target, int userId, int auctionId) {
+        long[] signature = target.signatures.get(userId);
+        long[] oldKeys = new long[bands];
+        if (signature != null) {
+            for (int band = 0; band < bands; band++) {
+                oldKeys[band] = bandKey(signature, band);
+            }
+        }
+
+        boolean isNew = signature == null;
+        signature = lowerSignature(target, userId, auctionId);
+
+        for (int band = 0; band < bands; band++) {
+            long newKey = bandKey(signature, band);
+            if (isNew || newKey != oldKeys[band]) {
+                if (!isNew) {
+                    removeFromBucket(target.buckets.get(band), oldKeys[band], userId);
+                }
+                addToBucket(target.buckets.get(band), newKey, userId);
+            }
+        }
+    }
+
+    /**
+     * Lowers the signature of the given user with the hashes of the given auction, without touching the buckets.
+     *
+     * @return the signature of the user
+     */
+    private long[] lowerSignature(Index target, int userId, int auctionId) {
+        long[] signature = target.signatures.computeIfAbsent(userId, id -> {
+            long[] empty = new long[bands * rows];
+            Arrays.fill(empty, Long.MAX_VALUE);
+            return empty;
+        });
+
+        for (int function = 0; function < signature.length; function++) {
+            signature[function] = Math.min(signature[function], hash(function, auctionId));
+        }
+        return signature;
+    }
+
+    /**
+     * A bucket is an array whose first element is the number of users, followed by the ids of the users.
+     */
+    private static void addToBucket(Map<Long, int[]> bandBuckets, long key, int userId) {
+        int[] bucket = bandBuckets.get(key);
+        if (bucket == null) {
+            bandBuckets.put(key, new int[]{1, userId});
+            return;
+        }
+
+        int size = bucket[0];
+        if (size + 1 == bucket.length) {
+            bucket = Arrays.copyOf(bucket, bucket.length * 2);
+            bandBuckets.put(key, bucket);
+        }
+        bucket[size + 1] = userId;
+        bucket[0] = size + 1;
+    }
+
+    private static void removeFromBucket(Map<Long, int[]> bandBuckets, long key, int userId) {
+        int[] bucket = bandBuckets.get(key);
+        int size = bucket[0];
+        if (size == 1) {
+            bandBuckets.remove(key);
+            return;
+        }
+
+        for (int i = 1; i <= size; i++) {
+            if (bucket[i] == userId) {
+                bucket[i] = bucket[size];
+                bucket[0] = size - 1;
+                return;
+            }
+        }
+    }
+
+    private long hash(int function, int auctionId) {
+        return mix(auctionId * multipliers[function] + increments[function]);
+    }
+
+    private long bandKey(long[] signature, int band) {
+        long key = band;
+        for (int row = band * rows; row < (band + 1) * rows; row++) {
+            key = mix(key * 31 + signature[row]);
+        }
+        return key;
+    }
+
+    private static int equalValues(long[] signature, long[] other) {
+        int equal = 0;
+        for (int i = 0; i < signature.length; i++) {
+            if (signature[i] == other[i]) {
+                equal++;
+            }
+        }
+        return equal;
+    }
+
+    /**
+     * The finalizer of MurmurHash3, which spreads every input bit over the whole output.
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    @ManagedAttribute(description = "The number of users that have a signature")
+    public int getUsers() {
+        return index.read(current -> current.signatures.size());
+    }
+
+    @ManagedAttribute(description = "The number of LSH buckets over all the bands")
+    public long getBuckets() {
+        return index.read(current -> current.buckets.stream().mapToLong(Map::size).sum());
+    }
+
+    @ManagedAttribute(description = "The estimated memory taken by the signatures and the buckets, in bytes")
+    public long getEstimatedMemoryBytes() {
+        return index.read(current -> {
+            long signatures = (long) current.signatures.size() * (USER_OVERHEAD_BYTES + (long) Long.BYTES * bands * rows);
+            long buckets = current.buckets.stream()
+                    .flatMap(bandBuckets -> bandBuckets.values().stream())
+                    .mapToLong(bucket -> USER_OVERHEAD_BYTES + (long) Integer.BYTES * bucket.length)
+                    .sum();
+            return signatures + buckets;
+        });
+    }
+
+    @ManagedAttribute(description = "The time in milliseconds the last rebuild took")
+    public long getLastRebuildMillis() {
+        return index.getLastRebuildMillis();
+    }
+
+    /**
+     * The signatures of the users and, for every band, the users of every bucket.
+     */
+    private static final class Index {
+        private final Map<Integer, long[]> signatures = new HashMap<>();
+        private final List<Map<Long, int[]>> buckets;
+
+        private Index(int bands) {
+            this.buckets = new ArrayList<>(bands);
+            for (int band = 0; band < bands; band++) {
+                buckets.add(new HashMap<>());
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.auctions.hunters.service.ml;
+
+import com.auctions.hunters.model.User;
+
+/**
+ * Strategy used by the KNN recommender to find the nearest neighbours of a {@link User}. The strategy is selected by
+ * the {@code auctions.recommendation.neighbour-strategy} property.
+ */
+public interface NeighbourFinder {
+
+    /**
+     * Returns the nearest neighbours of the given {@link User}, the nearest first.
+     *
+     * @param userId the id of the user
+     * @param k      the maximum number of neighbours returned
+     * @return the ids of at most {@code k} neighbours
+     */
+    int[] topNeighbours(int userId, int k);
+
+    /**
+     * @return the ids of the users that can have neighbours
+     */
+    int[] getUserIds();
+}
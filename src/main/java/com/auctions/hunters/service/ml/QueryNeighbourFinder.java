@@ -0,0 +1,44 @@
+package com.auctions.hunters.service.ml;
+
+import com.auctions.hunters.model.Auction;
+import com.auctions.hunters.model.User;
+import com.auctions.hunters.repository.BidRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link NeighbourFinder} that asks the database for the users who made the most bids on the {@link Auction} objects
+ * of a {@link User}, with one aggregate query per lookup. It keeps nothing in memory and always sees the last bids, at
+ * the cost of a query per user. It is enabled by {@code auctions.recommendation.neighbour-strategy=query}.
+ */
+@Component
+@ConditionalOnProperty(name = "auctions.recommendation.neighbour-strategy", havingValue = "query")
+public class QueryNeighbourFinder implements NeighbourFinder {
+
+    private final BidRepository bidRepository;
+
+    public QueryNeighbourFinder(BidRepository bidRepository) {
+        this.bidRepository = bidRepository;
+    }
+
+    @Override
+    public int[] topNeighbours(int userId, int k) {
+        if (k <= 0) {
+            return new int[0];
+        }
+
+        return bidRepository.findTopBidderIdsOfOwner(userId, k).stream()
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /**
+     * @return the ids of the users whose auctions got bids from other users
+     */
+    @Override
+    public int[] getUserIds() {
+        return bidRepository.findOwnerIdsWithBidders().stream()
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+}
@@ -0,0 +1,310 @@
+package com.auctions.hunters.service.ml;
+
+import com.auctions.hunters.config.RecommendationProperties;
+import com.auctions.hunters.model.Auction;
+import com.auctions.hunters.model.User;
+import com.auctions.hunters.model.projection.AuctionOwnerView;
+import com.auctions.hunters.repository.AuctionRepository;
+import com.auctions.hunters.service.auction.AuctionService;
+import com.auctions.hunters.service.auction.AuctionsClosedEvent;
+import com.auctions.hunters.service.bid.BidPlacedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PreDestroy;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static com.auctions.hunters.model.enums.AuctionStatus.ACTIVE;
+import static com.auctions.hunters.service.ml.RecommendationServiceImpl.K_NEIGHBOURS;
+import static com.auctions.hunters.service.ml.RecommendationServiceImpl.NUMBER_OF_RECOMMENDED_AUCTIONS;
+
+/**
+ * Component that computes the recommended {@link Auction} objects of all the users ahead of the page views.
+ * <p>
+ * A run loads the running auctions once, grouped by their owner, and computes in parallel, on a dedicated
+ * {@link ForkJoinPool}, the recommendations of every user known by the {@link NeighbourFinder}: the running
+ * auctions of the nearest neighbours. The auctions with the most bidders are kept for the users without neighbours.
+ * The recommendations are kept as arrays of auction ids and are replaced all at once at the end of the run.
+ * <p>
+ * A run starts every {@code auctions.recommendation.precompute-interval-ms} and after every
+ * {@code auctions.recommendation.precompute-after-bids} saved bids. The auctions closed since the last run are
+ * dropped from the recommendations when they are read, the recommendations of the user being computed again from the
+ * auctions of the last run.
+ */
+@Slf4j
+@Component
+@ManagedResource(objectName = "com.auctions.hunters:type=RecommendationPrecomputer", description = "Precomputes the recommended auctions")
+public class RecommendationPrecomputer {
+
+    private static final int[] NO_AUCTIONS = new int[0];
+
+    private final AuctionRepository auctionRepository;
+    private final AuctionService auctionService;
+    private final NeighbourFinder neighbourFinder;
+    private final RecommendationProperties recommendationProperties;
+    private final ForkJoinPool forkJoinPool;
+    private final ExecutorService trigger;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicInteger bidsSinceLastRun = new AtomicInteger();
+    private final Set<Integer> closedAuctionIds = ConcurrentHashMap.newKeySet();
+    private volatile Set<Integer> closedDuringRun; //the auctions closed since the running run started, null between runs
+    private volatile Recommendations recommendations; //null until the first run ends
+
+    private volatile long lastRunUsers;
+    private volatile long lastRunMillis;
+
+    public RecommendationPrecomputer(AuctionRepository auctionRepository,
+                                     AuctionService auctionService,
+                                     NeighbourFinder neighbourFinder,
+                                     RecommendationProperties recommendationProperties) {
+        this.auctionRepository = auctionRepository;
+        this.auctionService = auctionService;
+        this.neighbourFinder = neighbourFinder;
+        this.recommendationProperties = recommendationProperties;
+
+        int parallelism = recommendationProperties.getPrecomputeParallelism();
+        this.forkJoinPool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.trigger = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "recommendation-precompute");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        trigger.shutdownNow();
+        forkJoinPool.shutdownNow();
+    }
+
+    /**
+     * Returns the precomputed recommendations of the given {@link User}.
+     *
+     * @param userId the id of the user
+     * @return the ids of the recommended auctions, or an empty optional if no run ended yet or if no neighbour of the
+     * user runs an auction, so the caller falls back to the other recommendations
+     */
+    public Optional<int[]> getRecommendedAuctionIds(int userId) {
+        Recommendations current = recommendations;
+        if (current == null) {
+            return Optional.empty();
+        }
+
+        int[] auctionIds = current.byUser().get(userId);
+        if (auctionIds != null && Arrays.stream(auctionIds).anyMatch(closedAuctionIds::contains)) {
+            auctionIds = recommend(userId, current.runningAuctionsByOwner());
+            if (auctionIds == null) {
+                current.byUser().remove(userId);
+            } else {
+                current.byUser().put(userId, auctionIds);
+            }
+        }
+
+        return Optional.ofNullable(auctionIds);
+    }
+
+    /**
+     * Returns the running auctions with the most bidders, as found by the last run.
+     *
+     * @return the ids of the auctions, or an empty optional if no run ended yet
+     */
+    public Optional<int[]> getTopBidAuctionIds() {
+        Recommendations current = recommendations;
+        return current == null ? Optional.empty() : Optional.of(withoutClosedAuctions(current.topBidAuctionIds()));
+    }
+
+    /**
+     * Starts a run on the thread of the precomputer, so the run does not hold a thread of the shared scheduler.
+     */
+    @Scheduled(initialDelayString = "${auctions.recommendation.precompute-initial-delay-ms:10000}",
+            fixedDelayString = "${auctions.recommendation.precompute-interval-ms:300000}")
+    public void scheduledPrecompute() {
+        trigger.execute(this::precompute);
+    }
+
+    /**
+     * Computes the recommendations of all the users, unless a run is already in progress.
+     *
+     * @return true if the recommendations were computed
+     */
+    @ManagedOperation(description = "Computes the recommendations of all the users")
+    public boolean precompute() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+
+        try {
+            long start = System.nanoTime();
+            bidsSinceLastRun.set(0);
+            //the auctions closed before the run are not loaded anymore, the ones closed from now on must stay dropped
+            Set<Integer> closedSinceStart = ConcurrentHashMap.newKeySet();
+            closedDuringRun = closedSinceStart;
+
+            Map<Integer, int[]> runningAuctionsByOwner = loadRunningAuctionsByOwner();
+            int[] topBidAuctionIds = auctionService.getTopBidAuctions(NUMBER_OF_RECOMMENDED_AUCTIONS).stream()
+                    .mapToInt(Auction::getId)
+                    .toArray();
+            int[] userIds = neighbourFinder.getUserIds();
+
+            Map<Integer, int[]> byUser = new ConcurrentHashMap<>(Math.max(16, userIds.length * 4 / 3));
+            forkJoinPool.submit(() -> Arrays.stream(userIds).parallel()
+                            .forEach(userId -> {
+                                int[] auctionIds = recommend(userId, runningAuctionsByOwner);
+                                if (auctionIds != null) {
+                                    byUser.put(userId, auctionIds);
+                                }
+                            }))
+                    .get();
+
+            recommendations = new Recommendations(byUser, topBidAuctionIds, runningAuctionsByOwner, System.currentTimeMillis());
+            closedAuctionIds.retainAll(closedSinceStart);
+            lastRunUsers = userIds.length;
+            lastRunMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            log.info("Precomputed the recommendations of {} users in {} ms.", lastRunUsers, lastRunMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | RuntimeException e) {
+            log.error("Could not precompute the recommendations, keeping the previous ones.", e);
+            return false;
+        } finally {
+            closedDuringRun = null;
+            running.set(false);
+        }
+    }
+
+    /**
+     * Starts a run in the background after the configured number of saved bids.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBidPlaced(BidPlacedEvent event) {
+        if (bidsSinceLastRun.incrementAndGet() == recommendationProperties.getPrecomputeAfterBids()) {
+            trigger.execute(this::precompute);
+        }
+    }
+
+    @EventListener
+    public void onAuctionsClosed(AuctionsClosedEvent event) {
+        Set<Integer> closedSinceStart = closedDuringRun;
+        if (closedSinceStart != null) {
+            //added there first, so the end of the run cannot forget them
+            closedSinceStart.addAll(event.auctionIds());
+        }
+        closedAuctionIds.addAll(event.auctionIds());
+    }
+
+    /**
+     * The running auctions of the nearest neighbours of the given user, in the order of the neighbours and then of the
+     * auction ids, without the closed auctions.
+     *
+     * @return the recommended auction ids, or null if the user has no neighbour or if none of the neighbours runs an
+     * auction
+     */
+    private int[] recommend(int userId, Map<Integer, int[]> runningAuctionsByOwner) {
+        int[] neighbourIds = neighbourFinder.topNeighbours(userId, K_NEIGHBOURS);
+        if (neighbourIds.length == 0) {
+            return null;
+        }
+
+        int[] auctionIds = new int[NUMBER_OF_RECOMMENDED_AUCTIONS];
+        int size = 0;
+        for (int neighbourId : neighbourIds) {
+            for (int auctionId : runningAuctionsByOwner.getOrDefault(neighbourId, NO_AUCTIONS)) {
+                if (!closedAuctionIds.contains(auctionId)) {
+                    auctionIds[size++] = auctionId;
+                    if (size == auctionIds.length) {
+                        return auctionIds;
+                    }
+                }
+            }
+        }
+
+        return size == 0 ? null : Arrays.copyOf(auctionIds, size);
+    }
+
+    private int[] withoutClosedAuctions(int[] auctionIds) {
+        return closedAuctionIds.isEmpty() ? auctionIds : Arrays.stream(auctionIds)
+                .filter(auctionId -> !closedAuctionIds.contains(auctionId))
+                .toArray();
+    }
+
+    private Map<Integer, int[]> loadRunningAuctionsByOwner() {
+        List<AuctionOwnerView> runningAuctions = auctionRepository.findOwnerViewsOfRunningAuctions(ACTIVE, OffsetDateTime.now());
+
+        Map<Integer, List<Integer>> auctionIdsByOwner = runningAuctions.stream()
+                .collect(Collectors.groupingBy(AuctionOwnerView::getUserId, Collectors.mapping(AuctionOwnerView::getId, Collectors.toList())));
+
+        Map<Integer, int[]> runningAuctionsByOwner = new HashMap<>(Math.max(16, auctionIdsByOwner.size() * 4 / 3));
+        auctionIdsByOwner.forEach((ownerId, auctionIds) ->
+                runningAuctionsByOwner.put(ownerId, auctionIds.stream().mapToInt(Integer::intValue).toArray()));
+        return runningAuctionsByOwner;
+    }
+
+    @ManagedAttribute(description = "The number of users whose recommendations were computed by the last run")
+    public long getLastRunUsers() {
+        return lastRunUsers;
+    }
+
+    @ManagedAttribute(description = "The time in milliseconds the last run took")
+    public long getLastRunMillis() {
+        return lastRunMillis;
+    }
+
+    @ManagedAttribute(description = "The number of users whose recommendations were computed per second by the last run")
+    public long getUsersPerSecond() {
+        return lastRunUsers * 1000 / Math.max(1, lastRunMillis);
+    }
+
+    @ManagedAttribute(description = "The age in milliseconds of the recommendations, -1 before the first run")
+    public long getStalenessMillis() {
+        Recommendations current = recommendations;
+        return current == null ? -1 : System.currentTimeMillis() - current.computedAtMillis();
+    }
+
+    @ManagedAttribute(description = "The number of bids saved since the last run")
+    public int getBidsSinceLastRun() {
+        return bidsSinceLastRun.get();
+    }
+
+    @ManagedAttribute(description = "The number of auctions closed since the last run")
+    public int getClosedAuctionsSinceLastRun() {
+        return closedAuctionIds.size();
+    }
+
+    /**
+     * The result of a run.
+     *
+     * @param byUser                 the recommended auction ids of the users that have neighbours
+     * @param topBidAuctionIds       the ids of the auctions with the most bidders
+     * @param runningAuctionsByOwner the ids of the running auctions, grouped by their owner
+     * @param computedAtMillis       the time the run ended
+     */
+    private record Recommendations(Map<Integer, int[]> byUser,
+                                   int[] topBidAuctionIds,
+                                   Map<Integer, int[]> runningAuctionsByOwner,
+                                   long computedAtMillis) {
+    }
+}
@@ -4,26 +4,42 @@ import com.auctions.hunters.model.Auction;
 import com.auctions.hunters.model.Car;
 import com.auctions.hunters.model.User;
 import com.auctions.hunters.service.auction.AuctionService;
+import com.auctions.hunters.service.bid.BidService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
 import java.util.*;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import static com.auctions.hunters.model.enums.AuctionStatus.ACTIVE;
+
 @Slf4j
 @Service
 public class RecommendationServiceImpl implements RecommendationService {
 
     private final AuctionService auctionService;
-
-    public RecommendationServiceImpl(AuctionService auctionService) {
+    private final BidService bidService;
+    private final NeighbourFinder neighbourFinder;
+    private final RecommendationPrecomputer recommendationPrecomputer;
+    private final CarSimilarityIndex carSimilarityIndex;
+
+    public RecommendationServiceImpl(AuctionService auctionService,
+                                     BidService bidService,
+                                     NeighbourFinder neighbourFinder,
+                                     RecommendationPrecomputer recommendationPrecomputer,
+                                     CarSimilarityIndex carSimilarityIndex) {
         this.auctionService = auctionService;
+        this.bidService = bidService;
+        this.neighbourFinder = neighbourFinder;
+        this.recommendationPrecomputer = recommendationPrecomputer;
+        this.carSimilarityIndex = carSimilarityIndex;
     }
 
-    private static final int K_NEIGHBOURS = 1;
-    private static final int NUMBER_OF_RECOMMENDED_AUCTIONS = 2;
+    static final int K_NEIGHBOURS = 1;
+    static final int NUMBER_OF_RECOMMENDED_AUCTIONS = 2;
 
     /**
      * Return a list with all the different {@link Car} objects retrieved from the recommended {@link Auction} list.
@@ -33,7 +49,7 @@ public class RecommendationServiceImpl implements RecommendationService {
      */
     @Override
     public List<Car> getRecommendedAuctionedCarsForUser(User user) {
-        return getRecommendations(user.getId()).stream()
+        return getRecommendations(user).stream()
                 .filter(auction -> auction.getEndTime().isAfter(auction.getStartTime()))
                 .map(Auction::getCar)
                 .distinct()
@@ -48,80 +64,81 @@ public class RecommendationServiceImpl implements RecommendationService {
      */
     @Override
     public List<Auction> getUnfinishedRecommendedAuctions(User user) {
-        return getRecommendations(user.getId()).stream()
+        return getRecommendations(user).stream()
                 .filter(auction -> auction.getStartTime().toLocalDateTime().isBefore(LocalDateTime.now()))
                 .filter(auction -> auction.getEndTime().toLocalDateTime().isAfter(LocalDateTime.now()))
                 .distinct()
                 .toList();
     }
 
-    private List<Auction> getRecommendations(Integer uid) {
+    /**
+     * Reads the recommendations precomputed by the {@link RecommendationPrecomputer}, computing them on the request
+     * only until its first run ended. A user without neighbours, or whose neighbours run no auction, gets the auctions
+     * whose cars are the most similar to the cars the user bid on, and a user without bids gets the auctions with the
+     * most bidders.
+     */
+    private List<Auction> getRecommendations(User user) {
+        Integer uid = user.getId();
+        Optional<int[]> precomputed = recommendationPrecomputer.getRecommendedAuctionIds(uid);
+        if (precomputed.isPresent()) {
+            return getAuctionsByIds(precomputed.get());
+        }
+
         List<Integer> knn = getKNN(uid);
 
-        if (knn.isEmpty()) {
-            return getTopBidAuctions();
-        }
+        if (!knn.isEmpty()) {
+            String knnStr = String.join(", ", knn.stream().map(Object::toString).toList());
+            log.debug("The number of KNN for user {}: {}", uid, knnStr);
 
-        String knnStr = String.join(", ", knn.stream().map(Object::toString).toList());
-        log.debug("The number of KNN for user {}: {}", uid, knnStr);
+            List<Auction> recommendedAuctions = getRecommendedAuctions(uid, knn);
+            if (!recommendedAuctions.isEmpty()) {
+                return recommendedAuctions;
+            }
+        }
 
-        return getRecommendedAuctions(uid, knn);
+        List<Auction> similarAuctions = getSimilarAuctions(user);
+        return similarAuctions.isEmpty() ? getTopBidAuctions() : similarAuctions;
     }
 
     /**
-     * Finds the K nearest neighbors of a user based on the number of auctions they have in common.
+     * Finds the K nearest neighbors of a user with the configured {@link NeighbourFinder}, by default the users that
+     * made the most bids on the user's auctions.
      *
      * @return a list of integers representing the ids of the K nearest neighbors
      */
     private List<Integer> getKNN(Integer userId) {
-        List<Auction> allUserAuctions = auctionService.getAllAuctionsByUserId(userId);
-        Map<Integer, Integer> biddersCount = new HashMap<>();
-
-        for (Auction auction : allUserAuctions) {
-            List<Integer> bidderIds = auctionService.getBidderIds(auction.getId());
-
-            for (Integer bidderId : bidderIds) {
-                if (!bidderId.equals(userId)) {
-                    biddersCount.put(bidderId, biddersCount.getOrDefault(bidderId, 0) + 1);
-                }
-            }
-        }
-
-        return biddersCount.entrySet().stream()
-                .sorted(Map.Entry.comparingByValue(Comparator.reverseOrder()))
-                .limit(K_NEIGHBOURS)
-                .map(Map.Entry::getKey)
+        return Arrays.stream(neighbourFinder.topNeighbours(userId, K_NEIGHBOURS))
+                .boxed()
                 .toList();
     }
 
     /**
      * Retrieve a list of {@link Auction} objects based on a list of the K-nearest neighbours calculated in KNN.
+     * <p>
+     * The auctions of all the neighbours are loaded with a single query. The auctions of the given user are left out
+     * by leaving the user out of the neighbours, as an auction has a single owner. Only the running auctions are kept,
+     * in the order of the neighbours and then of their ids, like the recommendations of the
+     * {@link RecommendationPrecomputer}.
      *
      * @param userId the id of the user for which we will return a list of {@link Auction} objects
      * @param knn    a list of bidders ids (except the given user's id)
      * @return a list of {@link Auction} objects which represents the recommended auctions for the given user id
      */
     private List<Auction> getRecommendedAuctions(Integer userId, List<Integer> knn) {
-        List<Auction> excludeAuctions = auctionService.getAllAuctionsByUserId(userId);
-
-        Set<Integer> excludeAuctionIds = excludeAuctions.stream()
-                .map(Auction::getId)
-                .collect(Collectors.toSet());
+        List<Integer> neighbourIds = knn.stream()
+                .filter(neighbourId -> !neighbourId.equals(userId))
+                .toList();
 
         Function<Auction, String> auctionMapper = auction -> "Auction{id=" + auction.getId() + "}";
-        String excludeAuctionIdsStr = collectionToString(excludeAuctions, auctionMapper);
-        log.debug("Excluded auctions for user {}: {}", userId, excludeAuctionIdsStr);
-
-        List<Auction> recommendedAuctionsList = knn.stream()
-                .flatMap(n -> {
-                    List<Auction> neighborAuctionsList = auctionService.getAllAuctionsByUserId(n);
-                    String neighborAuctionsListStr = collectionToString(neighborAuctionsList, auctionMapper);
-                    log.debug("Neighbor auctions for user {}: {}", n, neighborAuctionsListStr);
-
-                    return neighborAuctionsList.stream();
-                })
+        List<Auction> neighbourAuctionsList = neighbourIds.isEmpty() ? List.of() : auctionService.getAllAuctionsByUserIds(neighbourIds);
+        log.debug("Neighbor auctions for user {}: {}", userId, collectionToString(neighbourAuctionsList, auctionMapper));
+
+        OffsetDateTime now = OffsetDateTime.now();
+        List<Auction> recommendedAuctionsList = neighbourAuctionsList.stream()
+                .filter(auction -> isRunning(auction, now))
+                .sorted(Comparator.comparingInt((Auction auction) -> neighbourIds.indexOf(auction.getUser().getId()))
+                        .thenComparing(Auction::getId))
                 .distinct()
-                .filter(auction -> !excludeAuctionIds.contains(auction.getId()))
                 .limit(NUMBER_OF_RECOMMENDED_AUCTIONS)
                 .toList();
 
@@ -131,8 +148,42 @@ public class RecommendationServiceImpl implements RecommendationService {
         return recommendedAuctionsList;
     }
 
+    /**
+     * Tells whether the given {@link Auction} is ACTIVE and running at the given time.
+     */
+    private static boolean isRunning(Auction auction, OffsetDateTime time) {
+        return auction.getStatus() == ACTIVE && !auction.getStartTime().isAfter(time) && auction.getEndTime().isAfter(time);
+    }
+
+    /**
+     * Retrieve the running {@link Auction} objects, not created by the given user nor already bid on, whose cars are the
+     * most similar to the cars of the auctions the user bid on, as found by the {@link CarSimilarityIndex}.
+     */
+    private List<Auction> getSimilarAuctions(User user) {
+        List<Auction> biddenAuctions = bidService.findAuctionsByUser(user);
+        float[] profile = carSimilarityIndex.profileOf(biddenAuctions.stream().map(Auction::getCar).toList());
+        if (profile == null) {
+            return List.of();
+        }
+
+        Set<Integer> biddenAuctionIds = biddenAuctions.stream()
+                .map(Auction::getId)
+                .collect(Collectors.toSet());
+        int[] similarAuctionIds = carSimilarityIndex.mostSimilar(profile, NUMBER_OF_RECOMMENDED_AUCTIONS, user.getId(),
+                biddenAuctionIds::contains);
+        log.debug("Auctions with similar cars for user {}: {}", user.getId(), Arrays.toString(similarAuctionIds));
+
+        return similarAuctionIds.length == 0 ? List.of() : getAuctionsByIds(similarAuctionIds);
+    }
+
     private List<Auction> getTopBidAuctions() {
-        return auctionService.getTopBidAuctions(NUMBER_OF_RECOMMENDED_AUCTIONS);
+        return recommendationPrecomputer.getTopBidAuctionIds()
+                .map(this::getAuctionsByIds)
+                .orElseGet(() -> auctionService.getTopBidAuctions(NUMBER_OF_RECOMMENDED_AUCTIONS));
+    }
+
+    private List<Auction> getAuctionsByIds(int[] auctionIds) {
+        return auctionService.getAuctionsByIds(Arrays.stream(auctionIds).boxed().toList());
     }
 
     /**
@@ -0,0 +1,43 @@
+package com.auctions.hunters.service.ml;
+
+import java.util.Arrays;
+
+/**
+ * The k best neighbours offered so far, sorted by decreasing score and then by increasing id.
+ */
+final class TopNeighbours {
+
+    private final int[] ids;
+    private final int[] scores;
+    private int size;
+
+    TopNeighbours(int k) {
+        this.ids = new int[k];
+        this.scores = new int[k];
+    }
+
+    void offer(int id, int score) {
+        int position = size;
+        while (position > 0 && isBefore(id, score, ids[position - 1], scores[position - 1])) {
+            position--;
+        }
+        if (position == ids.length) {
+            return;
+        }
+
+        int last = Math.min(size, ids.length - 1);
+        System.arraycopy(ids, position, ids, position + 1, last - position);
+        System.arraycopy(scores, position, scores, position + 1, last - position);
+        ids[position] = id;
+        scores[position] = score;
+        size = Math.min(size + 1, ids.length);
+    }
+
+    int[] ids() {
+        return Arrays.copyOf(ids, size);
+    }
+
+    private static boolean isBefore(int id, int score, int otherId, int otherScore) {
+        return score > otherScore || (score == otherScore && id < otherId);
+    }
+}
@@ -0,0 +1,14 @@
+package com.auctions.hunters.service.notification;
+
+import com.auctions.hunters.model.Auction;
+import com.auctions.hunters.model.User;
+
+/**
+ * Event published when the {@link User} that was leading an {@link Auction} is overtaken by a higher bid.
+ * Two events are equal when they are about the same user and auction, which is how the notifications are coalesced.
+ *
+ * @param userId    the id of the overtaken {@link User}
+ * @param auctionId the id of the {@link Auction}
+ */
+public record OutbidEvent(Integer userId, Integer auctionId) {
+}
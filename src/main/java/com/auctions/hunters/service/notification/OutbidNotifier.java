@@ -0,0 +1,143 @@
+package com.auctions.hunters.service.notification;
+
+import com.auctions.hunters.model.Auction;
+import com.auctions.hunters.model.Car;
+import com.auctions.hunters.model.OutbidNotification;
+import com.auctions.hunters.model.User;
+import com.auctions.hunters.repository.AuctionRepository;
+import com.auctions.hunters.repository.OutbidNotificationRepository;
+import com.auctions.hunters.repository.UserRepository;
+import com.auctions.hunters.service.email.EmailService;
+import com.auctions.hunters.service.email.EmailTemplateRenderer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.auctions.hunters.model.enums.AuctionStatus.ACTIVE;
+import static com.auctions.hunters.service.email.EmailTemplate.OUTBID;
+
+/**
+ * Component that emails the users whose bids were overtaken.
+ * <p>
+ * The {@link OutbidEvent} objects are only collected when they are published, after the bid that caused them was
+ * committed. Once per window, the collected events are sent, one email for every (user, auction) pair, no matter how
+ * many times the user was overtaken in the window. The pairs where the user took the lead back or the auction ended
+ * in the meantime are skipped. Every sent email is recorded as an {@link OutbidNotification}.
+ */
+@Slf4j
+@Component
+public class OutbidNotifier {
+
+    private final AuctionRepository auctionRepository;
+    private final UserRepository userRepository;
+    private final OutbidNotificationRepository outbidNotificationRepository;
+    private final EmailService emailService;
+    private final EmailTemplateRenderer emailTemplateRenderer;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Set<OutbidEvent> pendingEvents = ConcurrentHashMap.newKeySet();
+
+    public OutbidNotifier(AuctionRepository auctionRepository,
+                          UserRepository userRepository,
+                          OutbidNotificationRepository outbidNotificationRepository,
+                          EmailService emailService,
+                          EmailTemplateRenderer emailTemplateRenderer,
+                          PlatformTransactionManager transactionManager) {
+        this.auctionRepository = auctionRepository;
+        this.userRepository = userRepository;
+        this.outbidNotificationRepository = outbidNotificationRepository;
+        this.emailService = emailService;
+        this.emailTemplateRenderer = emailTemplateRenderer;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Collects the given {@link OutbidEvent}, an event already waiting for the same user and auction is kept instead.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOutbid(OutbidEvent event) {
+        pendingEvents.add(event);
+    }
+
+    /**
+     * Sends one email for every (user, auction) pair collected since the previous window.
+     */
+    @Scheduled(fixedDelayString = "${auctions.outbid.window-ms:30000}")
+    public void sendPendingNotifications() {
+        List<OutbidEvent> events = drainPendingEvents();
+        if (events.isEmpty()) {
+            return;
+        }
+
+        Map<Integer, Auction> auctions = auctionRepository.findAllById(events.stream().map(OutbidEvent::auctionId).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Auction::getId, Function.identity()));
+        Map<Integer, User> users = userRepository.findAllById(events.stream().map(OutbidEvent::userId).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        int sent = 0;
+        for (OutbidEvent event : events) {
+            Auction auction = auctions.get(event.auctionId());
+            User user = users.get(event.userId());
+
+            if (isStillOutbid(user, auction)) {
+                //the email is queued only if the notification is recorded
+                transactionTemplate.executeWithoutResult(status -> {
+                    sendEmailIfUserBidWasOvertaken(user, auction.getCar());
+                    outbidNotificationRepository.markNotified(user.getId(), auction.getId());
+                });
+                sent++;
+            }
+        }
+
+        log.debug("Sent {} outbid emails for {} events.", sent, events.size());
+    }
+
+    private List<OutbidEvent> drainPendingEvents() {
+        List<OutbidEvent> events = new ArrayList<>();
+        Iterator<OutbidEvent> iterator = pendingEvents.iterator();
+
+        while (iterator.hasNext()) {
+            events.add(iterator.next());
+            iterator.remove();
+        }
+
+        return events;
+    }
+
+    private boolean isStillOutbid(User user, Auction auction) {
+        return user != null && auction != null
+                && auction.getStatus() == ACTIVE
+                && !Objects.equals(auction.getBuyerId(), user.getId());
+    }
+
+    /**
+     * Renders the email template and sends it to the user that bid was overtaken by other participants.
+     *
+     * @param user the {@link User} for whom the email will be sent
+     * @param car  the {@link Car} object that the {@link User} bid
+     */
+    private void sendEmailIfUserBidWasOvertaken(User user, Car car) {
+        String emailBodyMessage = emailTemplateRenderer.render(OUTBID,
+                Map.of("userName", user.getUsername(), "producer", car.getProducer(), "model", car.getModel()));
+        String emailSubject = emailTemplateRenderer.subject(OUTBID, car.getProducer(), car.getModel());
+        emailService.sendEmail(user.getEmail(), emailSubject, emailBodyMessage);
+
+        log.debug("An email was sent to user {} in order to inform that his last bid for the car {} {} has been overtaken.",
+                user.getUsername(), car.getProducer(), car.getModel());
+    }
+}
@@ -0,0 +1,148 @@
+package com.auctions.hunters.service.scheduler;
+
+import com.auctions.hunters.model.ScheduledLock;
+import com.auctions.hunters.repository.ScheduledLockRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Component that runs a scheduled job on a single instance of the application per tick.
+ * <p>
+ * Every instance triggers the job, but only the one that takes the lease of its {@link ScheduledLock} runs it. The
+ * lease is kept at least {@code lockAtLeastFor}, so an instance whose clock is a little late does not run the same
+ * tick again, and at most {@code lockAtMostFor}, so when the instance running the job dies, another one takes the
+ * job over at the next tick after the lease expired. The leases are read and written in their own transactions.
+ */
+@Slf4j
+@Component
+@ManagedResource(objectName = "com.auctions.hunters:type=ScheduledLockManager", description = "Runs the scheduled jobs on one instance")
+public class ScheduledLockManager {
+
+    private final ScheduledLockRepository scheduledLockRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String owner;
+
+    private final Set<String> heldLocks = ConcurrentHashMap.newKeySet();
+    private final AtomicLong executedJobs = new AtomicLong();
+    private final AtomicLong skippedJobs = new AtomicLong();
+    private final AtomicLong lockErrors = new AtomicLong();
+    private final AtomicLong maxHoldMillis = new AtomicLong();
+    private volatile long lastHoldMillis;
+
+    public ScheduledLockManager(ScheduledLockRepository scheduledLockRepository,
+                                PlatformTransactionManager transactionManager) {
+        this.scheduledLockRepository = scheduledLockRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        //the JVM name holds the pid and the host, the suffix tells apart the instances started in the same JVM
+        this.owner = ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * Runs the given job if this instance takes the lease of the lock, otherwise skips it.
+     *
+     * @param lockName       the name of the lock, unique per job
+     * @param lockAtMostFor  the lease taken, after which another instance can run the job if this one died
+     * @param lockAtLeastFor the shortest time the lease is kept, even if the job ends sooner
+     * @param job            the job to run
+     * @return true if the job ran on this instance
+     */
+    public boolean executeWithLock(String lockName, Duration lockAtMostFor, Duration lockAtLeastFor, Runnable job) {
+        if (!tryAcquire(lockName, lockAtMostFor)) {
+            skippedJobs.incrementAndGet();
+            log.debug("Skipped the job {}, its lock is held by another instance.", lockName);
+            return false;
+        }
+
+        heldLocks.add(lockName);
+        long start = System.nanoTime();
+        try {
+            job.run();
+            executedJobs.incrementAndGet();
+        } finally {
+            recordHold(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            heldLocks.remove(lockName);
+            release(lockName, lockAtLeastFor);
+        }
+
+        return true;
+    }
+
+    private boolean tryAcquire(String lockName, Duration lockAtMostFor) {
+        try {
+            Integer acquired = transactionTemplate.execute(status ->
+                    scheduledLockRepository.tryAcquire(lockName, owner, lockAtMostFor.toMillis()));
+            return acquired != null && acquired > 0;
+        } catch (RuntimeException e) {
+            lockErrors.incrementAndGet();
+            log.warn("Could not take the lock {}, skipping the job.", lockName, e);
+            return false;
+        }
+    }
+
+    private void release(String lockName, Duration lockAtLeastFor) {
+        try {
+            Integer released = transactionTemplate.execute(status ->
+                    scheduledLockRepository.release(lockName, owner, lockAtLeastFor.toMillis()));
+            if (released == null || released == 0) {
+                log.warn("The lock {} expired while its job was running, the job may have run twice.", lockName);
+            }
+        } catch (RuntimeException e) {
+            //the lease expires on its own
+            lockErrors.incrementAndGet();
+            log.warn("Could not release the lock {}.", lockName, e);
+        }
+    }
+
+    private void recordHold(long holdMillis) {
+        lastHoldMillis = holdMillis;
+        maxHoldMillis.accumulateAndGet(holdMillis, Math::max);
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    @ManagedAttribute(description = "The locks whose jobs are running on this instance")
+    public String[] getHeldLocks() {
+        return heldLocks.toArray(String[]::new);
+    }
+
+    @ManagedAttribute(description = "The number of jobs run by this instance since it started")
+    public long getExecutedJobs() {
+        return executedJobs.get();
+    }
+
+    @ManagedAttribute(description = "The number of jobs skipped because another instance held their lock")
+    public long getSkippedJobs() {
+        return skippedJobs.get();
+    }
+
+    @ManagedAttribute(description = "The number of failures to take or release a lock")
+    public long getLockErrors() {
+        return lockErrors.get();
+    }
+
+    @ManagedAttribute(description = "The time in milliseconds the last job held its lock")
+    public long getLastHoldMillis() {
+        return lastHoldMillis;
+    }
+
+    @ManagedAttribute(description = "The longest time in milliseconds a job held its lock")
+    public long getMaxHoldMillis() {
+        return maxHoldMillis.get();
+    }
+}
@@ -31,7 +31,7 @@ public interface UserService {
     User findByUsername(@NotBlank String username) throws ResourceNotFoundException;
 
     /**
-     * Save a {@link User} in the database. By default, a {@link User} reminder to receive emails for an auction is FALSE.
+     * Save a {@link User} in the database.
      *
      * @param user the {@link User} entity to be saved in the database
      * @return saved {@link User}
@@ -46,14 +46,6 @@ public interface UserService {
      */
      User update(@NotNull User newUser);
 
-    /**
-     * Update the status of a {@link User} reminder for receiving emails.
-     *
-     * @param id     persisted {@link User} id
-     * @param status the reminder status of a {@link User} reminder emails
-     */
-    void updateReminder(Integer id, boolean status) throws ResourceNotFoundException;
-
     /**
      * Check if the {@link User} email already exists.
      *
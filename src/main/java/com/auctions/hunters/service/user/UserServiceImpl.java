@@ -10,8 +10,8 @@ import com.auctions.hunters.repository.UserRepository;
 import com.auctions.hunters.security.PasswordEncoder;
 import com.auctions.hunters.service.confirmationtoken.ConfirmationTokenService;
 import com.auctions.hunters.service.email.EmailService;
+import com.auctions.hunters.service.email.EmailTemplateRenderer;
 import com.auctions.hunters.service.role.RoleService;
-import org.jetbrains.annotations.Contract;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.core.Authentication;
@@ -27,9 +27,9 @@ import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 
+import static com.auctions.hunters.service.email.EmailTemplate.REGISTRATION;
 import static com.auctions.hunters.utils.DateUtils.DATE_TIME_PATTERN;
 import static com.auctions.hunters.utils.DateUtils.getDateTime;
-import static java.lang.Boolean.FALSE;
 import static java.util.List.of;
 
 /**
@@ -43,6 +43,7 @@ public class UserServiceImpl implements UserService {
     private final RoleService roleService;
     private final ConfirmationTokenService confirmationTokenService;
     private final EmailService emailService;
+    private final EmailTemplateRenderer emailTemplateRenderer;
 
     private static final OffsetDateTime NOW = getDateTime();
     private static final Logger LOGGER = LoggerFactory.getLogger(UserServiceImpl.class);
@@ -51,12 +52,14 @@ public class UserServiceImpl implements UserService {
                            PasswordEncoder passwordEncoder,
                            RoleService roleService,
                            ConfirmationTokenService confirmationTokenService,
-                           EmailService emailService) {
+                           EmailService emailService,
+                           EmailTemplateRenderer emailTemplateRenderer) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.roleService = roleService;
         this.confirmationTokenService = confirmationTokenService;
         this.emailService = emailService;
+        this.emailTemplateRenderer = emailTemplateRenderer;
     }
 
     /**
@@ -93,7 +96,7 @@ public class UserServiceImpl implements UserService {
     }
 
     /**
-     * Save a {@link User} in the database. By default, a {@link User} reminder to receive emails for an auction is FALSE.
+     * Save a {@link User} in the database.
      *
      * @param user the {@link User} entity to be saved in the database
      * @return saved {@link User}
@@ -101,7 +104,6 @@ public class UserServiceImpl implements UserService {
     @Override
     public User save(@NotNull User user) {
         user.setPassword(passwordEncoder.bCryptPasswordEncoder().encode(user.getPassword()));
-        user.setReminder(false); //by default a user reminder to receive emails for an auction is FALSE
         LOGGER.debug("User {} saved in the database.", user);
         return userRepository.save(user);
     }
@@ -129,30 +131,11 @@ public class UserServiceImpl implements UserService {
         user.setPhoneNumber(newUser.getPhoneNumber());
         user.setLocked(newUser.getLocked());
         user.setEnabled(newUser.getEnabled());
-        user.setReminder(newUser.getReminder());
 
         LOGGER.debug("User successfully updated in the database");
         return userRepository.save(user);
     }
 
-    /**
-     * Update the status of a {@link User} reminder for receiving emails.
-     *
-     * @param id     persisted {@link User} id
-     * @param status the reminder status of a {@link User} reminder emails
-     * @throws ResourceNotFoundException if the {@link User} was not find by the id
-     */
-    public void updateReminder(Integer id, boolean status) throws ResourceNotFoundException {
-        User user = userRepository.findById(id).orElseThrow(() -> {
-            LOGGER.debug(String.format("User with the id:%s was not found!", id));
-            throw new ResourceNotFoundException("User", "id", id);
-        });
-
-        user.setReminder(status);
-
-        userRepository.save(user);
-    }
-
     /**
      * Check if the {@link User} email already exists.
      *
@@ -173,7 +156,8 @@ public class UserServiceImpl implements UserService {
 
     /**
      * Based on entered data, a new user will be saved in the DB and a token
-     * is generated for validating email within the next 30 minutes from registering.
+     * is generated for validating email within the next 30 minutes from registering. The user, the token and the
+     * registration email are saved in the same transaction.
      *
      * @param newUser the user who register in the app
      * @return a String which contains the unique token generated for the registered user
@@ -181,6 +165,7 @@ public class UserServiceImpl implements UserService {
      * @throws EmailAlreadyExistsException if a user with the same email already exists
      */
     //local
+    @Transactional
     @Override
     public String register(@NotNull User newUser) throws InvalidEmailException, EmailAlreadyExistsException {
 
@@ -193,8 +178,7 @@ public class UserServiceImpl implements UserService {
                         newUser.getEmail(),
                         newUser.getCityAddress(),
                         newUser.getPhoneNumber(),
-                        newUser.getRole(),
-                        FALSE
+                        newUser.getRole()
                 )
         );
 
@@ -330,8 +314,9 @@ public class UserServiceImpl implements UserService {
      * @param link    the link where the {@link User} can validate his registration
      */
     private void sendRegistrationEmail(@NotNull User newUser, @NotBlank String link) {
-        String emailSubject = "Bine ați venit la Vânătorii de licitații: Verificați adresa dvs. de e-mail pentru a începe";
-        emailService.sendEmail(newUser.getEmail(), emailSubject, buildEmail(newUser.getUsername(), link));
+        String emailSubject = emailTemplateRenderer.subject(REGISTRATION);
+        String emailBody = emailTemplateRenderer.render(REGISTRATION, Map.of("name", newUser.getUsername(), "link", link));
+        emailService.sendEmail(newUser.getEmail(), emailSubject, emailBody);
 
         LOGGER.debug("Email for confirmation token was sent.");
     }
@@ -380,29 +365,4 @@ public class UserServiceImpl implements UserService {
 
         return authentication.getName();
     }
-
-    /**
-     * Email template that the {@link User} will receive when he will register in the application.
-     *
-     * @param name the {@link User} that was registered in the application
-     * @param link the link where the {@link User} can validate his registration
-     * @return a String containing the email template
-     */
-    @Contract(pure = true)
-    private @NotNull String buildEmail(@NotBlank String name, @NotBlank String link) {
-
-        return "<div style=\"width: 500px; margin: 0 auto; text-align: center; font-family: Arial, sans-serif; background-color: lightgray; padding: 40px; border-radius: 10px; box-shadow: 0 0 10px 0 rgba(0, 0, 0, 0.1);\">\n" +
-                " <h1 style=\"margin-top: 50px; font-size: 36px; color: #01304A;\">Validare email</h1>\n" +
-                " <p>Draga " + name + ",</p>\n" +
-                " <p>Vă mulțumim că v-ați înscris la în aplicația noastră! Pentru a finaliza înregistrarea, trebuie să verificăm adresa dumneavoastră de e-mail.</p>\n" +
-                " <br>\n" +
-                " <p>Apăsați pe butonul de mai jos pentru a valida e-malailul.</p>\n" +
-                " <p style=\"Margin:0 0 20px 0;font-size:19px;line-height:25px;color:#0b0c0c\"> <a  target=\"_blank\" href=\"" + link + "\">Actiează acum</a> </p>" +
-                " </p>\n" +
-                " <p style=\"font-size: 18px; margin-bottom: 20px; color: gray;\">Cele mai bune urări,</p>\n" +
-                " <p style=\"font-size: 18px; margin-bottom: 20px; color: gray;\">echipa Vânătorii de Licitații.</p>\n" +
-                "</p>" +
-                "</div>";
-    }
 }
-
@@ -0,0 +1,199 @@
+package com.auctions.hunters.utils;
+
+import java.util.Arrays;
+
+/**
+ * A hash map from {@code int} keys to {@code int} values that stores both in primitive arrays, without boxing and
+ * without an object per entry. It uses open addressing with linear probing and backward shift deletion.
+ * <p>
+ * The key {@code 0} marks the free slots, so it cannot be stored; the entity ids start from 1. The map is not
+ * thread-safe.
+ */
+public class IntIntHashMap {
+
+    private static final int FREE_KEY = 0;
+    private static final float LOAD_FACTOR = 0.5f;
+    private static final int MIN_CAPACITY = 4;
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+    private int resizeThreshold;
+    private int mask;
+
+    public IntIntHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public IntIntHashMap(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    /**
+     * Visitor of the entries of an {@link IntIntHashMap}.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(int key, int value);
+    }
+
+    /**
+     * @return the value of the given key, or 0 if the key is not in the map
+     */
+    public int get(int key) {
+        int slot = find(key);
+        return slot < 0 ? 0 : values[slot];
+    }
+
+    public boolean containsKey(int key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * Adds the given delta to the value of the key, a missing key being added with the delta as value.
+     *
+     * @return the new value of the key
+     */
+    public int addTo(int key, int delta) {
+        checkKey(key);
+        int slot = slotOf(key);
+        while (keys[slot] != FREE_KEY) {
+            if (keys[slot] == key) {
+                values[slot] += delta;
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        values[slot] = delta;
+        if (++size > resizeThreshold) {
+            rehash(keys.length * 2);
+        }
+        return delta;
+    }
+
+    /**
+     * Removes the given key.
+     *
+     * @return the value the key had, or 0 if the key was not in the map
+     */
+    public int remove(int key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return 0;
+        }
+
+        int removedValue = values[slot];
+        shiftBackFrom(slot);
+        size--;
+        return removedValue;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the number of slots of the table, used to estimate the memory taken by the map
+     */
+    public int capacity() {
+        return keys.length;
+    }
+
+    public void forEach(EntryConsumer consumer) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != FREE_KEY) {
+                consumer.accept(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(keys, FREE_KEY);
+        size = 0;
+    }
+
+    private int find(int key) {
+        if (key == FREE_KEY) {
+            return -1;
+        }
+
+        int slot = slotOf(key);
+        while (keys[slot] != FREE_KEY) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Closes the gap left by a removed entry, moving back the entries of the same probe sequence.
+     */
+    private void shiftBackFrom(int gap) {
+        int slot = (gap + 1) & mask;
+        while (keys[slot] != FREE_KEY) {
+            int home = slotOf(keys[slot]);
+            //the entry can fill the gap if its home slot is not between the gap and its current slot
+            boolean canMove = gap <= slot ? (home <= gap || home > slot) : (home <= gap && home > slot);
+            if (canMove) {
+                keys[gap] = keys[slot];
+                values[gap] = values[slot];
+                gap = slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[gap] = FREE_KEY;
+        values[gap] = 0;
+    }
+
+    private void rehash(int newCapacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(newCapacity);
+
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] != FREE_KEY) {
+                int newSlot = slotOf(oldKeys[slot]);
+                while (keys[newSlot] != FREE_KEY) {
+                    newSlot = (newSlot + 1) & mask;
+                }
+                keys[newSlot] = oldKeys[slot];
+                values[newSlot] = oldValues[slot];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private int slotOf(int key) {
+        //spreads the consecutive ids over the table
+        int hash = key * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * LOAD_FACTOR < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static void checkKey(int key) {
+        if (key == FREE_KEY) {
+            throw new IllegalArgumentException("The key 0 cannot be stored.");
+        }
+    }
+}
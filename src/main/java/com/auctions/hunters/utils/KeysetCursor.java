@@ -0,0 +1,92 @@
+package com.auctions.hunters.utils;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.Base64;
+import java.util.Optional;
+
+import static java.time.ZoneOffset.UTC;
+
+/**
+ * The position of a row in a listing ordered by a sort key and then by id, used for keyset (seek) pagination: the
+ * next page is read with {@code WHERE (key, id) > (cursor.key, cursor.id)} from the index instead of skipping the
+ * rows of the previous pages with an offset.
+ * <p>
+ * The cursor is handed to the browser as an opaque URL-safe token. The time sort keys are kept as microseconds from
+ * the epoch, which is the precision of the database timestamps, and the price sort keys as the bits of the float, so
+ * a decoded cursor compares equal to its row.
+ *
+ * @param key the sort key of the row, 0 for the listings ordered only by id
+ * @param id  the id of the row
+ */
+public record KeysetCursor(long key, int id) {
+
+    private static final int TOKEN_BYTES = Long.BYTES + Integer.BYTES;
+    private static final long MICROS_PER_SECOND = 1_000_000;
+    private static final long NANOS_PER_MICRO = 1_000;
+
+    /**
+     * The cursor after every row, used to read the last page backwards. Its time key is in the range of the database
+     * timestamps.
+     */
+    public static final KeysetCursor END = of(OffsetDateTime.of(9999, 12, 31, 0, 0, 0, 0, UTC), Integer.MAX_VALUE);
+
+    public static KeysetCursor of(int id) {
+        return new KeysetCursor(0, id);
+    }
+
+    public static KeysetCursor of(OffsetDateTime time, int id) {
+        Instant instant = time.toInstant();
+        return new KeysetCursor(instant.getEpochSecond() * MICROS_PER_SECOND + instant.getNano() / NANOS_PER_MICRO, id);
+    }
+
+    public static KeysetCursor of(float price, int id) {
+        return new KeysetCursor(Float.floatToIntBits(price), id);
+    }
+
+    /**
+     * @return the sort key as the time it was created from
+     */
+    public OffsetDateTime keyAsTime() {
+        Instant instant = Instant.ofEpochSecond(Math.floorDiv(key, MICROS_PER_SECOND),
+                Math.floorMod(key, MICROS_PER_SECOND) * NANOS_PER_MICRO);
+        return OffsetDateTime.ofInstant(instant, UTC);
+    }
+
+    /**
+     * @return the sort key as the price it was created from
+     */
+    public float keyAsPrice() {
+        return Float.intBitsToFloat((int) key);
+    }
+
+    public String encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(TOKEN_BYTES).putLong(key).putInt(id);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    /**
+     * Decodes a token created by {@link #encode()}.
+     *
+     * @param token the token received from the browser, may be null
+     * @return the cursor, empty if the token is missing or malformed
+     */
+    public static Optional<KeysetCursor> decode(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+
+        try {
+            byte[] bytes = Base64.getUrlDecoder().decode(token);
+            if (bytes.length != TOKEN_BYTES) {
+                return Optional.empty();
+            }
+
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            return Optional.of(new KeysetCursor(buffer.getLong(), buffer.getInt()));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+}
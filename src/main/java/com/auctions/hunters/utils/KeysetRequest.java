@@ -0,0 +1,50 @@
+package com.auctions.hunters.utils;
+
+/**
+ * A request for a page of a listing paginated with {@link KeysetCursor} objects.
+ *
+ * @param cursor    the row the page starts after, or ends before when reading backwards, null for the first page
+ * @param backwards whether the page is the one before the cursor
+ * @param size      the maximum number of rows of the page
+ */
+public record KeysetRequest(KeysetCursor cursor, boolean backwards, int size) {
+
+    /**
+     * Builds the request from the tokens received from the browser. A malformed token is ignored, so it leads to the
+     * first page instead of an error.
+     *
+     * @param after  the token of the last row of the previous page, may be null
+     * @param before the token of the first row of the next page, or of {@link KeysetCursor#END} for the last page, may
+     *               be null; it wins over {@code after}
+     * @param size   the maximum number of rows of the page
+     */
+    public static KeysetRequest of(String after, String before, int size) {
+        KeysetCursor beforeCursor = KeysetCursor.decode(before).orElse(null);
+        if (beforeCursor != null) {
+            return new KeysetRequest(beforeCursor, true, size);
+        }
+        return new KeysetRequest(KeysetCursor.decode(after).orElse(null), false, size);
+    }
+
+    public static KeysetRequest first(int size) {
+        return new KeysetRequest(null, false, size);
+    }
+
+    public boolean isFirst() {
+        return cursor == null;
+    }
+
+    /**
+     * @return whether the request reads the last page, backwards from the {@link KeysetCursor#END} cursor
+     */
+    public boolean isLast() {
+        return backwards && KeysetCursor.END.equals(cursor);
+    }
+
+    /**
+     * @return the number of rows to read: one more than the page size, to know whether another page follows
+     */
+    public int limit() {
+        return size + 1;
+    }
+}
@@ -0,0 +1,86 @@
+package com.auctions.hunters.utils;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A {@link Slice} of a listing paginated with {@link KeysetCursor} objects. Unlike a {@code Page}, it does not know
+ * the total number of rows, so reading it does not run a {@code COUNT} query; the listings may attach an approximate
+ * total taken from cached statistics instead.
+ */
+public class KeysetSlice<T> extends SliceImpl<T> {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final String previousCursor;
+    private final String nextCursor;
+    private final Long approximateTotal;
+
+    private KeysetSlice(List<T> content, int size, String previousCursor, String nextCursor, Long approximateTotal) {
+        super(content, PageRequest.of(0, size), nextCursor != null);
+        this.previousCursor = previousCursor;
+        this.nextCursor = nextCursor;
+        this.approximateTotal = approximateTotal;
+    }
+
+    /**
+     * Builds the slice from the rows read for the given request, in the order of the query: ascending when reading
+     * forwards, descending when reading backwards.
+     *
+     * @param rows             at most {@link KeysetRequest#limit()} rows; the extra row tells that another page follows
+     * @param request          the request the rows were read for
+     * @param cursorOf         extracts the cursor of a row
+     * @param approximateTotal the approximate number of rows of the listing, null if unknown
+     */
+    public static <T> KeysetSlice<T> of(List<T> rows, KeysetRequest request, Function<T, KeysetCursor> cursorOf, Long approximateTotal) {
+        boolean more = rows.size() > request.size();
+        List<T> content = new ArrayList<>(more ? rows.subList(0, request.size()) : rows);
+        if (request.backwards()) {
+            Collections.reverse(content);
+        }
+
+        boolean hasPrevious = request.backwards() ? more : !request.isFirst();
+        boolean hasNext = request.backwards() ? !request.isLast() : more;
+        if (content.isEmpty()) {
+            return new KeysetSlice<>(content, request.size(), null, null, approximateTotal);
+        }
+
+        String previousCursor = hasPrevious ? cursorOf.apply(content.get(0)).encode() : null;
+        String nextCursor = hasNext ? cursorOf.apply(content.get(content.size() - 1)).encode() : null;
+        return new KeysetSlice<>(content, request.size(), previousCursor, nextCursor, approximateTotal);
+    }
+
+    @Override
+    public boolean hasPrevious() {
+        return previousCursor != null;
+    }
+
+    /**
+     * @return the token of the page before this one, null if this is the first page
+     */
+    public String getPreviousCursor() {
+        return previousCursor;
+    }
+
+    /**
+     * @return the token of the page after this one, null if this is the last page
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * @return the approximate number of rows of the listing, null if unknown
+     */
+    public Long getApproximateTotal() {
+        return approximateTotal;
+    }
+}
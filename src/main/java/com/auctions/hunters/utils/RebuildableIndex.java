@@ -0,0 +1,179 @@
+package com.auctions.hunters.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * The in-memory state of an index built from the database, kept up to date by the changes made by the application
+ * and rebuilt from the database periodically, to pick up the changes made by the other instances.
+ * <p>
+ * The state is read under a read lock and changed under a write lock. While the state is loaded, and until the first
+ * load, the changes are queued instead of applied. Once loaded, the new state is swapped in and the queued changes it
+ * did not see are replayed on it; a load that fails keeps the current state and applies the queued changes to it.
+ * <p>
+ * The state is loaded in a read-only, repeatable read transaction, so all the queries of a load see the same snapshot
+ * of the database, and the queued changes are checked against that snapshot by {@link Loader#unseen(List)} before the
+ * transaction ends. By default every queued change is replayed, which is only right when applying a change twice
+ * changes nothing.
+ *
+ * @param <S> the type of the state
+ * @param <C> the type of the changes
+ */
+@Slf4j
+public final class RebuildableIndex<S, C> {
+
+    private final String name;
+    private final BiConsumer<S, C> applier;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private S state; //guarded by the lock
+    private boolean rebuilding = true; //guarded by the lock, the changes made before the first load are queued
+    private final List<C> queuedChanges = new ArrayList<>(); //guarded by the lock
+
+    private volatile long lastRebuildMillis;
+
+    /**
+     * @param name               the name of the index, for the logs
+     * @param emptyState         the state until the first load
+     * @param applier            applies a change to a state
+     * @param transactionManager the transaction manager of the loads
+     */
+    public RebuildableIndex(String name, S emptyState, BiConsumer<S, C> applier, PlatformTransactionManager transactionManager) {
+        this.name = name;
+        this.state = emptyState;
+        this.applier = applier;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    /**
+     * Reads the state under the read lock.
+     */
+    public <R> R read(Function<S, R> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.apply(state);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Applies the given change to the state, or queues it while the state is loaded.
+     */
+    public void apply(C change) {
+        lock.writeLock().lock();
+        try {
+            if (rebuilding) {
+                queuedChanges.add(change);
+            } else {
+                applier.accept(state, change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Loads a new state and swaps it in, replaying on it the changes made during the load that it did not see.
+     *
+     * @return true if the state was loaded, false if the load failed and the current state was kept
+     */
+    public synchronized boolean rebuild(Loader<S, C> loader) {
+        lock.writeLock().lock();
+        try {
+            rebuilding = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long start = System.nanoTime();
+        try {
+            transactionTemplate.executeWithoutResult(status -> swapIn(loader.load(), loader));
+        } catch (RuntimeException e) {
+            log.error("Could not rebuild the {}, keeping the current one.", name, e);
+            keepCurrent();
+            return false;
+        }
+
+        lastRebuildMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        log.info("Rebuilt the {} in {} ms.", name, lastRebuildMillis);
+        return true;
+    }
+
+    /**
+     * Swaps in the given state and replays the queued changes it did not see. The changes are checked under the write
+     * lock, so no change is queued meanwhile.
+     */
+    private void swapIn(S loaded, Loader<S, C> loader) {
+        lock.writeLock().lock();
+        try {
+            List<C> unseen = queuedChanges.isEmpty() ? List.of() : loader.unseen(List.copyOf(queuedChanges));
+            state = loaded;
+            unseen.forEach(change -> applier.accept(state, change));
+            queuedChanges.clear();
+            rebuilding = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies the queued changes to the current state, none of them being in it.
+     */
+    private void keepCurrent() {
+        lock.writeLock().lock();
+        try {
+            queuedChanges.forEach(change -> applier.accept(state, change));
+            queuedChanges.clear();
+            rebuilding = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the time in milliseconds the last successful rebuild took
+     */
+    public long getLastRebuildMillis() {
+        return lastRebuildMillis;
+    }
+
+    /**
+     * Loads the state of an index from the database.
+     *
+     * @param <S> the type of the state
+     * @param <C> the type of the changes
+     */
+    @FunctionalInterface
+    public interface Loader<S, C> {
+
+        /**
+         * Loads the state, inside the transaction of the rebuild.
+         */
+        S load();
+
+        /**
+         * Tells which of the changes queued during the load the loaded state did not see, inside the transaction of
+         * the rebuild, so against the same snapshot of the database as the load.
+         *
+         * @param queuedChanges the queued changes, in the order they were made
+         * @return the changes to replay on the loaded state, in the same order
+         */
+        default List<C> unseen(List<C> queuedChanges) {
+            return queuedChanges;
+        }
+    }
+}
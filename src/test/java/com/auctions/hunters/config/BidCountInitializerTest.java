@@ -0,0 +1,30 @@
+package com.auctions.hunters.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BidCountInitializerTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private BidCountInitializer uut;
+
+    @Test
+    void run_fillsOnlyTheAuctionsWithoutCountedBids() {
+        uut.run(new DefaultApplicationArguments());
+
+        verify(jdbcTemplate, times(1)).update(BidCountInitializer.BACKFILL_SQL);
+        assertTrue(BidCountInitializer.BACKFILL_SQL.endsWith("AND a.bid_count = 0"));
+    }
+}
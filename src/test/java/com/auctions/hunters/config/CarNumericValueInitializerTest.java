@@ -0,0 +1,32 @@
+package com.auctions.hunters.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CarNumericValueInitializerTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private CarNumericValueInitializer uut;
+
+    @Test
+    void run_fillsOnlyTheMissingValuesOfTextsWithDigits() {
+        uut.run(new DefaultApplicationArguments());
+
+        verify(jdbcTemplate, times(1)).update(CarNumericValueInitializer.BACKFILL_SQL);
+        assertTrue(CarNumericValueInitializer.BACKFILL_SQL.contains(
+                "model_year_value = COALESCE(model_year_value, CAST(substring(model_year FROM '[0-9]{1,9}') AS INTEGER))"));
+        assertTrue(CarNumericValueInitializer.BACKFILL_SQL.contains("WHERE (model_year_value IS NULL AND model_year ~ '[0-9]')"));
+    }
+}
@@ -0,0 +1,38 @@
+package com.auctions.hunters.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdSequenceInitializerTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private IdSequenceInitializer uut;
+
+    @Test
+    void run_existingTables_movesEverySequenceAheadOfTheStoredIds() {
+        uut.run(new DefaultApplicationArguments());
+
+        ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, times(IdSequenceInitializer.SEQUENCES_BY_TABLE.size())).queryForObject(sqlCaptor.capture(), eq(Long.class));
+        List<String> statements = sqlCaptor.getAllValues();
+        IdSequenceInitializer.SEQUENCES_BY_TABLE.forEach((table, sequence) ->
+                assertTrue(statements.contains(String.format(
+                        "SELECT setval('%1$s', GREATEST((SELECT last_value FROM %1$s), COALESCE((SELECT MAX(id) FROM %2$s), 0) + 50))",
+                        sequence, table))));
+    }
+}
@@ -1,27 +1,35 @@
 package com.auctions.hunters.controller;
 
+import com.auctions.hunters.config.ListingProperties;
+import com.auctions.hunters.exceptions.ResourceNotFoundException;
 import com.auctions.hunters.model.Auction;
 import com.auctions.hunters.model.Car;
+import com.auctions.hunters.model.User;
+import com.auctions.hunters.model.enums.CarCategory;
+import com.auctions.hunters.model.projection.AuctionListingView;
+import com.auctions.hunters.service.auction.AuctionFacetIndex;
 import com.auctions.hunters.service.auction.AuctionService;
 import com.auctions.hunters.service.car.CarService;
+import com.auctions.hunters.service.car.CarTextIndex;
 import com.auctions.hunters.service.car.vincario.CarPriceAnalysis;
 import com.auctions.hunters.service.ml.RecommendationServiceImpl;
 import com.auctions.hunters.service.user.UserService;
+import com.auctions.hunters.utils.KeysetCursor;
+import com.auctions.hunters.utils.KeysetRequest;
+import com.auctions.hunters.utils.KeysetSlice;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.ui.Model;
 
 import java.security.NoSuchAlgorithmException;
-import java.util.ArrayList;
+import java.time.OffsetDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -37,6 +45,12 @@ class AuctionControllerTest {
     private RecommendationServiceImpl recommendationService;
     @Mock
     private CarPriceAnalysis carPriceAnalysis;
+    @Mock
+    private ListingProperties listingProperties;
+    @Mock
+    private CarTextIndex carTextIndex;
+    @Mock
+    private AuctionFacetIndex auctionFacetIndex;
 
     @Mock
     private Model modelAtr;
@@ -48,7 +62,8 @@ class AuctionControllerTest {
     @InjectMocks
     private AuctionController uut;
 
-    private final int page = 0;
+    private static final int PAGE_SIZE = 10;
+    private final User user = User.builder().id(1).username("Alex").build();
 
     @Test
     void getAuction_notEmptyCarList_returnsPopulatedCarList() throws NoSuchAlgorithmException {
@@ -89,331 +104,163 @@ class AuctionControllerTest {
     }
 
     @Test
-    void getAuctionsWithSuvCars_emptyCarList_returnsEmpty() {
-        when(carService.getAllCarsByBodyType("SUV")).thenReturn(new ArrayList<>());
-
-        String result = uut.getAuctionsWithSuvCars(page, null, null, null, null, null, null, this.modelAtr);
-
-        assertEquals("/no_car_for_category", result);
-        verify(carService, times(1)).getAllCarsByBodyType("SUV");
-    }
-
-    @Test
-    void getAuctionsWithSuvCars_notEmptyCarList_returnsPopulatedList() {
-        List<Car> allSuvCars = new ArrayList<>();
-        allSuvCars.add(new Car());
-        when(carService.getAllCarsByBodyType("SUV")).thenReturn(allSuvCars);
-
-        Page<Car> carPage = new PageImpl<>(allSuvCars, PageRequest.of(page, 10), allSuvCars.size());
-        when(carService.getCarPage(anyInt(), any())).thenReturn(carPage);
-
-        List<Float> auctionsMinimumPriceList = new ArrayList<>();
-        auctionsMinimumPriceList.add(1000f);
-        when(auctionService.setCurrentPriceForEachCarPage(any())).thenReturn(auctionsMinimumPriceList);
-
-        String result = uut.getAuctionsWithSuvCars(page, null, null, null, null, null, null, this.modelAtr);
-
-        assertEquals("/auction_list", result);
-        verify(carService, times(1)).getAllCarsByBodyType("SUV");
-        verify(carService, times(1)).getCarPage(anyInt(), any());
-        verify(auctionService, times(1)).setCurrentPriceForEachCarPage(any());
-        verify(this.modelAtr, times(1)).addAttribute(eq("carPage"), any(Page.class));
-        verify(this.modelAtr, times(1)).addAttribute("currentPage", page);
-        verify(this.modelAtr, times(1)).addAttribute(eq("pageNumbers"), anyList());
-        verify(this.modelAtr, times(1)).addAttribute("auctionsMinimumPriceList", auctionsMinimumPriceList);
-        verify(this.modelAtr, times(1)).addAttribute(eq("allActiveAuctionsList"), anyList());
-    }
-
-    @Test
-    void getAuctionsWithSedanCars_emptyCarList_returnsEmpty() {
-        when(carService.getAllCarsByBodyType("Sedan/Saloon")).thenReturn(new ArrayList<>());
-
-        String result = uut.getAuctionsWithSedanCars(page, null, null, null, null, null, null, this.modelAtr);
-
-        assertEquals("/no_car_for_category", result);
-        verify(carService, times(1)).getAllCarsByBodyType("Sedan/Saloon");
-    }
-
-    @Test
-    void getAuctionsWithSedanCars_notEmptyCarList_returnsPopulatedList() {
-        List<Car> allSuvCars = new ArrayList<>();
-        allSuvCars.add(new Car());
-        when(carService.getAllCarsByBodyType("Sedan/Saloon")).thenReturn(allSuvCars);
-
-        Page<Car> carPage = new PageImpl<>(allSuvCars, PageRequest.of(page, 10), allSuvCars.size());
-        when(carService.getCarPage(anyInt(), any())).thenReturn(carPage);
-
-        List<Float> auctionsMinimumPriceList = new ArrayList<>();
-        auctionsMinimumPriceList.add(1000f);
-        when(auctionService.setCurrentPriceForEachCarPage(any())).thenReturn(auctionsMinimumPriceList);
-
-        String result = uut.getAuctionsWithSedanCars(page, null, null, null, null, null, null, this.modelAtr);
-
-        assertEquals("/auction_list", result);
-        verify(carService, times(1)).getAllCarsByBodyType("Sedan/Saloon");
-        verify(carService, times(1)).getCarPage(anyInt(), any());
-        verify(auctionService, times(1)).setCurrentPriceForEachCarPage(any());
-        verify(this.modelAtr, times(1)).addAttribute(eq("carPage"), any(Page.class));
-        verify(this.modelAtr, times(1)).addAttribute("currentPage", page);
-        verify(this.modelAtr, times(1)).addAttribute(eq("pageNumbers"), anyList());
-        verify(this.modelAtr, times(1)).addAttribute("auctionsMinimumPriceList", auctionsMinimumPriceList);
-        verify(this.modelAtr, times(1)).addAttribute(eq("allActiveAuctionsList"), anyList());
-    }
-
-    @Test
-    void getAuctionsWithPickupCars_emptyCarList_returnsEmpty() {
-        when(carService.getAllCarsByBodyType("Pickup")).thenReturn(new ArrayList<>());
-
-        String result = uut.getAuctionsWithPickupCars(page, null, null, null, null, null, null, this.modelAtr);
-
-        assertEquals("/no_car_for_category", result);
-        verify(carService, times(1)).getAllCarsByBodyType("Pickup");
-    }
-
-    @Test
-    void getAuctionsWithPickupCars_notEmptyCarList_returnsPopulatedList() {
-        List<Car> allSuvCars = new ArrayList<>();
-        allSuvCars.add(new Car());
-        when(carService.getAllCarsByBodyType("Pickup")).thenReturn(allSuvCars);
-
-        Page<Car> carPage = new PageImpl<>(allSuvCars, PageRequest.of(page, 10), allSuvCars.size());
-        when(carService.getCarPage(anyInt(), any())).thenReturn(carPage);
-
-        List<Float> auctionsMinimumPriceList = new ArrayList<>();
-        auctionsMinimumPriceList.add(1000f);
-        when(auctionService.setCurrentPriceForEachCarPage(any())).thenReturn(auctionsMinimumPriceList);
-
-        String result = uut.getAuctionsWithPickupCars(page, null, null, null, null, null, null, this.modelAtr);
-
-        assertEquals("/auction_list", result);
-        verify(carService, times(1)).getAllCarsByBodyType("Pickup");
-        verify(carService, times(1)).getCarPage(anyInt(), any());
-        verify(auctionService, times(1)).setCurrentPriceForEachCarPage(any());
-        verify(this.modelAtr, times(1)).addAttribute(eq("carPage"), any(Page.class));
-        verify(this.modelAtr, times(1)).addAttribute("currentPage", page);
-        verify(this.modelAtr, times(1)).addAttribute(eq("pageNumbers"), anyList());
-        verify(this.modelAtr, times(1)).addAttribute("auctionsMinimumPriceList", auctionsMinimumPriceList);
-        verify(this.modelAtr, times(1)).addAttribute(eq("allActiveAuctionsList"), anyList());
+    void getAuctions_noActiveAuction_returnsEmpty() {
+        when(userService.getLoggedUsername()).thenReturn("Alex");
+        when(userService.findByUsername("Alex")).thenReturn(user);
+        when(listingProperties.getPageSize()).thenReturn(PAGE_SIZE);
+        KeysetSlice<AuctionListingView> emptySlice = KeysetSlice.of(List.of(), KeysetRequest.first(PAGE_SIZE), view -> KeysetCursor.of(view.getId()), 0L);
+        when(auctionService.getActiveAuctionListings(eq(user.getId()), any(KeysetRequest.class))).thenReturn(emptySlice);
+
+        String result = uut.getAuctions(null, null, this.modelAtr);
+
+        assertEquals("/no_car", result);
+        verify(auctionService, times(1)).getActiveAuctionListings(user.getId(), KeysetRequest.first(PAGE_SIZE));
+        verify(auctionService, never()).findAllActiveAuctions();
     }
 
     @Test
-    void getAuctionsWithCoupeCars_emptyCarList_returnsEmpty() {
-        when(carService.getAllCarsByBodyType("Coupe")).thenReturn(new ArrayList<>());
-
-        String result = uut.getAuctionsWithCoupeCars(page, null, null, null, null, null, null, this.modelAtr);
-
-        assertEquals("/no_car_for_category", result);
-        verify(carService, times(1)).getAllCarsByBodyType("Coupe");
+    void getAuctions_activeAuctionsFound_returnsOneSliceOfListings() {
+        when(userService.getLoggedUsername()).thenReturn("Alex");
+        when(userService.findByUsername("Alex")).thenReturn(user);
+        when(listingProperties.getPageSize()).thenReturn(PAGE_SIZE);
+        AuctionListingView listingView = mock(AuctionListingView.class);
+        KeysetSlice<AuctionListingView> listingSlice = KeysetSlice.of(List.of(listingView), KeysetRequest.first(PAGE_SIZE), view -> KeysetCursor.of(1), 25L);
+        when(auctionService.getActiveAuctionListings(eq(user.getId()), any(KeysetRequest.class))).thenReturn(listingSlice);
+
+        String result = uut.getAuctions(null, null, this.modelAtr);
+
+        assertEquals("/auction_listing", result);
+        verify(auctionService, never()).setCurrentPriceForEachCarPage(any());
+        verify(carService, never()).getCarPage(anyInt(), any());
+        verify(this.modelAtr, times(1)).addAttribute("listingPage", listingSlice);
+        verify(this.modelAtr, times(1)).addAttribute("listingPath", "/auctions");
+        verify(auctionFacetIndex, times(1)).getFacetCounts();
     }
 
     @Test
-    void getAuctionsWithCoupeCars_notEmptyCarList_returnsPopulatedList() {
-        List<Car> allSuvCars = new ArrayList<>();
-        allSuvCars.add(new Car());
-        when(carService.getAllCarsByBodyType("Coupe")).thenReturn(allSuvCars);
-
-        Page<Car> carPage = new PageImpl<>(allSuvCars, PageRequest.of(page, 10), allSuvCars.size());
-        when(carService.getCarPage(anyInt(), any())).thenReturn(carPage);
-
-        List<Float> auctionsMinimumPriceList = new ArrayList<>();
-        auctionsMinimumPriceList.add(1000f);
-        when(auctionService.setCurrentPriceForEachCarPage(any())).thenReturn(auctionsMinimumPriceList);
-
-        String result = uut.getAuctionsWithCoupeCars(page, null, null, null, null, null, null, this.modelAtr);
-
-        assertEquals("/auction_list", result);
-        verify(carService, times(1)).getAllCarsByBodyType("Coupe");
-        verify(carService, times(1)).getCarPage(anyInt(), any());
-        verify(auctionService, times(1)).setCurrentPriceForEachCarPage(any());
-        verify(this.modelAtr, times(1)).addAttribute(eq("carPage"), any(Page.class));
-        verify(this.modelAtr, times(1)).addAttribute("currentPage", page);
-        verify(this.modelAtr, times(1)).addAttribute(eq("pageNumbers"), anyList());
-        verify(this.modelAtr, times(1)).addAttribute("auctionsMinimumPriceList", auctionsMinimumPriceList);
-        verify(this.modelAtr, times(1)).addAttribute(eq("allActiveAuctionsList"), anyList());
+    void getAuctions_afterCursor_readsTheNextSlice() {
+        when(userService.getLoggedUsername()).thenReturn("Alex");
+        when(userService.findByUsername("Alex")).thenReturn(user);
+        when(listingProperties.getPageSize()).thenReturn(PAGE_SIZE);
+        KeysetCursor cursor = KeysetCursor.of(OffsetDateTime.now(), 7);
+        KeysetRequest expectedRequest = new KeysetRequest(cursor, false, PAGE_SIZE);
+        KeysetSlice<AuctionListingView> emptySlice = KeysetSlice.of(List.of(), expectedRequest, view -> KeysetCursor.of(view.getId()), 0L);
+        when(auctionService.getActiveAuctionListings(user.getId(), expectedRequest)).thenReturn(emptySlice);
+
+        String result = uut.getAuctions(cursor.encode(), null, this.modelAtr);
+
+        assertEquals("/auction_listing", result);
+        verify(this.modelAtr, times(1)).addAttribute("listingPage", emptySlice);
     }
 
     @Test
-    void getAuctionsWithConvertibleCars_emptyCarList_returnsEmpty() {
-        when(carService.getAllCarsByBodyType("Convertible")).thenReturn(new ArrayList<>());
-
-        String result = uut.getAuctionsWithConvertibleCars(page, null, null, null, null, null, null, this.modelAtr);
-
-        assertEquals("/no_car_for_category", result);
-        verify(carService, times(1)).getAllCarsByBodyType("Convertible");
+    void searchAuctions_noActiveAuction_returnsEmpty() {
+        when(userService.getLoggedUsername()).thenReturn("Alex");
+        when(userService.findByUsername("Alex")).thenReturn(user);
+        when(listingProperties.getPageSize()).thenReturn(PAGE_SIZE);
+        KeysetSlice<AuctionListingView> emptySlice = emptyListingSlice();
+        when(auctionService.getActiveAuctionListingsByPrice(eq(user.getId()), any(), eq(5000f), eq(10000f), any(KeysetRequest.class)))
+                .thenReturn(emptySlice);
+
+        String result = uut.searchAuctions(null, null, null, null, null, null, 5000, 10000, this.modelAtr);
+
+        assertEquals("/no_car", result);
+        verify(auctionService, times(1)).getActiveAuctionListingsByPrice(eq(user.getId()), any(), eq(5000f), eq(10000f),
+                eq(KeysetRequest.first(PAGE_SIZE)));
+        verify(this.modelAtr, never()).addAttribute(eq("listingPage"), any());
     }
 
     @Test
-    void getAuctionsWithConvertibleCars_notEmptyCarList_returnsPopulatedList() {
-        List<Car> allSuvCars = new ArrayList<>();
-        allSuvCars.add(new Car());
-        when(carService.getAllCarsByBodyType("Convertible")).thenReturn(allSuvCars);
-
-        Page<Car> carPage = new PageImpl<>(allSuvCars, PageRequest.of(page, 10), allSuvCars.size());
-        when(carService.getCarPage(anyInt(), any())).thenReturn(carPage);
-
-        List<Float> auctionsMinimumPriceList = new ArrayList<>();
-        auctionsMinimumPriceList.add(1000f);
-        when(auctionService.setCurrentPriceForEachCarPage(any())).thenReturn(auctionsMinimumPriceList);
-
-        String result = uut.getAuctionsWithConvertibleCars(page, null, null, null, null, null, null, this.modelAtr);
-
-        assertEquals("/auction_list", result);
-        verify(carService, times(1)).getAllCarsByBodyType("Convertible");
-        verify(carService, times(1)).getCarPage(anyInt(), any());
-        verify(auctionService, times(1)).setCurrentPriceForEachCarPage(any());
-        verify(this.modelAtr, times(1)).addAttribute(eq("carPage"), any(Page.class));
-        verify(this.modelAtr, times(1)).addAttribute("currentPage", page);
-        verify(this.modelAtr, times(1)).addAttribute(eq("pageNumbers"), anyList());
-        verify(this.modelAtr, times(1)).addAttribute("auctionsMinimumPriceList", auctionsMinimumPriceList);
-        verify(this.modelAtr, times(1)).addAttribute(eq("allActiveAuctionsList"), anyList());
+    void searchAuctions_activeAuctionsFound_keepsTheFiltersInTheListingPath() {
+        when(userService.getLoggedUsername()).thenReturn("Alex");
+        when(userService.findByUsername("Alex")).thenReturn(user);
+        when(listingProperties.getPageSize()).thenReturn(PAGE_SIZE);
+        AuctionListingView listingView = mock(AuctionListingView.class);
+        KeysetSlice<AuctionListingView> listingSlice = KeysetSlice.of(List.of(listingView), KeysetRequest.first(PAGE_SIZE), view -> KeysetCursor.of(1), null);
+        when(auctionService.getActiveAuctionListingsByPrice(eq(user.getId()), any(), isNull(), eq(10000f), any(KeysetRequest.class)))
+                .thenReturn(listingSlice);
+
+        String result = uut.searchAuctions(null, null, "BMW", null, 2015, null, null, 10000, this.modelAtr);
+
+        assertEquals("/auction_listing", result);
+        verify(this.modelAtr, times(1)).addAttribute("listingPage", listingSlice);
+        verify(this.modelAtr, times(1)).addAttribute("listingPath", "/auctions/search?producer=BMW&minYear=2015&maxPrice=10000");
     }
 
     @Test
-    void getAuctionsWithRoadsterCars_emptyCarList_returnsEmpty() {
-        when(carService.getAllCarsByBodyType("Roadster")).thenReturn(new ArrayList<>());
-
-        String result = uut.getAuctionsWithRoadsterCars(page, null, null, null, null, null, null, this.modelAtr);
-
-        assertEquals("/no_car_for_category", result);
-        verify(carService, times(1)).getAllCarsByBodyType("Roadster");
-    }
+    void getAuctionsByCategory_unknownCategory_throwsException() {
+        assertThrows(ResourceNotFoundException.class,
+                () -> uut.getAuctionsByCategory("tractor", null, null, null, null, null, null, null, null, this.modelAtr));
 
-    @Test
-    void getAuctionsWithRoadsterCars_notEmptyCarList_returnsPopulatedList() {
-        List<Car> allSuvCars = new ArrayList<>();
-        allSuvCars.add(new Car());
-        when(carService.getAllCarsByBodyType("Roadster")).thenReturn(allSuvCars);
-
-        Page<Car> carPage = new PageImpl<>(allSuvCars, PageRequest.of(page, 10), allSuvCars.size());
-        when(carService.getCarPage(anyInt(), any())).thenReturn(carPage);
-
-        List<Float> auctionsMinimumPriceList = new ArrayList<>();
-        auctionsMinimumPriceList.add(1000f);
-        when(auctionService.setCurrentPriceForEachCarPage(any())).thenReturn(auctionsMinimumPriceList);
-
-        String result = uut.getAuctionsWithRoadsterCars(page, null, null, null, null, null, null, this.modelAtr);
-
-        assertEquals("/auction_list", result);
-        verify(carService, times(1)).getAllCarsByBodyType("Roadster");
-        verify(carService, times(1)).getCarPage(anyInt(), any());
-        verify(auctionService, times(1)).setCurrentPriceForEachCarPage(any());
-        verify(this.modelAtr, times(1)).addAttribute(eq("carPage"), any(Page.class));
-        verify(this.modelAtr, times(1)).addAttribute("currentPage", page);
-        verify(this.modelAtr, times(1)).addAttribute(eq("pageNumbers"), anyList());
-        verify(this.modelAtr, times(1)).addAttribute("auctionsMinimumPriceList", auctionsMinimumPriceList);
-        verify(this.modelAtr, times(1)).addAttribute(eq("allActiveAuctionsList"), anyList());
+        verifyNoInteractions(auctionService);
     }
 
     @Test
-    void getAuctionsWithHatchbackCars_emptyCarList_returnsEmpty() {
-        when(carService.getAllCarsByBodyType("Hatchback")).thenReturn(new ArrayList<>());
+    void getAuctionsByCategory_noActiveAuction_returnsEmpty() {
+        when(listingProperties.getPageSize()).thenReturn(PAGE_SIZE);
+        when(auctionService.getActiveAuctionListingsByBodyType(eq("SUV"), any(), any(KeysetRequest.class))).thenReturn(emptyListingSlice());
 
-        String result = uut.getAuctionsWithHatchbackCars(page, null, null, null, null, null, null, this.modelAtr);
+        String result = uut.getAuctionsByCategory("suv", null, null, null, null, null, null, null, null, this.modelAtr);
 
         assertEquals("/no_car_for_category", result);
-        verify(carService, times(1)).getAllCarsByBodyType("Hatchback");
+        verify(auctionService, times(1)).getActiveAuctionListingsByBodyType(eq("SUV"), any(), eq(KeysetRequest.first(PAGE_SIZE)));
+        verify(this.modelAtr, never()).addAttribute(eq("listingPage"), any());
     }
 
     @Test
-    void getAuctionsWithHatchbackCars_notEmptyCarList_returnsPopulatedList() {
-        List<Car> allSuvCars = new ArrayList<>();
-        allSuvCars.add(new Car());
-        when(carService.getAllCarsByBodyType("Hatchback")).thenReturn(allSuvCars);
-
-        Page<Car> carPage = new PageImpl<>(allSuvCars, PageRequest.of(page, 10), allSuvCars.size());
-        when(carService.getCarPage(anyInt(), any())).thenReturn(carPage);
-
-        List<Float> auctionsMinimumPriceList = new ArrayList<>();
-        auctionsMinimumPriceList.add(1000f);
-        when(auctionService.setCurrentPriceForEachCarPage(any())).thenReturn(auctionsMinimumPriceList);
-
-        String result = uut.getAuctionsWithHatchbackCars(page, null, null, null, null, null, null, this.modelAtr);
-
-        assertEquals("/auction_list", result);
-        verify(carService, times(1)).getAllCarsByBodyType("Hatchback");
-        verify(carService, times(1)).getCarPage(anyInt(), any());
-        verify(auctionService, times(1)).setCurrentPriceForEachCarPage(any());
-        verify(this.modelAtr, times(1)).addAttribute(eq("carPage"), any(Page.class));
-        verify(this.modelAtr, times(1)).addAttribute("currentPage", page);
-        verify(this.modelAtr, times(1)).addAttribute(eq("pageNumbers"), anyList());
-        verify(this.modelAtr, times(1)).addAttribute("auctionsMinimumPriceList", auctionsMinimumPriceList);
-        verify(this.modelAtr, times(1)).addAttribute(eq("allActiveAuctionsList"), anyList());
+    void getAuctionsByCategory_activeAuctionsFound_returnsOneSliceOfListings() {
+        AuctionListingView listingView = mock(AuctionListingView.class);
+        KeysetSlice<AuctionListingView> listingSlice = KeysetSlice.of(List.of(listingView), KeysetRequest.first(PAGE_SIZE), view -> KeysetCursor.of(1), 1L);
+        when(listingProperties.getPageSize()).thenReturn(PAGE_SIZE);
+        when(auctionService.getActiveAuctionListingsByBodyType(eq("Sedan/Saloon"), any(), any(KeysetRequest.class))).thenReturn(listingSlice);
+
+        String result = uut.getAuctionsByCategory("sedan", null, null, null, null, null, null, null, null, this.modelAtr);
+
+        assertEquals("/auction_listing", result);
+        verify(carService, never()).getCarPage(anyInt(), any());
+        verify(auctionService, never()).findAuctionsByCars(anyList());
+        verify(this.modelAtr, times(1)).addAttribute("listingPage", listingSlice);
+        verify(this.modelAtr, times(1)).addAttribute("listingPath", "/auctions/sedan/cars");
+        verify(this.modelAtr, times(1)).addAttribute(eq("facets"), any());
+        //the listing is not filtered, so it keeps the total of the category
+        verify(auctionService, times(1)).getActiveAuctionListingsByBodyType(eq("Sedan/Saloon"), isNull(), any(KeysetRequest.class));
     }
 
     @Test
-    void getAuctionsWithMinivanCars_emptyCarList_returnsEmpty() {
-        when(carService.getAllCarsByBodyType("Minivan")).thenReturn(new ArrayList<>());
+    void getAuctionsByCategory_activeAuctionsFound_keepsTheFiltersInTheListingPath() {
+        AuctionListingView listingView = mock(AuctionListingView.class);
+        KeysetSlice<AuctionListingView> listingSlice = KeysetSlice.of(List.of(listingView), KeysetRequest.first(PAGE_SIZE), view -> KeysetCursor.of(1), 1L);
+        when(listingProperties.getPageSize()).thenReturn(PAGE_SIZE);
+        when(auctionService.getActiveAuctionListingsByBodyType(eq("SUV"), any(), any(KeysetRequest.class))).thenReturn(listingSlice);
 
-        String result = uut.getAuctionsWithMinivanCars(page, null, null, null, null, null, null, this.modelAtr);
+        String result = uut.getAuctionsByCategory("suv", null, null, "Land Rover", null, null, 2020, 5000, null, this.modelAtr);
 
-        assertEquals("/no_car_for_category", result);
-        verify(carService, times(1)).getAllCarsByBodyType("Minivan");
-    }
-
-    @Test
-    void getAuctionsWithMinivanCars_notEmptyCarList_returnsPopulatedList() {
-        List<Car> allSuvCars = new ArrayList<>();
-        allSuvCars.add(new Car());
-        when(carService.getAllCarsByBodyType("Minivan")).thenReturn(allSuvCars);
-
-        Page<Car> carPage = new PageImpl<>(allSuvCars, PageRequest.of(page, 10), allSuvCars.size());
-        when(carService.getCarPage(anyInt(), any())).thenReturn(carPage);
-
-        List<Float> auctionsMinimumPriceList = new ArrayList<>();
-        auctionsMinimumPriceList.add(1000f);
-        when(auctionService.setCurrentPriceForEachCarPage(any())).thenReturn(auctionsMinimumPriceList);
-
-        String result = uut.getAuctionsWithMinivanCars(page, null, null, null, null, null, null, this.modelAtr);
-
-        assertEquals("/auction_list", result);
-        verify(carService, times(1)).getAllCarsByBodyType("Minivan");
-        verify(carService, times(1)).getCarPage(anyInt(), any());
-        verify(auctionService, times(1)).setCurrentPriceForEachCarPage(any());
-        verify(this.modelAtr, times(1)).addAttribute(eq("carPage"), any(Page.class));
-        verify(this.modelAtr, times(1)).addAttribute("currentPage", page);
-        verify(this.modelAtr, times(1)).addAttribute(eq("pageNumbers"), anyList());
-        verify(this.modelAtr, times(1)).addAttribute("auctionsMinimumPriceList", auctionsMinimumPriceList);
-        verify(this.modelAtr, times(1)).addAttribute(eq("allActiveAuctionsList"), anyList());
-    }
-
-    @Test
-    void getAuctionsWithWagonCars_emptyCarList_returnsEmpty() {
-        when(carService.getAllCarsByBodyType("Wagon")).thenReturn(new ArrayList<>());
-
-        String result = uut.getAuctionsWithWagonCars(page, null, null, null, null, null, null, this.modelAtr);
-
-        assertEquals("/no_car_for_category", result);
-        verify(carService, times(1)).getAllCarsByBodyType("Wagon");
+        assertEquals("/auction_listing", result);
+        verify(this.modelAtr, times(1)).addAttribute("listingPath", "/auctions/suv/cars?producer=Land%20Rover&maxYear=2020&minPrice=5000");
+        verify(auctionService, times(1)).getActiveAuctionListingsByBodyType(eq("SUV"), notNull(), any(KeysetRequest.class));
     }
 
     @Test
-    void getAuctionsWithWagonCars_notEmptyCarList_returnsPopulatedList() {
-        List<Car> allSuvCars = new ArrayList<>();
-        allSuvCars.add(new Car());
-        when(carService.getAllCarsByBodyType("Wagon")).thenReturn(allSuvCars);
-
-        Page<Car> carPage = new PageImpl<>(allSuvCars, PageRequest.of(page, 10), allSuvCars.size());
-        when(carService.getCarPage(anyInt(), any())).thenReturn(carPage);
-
-        List<Float> auctionsMinimumPriceList = new ArrayList<>();
-        auctionsMinimumPriceList.add(1000f);
-        when(auctionService.setCurrentPriceForEachCarPage(any())).thenReturn(auctionsMinimumPriceList);
-
-        String result = uut.getAuctionsWithWagonCars(page, null, null, null, null, null, null, this.modelAtr);
-
-        assertEquals("/auction_list", result);
-        verify(carService, times(1)).getAllCarsByBodyType("Wagon");
-        verify(carService, times(1)).getCarPage(anyInt(), any());
-        verify(auctionService, times(1)).setCurrentPriceForEachCarPage(any());
-        verify(this.modelAtr, times(1)).addAttribute(eq("carPage"), any(Page.class));
-        verify(this.modelAtr, times(1)).addAttribute("currentPage", page);
-        verify(this.modelAtr, times(1)).addAttribute(eq("pageNumbers"), anyList());
-        verify(this.modelAtr, times(1)).addAttribute("auctionsMinimumPriceList", auctionsMinimumPriceList);
-        verify(this.modelAtr, times(1)).addAttribute(eq("allActiveAuctionsList"), anyList());
+    void getAuctionsByCategory_everyCategory_readsItsBodyType() {
+        when(listingProperties.getPageSize()).thenReturn(PAGE_SIZE);
+        KeysetSlice<AuctionListingView> emptySlice = emptyListingSlice();
+        when(auctionService.getActiveAuctionListingsByBodyType(anyString(), any(), any(KeysetRequest.class))).thenReturn(emptySlice);
+
+        for (CarCategory category : CarCategory.values()) {
+            uut.getAuctionsByCategory(category.getPath(), null, null, null, null, null, null, null, null, this.modelAtr);
+        }
+
+        for (String bodyType : List.of("SUV", "Sedan/Saloon", "Pickup", "Coupe", "Convertible", "Roadster", "Hatchback", "Minivan", "Wagon")) {
+            verify(auctionService, times(1)).getActiveAuctionListingsByBodyType(eq(bodyType), any(), any(KeysetRequest.class));
+        }
     }
 
     @Test
     void getAuctionGuide_returnsSuccess() {
         assertEquals("/auction_guide", uut.getAuctionGuide());
     }
-}
\ No newline at end of file
+
+    private KeysetSlice<AuctionListingView> emptyListingSlice() {
+        return KeysetSlice.of(List.of(), KeysetRequest.first(PAGE_SIZE), view -> KeysetCursor.of(view.getId()), 0L);
+    }
+}
@@ -1,5 +1,6 @@
 package com.auctions.hunters.controller;
 
+import com.auctions.hunters.config.ListingProperties;
 import com.auctions.hunters.exceptions.*;
 import com.auctions.hunters.model.Auction;
 import com.auctions.hunters.model.Bid;
@@ -7,6 +8,7 @@ import com.auctions.hunters.model.Car;
 import com.auctions.hunters.service.auction.AuctionService;
 import com.auctions.hunters.service.bid.BidService;
 import com.auctions.hunters.service.car.CarService;
+import com.auctions.hunters.service.car.CarTextIndex;
 import com.auctions.hunters.service.image.ImageService;
 import com.auctions.hunters.service.user.UserService;
 import org.junit.jupiter.api.Test;
@@ -36,6 +38,10 @@ class CarControllerTest {
     private UserService userService;
     @Mock
     private BidService bidService;
+    @Mock
+    private ListingProperties listingProperties;
+    @Mock
+    private CarTextIndex carTextIndex;
 
     @InjectMocks
     private CarController uut;
@@ -1,17 +1,22 @@
 package com.auctions.hunters.controller;
 
+import com.auctions.hunters.model.Image;
 import com.auctions.hunters.service.image.ImageService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 
+import static com.auctions.hunters.service.image.ImageUtil.compressImage;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
+import static org.springframework.http.HttpStatus.OK;
+import static org.springframework.http.MediaType.IMAGE_JPEG;
 
 @ExtendWith(MockitoExtension.class)
 class ImageControllerTest {
@@ -38,4 +43,19 @@ class ImageControllerTest {
 
         assertEquals("redirect:/cars", result);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getImage_existingImage_returnsDecompressedDataWithContentType() {
+        byte[] data = {1, 2, 3};
+        Image image = new Image();
+        image.setData(compressImage(data));
+        image.setContentType("image/jpeg");
+        when(imageService.getImageById(1)).thenReturn(image);
+
+        ResponseEntity<byte[]> response = uut.getImage(1);
+
+        assertEquals(OK, response.getStatusCode());
+        assertEquals(IMAGE_JPEG, response.getHeaders().getContentType());
+        assertArrayEquals(data, response.getBody());
+    }
+}
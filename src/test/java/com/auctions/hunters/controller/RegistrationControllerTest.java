@@ -1,8 +1,11 @@
 package com.auctions.hunters.controller;
 
+import com.auctions.hunters.config.TopBidAuctionsProperties;
 import com.auctions.hunters.exceptions.EmailAlreadyExistsException;
 import com.auctions.hunters.exceptions.InvalidEmailException;
+import com.auctions.hunters.model.Auction;
 import com.auctions.hunters.model.User;
+import com.auctions.hunters.service.auction.AuctionService;
 import com.auctions.hunters.service.user.UserService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,6 +14,8 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.ui.Model;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 
@@ -19,6 +24,10 @@ class RegistrationControllerTest {
 
     @Mock
     private UserService userService;
+    @Mock
+    private AuctionService auctionService;
+    @Mock
+    private TopBidAuctionsProperties topBidAuctionsProperties;
 
     @InjectMocks
     private RegistrationController uut;
@@ -30,7 +39,12 @@ class RegistrationControllerTest {
 
     @Test
     void getHomePage() {
-        assertEquals("/homepage", uut.getHomePage());
+        List<Auction> topBidAuctions = List.of(new Auction());
+        when(topBidAuctionsProperties.getHomepageSize()).thenReturn(4);
+        when(auctionService.getTopBidAuctions(4)).thenReturn(topBidAuctions);
+
+        assertEquals("/homepage", uut.getHomePage(modelAtr));
+        verify(modelAtr, times(1)).addAttribute("topBidAuctions", topBidAuctions);
     }
 
     @Test
@@ -0,0 +1,152 @@
+package com.auctions.hunters.repository;
+
+import com.auctions.hunters.model.Auction;
+import com.auctions.hunters.model.Car;
+import com.auctions.hunters.model.User;
+import com.auctions.hunters.model.projection.AuctionListingView;
+import com.auctions.hunters.service.confirmationtoken.ConfirmationTokenService;
+import com.auctions.hunters.service.role.RoleService;
+import com.auctions.hunters.service.user.UserService;
+import com.auctions.hunters.utils.KeysetCursor;
+import com.auctions.hunters.utils.KeysetRequest;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static com.auctions.hunters.model.enums.AuctionStatus.ACTIVE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs the queries of the {@link AuctionRepository} on the embedded database.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+class AuctionRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private AuctionRepository auctionRepository;
+
+    //needed by the application class, which inserts the administrator at startup
+    @MockBean
+    private UserService userService;
+    @MockBean
+    private RoleService roleService;
+    @MockBean
+    private ConfirmationTokenService confirmationTokenService;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void findByUserIdIn_manyAuctionsOfSeveralOwners_runsAsManyStatementsAsForASingleAuction() {
+        User singleOwner = persistOwner("single");
+        persistAuctions(singleOwner, 1);
+        User firstOwner = persistOwner("first");
+        User secondOwner = persistOwner("second");
+        persistAuctions(firstOwner, 5);
+        persistAuctions(secondOwner, 5);
+
+        long singleAuctionStatements = countStatements(() -> auctionRepository.findByUserIdIn(List.of(singleOwner.getId())));
+        long manyAuctionsStatements = countStatements(() ->
+                auctionRepository.findByUserIdIn(List.of(firstOwner.getId(), secondOwner.getId())));
+
+        assertEquals(singleAuctionStatements, manyAuctionsStatements);
+    }
+
+    @Test
+    void findByIdIn_manyAuctionsOfSeveralOwners_runsAsManyStatementsAsForASingleAuction() {
+        List<Integer> singleAuctionIds = persistAuctions(persistOwner("single"), 1);
+        List<Integer> auctionIds = new ArrayList<>(persistAuctions(persistOwner("first"), 5));
+        auctionIds.addAll(persistAuctions(persistOwner("second"), 5));
+
+        long singleAuctionStatements = countStatements(() -> auctionRepository.findByIdIn(singleAuctionIds));
+        long manyAuctionsStatements = countStatements(() -> auctionRepository.findByIdIn(auctionIds));
+
+        assertEquals(singleAuctionStatements, manyAuctionsStatements);
+    }
+
+    @Test
+    void findListingViewsOfCarsByPrice_lastPage_returnsTheMostExpensiveAuctions() {
+        User owner = persistOwner("owner");
+        persistAuction(owner, 300);
+        persistAuction(owner, 100);
+        persistAuction(owner, 200);
+        entityManager.flush();
+        Specification<Car> anyCar = (root, query, criteriaBuilder) -> null;
+
+        List<AuctionListingView> views = auctionRepository.findListingViewsOfCarsByPrice(anyCar, ACTIVE,
+                OffsetDateTime.now(), null, null, null, KeysetRequest.of(null, KeysetCursor.END.encode(), 2));
+
+        assertEquals(List.of(300f, 200f, 100f), views.stream().map(AuctionListingView::getCurrentPrice).toList());
+    }
+
+    /**
+     * Runs the query on an empty persistence context and reads the cars and the owners of the found auctions.
+     *
+     * @return the number of statements run
+     */
+    private long countStatements(Supplier<List<Auction>> query) {
+        entityManager.clear();
+        statistics.clear();
+
+        List<Auction> auctions = query.get();
+        auctions.forEach(auction -> {
+            auction.getUser().getUsername();
+            auction.getCar().getUser().getCarList().size();
+        });
+
+        return statistics.getPrepareStatementCount();
+    }
+
+    private User persistOwner(String name) {
+        return entityManager.persist(new User(name, "password", name + "@mail.com", "Caracal", "1234567890",
+                new HashSet<>()));
+    }
+
+    private List<Integer> persistAuctions(User owner, int count) {
+        List<Integer> auctionIds = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            auctionIds.add(persistAuction(owner, 100).getId());
+        }
+        entityManager.flush();
+        return auctionIds;
+    }
+
+    private Auction persistAuction(User owner, float price) {
+        OffsetDateTime now = OffsetDateTime.now();
+        Car car = entityManager.persist(Car.builder()
+                .user(owner)
+                .producer("Dacia")
+                .model("Logan")
+                .build());
+        return entityManager.persist(Auction.builder()
+                .car(car)
+                .user(owner)
+                .minimumPrice(price)
+                .startingPrice(price)
+                .currentPrice(price)
+                .startTime(now)
+                .endTime(now.plusDays(1))
+                .status(ACTIVE)
+                .build());
+    }
+}
@@ -0,0 +1,171 @@
+package com.auctions.hunters.service.auction;
+
+import com.auctions.hunters.config.AuctionExpiryProperties;
+import com.auctions.hunters.model.projection.AuctionExpiryView;
+import com.auctions.hunters.repository.AuctionRepository;
+import com.auctions.hunters.repository.CarRepository;
+import com.auctions.hunters.service.bid.LiveAuctionEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import static com.auctions.hunters.model.enums.AuctionStatus.*;
+import static com.auctions.hunters.model.enums.CarStatus.NOT_AUCTIONED;
+import static com.auctions.hunters.model.enums.CarStatus.SOLD;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+@ExtendWith(MockitoExtension.class)
+class AuctionExpiryEngineTest {
+
+    @Mock
+    private AuctionRepository auctionRepository;
+    @Mock
+    private CarRepository carRepository;
+    @Mock
+    private AuctionExpiryProperties auctionExpiryProperties;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private ObjectProvider<LiveAuctionEngine> liveAuctionEngine;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private AuctionExpiryEngine uut;
+
+    @BeforeEach
+    void setUp() {
+        openMocks(this);
+        lenient().when(auctionExpiryProperties.getBatchSize()).thenReturn(100);
+        lenient().when(auctionExpiryProperties.getRetryDelayMillis()).thenReturn(60_000L);
+
+        uut = spy(new AuctionExpiryEngine(auctionRepository, carRepository, auctionExpiryProperties, transactionManager, liveAuctionEngine, eventPublisher));
+    }
+
+    @AfterEach
+    void tearDown() {
+        uut.stop();
+    }
+
+    @Test
+    void closeDueAuctions_endedAuctions_closesThemInOneBatch() {
+        OffsetDateTime past = OffsetDateTime.now().minusMinutes(1);
+        uut.schedule(1, past);
+        uut.schedule(2, past);
+        uut.schedule(3, OffsetDateTime.now().plusDays(1));
+        when(auctionRepository.updateStatusOfEndedAuctionsWithBuyer(anyCollection(), eq(ACTIVE), eq(CLOSED), any(OffsetDateTime.class)))
+                .thenReturn(1);
+        when(auctionRepository.updateStatusOfEndedAuctionsWithoutBuyer(anyCollection(), eq(ACTIVE), eq(UNSOLD), any(OffsetDateTime.class)))
+                .thenReturn(1);
+
+        int closed = uut.closeDueAuctions();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Integer>> idsCaptor = ArgumentCaptor.forClass(Collection.class);
+        verify(carRepository, times(1))
+                .updateStatusOfCarsFromEndedAuctionsWithBuyer(idsCaptor.capture(), eq(ACTIVE), eq(SOLD), any(OffsetDateTime.class));
+        assertEquals(2, idsCaptor.getValue().size());
+        assertTrue(idsCaptor.getValue().containsAll(List.of(1, 2)));
+        assertEquals(2, closed);
+        assertEquals(2, uut.getClosedAuctions());
+        assertEquals(2, uut.getLastBatchSize());
+        assertEquals(1, uut.getPendingAuctions());
+        assertTrue(uut.getLastExpiryLagMillis() >= 60_000);
+        verify(eventPublisher, times(1)).publishEvent(any(AuctionsClosedEvent.class));
+    }
+
+    @Test
+    void closeDueAuctions_auctionWithoutBuyer_makesItsCarAvailableInTheSameTransaction() {
+        uut.schedule(1, OffsetDateTime.now().minusMinutes(1));
+        when(auctionRepository.updateStatusOfEndedAuctionsWithoutBuyer(anyCollection(), eq(ACTIVE), eq(UNSOLD), any(OffsetDateTime.class)))
+                .thenReturn(1);
+
+        int closed = uut.closeDueAuctions();
+
+        ArgumentCaptor<OffsetDateTime> timeCaptor = ArgumentCaptor.forClass(OffsetDateTime.class);
+        InOrder inOrder = inOrder(transactionManager, carRepository, auctionRepository);
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(carRepository)
+                .updateStatusOfCarsFromEndedAuctionsWithoutBuyer(eq(List.of(1)), eq(ACTIVE), eq(NOT_AUCTIONED), timeCaptor.capture());
+        inOrder.verify(auctionRepository)
+                .updateStatusOfEndedAuctionsWithoutBuyer(List.of(1), ACTIVE, UNSOLD, timeCaptor.getValue());
+        inOrder.verify(transactionManager).commit(any());
+        verify(transactionManager, times(1)).getTransaction(any());
+        assertEquals(1, closed);
+    }
+
+    @Test
+    void closeDueAuctions_noEndedAuction_doesNotQueryTheDatabase() {
+        uut.schedule(1, OffsetDateTime.now().plusMinutes(10));
+
+        int closed = uut.closeDueAuctions();
+
+        assertEquals(0, closed);
+        assertEquals(1, uut.getPendingAuctions());
+        verifyNoInteractions(auctionRepository, carRepository, transactionManager, liveAuctionEngine);
+    }
+
+    @Test
+    void closeDueAuctions_databaseFailure_schedulesTheAuctionsAgain() {
+        uut.schedule(1, OffsetDateTime.now().minusMinutes(1));
+        when(carRepository.updateStatusOfCarsFromEndedAuctionsWithBuyer(anyCollection(), eq(ACTIVE), eq(SOLD), any(OffsetDateTime.class)))
+                .thenThrow(new IllegalStateException("connection lost"));
+
+        int closed = uut.closeDueAuctions();
+
+        assertEquals(0, closed);
+        assertEquals(1, uut.getPendingAuctions());
+        assertEquals(0, uut.getClosedAuctions());
+        verifyNoInteractions(eventPublisher);
+        // the retry is delayed, so the auction is not due again right away
+        assertEquals(0, uut.closeDueAuctions());
+    }
+
+    @Test
+    void schedule_sameAuctionTwice_schedulesItOnce() {
+        OffsetDateTime endTime = OffsetDateTime.now().plusMinutes(10);
+
+        uut.schedule(1, endTime);
+        uut.schedule(1, endTime);
+
+        assertEquals(1, uut.getPendingAuctions());
+    }
+
+    @Test
+    void scheduleOverdueAuctions_unknownEndedAuctions_schedulesThem() {
+        AuctionExpiryView endedAuction = mock(AuctionExpiryView.class);
+        when(endedAuction.getId()).thenReturn(7);
+        when(endedAuction.getEndTime()).thenReturn(OffsetDateTime.now().minusMinutes(5));
+        when(auctionRepository.findEndedExpiryViewsByStatus(eq(ACTIVE), any(OffsetDateTime.class))).thenReturn(List.of(endedAuction));
+
+        uut.scheduleOverdueAuctions();
+
+        assertEquals(1, uut.getPendingAuctions());
+    }
+
+    @Test
+    void start_activeAuctionsInDatabase_rebuildsTheQueue() {
+        AuctionExpiryView activeAuction = mock(AuctionExpiryView.class);
+        when(activeAuction.getId()).thenReturn(3);
+        when(activeAuction.getEndTime()).thenReturn(OffsetDateTime.now().plusHours(1));
+        when(auctionRepository.findExpiryViewsByStatus(ACTIVE)).thenReturn(List.of(activeAuction));
+
+        uut.start();
+
+        assertEquals(1, uut.getPendingAuctions());
+        verify(auctionRepository, times(1)).findExpiryViewsByStatus(ACTIVE);
+    }
+}
@@ -0,0 +1,176 @@
+package com.auctions.hunters.service.auction;
+
+import com.auctions.hunters.config.SearchProperties;
+import com.auctions.hunters.model.Car;
+import com.auctions.hunters.model.projection.AuctionFacetView;
+import com.auctions.hunters.repository.AuctionRepository;
+import com.auctions.hunters.service.car.CarFacet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static com.auctions.hunters.model.enums.AuctionStatus.ACTIVE;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuctionFacetIndexTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AuctionFacetIndexTest.class);
+    private static final int FACET_SIZE = 3;
+
+    @Mock
+    private AuctionRepository auctionRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private SearchProperties searchProperties;
+
+    private AuctionFacetIndex uut;
+
+    @BeforeEach
+    void setUp() {
+        when(searchProperties.getFacetSize()).thenReturn(FACET_SIZE);
+        lenient().when(auctionRepository.findFacetViewsByStatusAndEndTimeAfter(eq(ACTIVE), any(OffsetDateTime.class)))
+                .thenReturn(List.of(
+                        new FacetView(10, "BMW", "SUV", "Diesel", "Automatic", 2018),
+                        new FacetView(11, "BMW", "Sedan/Saloon", "Gasoline", "Automatic", 2021),
+                        new FacetView(12, "Dacia", "SUV", "Diesel", "Manual", null)));
+
+        uut = new AuctionFacetIndex(auctionRepository, transactionManager, searchProperties);
+    }
+
+    @Test
+    void getFacetCounts_afterRebuild_countsTheRunningAuctionsByValue() {
+        uut.rebuild();
+
+        Map<CarFacet, List<FacetCount>> facetCounts = uut.getFacetCounts();
+
+        assertEquals(List.of(new FacetCount("BMW", 2), new FacetCount("Dacia", 1)), facetCounts.get(CarFacet.PRODUCER));
+        assertEquals(List.of(new FacetCount("SUV", 2), new FacetCount("Sedan/Saloon", 1)), facetCounts.get(CarFacet.BODY));
+        assertEquals(List.of(new FacetCount("Diesel", 2), new FacetCount("Gasoline", 1)), facetCounts.get(CarFacet.FUEL));
+        assertEquals(List.of(new FacetCount("Automatic", 2), new FacetCount("Manual", 1)), facetCounts.get(CarFacet.TRANSMISSION));
+        assertEquals(List.of(new FacetCount("2015-2019", 1), new FacetCount("2020-2024", 1)), facetCounts.get(CarFacet.YEAR));
+        assertEquals(3, uut.getAuctions());
+    }
+
+    @Test
+    void getFacetCounts_manyValues_keepsTheMostFrequent() {
+        uut.rebuild();
+        uut.onAuctionOpened(new AuctionOpenedEvent(13, 1, car("Audi")));
+        uut.onAuctionOpened(new AuctionOpenedEvent(14, 1, car("Skoda")));
+        uut.onAuctionOpened(new AuctionOpenedEvent(15, 1, car("Skoda")));
+
+        assertEquals(List.of(new FacetCount("BMW", 2), new FacetCount("Skoda", 2), new FacetCount("Audi", 1)),
+                uut.getFacetCounts().get(CarFacet.PRODUCER));
+    }
+
+    @Test
+    void onAuctionsClosed_removesTheAuctionsFromTheCounts() {
+        uut.rebuild();
+        assertEquals(2, uut.getFacetCounts().get(CarFacet.PRODUCER).get(0).auctions());
+
+        uut.onAuctionsClosed(new AuctionsClosedEvent(List.of(10, 12, 42)));
+
+        assertEquals(List.of(new FacetCount("BMW", 1)), uut.getFacetCounts().get(CarFacet.PRODUCER));
+        assertEquals(List.of(new FacetCount("2020-2024", 1)), uut.getFacetCounts().get(CarFacet.YEAR));
+        assertEquals(1, uut.getAuctions());
+    }
+
+    @Test
+    void onAuctionOpened_sameAuctionTwice_isCountedOnce() {
+        uut.rebuild();
+
+        uut.onAuctionOpened(new AuctionOpenedEvent(12, 1, car("Dacia")));
+
+        assertEquals(List.of(new FacetCount("BMW", 2), new FacetCount("Dacia", 1)), uut.getFacetCounts().get(CarFacet.PRODUCER));
+        assertEquals(3, uut.getAuctions());
+    }
+
+    /**
+     * Times the opened and closed auctions with a read of the counts on an index of 1 000 000 auctions.
+     */
+    @Test
+    @Tag("benchmark")
+    void getFacetCounts_manyAuctions_reportsTheUpdateAndReadTime() {
+        Random random = new Random(42);
+        String[] bodies = {"Hatchback", "Sedan/Saloon", "SUV", "Wagon", "Coupe"};
+        String[] fuels = {"Diesel", "Gasoline", "Hybrid", "Electric"};
+        List<AuctionFacetView> views = new ArrayList<>();
+        for (int id = 1; id <= 1_000_000; id++) {
+            views.add(new FacetView(id, "Producer " + random.nextInt(80), bodies[random.nextInt(bodies.length)],
+                    fuels[random.nextInt(fuels.length)], random.nextBoolean() ? "Manual" : "Automatic", 1995 + random.nextInt(30)));
+        }
+        when(auctionRepository.findFacetViewsByStatusAndEndTimeAfter(eq(ACTIVE), any(OffsetDateTime.class))).thenReturn(views);
+        uut.rebuild();
+
+        Car car = car("Dacia");
+        int updates = 100_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < updates; i++) {
+            uut.onAuctionOpened(new AuctionOpenedEvent(1_000_000 + i + 1, 1, car));
+            uut.onAuctionsClosed(new AuctionsClosedEvent(List.of(i + 1)));
+            uut.getFacetCounts();
+        }
+        long nanosPerUpdate = (System.nanoTime() - start) / updates;
+
+        LOGGER.info("Counted {} auctions by facet in {} ms, {} ns per opened and closed auction with a read.",
+                uut.getAuctions(), uut.getLastRebuildMillis(), nanosPerUpdate);
+        assertEquals(1_000_000, uut.getAuctions());
+        assertEquals(new FacetCount("Dacia", updates), uut.getFacetCounts().get(CarFacet.PRODUCER).get(0));
+    }
+
+    private static Car car(String producer) {
+        return Car.builder()
+                .producer(producer)
+                .build();
+    }
+
+    private record FacetView(Integer auctionId, String producer, String body, String fuelTypePrimary,
+                             String transmission, Integer modelYearValue) implements AuctionFacetView {
+
+        @Override
+        public Integer getAuctionId() {
+            return auctionId;
+        }
+
+        @Override
+        public String getProducer() {
+            return producer;
+        }
+
+        @Override
+        public String getBody() {
+            return body;
+        }
+
+        @Override
+        public String getFuelTypePrimary() {
+            return fuelTypePrimary;
+        }
+
+        @Override
+        public String getTransmission() {
+            return transmission;
+        }
+
+        @Override
+        public Integer getModelYearValue() {
+            return modelYearValue;
+        }
+    }
+}
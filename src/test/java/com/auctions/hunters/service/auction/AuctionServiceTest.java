@@ -1,24 +1,43 @@
 package com.auctions.hunters.service.auction;
 
+import com.auctions.hunters.exceptions.LowBidAmountException;
 import com.auctions.hunters.model.Auction;
 import com.auctions.hunters.model.Bid;
 import com.auctions.hunters.model.Car;
 import com.auctions.hunters.model.User;
 import com.auctions.hunters.model.enums.AuctionStatus;
+import com.auctions.hunters.model.projection.AuctionListingView;
+import com.auctions.hunters.model.projection.AuctionPriceView;
+import com.auctions.hunters.model.projection.CarPriceView;
 import com.auctions.hunters.repository.AuctionRepository;
 import com.auctions.hunters.service.car.CarService;
 import com.auctions.hunters.service.user.UserService;
+import com.auctions.hunters.utils.KeysetCursor;
+import com.auctions.hunters.utils.KeysetRequest;
+import com.auctions.hunters.utils.KeysetSlice;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 
+import java.time.Duration;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.auctions.hunters.model.enums.AuctionStatus.ACTIVE;
 import static com.auctions.hunters.model.enums.CarStatus.AUCTIONED;
@@ -37,6 +56,14 @@ class AuctionServiceTest {
     private UserService userService;
     @Mock
     private CarService carService;
+    @Mock
+    private AuctionExpiryEngine auctionExpiryEngine;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private TopBidAuctionsCache topBidAuctionsCache;
+    @Mock
+    private ListingStatistics listingStatistics;
 
     private AuctionService uut;
 
@@ -52,7 +79,7 @@ class AuctionServiceTest {
     @BeforeEach
     void setUp() {
         openMocks(this);
-        uut = spy(new AuctionServiceImpl(auctionRepository, userService, carService));
+        uut = spy(new AuctionServiceImpl(auctionRepository, userService, carService, auctionExpiryEngine, eventPublisher, topBidAuctionsCache, listingStatistics));
 
         user = new User();
         user.setId(1);
@@ -96,18 +123,132 @@ class AuctionServiceTest {
         verify(userService, times(1)).findByUsername(anyString());
         verify(carService, times(1)).updateCarAuctionStatus(car.getId(), AUCTIONED);
         verify(auctionRepository, times(1)).save(any(Auction.class));
+        verify(auctionExpiryEngine, times(1)).schedule(actualAuction.getId(), actualAuction.getEndTime());
+        verify(eventPublisher, times(1)).publishEvent(new AuctionOpenedEvent(actualAuction.getId(), user.getId(), car));
     }
 
     @Test
     void findAllActiveAuctions_foundActiveAuction_returnsSuccess() {
         auction.setStatus(ACTIVE);
-        when(auctionRepository.findAll()).thenReturn(expectedAuctionList);
+        when(auctionRepository.findAllByStatusAndEndTimeAfter(eq(ACTIVE), any(OffsetDateTime.class))).thenReturn(expectedAuctionList);
 
         List<Auction> actualActiveAuctionList = uut.findAllActiveAuctions();
 
         assertNotNull(actualActiveAuctionList);
         assertEquals(expectedAuctionList, actualActiveAuctionList);
-        verify(auctionRepository, times(1)).findAll();
+        verify(auctionRepository, times(1)).findAllByStatusAndEndTimeAfter(eq(ACTIVE), any(OffsetDateTime.class));
+        verify(auctionRepository, never()).findAll();
+    }
+
+    @Test
+    void getActiveAuctionListings_firstPage_runsOneLimitedQueryWithoutCount() {
+        OffsetDateTime endTime = OffsetDateTime.parse("2024-03-01T10:15:30Z");
+        List<AuctionListingView> views = List.of(listingView(1, endTime), listingView(2, endTime), listingView(3, endTime));
+        when(auctionRepository.findListingViews(eq(ACTIVE), any(OffsetDateTime.class), eq(user.getId()), any(Pageable.class)))
+                .thenReturn(views);
+        when(listingStatistics.getActiveAuctionsNotOwnedBy(user.getId())).thenReturn(100_000L);
+
+        KeysetSlice<AuctionListingView> slice = uut.getActiveAuctionListings(user.getId(), KeysetRequest.first(2));
+
+        assertEquals(views.subList(0, 2), slice.getContent());
+        assertFalse(slice.hasPrevious());
+        assertEquals(KeysetCursor.of(endTime, 2), KeysetCursor.decode(slice.getNextCursor()).orElseThrow());
+        assertEquals(100_000L, slice.getApproximateTotal());
+        verify(auctionRepository, times(1))
+                .findListingViews(eq(ACTIVE), any(OffsetDateTime.class), eq(user.getId()), eq(PageRequest.of(0, 3)));
+        verify(auctionRepository, never()).countByStatusAndEndTimeAfter(any(), any());
+        verifyNoMoreInteractions(auctionRepository);
+    }
+
+    @Test
+    void getActiveAuctionListings_afterCursor_seeksFromTheCursor() {
+        OffsetDateTime endTime = OffsetDateTime.parse("2024-03-01T10:15:30Z");
+        List<AuctionListingView> views = List.of(listingView(4, endTime));
+        when(auctionRepository.findListingViewsAfter(eq(ACTIVE), any(OffsetDateTime.class), eq(user.getId()), any(OffsetDateTime.class), eq(3), any(Pageable.class)))
+                .thenReturn(views);
+
+        KeysetRequest request = KeysetRequest.of(KeysetCursor.of(endTime, 3).encode(), null, 2);
+        KeysetSlice<AuctionListingView> slice = uut.getActiveAuctionListings(user.getId(), request);
+
+        assertEquals(views, slice.getContent());
+        assertTrue(slice.hasPrevious());
+        assertFalse(slice.hasNext());
+        ArgumentCaptor<OffsetDateTime> afterEndTimeCaptor = ArgumentCaptor.forClass(OffsetDateTime.class);
+        verify(auctionRepository, times(1)).findListingViewsAfter(eq(ACTIVE), any(OffsetDateTime.class), eq(user.getId()),
+                afterEndTimeCaptor.capture(), eq(3), any(Pageable.class));
+        assertTrue(endTime.isEqual(afterEndTimeCaptor.getValue()));
+        verify(auctionRepository, never()).findListingViews(any(), any(), any(), any());
+    }
+
+    @Test
+    void getActiveAuctionListings_beforeCursor_returnsTheRowsInListingOrder() {
+        OffsetDateTime endTime = OffsetDateTime.parse("2024-03-01T10:15:30Z");
+        AuctionListingView second = listingView(2, endTime);
+        AuctionListingView first = listingView(1, endTime);
+        when(auctionRepository.findListingViewsBefore(eq(ACTIVE), any(OffsetDateTime.class), eq(user.getId()), any(OffsetDateTime.class), eq(3), any(Pageable.class)))
+                .thenReturn(List.of(second, first));
+
+        KeysetRequest request = KeysetRequest.of(null, KeysetCursor.of(endTime, 3).encode(), 2);
+        KeysetSlice<AuctionListingView> slice = uut.getActiveAuctionListings(user.getId(), request);
+
+        assertEquals(List.of(first, second), slice.getContent());
+        assertFalse(slice.hasPrevious());
+        assertTrue(slice.hasNext());
+    }
+
+    @Test
+    void getActiveAuctionListingsByBodyType_foundAuctions_attachesTheApproximateTotalOfTheBodyType() {
+        OffsetDateTime endTime = OffsetDateTime.parse("2024-03-01T10:15:30Z");
+        List<AuctionListingView> views = List.of(listingView(1, endTime), listingView(2, endTime));
+        KeysetRequest request = KeysetRequest.first(1);
+        when(auctionRepository.findListingViewsOfCars(any(), eq(ACTIVE), any(OffsetDateTime.class), eq(request))).thenReturn(views);
+        when(listingStatistics.getActiveAuctionsWithBody("SUV")).thenReturn(42L);
+
+        KeysetSlice<AuctionListingView> slice = uut.getActiveAuctionListingsByBodyType("SUV", null, request);
+
+        assertEquals(views.subList(0, 1), slice.getContent());
+        assertTrue(slice.hasNext());
+        assertEquals(KeysetCursor.of(endTime, 1), KeysetCursor.decode(slice.getNextCursor()).orElseThrow());
+        assertEquals(42L, slice.getApproximateTotal());
+        verify(auctionRepository, never()).findListingViews(any(), any(), any(), any());
+        verify(listingStatistics, never()).getActiveAuctions();
+    }
+
+    @Test
+    void getActiveAuctionListingsByBodyType_filteredListing_attachesNoTotal() {
+        OffsetDateTime endTime = OffsetDateTime.parse("2024-03-01T10:15:30Z");
+        List<AuctionListingView> views = List.of(listingView(1, endTime));
+        KeysetRequest request = KeysetRequest.first(1);
+        when(auctionRepository.findListingViewsOfCars(any(), eq(ACTIVE), any(OffsetDateTime.class), eq(request))).thenReturn(views);
+        Specification<Car> carSpec = (root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("producer"), "BMW");
+
+        KeysetSlice<AuctionListingView> slice = uut.getActiveAuctionListingsByBodyType("SUV", carSpec, request);
+
+        assertEquals(views, slice.getContent());
+        assertNull(slice.getApproximateTotal());
+        verifyNoInteractions(listingStatistics);
+    }
+
+    @Test
+    void getActiveAuctionListingsByPrice_foundAuctions_returnsTheCheapestWithAPriceCursor() {
+        AuctionListingView cheapest = listingView(3, OffsetDateTime.parse("2024-03-01T10:15:30Z"));
+        when(cheapest.getCurrentPrice()).thenReturn(5500f);
+        AuctionListingView next = listingView(1, OffsetDateTime.parse("2024-03-01T10:15:30Z"));
+        List<AuctionListingView> views = List.of(cheapest, next);
+        KeysetRequest request = KeysetRequest.first(1);
+        when(auctionRepository.findListingViewsOfCarsByPrice(any(), eq(ACTIVE), any(OffsetDateTime.class), eq(user.getId()),
+                eq(5000f), eq(10000f), eq(request))).thenReturn(views);
+
+        KeysetSlice<AuctionListingView> slice = uut.getActiveAuctionListingsByPrice(user.getId(), Specification.where(null),
+                5000f, 10000f, request);
+
+        assertEquals(List.of(cheapest), slice.getContent());
+        assertTrue(slice.hasNext());
+        KeysetCursor nextCursor = KeysetCursor.decode(slice.getNextCursor()).orElseThrow();
+        assertEquals(KeysetCursor.of(5500f, 3), nextCursor);
+        assertEquals(5500f, nextCursor.keyAsPrice());
+        assertNull(slice.getApproximateTotal());
+        verify(listingStatistics, never()).getActiveAuctions();
     }
 
     @Test
@@ -132,16 +273,45 @@ class AuctionServiceTest {
         verify(auctionRepository, times(1)).findByUserId(anyInt());
     }
 
+    @Test
+    void getAuctionsByIds_unorderedResult_returnsTheAuctionsInTheOrderOfTheIds() {
+        Auction secondAuction = new Auction();
+        secondAuction.setId(2);
+        when(auctionRepository.findByIdIn(List.of(2, 1, 3))).thenReturn(List.of(auction, secondAuction));
+
+        List<Auction> actualAuctionList = uut.getAuctionsByIds(List.of(2, 1, 3));
+
+        assertEquals(List.of(secondAuction, auction), actualAuctionList);
+    }
+
+    @Test
+    void getAllAuctionsByUserIds_severalUsers_returnsTheAuctionsGroupedInTheOrderOfTheUsers() {
+        User otherUser = new User();
+        otherUser.setId(2);
+        Auction otherAuction = new Auction();
+        otherAuction.setId(2);
+        otherAuction.setUser(otherUser);
+        when(auctionRepository.findByUserIdIn(List.of(2, 1))).thenReturn(List.of(auction, otherAuction));
+
+        List<Auction> actualAuctionList = uut.getAllAuctionsByUserIds(List.of(2, 1));
+
+        assertEquals(List.of(otherAuction, auction), actualAuctionList);
+        verify(auctionRepository, times(1)).findByUserIdIn(anyList());
+        verify(auctionRepository, never()).findByUserId(anyInt());
+    }
+
     @Test
     void getTopBidAuctions_oneActiveAuctionFound_returnsSuccess() {
         auction.setStatus(ACTIVE);
-        when(auctionRepository.findAll()).thenReturn(expectedAuctionList);
+        when(topBidAuctionsCache.getTopBidAuctionIds(1)).thenReturn(List.of(auction.getId()));
+        when(auctionRepository.findByIdIn(List.of(auction.getId()))).thenReturn(expectedAuctionList);
 
         List<Auction> actualAuctionList = uut.getTopBidAuctions(1);
 
         assertNotNull(actualAuctionList);
         assertEquals(expectedAuctionList, actualAuctionList);
-        verify(auctionRepository, times(1)).findAll();
+        verify(topBidAuctionsCache, times(1)).getTopBidAuctionIds(1);
+        verify(auctionRepository, never()).findAll();
     }
 
     @Test
@@ -163,27 +333,189 @@ class AuctionServiceTest {
         List<Float> actualCarPage = uut.setCurrentPriceForEachCarPage(carPage);
 
         assertNotNull(actualCarPage);
+        verify(auctionRepository, never()).findCarPriceViewsByCarIdIn(anyCollection());
     }
 
     @Test
-    void updateAuctionCurrentPrice_foundAuction_returnsSuccess() {
-        when(auctionRepository.findById(anyInt())).thenReturn(Optional.of(auction));
-        when(auctionRepository.save(any(Auction.class))).thenReturn(auction);
+    void setCurrentPriceForEachCarPage_auctionedAndNotAuctionedCars_readsAllThePricesWithOneQuery() {
+        Car notAuctionedCar = new Car();
+        notAuctionedCar.setId(2);
+        Car auctionedCar = new Car();
+        auctionedCar.setId(3);
+        List<CarPriceView> priceViews = List.of(carPriceView(3, 4100f));
+        when(auctionRepository.findCarPriceViewsByCarIdIn(List.of(2, 3))).thenReturn(priceViews);
+
+        List<Float> actualPrices = uut.setCurrentPriceForEachCarPage(new PageImpl<>(List.of(notAuctionedCar, auctionedCar)));
+
+        assertEquals(List.of(0f, 4100f), actualPrices);
+        verify(auctionRepository, times(1)).findCarPriceViewsByCarIdIn(anyCollection());
+        verify(auctionRepository, never()).findByCarId(anyInt());
+    }
 
-        uut.updateAuctionCurrentPrice(auction.getId(), 3700, user.getId());
+    @Test
+    void updateAuctionCurrentPrice_foundAuction_returnsSuccess() throws LowBidAmountException {
+        AuctionPriceView priceView = priceView(3600f, 2);
+        when(auctionRepository.findPriceViewById(anyInt())).thenReturn(Optional.of(priceView));
+        when(auctionRepository.compareAndSetCurrentPrice(anyInt(), anyFloat(), anyInt(), anyFloat(), anyInt(), eq(ACTIVE), any(OffsetDateTime.class)))
+                .thenReturn(1);
+
+        Integer previousBuyerId = uut.updateAuctionCurrentPrice(auction.getId(), 3700, user.getId());
+
+        assertEquals(2, previousBuyerId);
+        verify(auctionRepository, times(1)).findPriceViewById(anyInt());
+        verify(auctionRepository, times(1))
+                .compareAndSetCurrentPrice(eq(auction.getId()), eq(3600f), eq(2), eq(3700f), eq(user.getId()), eq(ACTIVE), any(OffsetDateTime.class));
+        verify(auctionRepository, never()).save(any(Auction.class));
+    }
 
-        verify(auctionRepository, times(1)).findById(anyInt());
-        verify(auctionRepository, times(1)).save(any(Auction.class));
+    @Test
+    void updateAuctionCurrentPrice_auctionWithoutBids_expectsNoBuyer() throws LowBidAmountException {
+        AuctionPriceView priceView = priceView(3600f, null);
+        when(auctionRepository.findPriceViewById(anyInt())).thenReturn(Optional.of(priceView));
+        when(auctionRepository.compareAndSetCurrentPrice(anyInt(), anyFloat(), anyInt(), anyFloat(), anyInt(), eq(ACTIVE), any(OffsetDateTime.class)))
+                .thenReturn(1);
+
+        Integer previousBuyerId = uut.updateAuctionCurrentPrice(auction.getId(), 3600, user.getId());
+
+        assertNull(previousBuyerId);
+        verify(auctionRepository, times(1))
+                .compareAndSetCurrentPrice(eq(auction.getId()), eq(3600f), eq(0), eq(3600f), eq(user.getId()), eq(ACTIVE), any(OffsetDateTime.class));
+    }
+
+    @Test
+    void updateAuctionCurrentPrice_lowerAmount_throwsException() {
+        AuctionPriceView priceView = priceView(3600f, 2);
+        when(auctionRepository.findPriceViewById(anyInt())).thenReturn(Optional.of(priceView));
+
+        assertThrows(LowBidAmountException.class, () -> uut.updateAuctionCurrentPrice(auction.getId(), 3600, user.getId()));
+        verify(auctionRepository, never())
+                .compareAndSetCurrentPrice(anyInt(), anyFloat(), anyInt(), anyFloat(), anyInt(), any(AuctionStatus.class), any(OffsetDateTime.class));
+    }
+
+    @Test
+    void updateAuctionCurrentPrice_endedAuction_throwsException() {
+        AuctionPriceView endedAuction = priceView(3600f, 2);
+        when(endedAuction.getEndTime()).thenReturn(OffsetDateTime.now().minusMinutes(1));
+        when(auctionRepository.findPriceViewById(anyInt())).thenReturn(Optional.of(endedAuction));
+
+        assertThrows(LowBidAmountException.class, () -> uut.updateAuctionCurrentPrice(auction.getId(), 3700, user.getId()));
+    }
+
+    @Test
+    void updateAuctionCurrentPrice_concurrentHigherBid_retriesAndThrowsException() {
+        AuctionPriceView firstRead = priceView(3600f, 2);
+        AuctionPriceView secondRead = priceView(3800f, 3);
+        when(auctionRepository.findPriceViewById(anyInt())).thenReturn(Optional.of(firstRead), Optional.of(secondRead));
+        when(auctionRepository.compareAndSetCurrentPrice(anyInt(), anyFloat(), anyInt(), anyFloat(), anyInt(), eq(ACTIVE), any(OffsetDateTime.class)))
+                .thenReturn(0);
+
+        assertThrows(LowBidAmountException.class, () -> uut.updateAuctionCurrentPrice(auction.getId(), 3700, user.getId()));
+        verify(auctionRepository, times(2)).findPriceViewById(anyInt());
+        verify(auctionRepository, times(1))
+                .compareAndSetCurrentPrice(anyInt(), anyFloat(), anyInt(), anyFloat(), anyInt(), eq(ACTIVE), any(OffsetDateTime.class));
     }
 
     @Test
-    void manageFinishedAuctions() {
-        when(auctionRepository.findAll()).thenReturn(expectedAuctionList);
+    void updateAuctionCurrentPrice_thousandsOfConcurrentBids_keepsTheHighestBid() {
+        final int bidders = 8;
+        final int bidsPerBidder = 2_000;
+        AuctionRow row = new AuctionRow();
+        when(auctionRepository.findPriceViewById(anyInt())).thenAnswer(invocation -> Optional.of(row.read()));
+        when(auctionRepository.compareAndSetCurrentPrice(anyInt(), anyFloat(), anyInt(), anyFloat(), anyInt(), eq(ACTIVE), any(OffsetDateTime.class)))
+                .thenAnswer(invocation -> row.compareAndSet(invocation.getArgument(1), invocation.getArgument(2),
+                        invocation.getArgument(3), invocation.getArgument(4)));
+        AuctionService service = new AuctionServiceImpl(auctionRepository, userService, carService, auctionExpiryEngine, eventPublisher, topBidAuctionsCache, listingStatistics);
+        AtomicInteger acceptedBids = new AtomicInteger();
+
+        assertTimeout(Duration.ofSeconds(10), () -> {
+            ExecutorService executor = Executors.newFixedThreadPool(bidders);
+            for (int bidder = 1; bidder <= bidders; bidder++) {
+                final int bidderId = bidder;
+                executor.submit(() -> {
+                    for (int bid = 1; bid <= bidsPerBidder; bid++) {
+                        try {
+                            service.updateAuctionCurrentPrice(auction.getId(), bid * 10 + bidderId, bidderId);
+                            acceptedBids.incrementAndGet();
+                        } catch (LowBidAmountException e) {
+                            // overtaken by a higher bid
+                        }
+                    }
+                });
+            }
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        });
+
+        List<Float> appliedPrices = row.appliedPrices;
+        assertEquals(acceptedBids.get(), appliedPrices.size());
+        for (int i = 1; i < appliedPrices.size(); i++) {
+            assertTrue(appliedPrices.get(i) > appliedPrices.get(i - 1));
+        }
+        assertEquals((float) appliedPrices.get(appliedPrices.size() - 1), row.currentPrice);
+        assertEquals((int) row.currentPrice % 10, row.buyerId);
+    }
 
-        Page<Car> result = uut.manageFinishedAuctions(user, carPage);
+    private AuctionPriceView priceView(float currentPrice, Integer buyerId) {
+        AuctionPriceView priceView = mock(AuctionPriceView.class);
+        lenient().when(priceView.getCurrentPrice()).thenReturn(currentPrice);
+        lenient().when(priceView.getBuyerId()).thenReturn(buyerId);
+        lenient().when(priceView.getStatus()).thenReturn(ACTIVE);
+        lenient().when(priceView.getEndTime()).thenReturn(OffsetDateTime.now().plusMinutes(10));
+        return priceView;
+    }
 
-        assertSame(carPage, result);
-        verify(auctionRepository, times(1)).findAll();
+    private CarPriceView carPriceView(Integer carId, float currentPrice) {
+        CarPriceView carPriceView = mock(CarPriceView.class);
+        lenient().when(carPriceView.getCarId()).thenReturn(carId);
+        lenient().when(carPriceView.getCurrentPrice()).thenReturn(currentPrice);
+        return carPriceView;
+    }
+
+    /**
+     * Emulates the auction row, applying the compare-and-set updates atomically like the database does.
+     */
+    private static class AuctionRow {
+        private float currentPrice = 100f;
+        private Integer buyerId;
+        private final List<Float> appliedPrices = new ArrayList<>();
+
+        synchronized AuctionPriceView read() {
+            float price = currentPrice;
+            Integer buyer = buyerId;
+            return new AuctionPriceView() {
+                @Override
+                public float getCurrentPrice() {
+                    return price;
+                }
+
+                @Override
+                public Integer getBuyerId() {
+                    return buyer;
+                }
+
+                @Override
+                public AuctionStatus getStatus() {
+                    return ACTIVE;
+                }
+
+                @Override
+                public OffsetDateTime getEndTime() {
+                    return OffsetDateTime.MAX;
+                }
+            };
+        }
+
+        synchronized int compareAndSet(float expectedPrice, int expectedBuyerId, float newPrice, int newBuyerId) {
+            int actualBuyerId = buyerId == null ? 0 : buyerId;
+            if (currentPrice != expectedPrice || actualBuyerId != expectedBuyerId) {
+                return 0;
+            }
+
+            currentPrice = newPrice;
+            buyerId = newBuyerId;
+            appliedPrices.add(newPrice);
+            return 1;
+        }
     }
 
     @Test
@@ -260,4 +592,11 @@ class AuctionServiceTest {
         assertEquals(expectedAuctionList, actualAuctionList);
         verify(auctionRepository, times(1)).findByCarIn(any(List.class));
     }
-}
\ No newline at end of file
+
+    private static AuctionListingView listingView(int id, OffsetDateTime endTime) {
+        AuctionListingView view = mock(AuctionListingView.class);
+        lenient().when(view.getId()).thenReturn(id);
+        lenient().when(view.getEndTime()).thenReturn(endTime);
+        return view;
+    }
+}
@@ -0,0 +1,95 @@
+package com.auctions.hunters.service.auction;
+
+import com.auctions.hunters.config.ListingProperties;
+import com.auctions.hunters.model.projection.CarBodyCount;
+import com.auctions.hunters.repository.AuctionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static com.auctions.hunters.model.enums.AuctionStatus.ACTIVE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ListingStatisticsTest {
+
+    @Mock
+    private AuctionRepository auctionRepository;
+    @Mock
+    private ListingProperties listingProperties;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(auctionRepository.countByStatusAndEndTimeAfter(eq(ACTIVE), any(OffsetDateTime.class))).thenReturn(42L);
+        List<CarBodyCount> bodyCounts = List.of(bodyCount("SUV", 7), bodyCount(null, 2));
+        lenient().when(auctionRepository.findBodyCountsByStatusAndEndTimeAfter(eq(ACTIVE), any(OffsetDateTime.class))).thenReturn(bodyCounts);
+    }
+
+    @Test
+    void getActiveAuctions_withinTheTimeToLive_queriesOnce() {
+        ListingStatistics uut = statistics(60_000);
+
+        assertEquals(42, uut.getActiveAuctions());
+        assertEquals(42, uut.getActiveAuctions());
+
+        verify(auctionRepository, times(1)).countByStatusAndEndTimeAfter(eq(ACTIVE), any(OffsetDateTime.class));
+        assertEquals(1, uut.getHits());
+        assertEquals(1, uut.getMisses());
+    }
+
+    @Test
+    void getActiveAuctionsNotOwnedBy_loggedUser_subtractsHisRunningAuctions() {
+        when(auctionRepository.countByUserIdAndStatusAndEndTimeAfter(eq(1), eq(ACTIVE), any(OffsetDateTime.class))).thenReturn(2L);
+        ListingStatistics uut = statistics(60_000);
+
+        assertEquals(40, uut.getActiveAuctionsNotOwnedBy(1));
+        assertEquals(42, uut.getActiveAuctionsNotOwnedBy(null));
+
+        verify(auctionRepository, times(1)).countByStatusAndEndTimeAfter(eq(ACTIVE), any(OffsetDateTime.class));
+        verify(auctionRepository, times(1)).countByUserIdAndStatusAndEndTimeAfter(eq(1), eq(ACTIVE), any(OffsetDateTime.class));
+    }
+
+    @Test
+    void getActiveAuctionsWithBody_anyBody_readsAllTheCountsOnce() {
+        ListingStatistics uut = statistics(60_000);
+
+        assertEquals(7, uut.getActiveAuctionsWithBody("SUV"));
+        assertEquals(0, uut.getActiveAuctionsWithBody("Coupe"));
+
+        verify(auctionRepository, times(1)).findBodyCountsByStatusAndEndTimeAfter(eq(ACTIVE), any(OffsetDateTime.class));
+    }
+
+    @Test
+    void getActiveAuctions_expiredOrInvalidatedEntry_queriesAgain() {
+        ListingStatistics uut = statistics(0);
+        uut.getActiveAuctions();
+        uut.getActiveAuctions();
+
+        ListingStatistics cached = statistics(60_000);
+        cached.getActiveAuctions();
+        cached.invalidate();
+        cached.getActiveAuctions();
+
+        verify(auctionRepository, times(4)).countByStatusAndEndTimeAfter(eq(ACTIVE), any(OffsetDateTime.class));
+    }
+
+    private ListingStatistics statistics(long ttlMillis) {
+        when(listingProperties.getStatisticsTtlMillis()).thenReturn(ttlMillis);
+        return new ListingStatistics(auctionRepository, listingProperties);
+    }
+
+    private static CarBodyCount bodyCount(String body, long cars) {
+        CarBodyCount bodyCount = mock(CarBodyCount.class);
+        lenient().when(bodyCount.getBody()).thenReturn(body);
+        lenient().when(bodyCount.getCars()).thenReturn(cars);
+        return bodyCount;
+    }
+}
@@ -0,0 +1,86 @@
+package com.auctions.hunters.service.auction;
+
+import com.auctions.hunters.config.TopBidAuctionsProperties;
+import com.auctions.hunters.repository.AuctionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static com.auctions.hunters.model.enums.AuctionStatus.ACTIVE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+@ExtendWith(MockitoExtension.class)
+class TopBidAuctionsCacheTest {
+
+    @Mock
+    private AuctionRepository auctionRepository;
+    @Mock
+    private TopBidAuctionsProperties topBidAuctionsProperties;
+
+    @BeforeEach
+    void setUp() {
+        openMocks(this);
+        lenient().when(auctionRepository.findTopBidAuctionIds(eq(ACTIVE), any(OffsetDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(3, 1));
+    }
+
+    @Test
+    void getTopBidAuctionIds_withinTheTimeToLive_queriesOnce() {
+        TopBidAuctionsCache uut = cache(60_000);
+
+        assertEquals(List.of(3, 1), uut.getTopBidAuctionIds(2));
+        assertEquals(List.of(3, 1), uut.getTopBidAuctionIds(2));
+
+        verify(auctionRepository, times(1)).findTopBidAuctionIds(eq(ACTIVE), any(OffsetDateTime.class), eq(PageRequest.of(0, 2)));
+        assertEquals(1, uut.getHits());
+        assertEquals(1, uut.getMisses());
+    }
+
+    @Test
+    void getTopBidAuctionIds_otherLimit_queriesAgain() {
+        TopBidAuctionsCache uut = cache(60_000);
+
+        uut.getTopBidAuctionIds(2);
+        uut.getTopBidAuctionIds(4);
+
+        verify(auctionRepository, times(1)).findTopBidAuctionIds(eq(ACTIVE), any(OffsetDateTime.class), eq(PageRequest.of(0, 4)));
+        assertEquals(2, uut.getMisses());
+    }
+
+    @Test
+    void getTopBidAuctionIds_expiredEntry_queriesAgain() {
+        TopBidAuctionsCache uut = cache(0);
+
+        uut.getTopBidAuctionIds(2);
+        uut.getTopBidAuctionIds(2);
+
+        verify(auctionRepository, times(2)).findTopBidAuctionIds(eq(ACTIVE), any(OffsetDateTime.class), any(Pageable.class));
+    }
+
+    @Test
+    void onAuctionsClosed_dropsTheCachedIds() {
+        TopBidAuctionsCache uut = cache(60_000);
+        uut.getTopBidAuctionIds(2);
+
+        uut.onAuctionsClosed(new AuctionsClosedEvent(List.of(3)));
+        uut.getTopBidAuctionIds(2);
+
+        verify(auctionRepository, times(2)).findTopBidAuctionIds(eq(ACTIVE), any(OffsetDateTime.class), any(Pageable.class));
+    }
+
+    private TopBidAuctionsCache cache(long ttlMillis) {
+        when(topBidAuctionsProperties.getCacheTtlMillis()).thenReturn(ttlMillis);
+        return new TopBidAuctionsCache(auctionRepository, topBidAuctionsProperties);
+    }
+}
@@ -0,0 +1,197 @@
+package com.auctions.hunters.service.bid;
+
+import com.auctions.hunters.config.LiveAuctionProperties;
+import com.auctions.hunters.exceptions.LowBidAmountException;
+import com.auctions.hunters.model.Auction;
+import com.auctions.hunters.model.Bid;
+import com.auctions.hunters.model.User;
+import com.auctions.hunters.repository.AuctionRepository;
+import com.auctions.hunters.repository.BidRepository;
+import com.auctions.hunters.repository.UserRepository;
+import com.auctions.hunters.service.auction.AuctionExpiryEngine;
+import com.auctions.hunters.service.auction.AuctionService;
+import com.auctions.hunters.service.auction.AuctionServiceImpl;
+import com.auctions.hunters.service.auction.ListingStatistics;
+import com.auctions.hunters.service.auction.TopBidAuctionsCache;
+import com.auctions.hunters.service.car.CarService;
+import com.auctions.hunters.service.confirmationtoken.ConfirmationTokenService;
+import com.auctions.hunters.service.role.RoleService;
+import com.auctions.hunters.service.user.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.auctions.hunters.model.enums.AuctionStatus.ACTIVE;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Compares the throughput of concurrent bids on one auction through the compare-and-set path of
+ * {@link BidServiceImpl#save} and through the {@link LiveAuctionEngine}, both saving their bids in the embedded
+ * database of the tests. The throughputs are logged, the assertions only check that the saved bids agree with the
+ * final price of their auction.
+ */
+@Tag("benchmark")
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BidPlacementThroughputTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BidPlacementThroughputTest.class);
+    private static final int BIDDERS = 16;
+    private static final int BIDS_PER_BIDDER = 500;
+    private static final ThreadLocal<User> BIDDER = new ThreadLocal<>();
+
+    @Autowired
+    private AuctionRepository auctionRepository;
+    @Autowired
+    private BidRepository bidRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    //needed by the application class, which inserts the administrator at startup
+    @MockBean
+    private UserService userService;
+    @MockBean
+    private RoleService roleService;
+    @MockBean
+    private ConfirmationTokenService confirmationTokenService;
+
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final List<User> bidders = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int bidder = 0; bidder < BIDDERS; bidder++) {
+            bidders.add(userRepository.save(new User("bidder" + bidder, "password", "bidder" + bidder + "@mail.com",
+                    "Caracal", "1234567890", new HashSet<>())));
+        }
+        when(userService.getLoggedUsername()).thenAnswer(invocation -> BIDDER.get().getUsername());
+        when(userService.findByUsername(anyString())).thenAnswer(invocation -> BIDDER.get());
+    }
+
+    @Test
+    void save_concurrentBidders_comparedWithTheLiveAuctionEngine() throws InterruptedException {
+        AuctionService auctionService = new AuctionServiceImpl(auctionRepository, userService, mock(CarService.class),
+                mock(AuctionExpiryEngine.class), eventPublisher, mock(TopBidAuctionsCache.class), mock(ListingStatistics.class));
+        Auction compareAndSetAuction = saveAuction();
+        BidService compareAndSetPath = new BidServiceImpl(bidRepository, userService, auctionService, eventPublisher,
+                transactionManager, liveAuctionEngine(null));
+        Run compareAndSetRun = placeBids(compareAndSetPath, compareAndSetAuction);
+
+        LiveAuctionEngine engine = new LiveAuctionEngine(auctionRepository, bidRepository, liveAuctionProperties(),
+                transactionManager, eventPublisher);
+        engine.start();
+        Auction liveAuction = saveAuction();
+        Run liveRun;
+        try {
+            BidService livePath = new BidServiceImpl(bidRepository, userService, auctionService, eventPublisher,
+                    transactionManager, liveAuctionEngine(engine));
+            liveRun = placeBids(livePath, liveAuction);
+        } finally {
+            engine.stop();
+        }
+
+        LOGGER.info("{} bidders placed {} bids/s through the compare-and-set path, {} accepted.",
+                BIDDERS, compareAndSetRun.bidsPerSecond(), compareAndSetRun.acceptedBids());
+        LOGGER.info("{} bidders placed {} bids/s through the live auction engine, {} accepted.",
+                BIDDERS, liveRun.bidsPerSecond(), liveRun.acceptedBids());
+        assertSavedBidsMatchThePrice(compareAndSetAuction, compareAndSetRun);
+        assertSavedBidsMatchThePrice(liveAuction, liveRun);
+    }
+
+    /**
+     * Every bidder places increasing bids, interleaved with the bids of the other ones.
+     */
+    private Run placeBids(BidService bidService, Auction auction) throws InterruptedException {
+        AtomicInteger acceptedBids = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(BIDDERS);
+
+        long start = System.nanoTime();
+        for (int bidder = 0; bidder < BIDDERS; bidder++) {
+            User user = bidders.get(bidder);
+            int bidderIndex = bidder;
+            executor.submit(() -> {
+                BIDDER.set(user);
+                for (int bid = 1; bid <= BIDS_PER_BIDDER; bid++) {
+                    try {
+                        bidService.save(100 + bid * BIDDERS + bidderIndex, auction);
+                        acceptedBids.incrementAndGet();
+                    } catch (LowBidAmountException e) {
+                        // overtaken by a higher bid
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.MINUTES));
+        long elapsedNanos = System.nanoTime() - start;
+
+        return new Run(acceptedBids.get(), BIDDERS * BIDS_PER_BIDDER * 1e9 / elapsedNanos);
+    }
+
+    private void assertSavedBidsMatchThePrice(Auction auction, Run run) {
+        List<Bid> savedBids = bidders.stream()
+                .flatMap(bidder -> bidRepository.findUserBidsForAuction(bidder, auction.getId()).stream())
+                .toList();
+        double highestBid = savedBids.stream()
+                .mapToDouble(Bid::getAmount)
+                .max()
+                .orElseThrow();
+
+        assertEquals(run.acceptedBids(), savedBids.size());
+        assertEquals((float) highestBid, auctionRepository.findPriceViewById(auction.getId()).orElseThrow().getCurrentPrice());
+    }
+
+    private Auction saveAuction() {
+        OffsetDateTime now = OffsetDateTime.now();
+        return auctionRepository.save(Auction.builder()
+                .minimumPrice(100)
+                .startingPrice(100)
+                .currentPrice(100)
+                .startTime(now)
+                .endTime(now.plusHours(1))
+                .status(ACTIVE)
+                .build());
+    }
+
+    private static LiveAuctionProperties liveAuctionProperties() {
+        LiveAuctionProperties liveAuctionProperties = mock(LiveAuctionProperties.class);
+        when(liveAuctionProperties.getLanes()).thenReturn(4);
+        when(liveAuctionProperties.getFlushBatchSize()).thenReturn(500);
+        when(liveAuctionProperties.getFlushIntervalMillis()).thenReturn(5L);
+        return liveAuctionProperties;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ObjectProvider<LiveAuctionEngine> liveAuctionEngine(LiveAuctionEngine engine) {
+        ObjectProvider<LiveAuctionEngine> liveAuctionEngine = mock(ObjectProvider.class);
+        when(liveAuctionEngine.getIfAvailable()).thenReturn(engine);
+        return liveAuctionEngine;
+    }
+
+    private record Run(int acceptedBids, double bidsPerSecond) {
+    }
+}
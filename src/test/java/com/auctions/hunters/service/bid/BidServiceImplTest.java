@@ -6,12 +6,16 @@ import com.auctions.hunters.model.Bid;
 import com.auctions.hunters.model.User;
 import com.auctions.hunters.repository.BidRepository;
 import com.auctions.hunters.service.auction.AuctionService;
+import com.auctions.hunters.service.notification.OutbidEvent;
 import com.auctions.hunters.service.user.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.HashSet;
 import java.util.List;
@@ -32,6 +36,12 @@ class BidServiceImplTest {
     @Mock
     private AuctionService auctionService;
     @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private ObjectProvider<LiveAuctionEngine> liveAuctionEngine;
+    @Mock
     private Bid bid;
 
     private BidService uut;
@@ -43,7 +53,7 @@ class BidServiceImplTest {
     @BeforeEach
     void setUp() {
         openMocks(this);
-        uut = spy(new BidServiceImpl(bidRepository, userService, auctionService));
+        uut = spy(new BidServiceImpl(bidRepository, userService, auctionService, eventPublisher, transactionManager, liveAuctionEngine));
 
         user = new User();
         user.setId(1);
@@ -62,7 +72,7 @@ class BidServiceImplTest {
         int actualAuctionPrice = 120;
         when(userService.getLoggedUsername()).thenReturn(user.getUsername());
         when(userService.findByUsername(anyString())).thenReturn(user);
-        doNothing().when(auctionService).updateAuctionCurrentPrice(anyInt(), anyFloat(), anyInt());
+        when(auctionService.updateAuctionCurrentPrice(anyInt(), anyFloat(), anyInt())).thenReturn(null);
         when(bidRepository.save(any(Bid.class))).thenReturn(bid);
 
         Bid actualBid = uut.save(actualAuctionPrice, auction);
@@ -73,6 +83,49 @@ class BidServiceImplTest {
         assertEquals(actualBid.getUser(), bid.getUser());
     }
 
+    @Test
+    void save_previousLeaderOvertaken_publishesOutbidEvent() throws LowBidAmountException {
+        int actualAuctionPrice = 120;
+        when(userService.getLoggedUsername()).thenReturn(user.getUsername());
+        when(userService.findByUsername(anyString())).thenReturn(user);
+        when(auctionService.updateAuctionCurrentPrice(anyInt(), anyFloat(), anyInt())).thenReturn(2);
+        when(bidRepository.save(any(Bid.class))).thenReturn(bid);
+
+        uut.save(actualAuctionPrice, auction);
+
+        verify(eventPublisher, times(1)).publishEvent(new OutbidEvent(2, auction.getId()));
+    }
+
+    @Test
+    void save_leaderRaisesOwnBid_doesNotPublishOutbidEvent() throws LowBidAmountException {
+        int actualAuctionPrice = 120;
+        when(userService.getLoggedUsername()).thenReturn(user.getUsername());
+        when(userService.findByUsername(anyString())).thenReturn(user);
+        when(auctionService.updateAuctionCurrentPrice(anyInt(), anyFloat(), anyInt())).thenReturn(user.getId());
+        when(bidRepository.save(any(Bid.class))).thenReturn(bid);
+
+        uut.save(actualAuctionPrice, auction);
+
+        verify(eventPublisher, never()).publishEvent(any(OutbidEvent.class));
+    }
+
+    @Test
+    void save_bidSaved_publishesBidPlacedEvent() throws LowBidAmountException {
+        int actualAuctionPrice = 120;
+        User owner = new User();
+        owner.setId(3);
+        auction.setUser(owner);
+        when(userService.getLoggedUsername()).thenReturn(user.getUsername());
+        when(userService.findByUsername(anyString())).thenReturn(user);
+        when(auctionService.updateAuctionCurrentPrice(anyInt(), anyFloat(), anyInt())).thenReturn(null);
+        when(bidRepository.save(any(Bid.class))).thenReturn(bid);
+        when(bid.getId()).thenReturn(10);
+
+        uut.save(actualAuctionPrice, auction);
+
+        verify(eventPublisher, times(1)).publishEvent(new BidPlacedEvent(10, auction.getId(), owner.getId(), user.getId()));
+    }
+
     @Test
     void save_bidWithLowerAmount_throwsException() {
         int actualAuctionPrice = 100;
@@ -80,6 +133,37 @@ class BidServiceImplTest {
         assertThrows(LowBidAmountException.class, () -> uut.save(actualAuctionPrice, auction));
     }
 
+    @Test
+    void save_bidOvertakenByConcurrentBid_doesNotSaveTheBid() throws LowBidAmountException {
+        int actualAuctionPrice = 120;
+        when(userService.getLoggedUsername()).thenReturn(user.getUsername());
+        when(userService.findByUsername(anyString())).thenReturn(user);
+        when(auctionService.updateAuctionCurrentPrice(anyInt(), anyFloat(), anyInt()))
+                .thenThrow(new LowBidAmountException("120.0 bid amount is not higher than 130.0."));
+
+        assertThrows(LowBidAmountException.class, () -> uut.save(actualAuctionPrice, auction));
+
+        verify(bidRepository, never()).save(any(Bid.class));
+        verify(transactionManager, times(1)).rollback(any());
+    }
+
+    @Test
+    void save_liveAuctionEngineEnabled_placesTheBidOutsideOfATransaction() throws LowBidAmountException {
+        int actualAuctionPrice = 120;
+        LiveAuctionEngine engine = mock(LiveAuctionEngine.class);
+        when(liveAuctionEngine.getIfAvailable()).thenReturn(engine);
+        uut = new BidServiceImpl(bidRepository, userService, auctionService, eventPublisher, transactionManager, liveAuctionEngine);
+        when(userService.getLoggedUsername()).thenReturn(user.getUsername());
+        when(userService.findByUsername(anyString())).thenReturn(user);
+        when(engine.placeBid(auction, user, actualAuctionPrice)).thenReturn(bid);
+
+        Bid actualBid = uut.save(actualAuctionPrice, auction);
+
+        assertEquals(bid, actualBid);
+        verifyNoInteractions(transactionManager, bidRepository);
+        verify(auctionService, never()).updateAuctionCurrentPrice(anyInt(), anyFloat(), anyInt());
+    }
+
     @Test
     void findAuctionsByUser() {
         when(bidRepository.findAuctionsByUser(user)).thenReturn(expectedAuctionList);
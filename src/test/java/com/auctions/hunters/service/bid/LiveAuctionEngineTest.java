@@ -0,0 +1,206 @@
+package com.auctions.hunters.service.bid;
+
+import com.auctions.hunters.config.LiveAuctionProperties;
+import com.auctions.hunters.exceptions.LowBidAmountException;
+import com.auctions.hunters.model.Auction;
+import com.auctions.hunters.model.Bid;
+import com.auctions.hunters.model.User;
+import com.auctions.hunters.model.projection.AuctionPriceView;
+import com.auctions.hunters.repository.AuctionRepository;
+import com.auctions.hunters.repository.BidRepository;
+import com.auctions.hunters.service.notification.OutbidEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.auctions.hunters.model.enums.AuctionStatus.ACTIVE;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+@ExtendWith(MockitoExtension.class)
+class LiveAuctionEngineTest {
+
+    @Mock
+    private AuctionRepository auctionRepository;
+    @Mock
+    private BidRepository bidRepository;
+    @Mock
+    private LiveAuctionProperties liveAuctionProperties;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private LiveAuctionEngine uut;
+
+    private Auction auction;
+    private User firstUser;
+    private User secondUser;
+
+    @BeforeEach
+    void setUp() {
+        openMocks(this);
+        lenient().when(liveAuctionProperties.getLanes()).thenReturn(4);
+        lenient().when(liveAuctionProperties.getFlushBatchSize()).thenReturn(500);
+        lenient().when(liveAuctionProperties.getFlushIntervalMillis()).thenReturn(1L);
+        lenient().when(auctionRepository.raiseCurrentPrice(anyInt(), anyFloat(), anyInt(), anyFloat(), anyInt(), eq(ACTIVE), any(OffsetDateTime.class)))
+                .thenReturn(1);
+
+        uut = new LiveAuctionEngine(auctionRepository, bidRepository, liveAuctionProperties, transactionManager, eventPublisher);
+        uut.start();
+
+        auction = new Auction();
+        auction.setId(1);
+
+        firstUser = new User();
+        firstUser.setId(1);
+        secondUser = new User();
+        secondUser.setId(2);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        uut.stop();
+    }
+
+    @Test
+    void placeBid_higherAmounts_acceptsThemOnceSaved() throws LowBidAmountException {
+        AuctionPriceView priceView = priceView(OffsetDateTime.now().plusMinutes(10));
+        when(auctionRepository.findPriceViewById(auction.getId())).thenReturn(Optional.of(priceView));
+
+        Bid firstBid = uut.placeBid(auction, firstUser, 110);
+        Bid secondBid = uut.placeBid(auction, secondUser, 120);
+        assertThrows(LowBidAmountException.class, () -> uut.placeBid(auction, firstUser, 115));
+
+        assertEquals(110, firstBid.getAmount());
+        assertEquals(120, secondBid.getAmount());
+        assertEquals(2, uut.getAcceptedBids());
+        assertEquals(1, uut.getRejectedBids());
+        assertEquals(2, uut.getPersistedBids());
+        assertEquals(0, uut.getPendingBids());
+        verify(auctionRepository, times(1)).findPriceViewById(auction.getId());
+        verify(auctionRepository, times(1)).raiseCurrentPrice(eq(auction.getId()), eq(100f), eq(0), eq(110f), eq(firstUser.getId()), eq(ACTIVE), any(OffsetDateTime.class));
+        verify(auctionRepository, times(1)).raiseCurrentPrice(eq(auction.getId()), eq(110f), eq(firstUser.getId()), eq(120f), eq(secondUser.getId()), eq(ACTIVE), any(OffsetDateTime.class));
+        verify(auctionRepository, times(2)).incrementBidCount(auction.getId(), 1);
+        InOrder inOrder = inOrder(bidRepository, eventPublisher);
+        inOrder.verify(bidRepository, times(1)).saveAll(List.of(secondBid));
+        inOrder.verify(eventPublisher, times(1)).publishEvent(new OutbidEvent(firstUser.getId(), auction.getId()));
+    }
+
+    @Test
+    void placeBid_endedAuction_throwsException() {
+        AuctionPriceView priceView = priceView(OffsetDateTime.now().minusMinutes(1));
+        when(auctionRepository.findPriceViewById(auction.getId())).thenReturn(Optional.of(priceView));
+
+        assertThrows(LowBidAmountException.class, () -> uut.placeBid(auction, firstUser, 110));
+        assertEquals(0, uut.flush());
+        verifyNoInteractions(bidRepository);
+    }
+
+    @Test
+    void placeBid_auctionChangedBeforeTheBidWasSaved_rejectsTheBidAndReloadsTheAuction() {
+        AuctionPriceView priceView = priceView(OffsetDateTime.now().plusMinutes(10));
+        AuctionPriceView changedPriceView = priceView(OffsetDateTime.now().plusMinutes(10));
+        when(changedPriceView.getCurrentPrice()).thenReturn(130f);
+        when(changedPriceView.getBuyerId()).thenReturn(3);
+        when(auctionRepository.findPriceViewById(auction.getId())).thenReturn(Optional.of(priceView), Optional.of(changedPriceView));
+        when(auctionRepository.raiseCurrentPrice(eq(auction.getId()), eq(100f), eq(0), eq(110f), eq(firstUser.getId()), eq(ACTIVE), any(OffsetDateTime.class)))
+                .thenReturn(0);
+
+        assertThrows(LowBidAmountException.class, () -> uut.placeBid(auction, firstUser, 110));
+        assertThrows(LowBidAmountException.class, () -> uut.placeBid(auction, secondUser, 120));
+
+        assertEquals(1, uut.getConflictedBids());
+        assertEquals(1, uut.getRejectedBids());
+        assertEquals(0, uut.getPersistedBids());
+        verify(auctionRepository, times(2)).findPriceViewById(auction.getId());
+        verifyNoInteractions(bidRepository, eventPublisher);
+        verify(auctionRepository, never()).incrementBidCount(anyInt(), anyInt());
+    }
+
+    @Test
+    void placeBid_databaseFailure_rejectsTheBidsOfTheBatch() {
+        AuctionPriceView priceView = priceView(OffsetDateTime.now().plusMinutes(10));
+        when(auctionRepository.findPriceViewById(auction.getId())).thenReturn(Optional.of(priceView));
+        when(bidRepository.saveAll(anyList())).thenThrow(new IllegalStateException("connection lost"));
+
+        assertThrows(IllegalStateException.class, () -> uut.placeBid(auction, firstUser, 110));
+
+        assertEquals(0, uut.getPendingBids());
+        assertEquals(0, uut.getPersistedBids());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void placeBid_thousandsOfConcurrentBids_persistsTheBidsInAcceptanceOrder() {
+        final int bidders = 16;
+        final int bidsPerBidder = 1_000;
+        AuctionPriceView priceView = priceView(OffsetDateTime.now().plusMinutes(10));
+        when(auctionRepository.findPriceViewById(auction.getId())).thenReturn(Optional.of(priceView));
+        List<Bid> persistedBids = new ArrayList<>();
+        when(bidRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Bid> batch = invocation.getArgument(0);
+            persistedBids.addAll(batch);
+            return batch;
+        });
+        AtomicInteger acceptedBids = new AtomicInteger();
+
+        assertTimeout(Duration.ofSeconds(30), () -> {
+            ExecutorService executor = Executors.newFixedThreadPool(bidders);
+            for (int bidder = 1; bidder <= bidders; bidder++) {
+                User user = new User();
+                user.setId(bidder);
+                final int bidderId = bidder;
+                executor.submit(() -> {
+                    for (int bid = 1; bid <= bidsPerBidder; bid++) {
+                        try {
+                            uut.placeBid(auction, user, 100 + bid * 100 + bidderId);
+                            acceptedBids.incrementAndGet();
+                        } catch (LowBidAmountException e) {
+                            // overtaken by a higher bid
+                        }
+                    }
+                });
+            }
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        });
+
+        assertEquals(bidders * bidsPerBidder, uut.getAcceptedBids() + uut.getRejectedBids());
+        assertEquals(acceptedBids.get(), persistedBids.size());
+        assertEquals(acceptedBids.get(), uut.getPersistedBids());
+        for (int i = 1; i < persistedBids.size(); i++) {
+            assertTrue(persistedBids.get(i).getAmount() > persistedBids.get(i - 1).getAmount());
+        }
+        Bid highestBid = persistedBids.get(persistedBids.size() - 1);
+        ArgumentCaptor<Float> priceCaptor = ArgumentCaptor.forClass(Float.class);
+        verify(auctionRepository, atLeastOnce()).raiseCurrentPrice(eq(auction.getId()), anyFloat(), anyInt(), priceCaptor.capture(), anyInt(), eq(ACTIVE), any(OffsetDateTime.class));
+        assertEquals((float) highestBid.getAmount(), priceCaptor.getValue());
+    }
+
+    private AuctionPriceView priceView(OffsetDateTime endTime) {
+        AuctionPriceView priceView = mock(AuctionPriceView.class);
+        lenient().when(priceView.getCurrentPrice()).thenReturn(100f);
+        lenient().when(priceView.getStatus()).thenReturn(ACTIVE);
+        lenient().when(priceView.getEndTime()).thenReturn(endTime);
+        return priceView;
+    }
+}
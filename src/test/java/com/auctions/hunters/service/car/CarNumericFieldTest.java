@@ -0,0 +1,38 @@
+package com.auctions.hunters.service.car;
+
+import com.auctions.hunters.model.Car;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CarNumericFieldTest {
+
+    @Test
+    void parse_decodedTexts_returnsTheirFirstNumber() {
+        assertEquals(2016, CarNumericField.parse("2016"));
+        assertEquals(1968, CarNumericField.parse("1968.0"));
+        assertEquals(150, CarNumericField.parse(" 150 HP"));
+        assertNull(CarNumericField.parse("N/A"));
+        assertNull(CarNumericField.parse(null));
+    }
+
+    @Test
+    void fillValues_decodedCar_setsTheTypedAttributes() {
+        Car car = Car.builder()
+                .modelYear("2018")
+                .enginePower("190")
+                .engineDisplacement("1995")
+                .maxSpeed("235")
+                .build();
+
+        CarNumericField.fillValues(car);
+
+        assertEquals(2018, car.getModelYearValue());
+        assertEquals(190, car.getEnginePowerValue());
+        assertEquals(1995, car.getEngineDisplacementValue());
+        assertEquals(235, car.getMaxSpeedValue());
+        assertNull(car.getEmptyWeightValue());
+        assertEquals(2018, CarNumericField.MODEL_YEAR.valueOf(car));
+    }
+}
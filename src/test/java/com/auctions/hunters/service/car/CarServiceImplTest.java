@@ -6,9 +6,14 @@ import com.auctions.hunters.model.User;
 import com.auctions.hunters.repository.CarRepository;
 import com.auctions.hunters.service.car.vincario.VinDecoderService;
 import com.auctions.hunters.service.user.UserService;
+import com.auctions.hunters.utils.KeysetCursor;
+import com.auctions.hunters.utils.KeysetRequest;
+import com.auctions.hunters.utils.KeysetSlice;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 
 import java.util.Collections;
 import java.util.List;
@@ -19,6 +24,7 @@ import static com.auctions.hunters.model.enums.CarStatus.NOT_AUCTIONED;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.mockito.MockitoAnnotations.openMocks;
 
@@ -30,6 +36,8 @@ class CarServiceImplTest {
     private UserService userService;
     @Mock
     private VinDecoderService vinDecoderService;
+    @Mock
+    private CarTextIndex carTextIndex;
 
     private CarService uut;
 
@@ -39,7 +47,7 @@ class CarServiceImplTest {
     @BeforeEach
     void setUp() {
         openMocks(this);
-        uut = spy(new CarServiceImpl(carRepository, userService, vinDecoderService));
+        uut = spy(new CarServiceImpl(carRepository, userService, vinDecoderService, carTextIndex));
 
         car = new Car();
         car.setId(1);
@@ -60,6 +68,7 @@ class CarServiceImplTest {
         verify(carRepository, times(1)).findCarByVin(anyString());
         verify(vinDecoderService, times(1)).decodeVin(anyString());
         verify(carRepository, times(1)).save(any(Car.class));
+        verify(carTextIndex, times(1)).add(car);
     }
 
     @Test
@@ -79,6 +88,7 @@ class CarServiceImplTest {
         uut.deleteById(1);
 
         verify(carRepository, times(1)).findById(anyInt());
+        verify(carTextIndex, times(1)).remove(car);
     }
 
     @Test
@@ -88,6 +98,7 @@ class CarServiceImplTest {
         assertThrows(IllegalArgumentException.class, () -> uut.deleteById(1));
 
         verify(carRepository, times(1)).findById(anyInt());
+        verify(carTextIndex, never()).remove(any(Car.class));
     }
 
     @Test
@@ -188,16 +199,36 @@ class CarServiceImplTest {
         verify(carRepository, times(1)).findAllByIdIn(anyList());
     }
 
+
+    @Test
+    void getCarSlice_moreCarsThanTheSize_readsOneExtraRowInAscendingOrder() {
+        Car secondCar = new Car();
+        secondCar.setId(2);
+        Car thirdCar = new Car();
+        thirdCar.setId(3);
+        when(carRepository.findSlice(any(), any(Sort.class), eq(3))).thenReturn(List.of(car, secondCar, thirdCar));
+
+        KeysetSlice<Car> actualSlice = uut.getCarSlice(Specification.where(null), KeysetRequest.first(2));
+
+        assertEquals(List.of(car, secondCar), actualSlice.getContent());
+        assertFalse(actualSlice.hasPrevious());
+        assertTrue(actualSlice.hasNext());
+        assertEquals(KeysetCursor.of(2).encode(), actualSlice.getNextCursor());
+        assertNull(actualSlice.getApproximateTotal());
+        verify(carRepository, times(1)).findSlice(any(), eq(Sort.by(Sort.Direction.ASC, "id")), eq(3));
+    }
+
     @Test
-    void getAllCarsByBodyType_foundCarByBodyType_returnsSuccess() {
-        final String bodyType = "Sedan/Saloon";
-        when(carRepository.findByBody(anyString())).thenReturn(Collections.singletonList(car));
+    void getCarSlice_backwardsFromTheEnd_readsInDescendingOrderAndReversesTheRows() {
+        Car secondCar = new Car();
+        secondCar.setId(2);
+        when(carRepository.findSlice(any(), any(Sort.class), eq(3))).thenReturn(List.of(secondCar, car));
 
-        List<Car> actualCarList = uut.getAllCarsByBodyType(bodyType);
+        KeysetSlice<Car> actualSlice = uut.getCarSlice(Specification.where(null), new KeysetRequest(KeysetCursor.END, true, 2));
 
-        assertNotNull(actualCarList);
-        assertFalse(actualCarList.isEmpty());
-        assertEquals(car, actualCarList.get(0));
-        verify(carRepository, times(1)).findByBody(anyString());
+        assertEquals(List.of(car, secondCar), actualSlice.getContent());
+        assertFalse(actualSlice.hasPrevious());
+        assertFalse(actualSlice.hasNext());
+        verify(carRepository, times(1)).findSlice(any(), eq(Sort.by(Sort.Direction.DESC, "id")), eq(3));
     }
-}
\ No newline at end of file
+}
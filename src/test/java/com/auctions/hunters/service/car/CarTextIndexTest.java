@@ -0,0 +1,241 @@
+package com.auctions.hunters.service.car;
+
+import com.auctions.hunters.config.SearchProperties;
+import com.auctions.hunters.model.Car;
+import com.auctions.hunters.model.projection.CarValueCount;
+import com.auctions.hunters.repository.CarRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CarTextIndexTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CarTextIndexTest.class);
+
+    @Mock
+    private CarRepository carRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private SearchProperties searchProperties;
+
+    private CarTextIndex uut;
+
+    @BeforeEach
+    void setUp() {
+        when(searchProperties.getMaxEdits()).thenReturn(2);
+        when(searchProperties.getMinPrefixLength()).thenReturn(2);
+        lenient().when(carRepository.findValueCounts(anyString())).thenReturn(List.of());
+        lenient().when(carRepository.findValueCounts("producer"))
+                .thenReturn(List.of(valueCount("Mercedes-Benz", 3), valueCount("Škoda", 2), valueCount("BMW", 4)));
+        lenient().when(carRepository.findValueCounts("model"))
+                .thenReturn(List.of(valueCount("Octavia", 1), valueCount("Octavia Combi", 1), valueCount("X5", 2),
+                        valueCount("A4", 1), valueCount("A6", 1)));
+
+        uut = new CarTextIndex(carRepository, transactionManager, searchProperties);
+    }
+
+    @Test
+    void matchingValues_caseAndAccents_areIgnored() {
+        uut.rebuild();
+
+        assertEquals(Set.of("Škoda"), uut.matchingValues(CarTextField.PRODUCER, "SKODA"));
+        assertEquals(Set.of("BMW"), uut.matchingValues(CarTextField.PRODUCER, "bmw"));
+    }
+
+    @Test
+    void matchingValues_typosAndPrefixes_areTolerated() {
+        uut.rebuild();
+
+        assertEquals(Set.of("Mercedes-Benz"), uut.matchingValues(CarTextField.PRODUCER, "mercedez"));
+        assertEquals(Set.of("Mercedes-Benz"), uut.matchingValues(CarTextField.PRODUCER, "merc"));
+        assertEquals(Set.of("Octavia", "Octavia Combi"), uut.matchingValues(CarTextField.MODEL, "octavai"));
+        assertEquals(Set.of(), uut.matchingValues(CarTextField.PRODUCER, "audi"));
+    }
+
+    @Test
+    void matchingValues_severalWords_matchesTheValuesWithEveryWord() {
+        uut.rebuild();
+
+        assertEquals(Set.of("Octavia Combi"), uut.matchingValues(CarTextField.MODEL, "combi octavia"));
+    }
+
+    @Test
+    void matchingValues_shortWordsAndNumbers_matchExactlyOrByPrefix() {
+        uut.rebuild();
+
+        assertEquals(Set.of("A4"), uut.matchingValues(CarTextField.MODEL, "a4"));
+        assertEquals(Set.of("X5"), uut.matchingValues(CarTextField.MODEL, "x5"));
+        assertEquals(0, CarTextIndex.allowedEdits("2008", 2));
+        assertEquals(1, CarTextIndex.allowedEdits("golf", 2));
+        assertEquals(2, CarTextIndex.allowedEdits("octavia", 2));
+    }
+
+    @Test
+    void matchingValues_textWithoutWords_returnsEmptySet() {
+        uut.rebuild();
+
+        assertTrue(uut.matchingValues(CarTextField.PRODUCER, " - ").isEmpty());
+        assertTrue(uut.matchingValues(CarTextField.PRODUCER, null).isEmpty());
+    }
+
+    @Test
+    void add_newValue_isSearchableUntilItsLastCarIsRemoved() {
+        uut.rebuild();
+        Car first = car("Lada", "Niva");
+        Car second = car("Lada", "Niva");
+
+        uut.add(first);
+        uut.add(second);
+        uut.remove(first);
+
+        assertEquals(Set.of("Lada"), uut.matchingValues(CarTextField.PRODUCER, "lada"));
+
+        uut.remove(second);
+
+        assertTrue(uut.matchingValues(CarTextField.PRODUCER, "lada").isEmpty());
+    }
+
+    @Test
+    void remove_duringTheRebuildAndSeenByTheSnapshot_isNotCountedTwice() {
+        Car deleted = car(5, "Lada", "Niva");
+        when(carRepository.findValueCounts("producer"))
+                .thenReturn(List.of(valueCount("Lada", 2)))
+                .thenAnswer(invocation -> {
+                    uut.remove(deleted);
+                    return List.of(valueCount("Lada", 1));
+                });
+        when(carRepository.findExistingIds(Set.of(5))).thenReturn(Set.of());
+        uut.rebuild();
+
+        uut.rebuild();
+
+        assertEquals(Set.of("Lada"), uut.matchingValues(CarTextField.PRODUCER, "lada"));
+    }
+
+    @Test
+    void add_duringTheRebuildAndSeenByTheSnapshot_isNotCountedTwice() {
+        Car added = car(7, "Lada", "Niva");
+        when(carRepository.findValueCounts("producer")).thenAnswer(invocation -> {
+            uut.add(added);
+            return List.of(valueCount("Lada", 1));
+        });
+        when(carRepository.findExistingIds(Set.of(7))).thenReturn(Set.of(7));
+        uut.rebuild();
+
+        uut.remove(added);
+
+        assertTrue(uut.matchingValues(CarTextField.PRODUCER, "lada").isEmpty());
+    }
+
+    @Test
+    void withinEdits_swappedAndMissingLetters_areOneEditApart() {
+        assertTrue(CarTextIndex.withinEdits("bwm", "bmw", 1));
+        assertTrue(CarTextIndex.withinEdits("octvia", "octavia", 1));
+        assertFalse(CarTextIndex.withinEdits("opel", "audi", 2));
+    }
+
+    /**
+     * Compares the searches of the index over 1 000 000 cars with a case-insensitive contains() scan of their values,
+     * which is what the LIKE '%value%' predicates of the Specification path do, without the cost of reading the rows.
+     */
+    @Test
+    @Tag("benchmark")
+    void matchingValues_millionCars_comparedWithAScanOfTheValues() {
+        final int cars = 1_000_000;
+        Random random = new Random(42);
+        String[] producers = {"Volkswagen", "BMW", "Audi", "Skoda", "Ford", "Renault", "Dacia", "Toyota", "Mercedes-Benz", "Opel"};
+        String[] producerValues = new String[cars];
+        String[] modelValues = new String[cars];
+        Map<String, Long> producerCounts = new HashMap<>();
+        Map<String, Long> modelCounts = new HashMap<>();
+        for (int i = 0; i < cars; i++) {
+            producerValues[i] = producers[random.nextInt(producers.length)];
+            modelValues[i] = "Model" + (char) ('A' + random.nextInt(26)) + random.nextInt(12_000 / 26);
+            producerCounts.merge(producerValues[i], 1L, Long::sum);
+            modelCounts.merge(modelValues[i], 1L, Long::sum);
+        }
+        when(carRepository.findValueCounts("producer")).thenReturn(valueCounts(producerCounts));
+        when(carRepository.findValueCounts("model")).thenReturn(valueCounts(modelCounts));
+        uut.rebuild();
+
+        List<String> searches = List.of("skoda", "mercedez", "modelq", "modelk123", "modlk12");
+        int queries = 200;
+        for (int i = 0; i < queries; i++) {
+            searches.forEach(search -> uut.matchingValues(CarTextField.MODEL, search));
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < queries; i++) {
+            searches.forEach(search -> uut.matchingValues(CarTextField.MODEL, search));
+        }
+        long indexMicros = (System.nanoTime() - start) / 1_000 / (queries * searches.size());
+
+        long matches = 0;
+        start = System.nanoTime();
+        for (String search : searches) {
+            for (int i = 0; i < cars; i++) {
+                if (modelValues[i].toLowerCase(Locale.ROOT).contains(search)
+                        || producerValues[i].toLowerCase(Locale.ROOT).contains(search)) {
+                    matches++;
+                }
+            }
+        }
+        long scanMicros = (System.nanoTime() - start) / 1_000 / searches.size();
+
+        LOGGER.info("Indexed {} values of {} cars in {} ms, {} us per search against {} us per scan ({} matches).",
+                uut.getValues(), cars, uut.getLastRebuildMillis(), indexMicros, scanMicros, matches);
+        assertFalse(uut.matchingValues(CarTextField.MODEL, "modelk123").isEmpty());
+    }
+
+    private static List<CarValueCount> valueCounts(Map<String, Long> counts) {
+        List<CarValueCount> valueCounts = new ArrayList<>();
+        counts.forEach((value, cars) -> valueCounts.add(valueCount(value, cars)));
+        return valueCounts;
+    }
+
+    private static Car car(String producer, String model) {
+        Car car = new Car();
+        car.setProducer(producer);
+        car.setModel(model);
+        return car;
+    }
+
+    private static Car car(int id, String producer, String model) {
+        Car car = car(producer, model);
+        car.setId(id);
+        return car;
+    }
+
+    private static CarValueCount valueCount(String value, long cars) {
+        return new CarValueCount() {
+            @Override
+            public String getValue() {
+                return value;
+            }
+
+            @Override
+            public long getCars() {
+                return cars;
+            }
+        };
+    }
+}
@@ -0,0 +1,145 @@
+package com.auctions.hunters.service.email;
+
+import com.auctions.hunters.config.EmailOutboxProperties;
+import com.auctions.hunters.model.EmailOutbox;
+import com.auctions.hunters.repository.EmailOutboxRepository;
+import com.auctions.hunters.util.FakeSmtpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static com.auctions.hunters.model.enums.EmailStatus.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+@ExtendWith(MockitoExtension.class)
+class EmailDispatcherTest {
+
+    @Mock
+    private EmailOutboxRepository emailOutboxRepository;
+    @Mock
+    private EmailOutboxProperties emailOutboxProperties;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private FakeSmtpServer smtpServer;
+    private SmtpTransportPool smtpTransportPool;
+    private EmailDispatcher uut;
+
+    @BeforeEach
+    void setUp() {
+        openMocks(this);
+        lenient().when(emailOutboxProperties.getWorkers()).thenReturn(2);
+        lenient().when(emailOutboxProperties.getBatchSize()).thenReturn(50);
+        lenient().when(emailOutboxProperties.getMaxAttempts()).thenReturn(3);
+        lenient().when(emailOutboxProperties.getBackoffMillis()).thenReturn(1_000L);
+        lenient().when(emailOutboxProperties.getMaxBackoffMillis()).thenReturn(5_000L);
+        lenient().when(emailOutboxProperties.getLeaseMillis()).thenReturn(60_000L);
+        lenient().when(emailOutboxProperties.getSmtpPoolSize()).thenReturn(2);
+        lenient().when(emailOutboxProperties.getMessagesPerConnection()).thenReturn(100);
+        lenient().when(emailOutboxProperties.getConnectionIdleTimeoutMillis()).thenReturn(30_000L);
+
+        smtpServer = new FakeSmtpServer();
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(smtpServer.getPort());
+
+        smtpTransportPool = new SmtpTransportPool(mailSender, emailOutboxProperties);
+
+        uut = spy(new EmailDispatcher(emailOutboxRepository, mailSender, smtpTransportPool, emailOutboxProperties, transactionManager));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException, InterruptedException {
+        uut.stop();
+        smtpTransportPool.closeIdleConnections();
+        smtpServer.close();
+    }
+
+    @Test
+    void dispatchDueEmails_dueEmails_sendsThemAndMarksThemSent() {
+        EmailOutbox firstEmail = email(1, 0);
+        EmailOutbox secondEmail = email(2, 0);
+        when(emailOutboxRepository.lockDueEmailIds(any(OffsetDateTime.class), eq(50))).thenReturn(List.of(1, 2));
+        when(emailOutboxRepository.findAllById(List.of(1, 2))).thenReturn(List.of(firstEmail, secondEmail));
+
+        int sent = uut.dispatchDueEmails();
+
+        assertEquals(2, sent);
+        assertEquals(2, uut.getSentEmails());
+        assertEquals(2, smtpServer.getMessages().size());
+        assertTrue(smtpServer.getMessages().stream().allMatch(message -> message.contains("Subject: Welcome")));
+        verify(emailOutboxRepository, times(1)).claim(eq(List.of(1, 2)), any(OffsetDateTime.class));
+        verify(emailOutboxRepository, times(1)).markSent(eq(1), eq(SENT), any(OffsetDateTime.class));
+        verify(emailOutboxRepository, times(1)).markSent(eq(2), eq(SENT), any(OffsetDateTime.class));
+    }
+
+    @Test
+    void dispatchDueEmails_noDueEmail_doesNotContactTheMailServer() {
+        when(emailOutboxRepository.lockDueEmailIds(any(OffsetDateTime.class), anyInt())).thenReturn(List.of());
+
+        int sent = uut.dispatchDueEmails();
+
+        assertEquals(0, sent);
+        assertTrue(smtpServer.getMessages().isEmpty());
+        verify(emailOutboxRepository, never()).claim(anyCollection(), any(OffsetDateTime.class));
+        verify(emailOutboxRepository, never()).findAllById(anyIterable());
+    }
+
+    @Test
+    void dispatchDueEmails_mailServerRejectsTheEmail_retriesItLater() {
+        smtpServer.rejectNextMessages(1);
+        when(emailOutboxRepository.lockDueEmailIds(any(OffsetDateTime.class), anyInt())).thenReturn(List.of(1));
+        when(emailOutboxRepository.findAllById(List.of(1))).thenReturn(List.of(email(1, 0)));
+
+        int sent = uut.dispatchDueEmails();
+
+        assertEquals(0, sent);
+        assertEquals(1, uut.getFailedAttempts());
+        assertEquals(0, uut.getDeadLetteredEmails());
+        verify(emailOutboxRepository, times(1)).markFailed(eq(1), eq(PENDING), any(OffsetDateTime.class), anyString());
+        verify(emailOutboxRepository, never()).markSent(anyInt(), any(), any(OffsetDateTime.class));
+    }
+
+    @Test
+    void dispatchDueEmails_lastAttemptFails_deadLettersTheEmail() {
+        smtpServer.rejectNextMessages(1);
+        when(emailOutboxRepository.lockDueEmailIds(any(OffsetDateTime.class), anyInt())).thenReturn(List.of(1));
+        when(emailOutboxRepository.findAllById(List.of(1))).thenReturn(List.of(email(1, 2)));
+
+        uut.dispatchDueEmails();
+
+        assertEquals(1, uut.getDeadLetteredEmails());
+        verify(emailOutboxRepository, times(1)).markFailed(eq(1), eq(DEAD), any(OffsetDateTime.class), anyString());
+    }
+
+    @Test
+    void backoffMillis_repeatedFailures_doublesTheDelayUpToTheMaximum() {
+        assertEquals(1_000, uut.backoffMillis(1));
+        assertEquals(2_000, uut.backoffMillis(2));
+        assertEquals(4_000, uut.backoffMillis(3));
+        assertEquals(5_000, uut.backoffMillis(4));
+        assertEquals(5_000, uut.backoffMillis(40));
+    }
+
+    private EmailOutbox email(Integer id, int attempts) {
+        return EmailOutbox.builder()
+                .id(id)
+                .recipient("alex" + id + "@yahoo.com")
+                .subject("Welcome")
+                .body("<p>body</p>")
+                .status(PENDING)
+                .attempts(attempts)
+                .build();
+    }
+}
@@ -1,14 +1,16 @@
 package com.auctions.hunters.service.email;
 
+import com.auctions.hunters.model.EmailOutbox;
+import com.auctions.hunters.repository.EmailOutboxRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.mail.javamail.JavaMailSender;
-
-import javax.mail.internet.MimeMessage;
 
+import static com.auctions.hunters.model.enums.EmailStatus.PENDING;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 import static org.mockito.MockitoAnnotations.openMocks;
 
@@ -16,25 +18,28 @@ import static org.mockito.MockitoAnnotations.openMocks;
 class EmailServiceImplTest {
 
     @Mock
-    private JavaMailSender mailSender;
-    @Mock
-    private MimeMessage mimeMessage;
+    private EmailOutboxRepository emailOutboxRepository;
 
     private EmailService uut;
 
     @BeforeEach
     void setUp() {
         openMocks(this);
-        uut = spy(new EmailServiceImpl(mailSender));
+        uut = spy(new EmailServiceImpl(emailOutboxRepository));
     }
 
     @Test
-    void sendEmail_validInputs_isSuccess() {
-        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
-        doNothing().when(mailSender).send(mimeMessage);
-
+    void sendEmail_validInputs_addsTheEmailToTheOutbox() {
         uut.sendEmail("alex@yahoo.com", "register", "body");
 
-        verify(mailSender, times(1)).send(mimeMessage);
+        ArgumentCaptor<EmailOutbox> emailCaptor = ArgumentCaptor.forClass(EmailOutbox.class);
+        verify(emailOutboxRepository, times(1)).save(emailCaptor.capture());
+        EmailOutbox email = emailCaptor.getValue();
+        assertEquals("alex@yahoo.com", email.getRecipient());
+        assertEquals("register", email.getSubject());
+        assertEquals("body", email.getBody());
+        assertEquals(PENDING, email.getStatus());
+        assertEquals(0, email.getAttempts());
+        assertEquals(email.getCreatedAt(), email.getNextAttemptAt());
     }
-}
\ No newline at end of file
+}
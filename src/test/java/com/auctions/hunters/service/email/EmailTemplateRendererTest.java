@@ -0,0 +1,72 @@
+package com.auctions.hunters.service.email;
+
+import com.auctions.hunters.config.EmailOutboxProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Locale;
+import java.util.Map;
+
+import static com.auctions.hunters.service.email.EmailTemplate.OUTBID;
+import static com.auctions.hunters.service.email.EmailTemplate.REGISTRATION;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+@ExtendWith(MockitoExtension.class)
+class EmailTemplateRendererTest {
+
+    @Mock
+    private EmailOutboxProperties emailOutboxProperties;
+
+    private EmailTemplateRenderer uut;
+
+    @BeforeEach
+    void setUp() {
+        openMocks(this);
+        lenient().when(emailOutboxProperties.getLocale()).thenReturn(Locale.forLanguageTag("ro"));
+
+        uut = new EmailTemplateRenderer(emailOutboxProperties);
+    }
+
+    @Test
+    void render_outbidTemplate_containsTheUserAndTheCar() {
+        String body = uut.render(OUTBID, Map.of("userName", "Alex", "producer", "BMW", "model", "X5"));
+
+        assertTrue(body.contains("<p>Salut Alex,</p>"));
+        assertTrue(body.contains("mașina BMW X5 de care erați interesat"));
+        assertFalse(body.contains("%s"));
+    }
+
+    @Test
+    void render_variablesWithMarkup_escapesThem() {
+        String body = uut.render(REGISTRATION, Map.of("name", "<script>alert(1)</script>", "link", "http://localhost:5000/confirm?token=a&b"));
+
+        assertTrue(body.contains("&lt;script&gt;alert(1)&lt;/script&gt;"));
+        assertTrue(body.contains("href=\"http://localhost:5000/confirm?token=a&amp;b\""));
+    }
+
+    @Test
+    void render_twice_doesNotKeepThePreviousEmail() {
+        uut.render(OUTBID, Map.of("userName", "Alex", "producer", "BMW", "model", "X5"));
+
+        String body = uut.render(OUTBID, Map.of("userName", "Maria", "producer", "Audi", "model", "A4"));
+
+        assertFalse(body.contains("Alex"));
+        assertEquals(1, countOccurrences(body, "<html"));
+    }
+
+    @Test
+    void subject_templateWithArguments_formatsThem() {
+        assertEquals("Oferta dumneavoastră pentru BMW X5 a fost depășită.", uut.subject(OUTBID, "BMW", "X5"));
+        assertEquals("Bine ați venit la Vânătorii de licitații: Verificați adresa dvs. de e-mail pentru a începe",
+                uut.subject(REGISTRATION));
+    }
+
+    private static int countOccurrences(String text, String part) {
+        return text.split(part, -1).length - 1;
+    }
+}
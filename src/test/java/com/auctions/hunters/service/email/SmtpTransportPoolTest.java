@@ -0,0 +1,161 @@
+package com.auctions.hunters.service.email;
+
+import com.auctions.hunters.config.EmailOutboxProperties;
+import com.auctions.hunters.util.FakeSmtpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+import javax.mail.MessagingException;
+import javax.mail.internet.MimeMessage;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+@ExtendWith(MockitoExtension.class)
+class SmtpTransportPoolTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SmtpTransportPoolTest.class);
+
+    @Mock
+    private EmailOutboxProperties emailOutboxProperties;
+
+    private FakeSmtpServer smtpServer;
+    private JavaMailSenderImpl mailSender;
+    private SmtpTransportPool uut;
+
+    @BeforeEach
+    void setUp() {
+        openMocks(this);
+        lenient().when(emailOutboxProperties.getSmtpPoolSize()).thenReturn(4);
+        lenient().when(emailOutboxProperties.getMessagesPerConnection()).thenReturn(100);
+        lenient().when(emailOutboxProperties.getConnectionIdleTimeoutMillis()).thenReturn(30_000L);
+
+        smtpServer = new FakeSmtpServer();
+        mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(smtpServer.getPort());
+
+        uut = new SmtpTransportPool(mailSender, emailOutboxProperties);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        uut.closeIdleConnections();
+        smtpServer.close();
+    }
+
+    @Test
+    void send_manyMessages_reusesTheConnectionUntilTheMessageCap() throws MessagingException {
+        for (int i = 0; i < 250; i++) {
+            uut.send(message(i));
+        }
+
+        assertEquals(250, smtpServer.getMessages().size());
+        assertEquals(3, smtpServer.getConnections());
+        assertEquals(3, uut.getOpenedConnections());
+        assertEquals(1, uut.getOpenConnections());
+        assertEquals(250, uut.getSentMessages());
+    }
+
+    @Test
+    void send_connectionDroppedByTheServer_sendsTheMessageOnANewConnection() throws MessagingException, IOException {
+        uut.send(message(1));
+        smtpServer.disconnectClients();
+
+        uut.send(message(2));
+
+        assertEquals(2, smtpServer.getMessages().size());
+        assertEquals(2, uut.getOpenedConnections());
+        assertEquals(1, uut.getBrokenConnections());
+    }
+
+    @Test
+    void send_messageRejected_keepsTheConnection() throws MessagingException {
+        smtpServer.rejectNextMessages(1);
+
+        assertThrows(MailSendException.class, () -> uut.send(message(1)));
+        uut.send(message(2));
+
+        assertEquals(1, smtpServer.getMessages().size());
+        assertEquals(1, smtpServer.getConnections());
+        assertEquals(0, uut.getBrokenConnections());
+    }
+
+    @Test
+    void send_mailServerDown_throwsException() throws IOException, MessagingException {
+        MimeMessage message = message(1);
+        smtpServer.close();
+
+        assertThrows(MailSendException.class, () -> uut.send(message));
+        assertEquals(0, uut.getOpenConnections());
+    }
+
+    /**
+     * Throughput of the pool against a new connection per message, both on the local SMTP stub. The stub has no TLS,
+     * so the real gain on a remote STARTTLS server is much larger than the one measured here.
+     */
+    @Test
+    @Tag("benchmark")
+    void send_concurrentBurst_sendsFasterThanAConnectionPerMessage() {
+        final int messages = 2_000;
+        final int unpooledMessages = 50;
+        final int senders = 8;
+
+        assertTimeout(Duration.ofSeconds(60), () -> {
+            long start = System.nanoTime();
+            for (int i = 0; i < unpooledMessages; i++) {
+                mailSender.send(message(i));
+            }
+            double unpooledRate = rate(unpooledMessages, start);
+
+            ExecutorService executor = Executors.newFixedThreadPool(senders);
+            start = System.nanoTime();
+            for (int i = 0; i < messages; i++) {
+                final int number = i;
+                executor.submit(() -> {
+                    uut.send(message(number));
+                    return null;
+                });
+            }
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+            double pooledRate = rate(messages, start);
+
+            LOGGER.info("SMTP throughput: {} messages/s with a connection per message, {} messages/s pooled.",
+                    Math.round(unpooledRate), Math.round(pooledRate));
+            assertEquals(messages, uut.getSentMessages());
+            assertTrue(uut.getOpenedConnections() <= messages / 100 + 4);
+            assertTrue(pooledRate > unpooledRate);
+        });
+    }
+
+    private static double rate(int messages, long startNanos) {
+        return messages * 1_000_000_000.0 / (System.nanoTime() - startNanos);
+    }
+
+    private MimeMessage message(int number) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, "utf-8");
+        helper.setFrom("auctions@localhost");
+        helper.setTo("user" + number + "@localhost");
+        helper.setSubject("Message " + number);
+        helper.setText("<p>body</p>", true);
+        return message;
+    }
+}
@@ -1,5 +1,6 @@
 package com.auctions.hunters.service.image;
 
+import com.auctions.hunters.exceptions.ResourceNotFoundException;
 import com.auctions.hunters.model.Car;
 import com.auctions.hunters.model.Image;
 import com.auctions.hunters.repository.ImageRepository;
@@ -13,10 +14,11 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 import static org.mockito.MockitoAnnotations.openMocks;
 
@@ -61,25 +63,30 @@ class ImageServiceImplTest {
     void findAllImagesByCarId_returnsImagesByCarId() {
         Car car1 = new Car();
         car1.setId(1);
-        Car car2 = new Car();
-        car2.setId(2);
 
         Image image1 = new Image();
         image1.setCar(car1);
         Image image2 = new Image();
         image2.setCar(car1);
-        Image image3 = new Image();
-        image3.setCar(car2);
+        when(imageRepository.findAllByCarIdOrderById(1)).thenReturn(List.of(image1, image2));
 
-        List<Image> allImages = Arrays.asList(image1, image2, image3);
-        when(imageRepository.findAll()).thenReturn(allImages);
+        List<Image> imagesByCarId = uut.findAllImagesByCarId(1);
 
+        assertEquals(List.of(image1, image2), imagesByCarId);
+        verify(imageRepository, never()).findAll();
+    }
 
-        List<Image> imagesByCarId = uut.findAllImagesByCarId(1);
+    @Test
+    void getImageById_foundImage_returnsImage() {
+        when(imageRepository.findById(1)).thenReturn(Optional.of(image));
 
-        assertEquals(2, imagesByCarId.size());
-        for (Image image : imagesByCarId) {
-            assertEquals(Integer.valueOf(1), image.getCar().getId());
-        }
+        assertEquals(image, uut.getImageById(1));
+    }
+
+    @Test
+    void getImageById_missingImage_throwsException() {
+        when(imageRepository.findById(1)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> uut.getImageById(1));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,224 @@
+package com.auctions.hunters.service.ml;
+
+import com.auctions.hunters.model.Car;
+import com.auctions.hunters.model.projection.AuctionCarView;
+import com.auctions.hunters.repository.AuctionRepository;
+import com.auctions.hunters.service.auction.AuctionOpenedEvent;
+import com.auctions.hunters.service.auction.AuctionsClosedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static com.auctions.hunters.model.enums.AuctionStatus.ACTIVE;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+@ExtendWith(MockitoExtension.class)
+class CarSimilarityIndexTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CarSimilarityIndexTest.class);
+    private static final int OWNER_ID = 1;
+    private static final int BIDDER_ID = 2;
+
+    @Mock
+    private AuctionRepository auctionRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CarSimilarityIndex uut;
+
+    private Car compactDiesel;
+    private Car otherCompactDiesel;
+    private Car petrolSuv;
+
+    @BeforeEach
+    void setUp() {
+        openMocks(this);
+        compactDiesel = car("Volkswagen", "Hatchback", "Diesel", "Manual", 2016, 110, 1968);
+        otherCompactDiesel = car("Volkswagen", "Hatchback", "Diesel", "Manual", 2018, 115, 1598);
+        petrolSuv = car("BMW", "SUV", "Gasoline", "Automatic", 2021, 340, 2998);
+
+        lenient().when(auctionRepository.findCarViewsByStatusAndEndTimeAfter(eq(ACTIVE), any(OffsetDateTime.class)))
+                .thenReturn(List.of(view(10, OWNER_ID, petrolSuv), view(11, OWNER_ID, otherCompactDiesel)));
+
+        uut = new CarSimilarityIndex(auctionRepository, transactionManager);
+    }
+
+    @Test
+    void mostSimilar_afterRebuild_returnsTheMostSimilarCarsFirst() {
+        uut.rebuild();
+
+        float[] profile = uut.profileOf(List.of(compactDiesel));
+
+        assertArrayEquals(new int[]{11, 10}, uut.mostSimilar(profile, 5, BIDDER_ID, auctionId -> false));
+        assertArrayEquals(new int[]{11}, uut.mostSimilar(profile, 1, BIDDER_ID, auctionId -> false));
+        assertEquals(2, uut.getCars());
+        assertTrue(uut.getEstimatedMemoryBytes() > 0);
+    }
+
+    @Test
+    void mostSimilar_excludedOwnerAndAuctions_skipsThem() {
+        uut.rebuild();
+
+        float[] profile = uut.profileOf(List.of(compactDiesel));
+
+        assertArrayEquals(new int[0], uut.mostSimilar(profile, 5, OWNER_ID, auctionId -> false));
+        assertArrayEquals(new int[]{10}, uut.mostSimilar(profile, 5, BIDDER_ID, auctionId -> auctionId == 11));
+    }
+
+    @Test
+    void profileOf_carsWithoutAttributes_returnsNull() {
+        assertNull(uut.profileOf(List.of()));
+        assertNull(uut.profileOf(List.of(new Car())));
+    }
+
+    @Test
+    void onAuctionsClosed_removesTheAuctionsAndKeepsTheOthers() {
+        uut.rebuild();
+        uut.onAuctionOpened(new AuctionOpenedEvent(12, 3, compactDiesel));
+
+        uut.onAuctionsClosed(new AuctionsClosedEvent(List.of(10, 42)));
+
+        float[] profile = uut.profileOf(List.of(petrolSuv));
+        assertArrayEquals(new int[]{11, 12}, uut.mostSimilar(profile, 5, BIDDER_ID, auctionId -> false));
+        assertEquals(2, uut.getCars());
+    }
+
+    /**
+     * Times the top-10 queries on an index of 50 000 cars.
+     */
+    @Test
+    @Tag("benchmark")
+    void mostSimilar_manyCars_reportsTheQueryTime() {
+        Random random = new Random(42);
+        String[] producers = {"Volkswagen", "BMW", "Audi", "Skoda", "Ford", "Renault", "Dacia", "Toyota"};
+        String[] bodies = {"Hatchback", "Sedan", "SUV", "Wagon", "Coupe"};
+        String[] fuels = {"Diesel", "Gasoline", "Hybrid", "Electric"};
+        List<AuctionCarView> auctions = new ArrayList<>();
+        for (int id = 1; id <= 50_000; id++) {
+            auctions.add(view(id, 1 + random.nextInt(5_000), car(producers[random.nextInt(producers.length)],
+                    bodies[random.nextInt(bodies.length)], fuels[random.nextInt(fuels.length)],
+                    random.nextBoolean() ? "Manual" : "Automatic", 2000 + random.nextInt(24),
+                    60 + random.nextInt(300), 900 + random.nextInt(3000))));
+        }
+        when(auctionRepository.findCarViewsByStatusAndEndTimeAfter(eq(ACTIVE), any(OffsetDateTime.class))).thenReturn(auctions);
+        uut.rebuild();
+        float[] profile = uut.profileOf(List.of(compactDiesel, otherCompactDiesel));
+
+        int[] similar = new int[0];
+        for (int i = 0; i < 200; i++) {
+            similar = uut.mostSimilar(profile, 10, BIDDER_ID, auctionId -> false);
+        }
+        long start = System.nanoTime();
+        int queries = 1_000;
+        for (int i = 0; i < queries; i++) {
+            similar = uut.mostSimilar(profile, 10, BIDDER_ID, auctionId -> false);
+        }
+        long microsPerQuery = (System.nanoTime() - start) / 1_000 / queries;
+
+        LOGGER.info("Indexed {} cars of {} dimensions in {} ms ({} KB), {} us per top-10 query.",
+                uut.getCars(), uut.getDimensions(), uut.getLastRebuildMillis(),
+                uut.getEstimatedMemoryBytes() / 1024, microsPerQuery);
+        assertEquals(10, similar.length);
+        assertEquals(50_000, uut.getCars());
+    }
+
+    private static Car car(String producer, String body, String fuelType, String transmission,
+                           int modelYear, int enginePower, int engineDisplacement) {
+        return Car.builder()
+                .producer(producer)
+                .body(body)
+                .fuelTypePrimary(fuelType)
+                .transmission(transmission)
+                .modelYearValue(modelYear)
+                .enginePowerValue(enginePower)
+                .engineDisplacementValue(engineDisplacement)
+                .build();
+    }
+
+    private static AuctionCarView view(int auctionId, int ownerId, Car car) {
+        return new CarView(auctionId, ownerId, car);
+    }
+
+    private record CarView(Integer auctionId, Integer ownerId, Car car) implements AuctionCarView {
+
+        @Override
+        public Integer getAuctionId() {
+            return auctionId;
+        }
+
+        @Override
+        public Integer getOwnerId() {
+            return ownerId;
+        }
+
+        @Override
+        public String getProducer() {
+            return car.getProducer();
+        }
+
+        @Override
+        public String getBody() {
+            return car.getBody();
+        }
+
+        @Override
+        public String getFuelTypePrimary() {
+            return car.getFuelTypePrimary();
+        }
+
+        @Override
+        public String getTransmission() {
+            return car.getTransmission();
+        }
+
+        @Override
+        public String getDrive() {
+            return car.getDrive();
+        }
+
+        @Override
+        public String getEmissionStandard() {
+            return car.getEmissionStandard();
+        }
+
+        @Override
+        public Integer getModelYearValue() {
+            return car.getModelYearValue();
+        }
+
+        @Override
+        public Integer getEnginePowerValue() {
+            return car.getEnginePowerValue();
+        }
+
+        @Override
+        public Integer getEngineDisplacementValue() {
+            return car.getEngineDisplacementValue();
+        }
+
+        @Override
+        public Integer getMaxSpeedValue() {
+            return car.getMaxSpeedValue();
+        }
+
+        @Override
+        public Integer getEmptyWeightValue() {
+            return car.getEmptyWeightValue();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.auctions.hunters.service.ml;
+
+import com.auctions.hunters.config.RecommendationProperties;
+import com.auctions.hunters.model.projection.CoBiddingEdge;
+import com.auctions.hunters.repository.BidRepository;
+import com.auctions.hunters.service.bid.BidPlacedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+@ExtendWith(MockitoExtension.class)
+class CoBiddingGraphTest {
+
+    private static final int OWNER_ID = 1;
+
+    @Mock
+    private BidRepository bidRepository;
+    @Mock
+    private RecommendationProperties recommendationProperties;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CoBiddingGraph uut;
+
+    @BeforeEach
+    void setUp() {
+        openMocks(this);
+        lenient().when(recommendationProperties.getMaxNeighboursPerUser()).thenReturn(3);
+        lenient().when(bidRepository.streamCoBiddingEdges()).thenReturn(Stream.of(
+                new Edge(OWNER_ID, 2, 3L), new Edge(OWNER_ID, 3, 3L), new Edge(OWNER_ID, 4, 1L)));
+
+        uut = new CoBiddingGraph(bidRepository, recommendationProperties, transactionManager);
+    }
+
+    @Test
+    void topNeighbours_afterRebuild_returnsTheMostFrequentBiddersFirst() {
+        uut.rebuild();
+
+        assertArrayEquals(new int[]{2, 3, 4}, uut.topNeighbours(OWNER_ID, 5));
+        assertArrayEquals(new int[]{2}, uut.topNeighbours(OWNER_ID, 1));
+        assertEquals(1, uut.getUsers());
+        assertEquals(3, uut.getEdges());
+        assertTrue(uut.getEstimatedMemoryBytes() > 0);
+    }
+
+    @Test
+    void topNeighbours_unknownUser_returnsNoNeighbour() {
+        uut.rebuild();
+
+        assertEquals(0, uut.topNeighbours(42, 1).length);
+    }
+
+    @Test
+    void onBidPlaced_afterRebuild_countsTheBid() {
+        uut.rebuild();
+
+        uut.onBidPlaced(new BidPlacedEvent(11, 7, OWNER_ID, 4));
+        uut.onBidPlaced(new BidPlacedEvent(12, 7, OWNER_ID, 4));
+        uut.onBidPlaced(new BidPlacedEvent(13, 7, OWNER_ID, 4));
+
+        assertArrayEquals(new int[]{4, 2}, uut.topNeighbours(OWNER_ID, 2));
+    }
+
+    @Test
+    void onBidPlaced_ownerBidsOnOwnAuction_isIgnored() {
+        uut.rebuild();
+
+        uut.onBidPlaced(new BidPlacedEvent(11, 7, OWNER_ID, OWNER_ID));
+        uut.onBidPlaced(new BidPlacedEvent(12, 7, null, 2));
+
+        assertEquals(3, uut.getEdges());
+    }
+
+    @Test
+    void onBidPlaced_beforeRebuild_replaysOnlyTheBidsMissingFromTheSnapshot() {
+        uut.onBidPlaced(new BidPlacedEvent(11, 7, OWNER_ID, 4));
+        uut.onBidPlaced(new BidPlacedEvent(12, 7, OWNER_ID, 4));
+        uut.onBidPlaced(new BidPlacedEvent(13, 7, OWNER_ID, 4));
+        uut.onBidPlaced(new BidPlacedEvent(14, 7, OWNER_ID, 4));
+        //the pooled ids are not in commit order, the snapshot counts the bids 12 and 13 but not 11
+        when(bidRepository.findExistingIds(Set.of(11, 12, 13, 14))).thenReturn(Set.of(12, 13));
+
+        assertEquals(0, uut.topNeighbours(OWNER_ID, 1).length);
+
+        uut.rebuild();
+
+        assertArrayEquals(new int[]{2, 3, 4}, uut.topNeighbours(OWNER_ID, 3));
+        assertEquals(3, uut.getEdges());
+    }
+
+    @Test
+    void onBidPlaced_userWithTooManyNeighbours_evictsTheLeastFrequentOne() {
+        uut.rebuild();
+
+        uut.onBidPlaced(new BidPlacedEvent(11, 7, OWNER_ID, 5));
+
+        assertEquals(3, uut.getEdges());
+        assertEquals(1, uut.getEvictedEdges());
+        //the new neighbour inherits the count of the evicted one
+        assertArrayEquals(new int[]{5, 2, 3}, uut.topNeighbours(OWNER_ID, 3));
+    }
+
+    private record Edge(Integer getOwnerId, Integer getBidderId, Long getBids) implements CoBiddingEdge {
+    }
+}
@@ -0,0 +1,199 @@
+package com.auctions.hunters.service.ml;
+
+import com.auctions.hunters.config.RecommendationProperties;
+import com.auctions.hunters.model.projection.BidderAuction;
+import com.auctions.hunters.repository.BidRepository;
+import com.auctions.hunters.service.bid.BidPlacedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+@ExtendWith(MockitoExtension.class)
+class MinHashNeighbourFinderTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MinHashNeighbourFinderTest.class);
+
+    @Mock
+    private BidRepository bidRepository;
+    @Mock
+    private RecommendationProperties recommendationProperties;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private MinHashNeighbourFinder uut;
+
+    @BeforeEach
+    void setUp() {
+        openMocks(this);
+        lenient().when(recommendationProperties.getMinHashBands()).thenReturn(16);
+        lenient().when(recommendationProperties.getMinHashRows()).thenReturn(2);
+
+        uut = new MinHashNeighbourFinder(bidRepository, recommendationProperties, transactionManager);
+    }
+
+    @Test
+    void topNeighbours_usersWithTheSameAuctions_findsThem() {
+        //users 1 and 2 bid on the same auctions, user 3 on other ones
+        when(bidRepository.streamBidderAuctions()).thenReturn(Stream.of(
+                pair(1, 10), pair(1, 11), pair(1, 12),
+                pair(2, 10), pair(2, 11), pair(2, 12),
+                pair(3, 20), pair(3, 21), pair(3, 22)));
+
+        uut.rebuild();
+
+        assertArrayEquals(new int[]{2}, uut.topNeighbours(1, 1));
+        assertArrayEquals(new int[]{1}, uut.topNeighbours(2, 1));
+        assertEquals(3, uut.getUsers());
+        assertTrue(uut.getEstimatedMemoryBytes() > 0);
+    }
+
+    @Test
+    void topNeighbours_unknownUser_returnsNoNeighbour() {
+        when(bidRepository.streamBidderAuctions()).thenReturn(Stream.of(pair(1, 10)));
+
+        uut.rebuild();
+
+        assertEquals(0, uut.topNeighbours(42, 1).length);
+        assertEquals(0, uut.topNeighbours(1, 1).length);
+    }
+
+    @Test
+    void onBidPlaced_afterRebuild_movesTheUserToItsNewBuckets() {
+        when(bidRepository.streamBidderAuctions()).thenReturn(Stream.of(
+                pair(1, 10), pair(1, 11), pair(2, 20), pair(2, 21)));
+        uut.rebuild();
+        assertEquals(0, uut.topNeighbours(3, 1).length);
+
+        uut.onBidPlaced(new BidPlacedEvent(100, 10, 7, 3));
+        uut.onBidPlaced(new BidPlacedEvent(101, 11, 7, 3));
+        uut.onBidPlaced(new BidPlacedEvent(102, 11, 7, 3));
+
+        assertArrayEquals(new int[]{1}, uut.topNeighbours(3, 1));
+        assertEquals(3, uut.getUsers());
+    }
+
+    /**
+     * Compares the neighbours found with MinHash to the exact Jaccard neighbours on 1 000 000 synthetic bids: 50 000
+     * users in groups of 20, every user bidding 20 times, 9 times out of 10 on one of the 40 auctions of its group.
+     * The recall, the similarity of the neighbours found relative to the exact ones and the query latencies are
+     * logged; the assertions only guard against a regression of the index.
+     */
+    @Test
+    @Tag("benchmark")
+    void topNeighbours_millionBids_findsMostOfTheExactNeighbours() {
+        int users = 50_000;
+        int groupSize = 20;
+        int groupAuctions = 40;
+        int bidsPerUser = 20;
+        int k = 5;
+        Random random = new Random(7);
+
+        Map<Integer, Set<Integer>> auctionsByUser = new HashMap<>();
+        List<BidderAuction> pairs = new ArrayList<>();
+        for (int user = 1; user <= users; user++) {
+            int group = user % (users / groupSize);
+            Set<Integer> auctions = auctionsByUser.computeIfAbsent(user, id -> new HashSet<>());
+            for (int bid = 0; bid < bidsPerUser; bid++) {
+                int auction = random.nextInt(10) < 9
+                        ? 1 + group * groupAuctions + random.nextInt(groupAuctions)
+                        : 1 + random.nextInt(users / groupSize * groupAuctions);
+                if (auctions.add(auction)) {
+                    pairs.add(pair(user, auction));
+                }
+            }
+        }
+        when(bidRepository.streamBidderAuctions()).thenReturn(pairs.stream());
+        uut.rebuild();
+
+        Map<Integer, List<Integer>> usersByAuction = new HashMap<>();
+        auctionsByUser.forEach((user, auctions) ->
+                auctions.forEach(auction -> usersByAuction.computeIfAbsent(auction, id -> new ArrayList<>()).add(user)));
+
+        for (int query = 0; query < 20_000; query++) {
+            uut.topNeighbours(1 + random.nextInt(users), k);
+        }
+
+        int samples = 1_000;
+        double recall = 0;
+        double similarityRatio = 0;
+        long approximateNanos = 0;
+        long exactNanos = 0;
+        for (int sample = 0; sample < samples; sample++) {
+            int user = 1 + random.nextInt(users);
+
+            long start = System.nanoTime();
+            Map<Integer, Double> similarities = exactSimilarities(user, auctionsByUser, usersByAuction);
+            List<Double> exact = similarities.values().stream().sorted(Comparator.reverseOrder()).limit(k).toList();
+            exactNanos += System.nanoTime() - start;
+            if (exact.isEmpty()) {
+                continue;
+            }
+
+            start = System.nanoTime();
+            int[] approximate = uut.topNeighbours(user, k);
+            approximateNanos += System.nanoTime() - start;
+
+            //a neighbour as similar as the k-th exact one is a hit, whichever of the tied users it is
+            double kthSimilarity = exact.get(exact.size() - 1);
+            long hits = Arrays.stream(approximate).filter(id -> similarities.getOrDefault(id, 0.0) >= kthSimilarity).count();
+            recall += (double) hits / exact.size();
+            similarityRatio += Arrays.stream(approximate).mapToDouble(id -> similarities.getOrDefault(id, 0.0)).sum()
+                    / exact.stream().mapToDouble(Double::doubleValue).sum();
+        }
+
+        recall /= samples;
+        similarityRatio /= samples;
+        LOGGER.info("{} bids, recall@{} {}, similarity ratio {}, MinHash query {} us, exact query {} us.",
+                users * bidsPerUser, k, String.format("%.3f", recall), String.format("%.3f", similarityRatio),
+                String.format("%.1f", approximateNanos / 1000.0 / samples), String.format("%.1f", exactNanos / 1000.0 / samples));
+        assertTrue(recall > 0.5);
+        assertTrue(similarityRatio > 0.8);
+    }
+
+    private static Map<Integer, Double> exactSimilarities(int user,
+                                                          Map<Integer, Set<Integer>> auctionsByUser,
+                                                          Map<Integer, List<Integer>> usersByAuction) {
+        Map<Integer, Integer> sharedAuctions = new HashMap<>();
+        for (int auction : auctionsByUser.get(user)) {
+            for (int other : usersByAuction.get(auction)) {
+                if (other != user) {
+                    sharedAuctions.merge(other, 1, Integer::sum);
+                }
+            }
+        }
+
+        int size = auctionsByUser.get(user).size();
+        Map<Integer, Double> similarities = new HashMap<>();
+        sharedAuctions.forEach((other, shared) ->
+                similarities.put(other, (double) shared / (size + auctionsByUser.get(other).size() - shared)));
+        return similarities;
+    }
+
+    private static BidderAuction pair(int userId, int auctionId) {
+        return new Pair(userId, auctionId);
+    }
+
+    private record Pair(Integer getUserId, Integer getAuctionId) implements BidderAuction {
+    }
+}
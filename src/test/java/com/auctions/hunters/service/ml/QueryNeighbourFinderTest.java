@@ -0,0 +1,51 @@
+package com.auctions.hunters.service.ml;
+
+import com.auctions.hunters.repository.BidRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+@ExtendWith(MockitoExtension.class)
+class QueryNeighbourFinderTest {
+
+    @Mock
+    private BidRepository bidRepository;
+
+    private QueryNeighbourFinder uut;
+
+    @BeforeEach
+    void setUp() {
+        openMocks(this);
+        uut = new QueryNeighbourFinder(bidRepository);
+    }
+
+    @Test
+    void topNeighbours_returnsTheBiddersOfTheAggregateQuery() {
+        when(bidRepository.findTopBidderIdsOfOwner(1, 2)).thenReturn(List.of(3, 2));
+
+        assertArrayEquals(new int[]{3, 2}, uut.topNeighbours(1, 2));
+        verify(bidRepository, times(1)).findTopBidderIdsOfOwner(1, 2);
+    }
+
+    @Test
+    void topNeighbours_noNeighbourAsked_doesNotQuery() {
+        assertArrayEquals(new int[0], uut.topNeighbours(1, 0));
+        verify(bidRepository, never()).findTopBidderIdsOfOwner(anyInt(), anyInt());
+    }
+
+    @Test
+    void getUserIds_returnsTheOwnersWithBidders() {
+        when(bidRepository.findOwnerIdsWithBidders()).thenReturn(List.of(1, 4));
+
+        assertArrayEquals(new int[]{1, 4}, uut.getUserIds());
+    }
+}
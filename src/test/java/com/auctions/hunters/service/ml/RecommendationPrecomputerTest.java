@@ -0,0 +1,208 @@
+package com.auctions.hunters.service.ml;
+
+import com.auctions.hunters.config.RecommendationProperties;
+import com.auctions.hunters.model.Auction;
+import com.auctions.hunters.model.projection.AuctionOwnerView;
+import com.auctions.hunters.repository.AuctionRepository;
+import com.auctions.hunters.service.auction.AuctionService;
+import com.auctions.hunters.service.auction.AuctionsClosedEvent;
+import com.auctions.hunters.service.bid.BidPlacedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import static com.auctions.hunters.model.enums.AuctionStatus.ACTIVE;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+@ExtendWith(MockitoExtension.class)
+class RecommendationPrecomputerTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RecommendationPrecomputerTest.class);
+
+    @Mock
+    private AuctionRepository auctionRepository;
+    @Mock
+    private AuctionService auctionService;
+    @Mock
+    private NeighbourFinder neighbourFinder;
+    @Mock
+    private RecommendationProperties recommendationProperties;
+
+    private RecommendationPrecomputer uut;
+
+    @BeforeEach
+    void setUp() {
+        openMocks(this);
+        lenient().when(recommendationProperties.getPrecomputeParallelism()).thenReturn(2);
+        lenient().when(recommendationProperties.getPrecomputeAfterBids()).thenReturn(3);
+
+        //user 1 bid on the auctions of user 2, which runs the auctions 20, 21 and 22
+        lenient().when(neighbourFinder.getUserIds()).thenReturn(new int[]{1});
+        lenient().when(neighbourFinder.topNeighbours(1, RecommendationServiceImpl.K_NEIGHBOURS)).thenReturn(new int[]{2});
+        lenient().when(auctionRepository.findOwnerViewsOfRunningAuctions(eq(ACTIVE), any(OffsetDateTime.class)))
+                .thenReturn(List.of(ownerView(20, 2), ownerView(21, 2), ownerView(22, 2), ownerView(30, 3)));
+        lenient().when(auctionService.getTopBidAuctions(RecommendationServiceImpl.NUMBER_OF_RECOMMENDED_AUCTIONS))
+                .thenReturn(List.of(auction(30), auction(20)));
+
+        uut = new RecommendationPrecomputer(auctionRepository, auctionService, neighbourFinder, recommendationProperties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        uut.stop();
+    }
+
+    @Test
+    void getRecommendedAuctionIds_beforeTheFirstRun_returnsEmpty() {
+        assertTrue(uut.getRecommendedAuctionIds(1).isEmpty());
+        assertTrue(uut.getTopBidAuctionIds().isEmpty());
+        assertEquals(-1, uut.getStalenessMillis());
+    }
+
+    @Test
+    void precompute_userWithNeighbour_recommendsTheAuctionsOfTheNeighbour() {
+        assertTrue(uut.precompute());
+
+        assertArrayEquals(new int[]{20, 21}, uut.getRecommendedAuctionIds(1).orElseThrow());
+        assertEquals(1, uut.getLastRunUsers());
+        assertTrue(uut.getStalenessMillis() >= 0);
+    }
+
+    @Test
+    void precompute_userWithoutNeighbour_keepsTheTopBidAuctions() {
+        uut.precompute();
+
+        assertTrue(uut.getRecommendedAuctionIds(4).isEmpty());
+        assertArrayEquals(new int[]{30, 20}, uut.getTopBidAuctionIds().orElseThrow());
+    }
+
+    @Test
+    void precompute_neighbourWithoutRunningAuction_returnsEmpty() {
+        when(neighbourFinder.getUserIds()).thenReturn(new int[]{1, 5});
+        when(neighbourFinder.topNeighbours(5, RecommendationServiceImpl.K_NEIGHBOURS)).thenReturn(new int[]{6});
+
+        uut.precompute();
+
+        assertTrue(uut.getRecommendedAuctionIds(5).isEmpty());
+        assertArrayEquals(new int[]{20, 21}, uut.getRecommendedAuctionIds(1).orElseThrow());
+    }
+
+    @Test
+    void onAuctionsClosed_allAuctionsOfTheNeighboursClosed_returnsEmpty() {
+        uut.precompute();
+
+        uut.onAuctionsClosed(new AuctionsClosedEvent(List.of(20, 21, 22)));
+
+        assertTrue(uut.getRecommendedAuctionIds(1).isEmpty());
+    }
+
+    @Test
+    void onAuctionsClosed_recommendedAuctionClosed_replacesIt() {
+        uut.precompute();
+
+        uut.onAuctionsClosed(new AuctionsClosedEvent(List.of(20)));
+
+        assertArrayEquals(new int[]{21, 22}, uut.getRecommendedAuctionIds(1).orElseThrow());
+        assertArrayEquals(new int[]{30}, uut.getTopBidAuctionIds().orElseThrow());
+        assertEquals(1, uut.getClosedAuctionsSinceLastRun());
+    }
+
+    @Test
+    void precompute_afterAuctionsClosed_forgetsTheClosedAuctions() {
+        uut.precompute();
+        uut.onAuctionsClosed(new AuctionsClosedEvent(List.of(20)));
+
+        uut.precompute();
+
+        assertEquals(0, uut.getClosedAuctionsSinceLastRun());
+    }
+
+    @Test
+    void onBidPlaced_configuredNumberOfBids_startsARun() {
+        for (int bid = 1; bid <= 3; bid++) {
+            uut.onBidPlaced(new BidPlacedEvent(bid, 20, 2, 1));
+        }
+
+        verify(neighbourFinder, timeout(5_000).times(1)).getUserIds();
+    }
+
+    @Test
+    void scheduledPrecompute_runsOnThePrecomputerThread() {
+        Thread schedulerThread = Thread.currentThread();
+        AtomicReference<Thread> runThread = new AtomicReference<>();
+        when(neighbourFinder.getUserIds()).thenAnswer(invocation -> {
+            runThread.set(Thread.currentThread());
+            return new int[]{1};
+        });
+
+        uut.scheduledPrecompute();
+
+        verify(neighbourFinder, timeout(5_000).times(1)).getUserIds();
+        assertNotEquals(schedulerThread, runThread.get());
+    }
+
+    @Test
+    void precompute_databaseFailure_keepsThePreviousRecommendations() {
+        uut.precompute();
+        when(auctionRepository.findOwnerViewsOfRunningAuctions(eq(ACTIVE), any(OffsetDateTime.class)))
+                .thenThrow(new IllegalStateException("connection lost"));
+
+        assertFalse(uut.precompute());
+
+        assertArrayEquals(new int[]{20, 21}, uut.getRecommendedAuctionIds(1).orElseThrow());
+    }
+
+    /**
+     * Measures the throughput of a run over 100 000 users whose neighbour runs 10 auctions. The users per second are
+     * logged, the assertion only guards against a run that stopped being parallel and allocation free.
+     */
+    @Test
+    @Tag("benchmark")
+    void precompute_manyUsers_reportsTheThroughput() {
+        int users = 100_000;
+        List<AuctionOwnerView> runningAuctions = new ArrayList<>();
+        for (int owner = 1; owner <= users; owner++) {
+            for (int auction = 0; auction < 10; auction++) {
+                runningAuctions.add(ownerView(owner * 10 + auction, owner));
+            }
+        }
+        when(auctionRepository.findOwnerViewsOfRunningAuctions(eq(ACTIVE), any(OffsetDateTime.class))).thenReturn(runningAuctions);
+        when(neighbourFinder.getUserIds()).thenReturn(IntStream.rangeClosed(1, users).toArray());
+        when(neighbourFinder.topNeighbours(anyInt(), anyInt()))
+                .thenAnswer(invocation -> new int[]{invocation.<Integer>getArgument(0) % users + 1});
+
+        assertTrue(uut.precompute());
+
+        LOGGER.info("Precomputed {} users in {} ms, {} users/s.", uut.getLastRunUsers(), uut.getLastRunMillis(), uut.getUsersPerSecond());
+        assertEquals(users, uut.getLastRunUsers());
+        assertArrayEquals(new int[]{20, 21}, uut.getRecommendedAuctionIds(1).orElseThrow());
+    }
+
+    private static AuctionOwnerView ownerView(int auctionId, int ownerId) {
+        return new OwnerView(auctionId, ownerId);
+    }
+
+    private static Auction auction(int id) {
+        Auction auction = new Auction();
+        auction.setId(id);
+        return auction;
+    }
+
+    private record OwnerView(Integer getId, Integer getUserId) implements AuctionOwnerView {
+    }
+}
@@ -1,9 +1,14 @@
 package com.auctions.hunters.service.ml;
 
+import com.auctions.hunters.config.RecommendationProperties;
 import com.auctions.hunters.model.Auction;
 import com.auctions.hunters.model.Car;
 import com.auctions.hunters.model.User;
+import com.auctions.hunters.model.enums.AuctionStatus;
+import com.auctions.hunters.model.projection.AuctionOwnerView;
+import com.auctions.hunters.repository.AuctionRepository;
 import com.auctions.hunters.service.auction.AuctionService;
+import com.auctions.hunters.service.bid.BidService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,13 +16,19 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.OffsetDateTime;
-import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
+import static com.auctions.hunters.model.enums.AuctionStatus.ACTIVE;
+import static com.auctions.hunters.model.enums.AuctionStatus.CLOSED;
 import static com.auctions.hunters.model.enums.CarStatus.NOT_AUCTIONED;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.mockito.MockitoAnnotations.openMocks;
 
@@ -26,6 +37,18 @@ class RecommendationServiceImplTest {
 
     @Mock
     private AuctionService auctionService;
+    @Mock
+    private BidService bidService;
+    @Mock
+    private NeighbourFinder neighbourFinder;
+    @Mock
+    private RecommendationPrecomputer recommendationPrecomputer;
+    @Mock
+    private CarSimilarityIndex carSimilarityIndex;
+    @Mock
+    private AuctionRepository auctionRepository;
+    @Mock
+    private RecommendationProperties recommendationProperties;
 
     private RecommendationService uut;
 
@@ -36,7 +59,7 @@ class RecommendationServiceImplTest {
     @BeforeEach
     void setUp() {
         openMocks(this);
-        uut = spy(new RecommendationServiceImpl(auctionService));
+        uut = spy(new RecommendationServiceImpl(auctionService, bidService, neighbourFinder, recommendationPrecomputer, carSimilarityIndex));
 
         user = new User();
         user.setId(1);
@@ -61,30 +84,172 @@ class RecommendationServiceImplTest {
 
     @Test
     void getRecommendedAuctionedCarsForUser_returnsSuccess() {
-        when(auctionService.getAllAuctionsByUserId(anyInt())).thenReturn(expectedAuctionList);
-        when(auctionService.getBidderIds(anyInt())).thenReturn(Collections.singletonList(user.getId()));
+        when(neighbourFinder.topNeighbours(anyInt(), anyInt())).thenReturn(new int[0]);
         when(auctionService.getTopBidAuctions(anyInt())).thenReturn(expectedAuctionList);
 
         List<Car> recommendedAuctionedCarsForUser = uut.getRecommendedAuctionedCarsForUser(user);
 
         assertNotNull(recommendedAuctionedCarsForUser);
-        verify(auctionService, times(1)).getAllAuctionsByUserId(anyInt());
-        verify(auctionService, times(1)).getBidderIds(anyInt());
+        verify(neighbourFinder, times(1)).topNeighbours(user.getId(), 1);
+        verify(auctionService, never()).getBidderIds(anyInt());
         verify(auctionService, times(1)).getTopBidAuctions(anyInt());
     }
 
     @Test
     void getUnfinishedRecommendedAuctions_returnsSuccess() {
-        when(auctionService.getAllAuctionsByUserId(anyInt())).thenReturn(expectedAuctionList);
-        when(auctionService.getBidderIds(anyInt())).thenReturn(Collections.singletonList(user.getId()));
+        when(neighbourFinder.topNeighbours(anyInt(), anyInt())).thenReturn(new int[0]);
         when(auctionService.getTopBidAuctions(anyInt())).thenReturn(expectedAuctionList);
 
         List<Auction> recommendedAuctionedForUser = uut.getUnfinishedRecommendedAuctions(user);
 
         assertNotNull(recommendedAuctionedForUser);
         assertEquals(expectedAuctionList, recommendedAuctionedForUser);
-        verify(auctionService, times(1)).getAllAuctionsByUserId(anyInt());
-        verify(auctionService, times(1)).getBidderIds(anyInt());
+        verify(neighbourFinder, times(1)).topNeighbours(user.getId(), 1);
+        verify(auctionService, never()).getBidderIds(anyInt());
         verify(auctionService, times(1)).getTopBidAuctions(anyInt());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getUnfinishedRecommendedAuctions_withNeighbour_returnsTheAuctionsOfTheNeighbour() {
+        Auction neighbourAuction = neighbourAuction(2, ACTIVE, OffsetDateTime.now().minusHours(1), OffsetDateTime.now().plusDays(1));
+        when(neighbourFinder.topNeighbours(anyInt(), anyInt())).thenReturn(new int[]{2});
+        when(auctionService.getAllAuctionsByUserIds(List.of(2))).thenReturn(List.of(neighbourAuction));
+
+        List<Auction> recommendedAuctionedForUser = uut.getUnfinishedRecommendedAuctions(user);
+
+        assertEquals(List.of(neighbourAuction), recommendedAuctionedForUser);
+        //a single query loads the auctions of all the neighbours
+        verify(auctionService, times(1)).getAllAuctionsByUserIds(anyList());
+        verify(auctionService, never()).getAllAuctionsByUserId(anyInt());
+        verify(auctionService, never()).getBidderIds(anyInt());
+        verify(auctionService, never()).getTopBidAuctions(anyInt());
+    }
+
+    @Test
+    void getUnfinishedRecommendedAuctions_neighbourWithoutAuction_readsThePrecomputedTopBidAuctions() {
+        when(neighbourFinder.topNeighbours(anyInt(), anyInt())).thenReturn(new int[]{2});
+        when(auctionService.getAllAuctionsByUserIds(List.of(2))).thenReturn(List.of());
+        when(recommendationPrecomputer.getTopBidAuctionIds()).thenReturn(Optional.of(new int[]{1}));
+        when(auctionService.getAuctionsByIds(List.of(1))).thenReturn(expectedAuctionList);
+
+        List<Auction> recommendedAuctionedForUser = uut.getUnfinishedRecommendedAuctions(user);
+
+        assertEquals(expectedAuctionList, recommendedAuctionedForUser);
+        verify(auctionService, times(1)).getAllAuctionsByUserIds(List.of(2));
+    }
+
+    @Test
+    void getUnfinishedRecommendedAuctions_userAmongItsNeighbours_leavesItsAuctionsOut() {
+        when(neighbourFinder.topNeighbours(anyInt(), anyInt())).thenReturn(new int[]{user.getId()});
+        when(auctionService.getTopBidAuctions(anyInt())).thenReturn(List.of());
+
+        List<Auction> recommendedAuctionedForUser = uut.getUnfinishedRecommendedAuctions(user);
+
+        assertEquals(List.of(), recommendedAuctionedForUser);
+        verify(auctionService, never()).getAllAuctionsByUserIds(anyList());
+    }
+
+    @Test
+    void getUnfinishedRecommendedAuctions_precomputedRecommendations_doesNotComputeThem() {
+        when(recommendationPrecomputer.getRecommendedAuctionIds(user.getId())).thenReturn(Optional.of(new int[]{1}));
+        when(auctionService.getAuctionsByIds(List.of(1))).thenReturn(expectedAuctionList);
+
+        List<Auction> recommendedAuctionedForUser = uut.getUnfinishedRecommendedAuctions(user);
+
+        assertEquals(expectedAuctionList, recommendedAuctionedForUser);
+        verifyNoInteractions(neighbourFinder);
+        verify(auctionService, never()).getAllAuctionsByUserId(anyInt());
+        verify(auctionService, never()).getTopBidAuctions(anyInt());
+    }
+
+    @Test
+    void getUnfinishedRecommendedAuctions_withoutNeighbourWithBids_returnsTheAuctionsWithSimilarCars() {
+        Auction biddenAuction = new Auction();
+        biddenAuction.setId(3);
+        biddenAuction.setCar(car);
+        float[] profile = {1f};
+        when(neighbourFinder.topNeighbours(anyInt(), anyInt())).thenReturn(new int[0]);
+        when(bidService.findAuctionsByUser(user)).thenReturn(List.of(biddenAuction));
+        when(carSimilarityIndex.profileOf(List.of(car))).thenReturn(profile);
+        when(carSimilarityIndex.mostSimilar(eq(profile), eq(2), eq(user.getId()), any())).thenReturn(new int[]{1});
+        when(auctionService.getAuctionsByIds(List.of(1))).thenReturn(expectedAuctionList);
+
+        List<Auction> recommendedAuctionedForUser = uut.getUnfinishedRecommendedAuctions(user);
+
+        assertEquals(expectedAuctionList, recommendedAuctionedForUser);
+        verify(auctionService, never()).getTopBidAuctions(anyInt());
+    }
+
+    @Test
+    void getUnfinishedRecommendedAuctions_withoutNeighbourAndBids_readsThePrecomputedTopBidAuctions() {
+        when(neighbourFinder.topNeighbours(anyInt(), anyInt())).thenReturn(new int[0]);
+        when(recommendationPrecomputer.getTopBidAuctionIds()).thenReturn(Optional.of(new int[]{1}));
+        when(auctionService.getAuctionsByIds(List.of(1))).thenReturn(expectedAuctionList);
+
+        List<Auction> recommendedAuctionedForUser = uut.getUnfinishedRecommendedAuctions(user);
+
+        assertEquals(expectedAuctionList, recommendedAuctionedForUser);
+        verify(carSimilarityIndex, never()).mostSimilar(any(), anyInt(), anyInt(), any());
+        verify(auctionService, never()).getTopBidAuctions(anyInt());
+    }
+
+    @Test
+    void getRecommendedAuctionedCarsForUser_precomputedOrNot_returnsTheSameRunningAuctions() {
+        OffsetDateTime now = OffsetDateTime.now();
+        Auction notStarted = neighbourAuction(6, ACTIVE, now.plusHours(1), now.plusDays(1));
+        Auction running = neighbourAuction(5, ACTIVE, now.minusHours(1), now.plusDays(1));
+        Auction closed = neighbourAuction(3, CLOSED, now.minusDays(2), now.minusDays(1));
+        Auction firstRunning = neighbourAuction(4, ACTIVE, now.minusHours(2), now.plusDays(2));
+        List<Auction> neighbourAuctions = List.of(notStarted, running, closed, firstRunning);
+        when(neighbourFinder.topNeighbours(eq(user.getId()), anyInt())).thenReturn(new int[]{2});
+        when(auctionService.getAllAuctionsByUserIds(List.of(2))).thenReturn(neighbourAuctions);
+
+        List<Car> computedCars = uut.getRecommendedAuctionedCarsForUser(user);
+
+        //the query of the precomputer reads the running auctions only, ordered by id
+        AuctionOwnerView firstRunningView = ownerView(firstRunning);
+        AuctionOwnerView runningView = ownerView(running);
+        when(auctionRepository.findOwnerViewsOfRunningAuctions(eq(ACTIVE), any(OffsetDateTime.class)))
+                .thenReturn(List.of(firstRunningView, runningView));
+        when(neighbourFinder.getUserIds()).thenReturn(new int[]{user.getId()});
+        when(auctionService.getAuctionsByIds(anyList())).thenAnswer(invocation -> invocation.<List<Integer>>getArgument(0).stream()
+                .map(auctionId -> neighbourAuctions.stream().filter(auction -> auction.getId().equals(auctionId)).findFirst().orElseThrow())
+                .toList());
+        RecommendationPrecomputer precomputer = new RecommendationPrecomputer(auctionRepository, auctionService, neighbourFinder, recommendationProperties);
+        List<Car> precomputedCars;
+        try {
+            assertTrue(precomputer.precompute());
+            precomputedCars = new RecommendationServiceImpl(auctionService, bidService, neighbourFinder, precomputer, carSimilarityIndex)
+                    .getRecommendedAuctionedCarsForUser(user);
+        } finally {
+            precomputer.stop();
+        }
+
+        assertEquals(List.of(firstRunning.getCar(), running.getCar()), computedCars);
+        assertEquals(computedCars, precomputedCars);
+    }
+
+    private static Auction neighbourAuction(int id, AuctionStatus status, OffsetDateTime startTime, OffsetDateTime endTime) {
+        User neighbour = new User();
+        neighbour.setId(2);
+
+        Car neighbourCar = new Car();
+        neighbourCar.setId(id);
+
+        Auction auction = new Auction();
+        auction.setId(id);
+        auction.setUser(neighbour);
+        auction.setCar(neighbourCar);
+        auction.setStatus(status);
+        auction.setStartTime(startTime);
+        auction.setEndTime(endTime);
+        return auction;
+    }
+
+    private static AuctionOwnerView ownerView(Auction auction) {
+        AuctionOwnerView ownerView = mock(AuctionOwnerView.class);
+        when(ownerView.getId()).thenReturn(auction.getId());
+        when(ownerView.getUserId()).thenReturn(auction.getUser().getId());
+        return ownerView;
+    }
+}
@@ -0,0 +1,116 @@
+package com.auctions.hunters.service.notification;
+
+import com.auctions.hunters.config.EmailOutboxProperties;
+import com.auctions.hunters.model.Auction;
+import com.auctions.hunters.model.Car;
+import com.auctions.hunters.model.User;
+import com.auctions.hunters.repository.AuctionRepository;
+import com.auctions.hunters.repository.OutbidNotificationRepository;
+import com.auctions.hunters.repository.UserRepository;
+import com.auctions.hunters.service.email.EmailService;
+import com.auctions.hunters.service.email.EmailTemplateRenderer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Locale;
+
+import static com.auctions.hunters.model.enums.AuctionStatus.ACTIVE;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+@ExtendWith(MockitoExtension.class)
+class OutbidNotifierTest {
+
+    @Mock
+    private AuctionRepository auctionRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private OutbidNotificationRepository outbidNotificationRepository;
+    @Mock
+    private EmailService emailService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private EmailOutboxProperties emailOutboxProperties;
+
+    private OutbidNotifier uut;
+
+    private User user;
+    private Auction auction;
+
+    @BeforeEach
+    void setUp() {
+        openMocks(this);
+        lenient().when(emailOutboxProperties.getLocale()).thenReturn(Locale.forLanguageTag("ro"));
+        EmailTemplateRenderer emailTemplateRenderer = new EmailTemplateRenderer(emailOutboxProperties);
+        uut = spy(new OutbidNotifier(auctionRepository, userRepository, outbidNotificationRepository, emailService,
+                emailTemplateRenderer, transactionManager));
+
+        user = User.builder().id(1).username("Alex").email("alex@gmail.com").build();
+
+        Car car = new Car();
+        car.setId(1);
+        car.setProducer("BMW");
+        car.setModel("X5");
+
+        auction = new Auction();
+        auction.setId(1);
+        auction.setCar(car);
+        auction.setStatus(ACTIVE);
+        auction.setBuyerId(2);
+    }
+
+    @Test
+    void sendPendingNotifications_sameUserOutbidManyTimes_sendsOneEmail() {
+        when(auctionRepository.findAllById(anySet())).thenReturn(List.of(auction));
+        when(userRepository.findAllById(anySet())).thenReturn(List.of(user));
+
+        uut.onOutbid(new OutbidEvent(user.getId(), auction.getId()));
+        uut.onOutbid(new OutbidEvent(user.getId(), auction.getId()));
+        uut.onOutbid(new OutbidEvent(user.getId(), auction.getId()));
+        uut.sendPendingNotifications();
+
+        verify(emailService, times(1)).sendEmail(eq(user.getEmail()),
+                eq("Oferta dumneavoastră pentru BMW X5 a fost depășită."),
+                argThat(body -> body.contains("Salut Alex,") && body.contains("mașina BMW X5")));
+        verify(outbidNotificationRepository, times(1)).markNotified(user.getId(), auction.getId());
+    }
+
+    @Test
+    void sendPendingNotifications_userTookTheLeadBack_doesNotSendEmail() {
+        auction.setBuyerId(user.getId());
+        when(auctionRepository.findAllById(anySet())).thenReturn(List.of(auction));
+        when(userRepository.findAllById(anySet())).thenReturn(List.of(user));
+
+        uut.onOutbid(new OutbidEvent(user.getId(), auction.getId()));
+        uut.sendPendingNotifications();
+
+        verifyNoInteractions(emailService, outbidNotificationRepository);
+    }
+
+    @Test
+    void sendPendingNotifications_noEvent_doesNotQueryTheDatabase() {
+        uut.sendPendingNotifications();
+
+        verifyNoInteractions(auctionRepository, userRepository, emailService);
+    }
+
+    @Test
+    void sendPendingNotifications_eventsAlreadySent_doesNotSendThemAgain() {
+        when(auctionRepository.findAllById(anySet())).thenReturn(List.of(auction));
+        when(userRepository.findAllById(anySet())).thenReturn(List.of(user));
+
+        uut.onOutbid(new OutbidEvent(user.getId(), auction.getId()));
+        uut.sendPendingNotifications();
+        uut.sendPendingNotifications();
+
+        verify(emailService, times(1)).sendEmail(anyString(), anyString(), anyString());
+    }
+}
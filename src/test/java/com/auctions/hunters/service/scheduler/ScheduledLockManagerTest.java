@@ -0,0 +1,194 @@
+package com.auctions.hunters.service.scheduler;
+
+import com.auctions.hunters.repository.ScheduledLockRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+/**
+ * The two {@link ScheduledLockManager} objects stand for two instances of the application. Their repositories share
+ * a {@link LockTable}, which applies the statements of {@link ScheduledLockRepository} with a clock driven by the test.
+ */
+@ExtendWith(MockitoExtension.class)
+class ScheduledLockManagerTest {
+
+    private static final String LOCK_NAME = "job";
+    private static final Duration LOCK_AT_MOST_FOR = Duration.ofMinutes(10);
+    private static final Duration LOCK_AT_LEAST_FOR = Duration.ofMinutes(1);
+
+    @Mock
+    private ScheduledLockRepository firstRepository;
+    @Mock
+    private ScheduledLockRepository secondRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final LockTable lockTable = new LockTable();
+
+    private ScheduledLockManager firstInstance;
+    private ScheduledLockManager secondInstance;
+
+    @BeforeEach
+    void setUp() {
+        openMocks(this);
+        shareLockTable(firstRepository);
+        shareLockTable(secondRepository);
+
+        firstInstance = new ScheduledLockManager(firstRepository, transactionManager);
+        secondInstance = new ScheduledLockManager(secondRepository, transactionManager);
+    }
+
+    @Test
+    void executeWithLock_twoInstancesOnTheSameTick_runsTheJobOnce() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch tick = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        Future<Boolean> first = executor.submit(() -> {
+            tick.await();
+            return firstInstance.executeWithLock(LOCK_NAME, LOCK_AT_MOST_FOR, LOCK_AT_LEAST_FOR, runs::incrementAndGet);
+        });
+        Future<Boolean> second = executor.submit(() -> {
+            tick.await();
+            return secondInstance.executeWithLock(LOCK_NAME, LOCK_AT_MOST_FOR, LOCK_AT_LEAST_FOR, runs::incrementAndGet);
+        });
+        tick.countDown();
+
+        assertNotEquals(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, runs.get());
+        assertEquals(1, firstInstance.getExecutedJobs() + secondInstance.getExecutedJobs());
+        assertEquals(1, firstInstance.getSkippedJobs() + secondInstance.getSkippedJobs());
+        executor.shutdown();
+    }
+
+    @Test
+    void executeWithLock_jobEndsSoonerThanLockAtLeastFor_keepsTheLeaseUntilThen() {
+        assertTrue(firstInstance.executeWithLock(LOCK_NAME, LOCK_AT_MOST_FOR, LOCK_AT_LEAST_FOR, () -> lockTable.advance(Duration.ofSeconds(5))));
+
+        assertFalse(secondInstance.executeWithLock(LOCK_NAME, LOCK_AT_MOST_FOR, LOCK_AT_LEAST_FOR, () -> fail("the tick already ran")));
+
+        lockTable.advance(LOCK_AT_LEAST_FOR);
+        assertTrue(secondInstance.executeWithLock(LOCK_NAME, LOCK_AT_MOST_FOR, LOCK_AT_LEAST_FOR, () -> {
+        }));
+    }
+
+    @Test
+    void executeWithLock_holderDied_anotherInstanceTakesOverAfterTheLease() {
+        //an instance took the lease and died without releasing it
+        lockTable.tryAcquire(LOCK_NAME, "dead-instance", LOCK_AT_MOST_FOR.toMillis());
+        AtomicInteger runs = new AtomicInteger();
+
+        assertFalse(firstInstance.executeWithLock(LOCK_NAME, LOCK_AT_MOST_FOR, LOCK_AT_LEAST_FOR, runs::incrementAndGet));
+        lockTable.advance(LOCK_AT_MOST_FOR);
+        assertTrue(firstInstance.executeWithLock(LOCK_NAME, LOCK_AT_MOST_FOR, LOCK_AT_LEAST_FOR, runs::incrementAndGet));
+
+        assertEquals(1, runs.get());
+        assertEquals(firstInstance.getOwner(), lockTable.owner(LOCK_NAME));
+    }
+
+    @Test
+    void executeWithLock_jobFails_releasesTheLockAndRethrows() {
+        assertThrows(IllegalStateException.class, () -> firstInstance.executeWithLock(LOCK_NAME, LOCK_AT_MOST_FOR, LOCK_AT_LEAST_FOR, () -> {
+            throw new IllegalStateException("job failed");
+        }));
+
+        lockTable.advance(LOCK_AT_LEAST_FOR);
+        assertTrue(secondInstance.executeWithLock(LOCK_NAME, LOCK_AT_MOST_FOR, LOCK_AT_LEAST_FOR, () -> {
+        }));
+        assertEquals(0, firstInstance.getHeldLocks().length);
+        verify(firstRepository, times(1)).release(LOCK_NAME, firstInstance.getOwner(), LOCK_AT_LEAST_FOR.toMillis());
+    }
+
+    @Test
+    void executeWithLock_databaseUnavailable_skipsTheJob() {
+        when(firstRepository.tryAcquire(anyString(), anyString(), anyLong()))
+                .thenThrow(new DataAccessResourceFailureException("connection lost"));
+
+        boolean executed = firstInstance.executeWithLock(LOCK_NAME, LOCK_AT_MOST_FOR, LOCK_AT_LEAST_FOR, () -> fail("the lock was not taken"));
+
+        assertFalse(executed);
+        assertEquals(1, firstInstance.getLockErrors());
+        verify(firstRepository, never()).release(anyString(), anyString(), anyLong());
+    }
+
+    @Test
+    void executeWithLock_runningJob_recordsTheHoldTime() {
+        firstInstance.executeWithLock(LOCK_NAME, LOCK_AT_MOST_FOR, LOCK_AT_LEAST_FOR, () -> {
+            assertArrayEquals(new String[]{LOCK_NAME}, firstInstance.getHeldLocks());
+            sleep(20);
+        });
+
+        assertTrue(firstInstance.getLastHoldMillis() >= 20);
+        assertEquals(firstInstance.getLastHoldMillis(), firstInstance.getMaxHoldMillis());
+        assertEquals(0, firstInstance.getHeldLocks().length);
+    }
+
+    private void shareLockTable(ScheduledLockRepository repository) {
+        lenient().when(repository.tryAcquire(anyString(), anyString(), anyLong())).thenAnswer(invocation ->
+                lockTable.tryAcquire(invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2)));
+        lenient().when(repository.release(anyString(), anyString(), anyLong())).thenAnswer(invocation ->
+                lockTable.release(invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2)));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The scheduled_lock table, each statement being atomic like the row lock taken by the database.
+     */
+    private static class LockTable {
+        private final Map<String, long[]> leases = new HashMap<>(); //name -> {lockedAt, lockedUntil}
+        private final Map<String, String> owners = new HashMap<>();
+        private long now;
+
+        synchronized int tryAcquire(String name, String owner, long lockAtMostMillis) {
+            long[] lease = leases.get(name);
+            if (lease != null && lease[1] > now) {
+                return 0;
+            }
+            leases.put(name, new long[]{now, now + lockAtMostMillis});
+            owners.put(name, owner);
+            return 1;
+        }
+
+        synchronized int release(String name, String owner, long lockAtLeastMillis) {
+            long[] lease = leases.get(name);
+            if (lease == null || !owner.equals(owners.get(name))) {
+                return 0;
+            }
+            lease[1] = Math.max(now, lease[0] + lockAtLeastMillis);
+            return 1;
+        }
+
+        synchronized void advance(Duration duration) {
+            now += duration.toMillis();
+        }
+
+        synchronized String owner(String name) {
+            return owners.get(name);
+        }
+    }
+}
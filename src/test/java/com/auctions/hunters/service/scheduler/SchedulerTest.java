@@ -1,64 +1,90 @@
 package com.auctions.hunters.service.scheduler;
 
-import com.auctions.hunters.model.Auction;
-import com.auctions.hunters.model.Bid;
-import com.auctions.hunters.model.Car;
-import com.auctions.hunters.model.User;
-import com.auctions.hunters.service.bid.BidService;
-import com.auctions.hunters.service.email.EmailService;
-import com.auctions.hunters.service.user.UserService;
+import com.auctions.hunters.model.projection.OutbidCandidate;
+import com.auctions.hunters.repository.BidRepository;
+import com.auctions.hunters.service.notification.OutbidEvent;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
 
-import java.util.Collections;
-import java.util.List;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
-import static java.lang.Boolean.FALSE;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.openMocks;
 
 @ExtendWith(MockitoExtension.class)
 class SchedulerTest {
 
     @Mock
-    private UserService userService;
+    private BidRepository bidRepository;
     @Mock
-    private BidService bidService;
+    private ApplicationEventPublisher eventPublisher;
     @Mock
-    private EmailService emailService;
+    private ScheduledLockManager scheduledLockManager;
+    @Mock
+    private PlatformTransactionManager transactionManager;
 
-    @InjectMocks
     private Scheduler uut;
 
+    @BeforeEach
+    void setUp() {
+        openMocks(this);
+        lenient().when(scheduledLockManager.executeWithLock(eq(Scheduler.LOCK_NAME), any(Duration.class), any(Duration.class), any(Runnable.class)))
+                .thenAnswer(invocation -> {
+                    invocation.<Runnable>getArgument(3).run();
+                    return true;
+                });
+
+        uut = spy(new Scheduler(bidRepository, eventPublisher, scheduledLockManager, transactionManager));
+    }
+
+    @Test
+    void sendEmailIfUserBidsWereOvertaken_noOutbidUser_doesNotPublishEvents() {
+        when(bidRepository.streamOutbidCandidates()).thenReturn(Stream.empty());
+
+        uut.sendEmailIfUserBidsWereOvertaken();
+
+        verify(bidRepository, times(1)).streamOutbidCandidates();
+        verifyNoInteractions(eventPublisher);
+    }
+
     @Test
-    void sendEmailIfUserBidsWereOvertaken_userIsTopBidder_doesNotReceiveEmail() {
-        Car car = new Car();
-        car.setId(1);
-        User user1 = new User();
-        user1.setId(1);
-        user1.setReminder(FALSE);
-        user1.setCarList(Collections.singletonList(car));
-        User user2 = new User();
-        user2.setId(2);
-        Auction auction = new Auction();
-        auction.setId(1);
-        auction.setCar(car);
-        Bid bid = Bid.builder()
-                .user(user1)
-                .id(1)
-                .auction(auction)
-                .amount(11)
-                .build();
-        when(userService.findAll()).thenReturn(List.of(user1, user2));
-        when(bidService.findAuctionsByUser(user1)).thenReturn(Collections.singletonList(auction));
-        when(bidService.findUserBidsForAuction(user1, auction.getId())).thenReturn(Collections.singletonList(bid));
+    void sendEmailIfUserBidsWereOvertaken_outbidUsers_publishesOneEventPerPairAndClosesTheStream() {
+        AtomicBoolean closed = new AtomicBoolean();
+        Stream<OutbidCandidate> candidates = Stream.of(candidate(1, 10), candidate(2, 10), candidate(1, 11))
+                .onClose(() -> closed.set(true));
+        when(bidRepository.streamOutbidCandidates()).thenReturn(candidates);
 
         uut.sendEmailIfUserBidsWereOvertaken();
 
-        verify(userService, times(1)).findAll();
-        verify(bidService, times(1)).findAuctionsByUser(user1);
-        verify(bidService, times(1)).findUserBidsForAuction(user1, auction.getId());
+        verify(eventPublisher, times(1)).publishEvent(new OutbidEvent(1, 10));
+        verify(eventPublisher, times(1)).publishEvent(new OutbidEvent(2, 10));
+        verify(eventPublisher, times(1)).publishEvent(new OutbidEvent(1, 11));
+        verify(bidRepository, times(1)).streamOutbidCandidates();
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void sendEmailIfUserBidsWereOvertaken_lockHeldByAnotherInstance_doesNotQueryTheDatabase() {
+        when(scheduledLockManager.executeWithLock(eq(Scheduler.LOCK_NAME), any(Duration.class), any(Duration.class), any(Runnable.class)))
+                .thenReturn(false);
+
+        uut.sendEmailIfUserBidsWereOvertaken();
+
+        verifyNoInteractions(bidRepository, eventPublisher, transactionManager);
+    }
+
+    private OutbidCandidate candidate(Integer userId, Integer auctionId) {
+        OutbidCandidate candidate = mock(OutbidCandidate.class);
+        when(candidate.getUserId()).thenReturn(userId);
+        when(candidate.getAuctionId()).thenReturn(auctionId);
+        return candidate;
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package com.auctions.hunters.service.user;
 
+import com.auctions.hunters.config.EmailOutboxProperties;
 import com.auctions.hunters.exceptions.EmailAlreadyExistsException;
 import com.auctions.hunters.exceptions.InvalidEmailException;
 import com.auctions.hunters.exceptions.ResourceNotFoundException;
@@ -10,6 +11,7 @@ import com.auctions.hunters.repository.UserRepository;
 import com.auctions.hunters.security.PasswordEncoder;
 import com.auctions.hunters.service.confirmationtoken.ConfirmationTokenService;
 import com.auctions.hunters.service.email.EmailService;
+import com.auctions.hunters.service.email.EmailTemplateRenderer;
 import com.auctions.hunters.service.role.RoleService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -26,12 +28,11 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 
 import static com.auctions.hunters.util.RoleUtils.NOW;
 import static com.auctions.hunters.utils.DateUtils.getDateTime;
-import static java.lang.Boolean.FALSE;
-import static java.lang.Boolean.TRUE;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
@@ -52,6 +53,8 @@ class UserServiceImplTest {
     private EmailService emailService;
     @Mock
     private BCryptPasswordEncoder bCryptPasswordEncoder;
+    @Mock
+    private EmailOutboxProperties emailOutboxProperties;
 
     private UserService uut;
 
@@ -62,14 +65,14 @@ class UserServiceImplTest {
     @BeforeEach
     void setUp() {
         openMocks(this);
+        lenient().when(emailOutboxProperties.getLocale()).thenReturn(Locale.forLanguageTag("ro"));
         uut = spy(new UserServiceImpl(userRepository, passwordEncoder, roleService,
-                confirmationTokenService, emailService));
+                confirmationTokenService, emailService, new EmailTemplateRenderer(emailOutboxProperties)));
 
         user = new User();
         user.setId(1);
         user.setUsername("Alex");
         user.setPassword("password");
-        user.setReminder(FALSE);
         user.setEmail("alex@yahoo.com");
 
         confirmationToken = new ConfirmationToken();
@@ -153,26 +156,6 @@ class UserServiceImplTest {
     }
 
 
-    @Test
-    void updateReminder_userExists_emailsReminderIsUpdated() {
-        when(userRepository.findById(anyInt())).thenReturn(Optional.ofNullable(user));
-        when(userRepository.save(any(User.class))).thenReturn(user);
-
-        uut.updateReminder(user.getId(), TRUE);
-
-        assertEquals(TRUE, user.getReminder());
-        verify(userRepository, times(1)).findById(anyInt());
-        verify(userRepository, times(1)).save(any(User.class));
-    }
-
-    @Test
-    void updateReminder_userDoesNotExist_throwsException() {
-        when(userRepository.findById(anyInt())).thenReturn(Optional.empty());
-
-        assertThrows(ResourceNotFoundException.class, () -> uut.updateReminder(eq(anyInt()), TRUE));
-        verify(userRepository, times(1)).findById(anyInt());
-    }
-
     @Test
     void isUserEmailAlreadyRegistered_existingEmail_returnsTrue() throws EmailAlreadyExistsException {
         final String expectedUserEmail = "alex@yahoo.com";
@@ -227,7 +210,8 @@ class UserServiceImplTest {
         verify(passwordEncoder, times(1)).bCryptPasswordEncoder();
         verify(userRepository, times(1)).save(any(User.class));
         verify(confirmationTokenService, times(1)).saveConfirmationToken(any(ConfirmationToken.class));
-        verify(emailService, times(1)).sendEmail(anyString(), anyString(), anyString());
+        verify(emailService, times(1)).sendEmail(eq(user.getEmail()), anyString(),
+                argThat(body -> body.contains("Draga Alex,") && body.contains("http://localhost:5000/confirm?token=" + registerToken)));
     }
 
     @Test
@@ -0,0 +1,148 @@
+package com.auctions.hunters.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A local SMTP sink for the tests. It speaks just enough SMTP for {@link org.springframework.mail.javamail.JavaMailSenderImpl}
+ * to deliver messages and keeps the raw messages in memory. It can be told to reject the next messages, like an
+ * overloaded mail server, or to drop its open connections, like a mail server closing its idle clients.
+ */
+public class FakeSmtpServer implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final Thread acceptor;
+    private final List<String> messages = new CopyOnWriteArrayList<>();
+    private final Set<Socket> clients = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger connections = new AtomicInteger();
+    private volatile int rejectedMessages;
+
+    public FakeSmtpServer() {
+        try {
+            serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        acceptor = new Thread(this::acceptConnections, "fake-smtp-server");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * The raw messages accepted so far, headers included.
+     */
+    public List<String> getMessages() {
+        return messages;
+    }
+
+    /**
+     * The number of connections accepted so far.
+     */
+    public int getConnections() {
+        return connections.get();
+    }
+
+    /**
+     * Closes the open connections without a reply, like a mail server dropping its idle clients.
+     */
+    public void disconnectClients() throws IOException {
+        for (Socket client : clients) {
+            client.close();
+        }
+    }
+
+    /**
+     * Rejects the next {@code count} messages with a transient error.
+     */
+    public void rejectNextMessages(int count) {
+        rejectedMessages = count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        acceptor.interrupt();
+    }
+
+    private void acceptConnections() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                clients.add(socket);
+                connections.incrementAndGet();
+                Thread session = new Thread(() -> handle(socket), "fake-smtp-session");
+                session.setDaemon(true);
+                session.start();
+            } catch (IOException e) {
+                //the server was closed
+            }
+        }
+    }
+
+    private void handle(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             OutputStream out = socket.getOutputStream()) {
+            reply(out, "220 localhost fake SMTP ready");
+
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.toUpperCase();
+                if (command.startsWith("EHLO")) {
+                    reply(out, "250-localhost");
+                    reply(out, "250 8BITMIME");
+                } else if (command.startsWith("DATA")) {
+                    reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                    String message = readMessage(in);
+                    if (rejectedMessages > 0) {
+                        rejectedMessages--;
+                        reply(out, "451 Try again later");
+                    } else {
+                        messages.add(message);
+                        reply(out, "250 OK");
+                    }
+                } else if (command.startsWith("QUIT")) {
+                    reply(out, "221 Bye");
+                    return;
+                } else {
+                    reply(out, "250 OK");
+                }
+            }
+        } catch (IOException e) {
+            //the connection was closed
+        } finally {
+            clients.remove(socket);
+        }
+    }
+
+    private static String readMessage(BufferedReader in) throws IOException {
+        StringBuilder message = new StringBuilder();
+        String line;
+        while ((line = in.readLine()) != null && !line.equals(".")) {
+            message.append(line.startsWith("..") ? line.substring(1) : line).append('\n');
+        }
+        return message.toString();
+    }
+
+    private static void reply(OutputStream out, String line) throws IOException {
+        out.write((line + "\r\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+}
@@ -0,0 +1,63 @@
+package com.auctions.hunters.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntIntHashMapTest {
+
+    @Test
+    void addTo_newAndExistingKeys_returnsTheNewValues() {
+        IntIntHashMap uut = new IntIntHashMap();
+
+        assertEquals(2, uut.addTo(7, 2));
+        assertEquals(5, uut.addTo(7, 3));
+        assertEquals(1, uut.addTo(8, 1));
+
+        assertEquals(5, uut.get(7));
+        assertEquals(0, uut.get(9));
+        assertEquals(2, uut.size());
+    }
+
+    @Test
+    void addTo_keyZero_throwsException() {
+        IntIntHashMap uut = new IntIntHashMap();
+
+        assertThrows(IllegalArgumentException.class, () -> uut.addTo(0, 1));
+    }
+
+    @Test
+    void remove_missingKey_returnsZero() {
+        IntIntHashMap uut = new IntIntHashMap();
+        uut.addTo(7, 2);
+
+        assertEquals(0, uut.remove(8));
+        assertEquals(2, uut.remove(7));
+        assertTrue(uut.isEmpty());
+    }
+
+    @Test
+    void randomOperations_behaveLikeAHashMap() {
+        IntIntHashMap uut = new IntIntHashMap();
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 200_000; i++) {
+            int key = 1 + random.nextInt(2_000);
+            if (random.nextInt(3) < 2) {
+                int delta = 1 + random.nextInt(5);
+                assertEquals(expected.merge(key, delta, Integer::sum), uut.addTo(key, delta));
+            } else {
+                Integer removed = expected.remove(key);
+                assertEquals(removed == null ? 0 : removed, uut.remove(key));
+            }
+        }
+
+        assertEquals(expected.size(), uut.size());
+        uut.forEach((key, value) -> assertEquals(expected.get(key), value));
+    }
+}
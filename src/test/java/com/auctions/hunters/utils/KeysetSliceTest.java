@@ -0,0 +1,86 @@
+package com.auctions.hunters.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetSliceTest {
+
+    private static final List<Integer> IDS = IntStream.rangeClosed(1, 25).boxed().toList();
+
+    @Test
+    void of_walkingForwards_visitsEveryRowOnce() {
+        KeysetSlice<Integer> first = read(KeysetRequest.first(10));
+        KeysetSlice<Integer> second = read(KeysetRequest.of(first.getNextCursor(), null, 10));
+        KeysetSlice<Integer> third = read(KeysetRequest.of(second.getNextCursor(), null, 10));
+
+        assertEquals(IDS.subList(0, 10), first.getContent());
+        assertFalse(first.hasPrevious());
+        assertTrue(first.hasNext());
+        assertEquals(IDS.subList(10, 20), second.getContent());
+        assertTrue(second.hasPrevious());
+        assertEquals(IDS.subList(20, 25), third.getContent());
+        assertFalse(third.hasNext());
+        assertNull(third.getNextCursor());
+    }
+
+    @Test
+    void of_walkingBackwardsFromTheEnd_returnsTheRowsInOrder() {
+        KeysetSlice<Integer> last = read(KeysetRequest.of(null, KeysetCursor.END.encode(), 10));
+        KeysetSlice<Integer> previous = read(KeysetRequest.of(null, last.getPreviousCursor(), 10));
+
+        assertEquals(IDS.subList(15, 25), last.getContent());
+        assertTrue(last.hasPrevious());
+        assertFalse(last.hasNext());
+        assertEquals(IDS.subList(5, 15), previous.getContent());
+        assertTrue(previous.hasNext());
+    }
+
+    @Test
+    void of_emptyRows_hasNoCursors() {
+        KeysetSlice<Integer> uut = KeysetSlice.of(List.of(), KeysetRequest.first(10), KeysetCursor::of, 0L);
+
+        assertTrue(uut.isEmpty());
+        assertNull(uut.getPreviousCursor());
+        assertNull(uut.getNextCursor());
+        assertEquals(0L, uut.getApproximateTotal());
+    }
+
+    @Test
+    void decode_encodedTimeCursor_returnsTheSameCursor() {
+        OffsetDateTime endTime = OffsetDateTime.parse("2024-03-01T10:15:30.123456Z");
+        KeysetCursor cursor = KeysetCursor.of(endTime, 7);
+
+        KeysetCursor decoded = KeysetCursor.decode(cursor.encode()).orElseThrow();
+
+        assertEquals(cursor, decoded);
+        assertTrue(endTime.isEqual(decoded.keyAsTime()));
+    }
+
+    @Test
+    void of_malformedTokens_readsTheFirstPage() {
+        assertTrue(KeysetCursor.decode("not a cursor!").isEmpty());
+        assertTrue(KeysetCursor.decode("AAAA").isEmpty());
+        assertTrue(KeysetRequest.of("not a cursor!", null, 10).isFirst());
+    }
+
+    /**
+     * Reads the rows of the request like the keyset queries do: ascending after the cursor, descending before it.
+     */
+    private static KeysetSlice<Integer> read(KeysetRequest request) {
+        List<Integer> rows;
+        if (request.isFirst()) {
+            rows = IDS.stream().limit(request.limit()).toList();
+        } else if (request.backwards()) {
+            rows = IDS.stream().sorted(Comparator.reverseOrder()).filter(id -> id < request.cursor().id()).limit(request.limit()).toList();
+        } else {
+            rows = IDS.stream().filter(id -> id > request.cursor().id()).limit(request.limit()).toList();
+        }
+        return KeysetSlice.of(rows, request, KeysetCursor::of, null);
+    }
+}
@@ -0,0 +1,102 @@
+package com.auctions.hunters.utils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class RebuildableIndexTest {
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private RebuildableIndex<List<String>, String> uut;
+
+    @BeforeEach
+    void setUp() {
+        uut = new RebuildableIndex<>("test index", new ArrayList<>(), List::add, transactionManager);
+    }
+
+    @Test
+    void apply_beforeTheFirstBuild_isReplayedOnTheLoadedState() {
+        uut.apply("b");
+
+        assertEquals(List.of(), state());
+
+        assertTrue(uut.rebuild(() -> new ArrayList<>(List.of("a"))));
+
+        assertEquals(List.of("a", "b"), state());
+    }
+
+    @Test
+    void apply_afterTheBuild_changesTheStateAtOnce() {
+        uut.rebuild(ArrayList::new);
+
+        uut.apply("a");
+
+        assertEquals(List.of("a"), state());
+    }
+
+    @Test
+    void rebuild_changesMadeDuringTheLoad_replaysOnlyTheUnseenOnes() {
+        uut.rebuild(ArrayList::new);
+
+        uut.rebuild(new RebuildableIndex.Loader<>() {
+
+            @Override
+            public List<String> load() {
+                uut.apply("seen");
+                uut.apply("unseen");
+                return new ArrayList<>(List.of("seen"));
+            }
+
+            @Override
+            public List<String> unseen(List<String> queuedChanges) {
+                assertEquals(List.of("seen", "unseen"), queuedChanges);
+                return List.of("unseen");
+            }
+        });
+
+        assertEquals(List.of("seen", "unseen"), state());
+    }
+
+    @Test
+    void rebuild_loadFailure_keepsTheCurrentStateAndAppliesTheQueuedChanges() {
+        uut.rebuild(() -> new ArrayList<>(List.of("a")));
+
+        boolean rebuilt = uut.rebuild(() -> {
+            uut.apply("b");
+            throw new DataAccessResourceFailureException("down");
+        });
+        uut.apply("c");
+
+        assertFalse(rebuilt);
+        assertEquals(List.of("a", "b", "c"), state());
+    }
+
+    @Test
+    void rebuild_loadsInAReadOnlyRepeatableReadTransaction() {
+        uut.rebuild(ArrayList::new);
+
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager).getTransaction(definition.capture());
+        assertTrue(definition.getValue().isReadOnly());
+        assertEquals(TransactionDefinition.ISOLATION_REPEATABLE_READ, definition.getValue().getIsolationLevel());
+    }
+
+    private List<String> state() {
+        return uut.read(List::copyOf);
+    }
+}